@@ -0,0 +1,97 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of cache hits on a {@link Cache} from 1 up to 64 threads, with and without buffered reads.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+public class CacheBenchmark {
+    private static final int NUMBER_OF_KEYS = 1 << 16;
+    private static final int KEYS_MASK = NUMBER_OF_KEYS - 1;
+
+    @Param({ "false", "true" })
+    private boolean bufferReads;
+
+    private Cache<Integer, Integer> cache;
+
+    @Setup
+    public void setup() {
+        cache = CacheBuilder.<Integer, Integer>builder().setMaximumWeight(NUMBER_OF_KEYS).setBufferReads(bufferReads).build();
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final Integer[] keys = new Integer[NUMBER_OF_KEYS];
+        private int index;
+
+        @Setup
+        public void setup() {
+            Random random = new Random();
+            for (int i = 0; i < keys.length; i++) {
+                // skew the lookups towards a small set of hot keys like a real cache would see
+                keys[i] = (int) Math.abs(random.nextGaussian() * NUMBER_OF_KEYS / 8) & KEYS_MASK;
+            }
+        }
+
+        Integer next() {
+            return keys[index++ & KEYS_MASK];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer hit1Thread(Keys keys) {
+        return cache.get(keys.next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer hit4Threads(Keys keys) {
+        return cache.get(keys.next());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Integer hit16Threads(Keys keys) {
+        return cache.get(keys.next());
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Integer hit64Threads(Keys keys) {
+        return cache.get(keys.next());
+    }
+}
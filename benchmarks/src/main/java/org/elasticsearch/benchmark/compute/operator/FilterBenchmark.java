@@ -0,0 +1,132 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.compute.operator;
+
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BooleanVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.EvalOperator;
+import org.elasticsearch.compute.operator.FilterOperator;
+import org.elasticsearch.compute.operator.Operator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building the selected positions of {@link FilterOperator} from a dense boolean vector.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+public class FilterBenchmark {
+    private static final BlockFactory blockFactory = BlockFactory.getInstance(
+        new NoopCircuitBreaker("noop"),
+        BigArrays.NON_RECYCLING_INSTANCE
+    );
+
+    private static final int BLOCK_LENGTH = 8 * 1024;
+
+    static final DriverContext driverContext = new DriverContext(BigArrays.NON_RECYCLING_INSTANCE, blockFactory);
+
+    static {
+        // Smoke test all the expected values and force loading subclasses more like prod
+        try {
+            for (String selectivity : FilterBenchmark.class.getField("selectivity").getAnnotationsByType(Param.class)[0].value()) {
+                run(selectivity);
+            }
+        } catch (NoSuchFieldException e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Param({ "all", "half", "random_half", "sparse" })
+    public String selectivity;
+
+    private static BooleanVector test(String selectivity) {
+        try (BooleanVector.FixedBuilder builder = blockFactory.newBooleanVectorFixedBuilder(BLOCK_LENGTH)) {
+            for (int i = 0; i < BLOCK_LENGTH; i++) {
+                builder.appendBoolean(switch (selectivity) {
+                    case "all" -> true;
+                    case "half" -> i % 2 == 0;
+                    // a fixed pattern that the branch predictor can't learn
+                    case "random_half" -> Integer.bitCount(i * 0x9E3779B9) % 2 == 0;
+                    case "sparse" -> i % 100 == 0;
+                    default -> throw new UnsupportedOperationException();
+                });
+            }
+            return builder.build();
+        }
+    }
+
+    private static int expectedPositions(BooleanVector test) {
+        int count = 0;
+        for (int i = 0; i < test.getPositionCount(); i++) {
+            if (test.getBoolean(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Operator operator(BooleanVector test) {
+        return new FilterOperator(new EvalOperator.ExpressionEvaluator() {
+            @Override
+            public Block eval(Page page) {
+                test.incRef();
+                return test.asBlock();
+            }
+
+            @Override
+            public void close() {}
+        });
+    }
+
+    private static Page page() {
+        return new Page(blockFactory.newConstantLongBlockWith(1, BLOCK_LENGTH));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024 * BLOCK_LENGTH)
+    public void run() {
+        run(selectivity);
+    }
+
+    private static void run(String selectivity) {
+        BooleanVector test = test(selectivity);
+        int expected = expectedPositions(test);
+        try (Operator operator = operator(test)) {
+            Page output = null;
+            for (int i = 0; i < 1024; i++) {
+                operator.addInput(page());
+                output = operator.getOutput();
+            }
+            // We only check the last one
+            if (output.getPositionCount() != expected) {
+                throw new AssertionError("[" + selectivity + "] expected [" + expected + "] but was [" + output.getPositionCount() + "]");
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.compute.operator;
+
+import org.elasticsearch.compute.vectorization.ArrayKernels;
+import org.elasticsearch.compute.vectorization.Vectorization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link ArrayKernels} that back filters, arithmetic and aggregations on a table of {@link #COLUMNS} long columns and
+ * {@link #ROWS} rows, comparing the scalar kernels with the Vector API kernels. The table is processed in pages like the compute
+ * engine does and cycles through a few distinct pages to keep the memory bounded.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules=jdk.incubator.vector", "-Des.esql_vector_api_feature_flag_enabled=true" })
+public class VectorKernelsBenchmark {
+    static final int COLUMNS = 20;
+    static final int ROWS = 10_000_000;
+    private static final int BLOCK_LENGTH = 8 * 1024;
+    private static final int DISTINCT_PAGES = 16;
+
+    static {
+        // Smoke test that all operations return the same results with both implementations
+        VectorKernelsBenchmark scalar = new VectorKernelsBenchmark();
+        scalar.impl = "scalar";
+        scalar.setup();
+        VectorKernelsBenchmark vector = new VectorKernelsBenchmark();
+        vector.impl = Vectorization.isVectorized() ? "vector" : "scalar";
+        vector.setup();
+        try {
+            for (String operation : VectorKernelsBenchmark.class.getField("operation").getAnnotationsByType(Param.class)[0].value()) {
+                scalar.operation = operation;
+                vector.operation = operation;
+                long expected = scalar.run();
+                long actual = vector.run();
+                if (expected != actual) {
+                    throw new AssertionError("[" + operation + "] expected [" + expected + "] but was [" + actual + "]");
+                }
+            }
+        } catch (NoSuchFieldException e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Param({ "scalar", "vector" })
+    public String impl;
+
+    @Param({ "filter", "add", "sum", "min_max" })
+    public String operation;
+
+    private ArrayKernels kernels;
+    private long[][][] pages;
+    private final boolean[] mask = new boolean[BLOCK_LENGTH];
+    private final int[] positions = new int[BLOCK_LENGTH];
+    private final long[] result = new long[BLOCK_LENGTH];
+
+    @Setup
+    public void setup() {
+        kernels = switch (impl) {
+            case "scalar" -> Vectorization.scalarKernels();
+            case "vector" -> {
+                if (Vectorization.isVectorized() == false) {
+                    throw new IllegalStateException("the Vector API kernels aren't available on this JVM");
+                }
+                yield Vectorization.kernels();
+            }
+            default -> throw new IllegalArgumentException("unsupported impl [" + impl + "]");
+        };
+        Random random = new Random(0);
+        pages = new long[DISTINCT_PAGES][COLUMNS][BLOCK_LENGTH];
+        for (long[][] page : pages) {
+            for (long[] column : page) {
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    column[i] = random.nextInt(1_000_000);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long run() {
+        long checksum = 0;
+        for (int row = 0; row < ROWS; row += BLOCK_LENGTH) {
+            long[][] page = pages[(row / BLOCK_LENGTH) % DISTINCT_PAGES];
+            int length = Math.min(BLOCK_LENGTH, ROWS - row);
+            checksum += switch (operation) {
+                case "filter" -> filter(page, length);
+                case "add" -> add(page, length);
+                case "sum" -> sum(page, length);
+                case "min_max" -> minMax(page, length);
+                default -> throw new IllegalArgumentException("unsupported operation [" + operation + "]");
+            };
+        }
+        return checksum;
+    }
+
+    /**
+     * {@code WHERE c0 < c1}, selecting about half of the rows in an order the branch predictor can't learn.
+     */
+    private long filter(long[][] page, int length) {
+        kernels.compare(ArrayKernels.Comparison.LT, page[0], page[1], length, mask);
+        return kernels.selectedPositions(mask, length, positions);
+    }
+
+    /**
+     * {@code EVAL c0 + c1, c2 + c3, ...}.
+     */
+    private long add(long[][] page, int length) {
+        long checksum = 0;
+        for (int c = 0; c < COLUMNS; c += 2) {
+            if (kernels.addExact(page[c], page[c + 1], length, result) == false) {
+                throw new AssertionError("overflow");
+            }
+            checksum += result[length - 1];
+        }
+        return checksum;
+    }
+
+    /**
+     * {@code STATS SUM(c0), SUM(c1), ...}.
+     */
+    private long sum(long[][] page, int length) {
+        long checksum = 0;
+        for (long[] column : page) {
+            checksum = kernels.sum(checksum, column, length);
+        }
+        return checksum;
+    }
+
+    /**
+     * {@code STATS MIN(c0), MAX(c0), MIN(c1), ...}.
+     */
+    private long minMax(long[][] page, int length) {
+        long checksum = 0;
+        for (long[] column : page) {
+            checksum += kernels.min(Long.MAX_VALUE, column, length);
+            checksum += kernels.max(Long.MIN_VALUE, column, length);
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.benchmark.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AsyncIOProcessor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Compares the number of translog fsyncs that write requests cause when each shard syncs its translog on its own, as
+ * {@link org.elasticsearch.index.engine.Engine#asyncEnsureTranslogSynced} does, with the number of fsyncs when a
+ * {@link TranslogSyncCoordinator} syncs all the shards of the node in rounds. The fsyncs are simulated by parking the syncing thread, and
+ * the {@code fsyncs} counter reports how many of them each mode performed for the same number of write requests.
+ */
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TranslogSyncBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(TranslogSyncBenchmark.class);
+
+    @Param({ "per_shard", "coordinated" })
+    public String mode;
+
+    @Param({ "10", "100" })
+    public int shards;
+
+    @Param({ "8" })
+    public int writeThreads;
+
+    @Param({ "1000" })
+    public int requests;
+
+    @Param({ "200" })
+    public int fsyncMicros;
+
+    private final AtomicLong fsyncs = new AtomicLong();
+    private ExecutorService writeExecutor;
+    private ExecutorService syncExecutor;
+    private AtomicLong[] offsets;
+    private BiConsumer<Translog.Location, Consumer<Exception>>[] syncers;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class FsyncCounter {
+        public long fsyncs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            fsyncs = 0;
+        }
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        writeExecutor = Executors.newFixedThreadPool(writeThreads);
+        syncExecutor = Executors.newCachedThreadPool();
+        final TranslogSyncCoordinator coordinator = switch (mode) {
+            case "per_shard" -> null;
+            case "coordinated" -> new TranslogSyncCoordinator(threadContext, syncExecutor, System::nanoTime);
+            default -> throw new IllegalArgumentException("unknown mode [" + mode + "]");
+        };
+        offsets = new AtomicLong[shards];
+        syncers = new BiConsumer[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            offsets[shard] = new AtomicLong();
+            // syncs the translog of a shard like the engine does
+            final AsyncIOProcessor<Translog.Location> processor = new AsyncIOProcessor<>(logger, 1024, threadContext) {
+                @Override
+                protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) {
+                    fsync();
+                }
+            };
+            final BiConsumer<Translog.Location, Consumer<Exception>> syncer = processor::put;
+            syncers[shard] = coordinator == null ? syncer : coordinator.newShardQueue(syncer)::sync;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        writeExecutor.shutdownNow();
+        syncExecutor.shutdownNow();
+    }
+
+    private void fsync() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(fsyncMicros));
+        fsyncs.incrementAndGet();
+    }
+
+    @Benchmark
+    public void writeRequests(FsyncCounter counter) throws InterruptedException {
+        final long fsyncsBefore = fsyncs.get();
+        final CountDownLatch durable = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            final int shard = ThreadLocalRandom.current().nextInt(shards);
+            writeExecutor.execute(() -> {
+                final Translog.Location location = new Translog.Location(0, offsets[shard].incrementAndGet(), 1);
+                syncers[shard].accept(location, e -> durable.countDown());
+            });
+        }
+        durable.await();
+        counter.fsyncs += fsyncs.get() - fsyncsBefore;
+    }
+}
@@ -27,6 +27,29 @@ class JnaZstdLibrary implements ZstdLibrary {
         String ZSTD_getErrorName(long code);
 
         long ZSTD_decompress(Pointer dst, int dstLen, Pointer src, int srcLen);
+
+        Pointer ZSTD_createCCtx();
+
+        long ZSTD_freeCCtx(Pointer cctx);
+
+        long ZSTD_compress_usingDict(
+            Pointer cctx,
+            Pointer dst,
+            long dstLen,
+            Pointer src,
+            long srcLen,
+            Pointer dict,
+            long dictLen,
+            int compressionLevel
+        );
+
+        Pointer ZSTD_createDCtx();
+
+        long ZSTD_freeDCtx(Pointer dctx);
+
+        long ZSTD_decompress_usingDict(Pointer dctx, Pointer dst, long dstLen, Pointer src, long srcLen, Pointer dict, long dictLen);
+
+        long ZDICT_trainFromBuffer(Pointer dict, long dictLen, Pointer samples, long[] sampleSizes, int numSamples);
     }
 
     private final NativeFunctions functions;
@@ -78,4 +101,74 @@ class JnaZstdLibrary implements ZstdLibrary {
             src.buffer().remaining()
         );
     }
+
+    @Override
+    public long compressUsingDict(CloseableByteBuffer dst, CloseableByteBuffer src, CloseableByteBuffer dict, int compressionLevel) {
+        assert dst instanceof JnaCloseableByteBuffer;
+        assert src instanceof JnaCloseableByteBuffer;
+        assert dict instanceof JnaCloseableByteBuffer;
+        var nativeDst = (JnaCloseableByteBuffer) dst;
+        var nativeSrc = (JnaCloseableByteBuffer) src;
+        var nativeDict = (JnaCloseableByteBuffer) dict;
+        Pointer cctx = functions.ZSTD_createCCtx();
+        if (cctx == null) {
+            throw new OutOfMemoryError("failed to allocate a zstd compression context");
+        }
+        try {
+            return functions.ZSTD_compress_usingDict(
+                cctx,
+                nativeDst.memory.share(dst.buffer().position()),
+                dst.buffer().remaining(),
+                nativeSrc.memory.share(src.buffer().position()),
+                src.buffer().remaining(),
+                nativeDict.memory.share(dict.buffer().position()),
+                dict.buffer().remaining(),
+                compressionLevel
+            );
+        } finally {
+            functions.ZSTD_freeCCtx(cctx);
+        }
+    }
+
+    @Override
+    public long decompressUsingDict(CloseableByteBuffer dst, CloseableByteBuffer src, CloseableByteBuffer dict) {
+        assert dst instanceof JnaCloseableByteBuffer;
+        assert src instanceof JnaCloseableByteBuffer;
+        assert dict instanceof JnaCloseableByteBuffer;
+        var nativeDst = (JnaCloseableByteBuffer) dst;
+        var nativeSrc = (JnaCloseableByteBuffer) src;
+        var nativeDict = (JnaCloseableByteBuffer) dict;
+        Pointer dctx = functions.ZSTD_createDCtx();
+        if (dctx == null) {
+            throw new OutOfMemoryError("failed to allocate a zstd decompression context");
+        }
+        try {
+            return functions.ZSTD_decompress_usingDict(
+                dctx,
+                nativeDst.memory.share(dst.buffer().position()),
+                dst.buffer().remaining(),
+                nativeSrc.memory.share(src.buffer().position()),
+                src.buffer().remaining(),
+                nativeDict.memory.share(dict.buffer().position()),
+                dict.buffer().remaining()
+            );
+        } finally {
+            functions.ZSTD_freeDCtx(dctx);
+        }
+    }
+
+    @Override
+    public long trainFromBuffer(CloseableByteBuffer dict, CloseableByteBuffer samples, long[] sampleSizes) {
+        assert dict instanceof JnaCloseableByteBuffer;
+        assert samples instanceof JnaCloseableByteBuffer;
+        var nativeDict = (JnaCloseableByteBuffer) dict;
+        var nativeSamples = (JnaCloseableByteBuffer) samples;
+        return functions.ZDICT_trainFromBuffer(
+            nativeDict.memory.share(dict.buffer().position()),
+            dict.buffer().remaining(),
+            nativeSamples.memory.share(samples.buffer().position()),
+            sampleSizes,
+            sampleSizes.length
+        );
+    }
 }
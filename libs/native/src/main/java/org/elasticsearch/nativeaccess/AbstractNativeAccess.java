@@ -12,8 +12,11 @@ import org.elasticsearch.logging.LogManager;
 import org.elasticsearch.logging.Logger;
 import org.elasticsearch.nativeaccess.lib.JavaLibrary;
 import org.elasticsearch.nativeaccess.lib.NativeLibraryProvider;
+import org.elasticsearch.nativeaccess.lib.VectorLibrary;
 import org.elasticsearch.nativeaccess.lib.ZstdLibrary;
 
+import java.util.Optional;
+
 abstract class AbstractNativeAccess implements NativeAccess {
 
     protected static final Logger logger = LogManager.getLogger(NativeAccess.class);
@@ -21,11 +24,13 @@ abstract class AbstractNativeAccess implements NativeAccess {
     private final String name;
     private final JavaLibrary javaLib;
     private final Zstd zstd;
+    private final VectorSimilarityFunctions vectorSimilarityFunctions;
 
     protected AbstractNativeAccess(String name, NativeLibraryProvider libraryProvider) {
         this.name = name;
         this.javaLib = libraryProvider.getLibrary(JavaLibrary.class);
         this.zstd = new Zstd(libraryProvider.getLibrary(ZstdLibrary.class));
+        this.vectorSimilarityFunctions = libraryProvider.getLibrary(VectorLibrary.class).getVectorSimilarityFunctions();
     }
 
     String getName() {
@@ -42,6 +47,11 @@ abstract class AbstractNativeAccess implements NativeAccess {
         return zstd;
     }
 
+    @Override
+    public Optional<VectorSimilarityFunctions> getVectorSimilarityFunctions() {
+        return Optional.ofNullable(vectorSimilarityFunctions);
+    }
+
     @Override
     public CloseableByteBuffer newBuffer(int len) {
         assert len > 0;
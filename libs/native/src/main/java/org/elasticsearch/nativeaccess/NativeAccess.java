@@ -8,6 +8,8 @@
 
 package org.elasticsearch.nativeaccess;
 
+import java.util.Optional;
+
 /**
  * Provides access to native functionality needed by Elastisearch.
  */
@@ -35,6 +37,11 @@ public interface NativeAccess {
      */
     Zstd getZstd();
 
+    /**
+     * Returns native similarity functions over vectors held off-heap, if they are available on this platform and JVM.
+     */
+    Optional<VectorSimilarityFunctions> getVectorSimilarityFunctions();
+
     /**
      * Creates a new {@link CloseableByteBuffer}. The buffer must be used within the same thread
      * that it is created.
@@ -11,6 +11,8 @@ package org.elasticsearch.nativeaccess;
 import org.elasticsearch.logging.LogManager;
 import org.elasticsearch.logging.Logger;
 
+import java.util.Optional;
+
 class NoopNativeAccess implements NativeAccess {
 
     private static final Logger logger = LogManager.getLogger(NativeAccess.class);
@@ -35,6 +37,12 @@ class NoopNativeAccess implements NativeAccess {
         return null;
     }
 
+    @Override
+    public Optional<VectorSimilarityFunctions> getVectorSimilarityFunctions() {
+        logger.warn("cannot use native vector similarity functions because native access is not available");
+        return Optional.empty();
+    }
+
     @Override
     public CloseableByteBuffer newBuffer(int len) {
         logger.warn("cannot allocate buffer because native access is not available");
@@ -0,0 +1,61 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+
+/**
+ * Native similarity functions over vectors held in {@code java.lang.foreign.MemorySegment}s, typically slices of memory-mapped
+ * segment files, so vectors are compared where they are rather than copied onto the heap first. The functions are exposed as
+ * method handles since {@code MemorySegment} isn't part of the Java 17 API.
+ * <p>
+ *     The {@code 7u} functions take vectors of unsigned 7 bit values, one per byte, which is what the int8 scalar quantization of
+ *     Lucene produces. The {@code Float32} functions take vectors of little endian floats.
+ * </p>
+ * <p>
+ *     Every handle has the type {@code (MemorySegment a, MemorySegment b, int length)} where {@code length} is the number of
+ *     dimensions, and throws an {@link IllegalArgumentException} if either segment is too small for that many dimensions.
+ * </p>
+ * <p>
+ *     The {@link ByteBuffer} variants serve callers compiled against Java 17. They read {@code length} bytes from the position of
+ *     each buffer, which must be direct, such as the buffer of a {@link CloseableByteBuffer}.
+ * </p>
+ */
+public interface VectorSimilarityFunctions {
+    /**
+     * Produces the dot product of two vectors of unsigned 7 bit values, as an {@code int}.
+     */
+    MethodHandle dotProductHandle7u();
+
+    /**
+     * Produces the squared euclidean distance of two vectors of unsigned 7 bit values, as an {@code int}.
+     */
+    MethodHandle squareDistanceHandle7u();
+
+    /**
+     * Produces the dot product of two vectors of floats, as a {@code float}.
+     */
+    MethodHandle dotProductHandleFloat32();
+
+    /**
+     * Produces the squared euclidean distance of two vectors of floats, as a {@code float}.
+     */
+    MethodHandle squareDistanceHandleFloat32();
+
+    /**
+     * The dot product of two vectors of unsigned 7 bit values held in direct buffers.
+     */
+    int dotProduct7u(ByteBuffer a, ByteBuffer b, int length);
+
+    /**
+     * The squared euclidean distance of two vectors of unsigned 7 bit values held in direct buffers.
+     */
+    int squareDistance7u(ByteBuffer a, ByteBuffer b, int length);
+}
@@ -53,6 +53,74 @@ public final class Zstd {
         return (int) ret;
     }
 
+    /**
+     * Compress the content of {@code src} into {@code dst} at compression level {@code level} using the dictionary in {@code dict}, and
+     * return the number of compressed bytes. The result can only be decompressed with the same dictionary.
+     * {@link ByteBuffer#position()} and {@link ByteBuffer#limit()} of all {@link ByteBuffer}s are left unmodified.
+     */
+    public int compress(CloseableByteBuffer dst, CloseableByteBuffer src, CloseableByteBuffer dict, int level) {
+        Objects.requireNonNull(dst, "Null destination buffer");
+        Objects.requireNonNull(src, "Null source buffer");
+        Objects.requireNonNull(dict, "Null dictionary buffer");
+        long ret = zstdLib.compressUsingDict(dst, src, dict, level);
+        if (zstdLib.isError(ret)) {
+            throw new IllegalArgumentException(zstdLib.getErrorName(ret));
+        } else if (ret < 0 || ret > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Integer overflow? ret=" + ret);
+        }
+        return (int) ret;
+    }
+
+    /**
+     * Decompress the content of {@code src}, which was compressed with the dictionary in {@code dict}, into {@code dst}, and return the
+     * number of decompressed bytes. {@link ByteBuffer#position()} and {@link ByteBuffer#limit()} of all {@link ByteBuffer}s are left
+     * unmodified.
+     */
+    public int decompress(CloseableByteBuffer dst, CloseableByteBuffer src, CloseableByteBuffer dict) {
+        Objects.requireNonNull(dst, "Null destination buffer");
+        Objects.requireNonNull(src, "Null source buffer");
+        Objects.requireNonNull(dict, "Null dictionary buffer");
+        long ret = zstdLib.decompressUsingDict(dst, src, dict);
+        if (zstdLib.isError(ret)) {
+            throw new IllegalArgumentException(zstdLib.getErrorName(ret));
+        } else if (ret < 0 || ret > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Integer overflow? ret=" + ret);
+        }
+        return (int) ret;
+    }
+
+    /**
+     * Train a dictionary on the samples in {@code samples}, which holds the samples back to back with the given sizes, write it into
+     * {@code dict} and return its size, which is at most the number of remaining bytes of {@code dict}. Training needs many samples,
+     * typically about a hundred times the size of the dictionary, and fails with an {@link IllegalArgumentException} if there are not
+     * enough of them. {@link ByteBuffer#position()} and {@link ByteBuffer#limit()} of both {@link ByteBuffer}s are left unmodified.
+     */
+    public int trainDictionary(CloseableByteBuffer dict, CloseableByteBuffer samples, int[] sampleSizes) {
+        Objects.requireNonNull(dict, "Null dictionary buffer");
+        Objects.requireNonNull(samples, "Null samples buffer");
+        long totalSize = 0;
+        final long[] sizes = new long[sampleSizes.length];
+        for (int i = 0; i < sampleSizes.length; i++) {
+            if (sampleSizes[i] < 0) {
+                throw new IllegalArgumentException("Negative sample size: " + sampleSizes[i]);
+            }
+            sizes[i] = sampleSizes[i];
+            totalSize += sampleSizes[i];
+        }
+        if (totalSize > samples.buffer().remaining()) {
+            throw new IllegalArgumentException(
+                "Samples of " + totalSize + " bytes do not fit the " + samples.buffer().remaining() + " bytes of the samples buffer"
+            );
+        }
+        long ret = zstdLib.trainFromBuffer(dict, samples, sizes);
+        if (zstdLib.isError(ret)) {
+            throw new IllegalArgumentException(zstdLib.getErrorName(ret));
+        } else if (ret < 0 || ret > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Integer overflow? ret=" + ret);
+        }
+        return (int) ret;
+    }
+
     /**
      * Return the maximum number of compressed bytes given an input length.
      */
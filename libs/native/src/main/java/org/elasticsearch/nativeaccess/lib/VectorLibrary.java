@@ -0,0 +1,20 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess.lib;
+
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.nativeaccess.VectorSimilarityFunctions;
+
+public non-sealed interface VectorLibrary extends NativeLibrary {
+    /**
+     * Returns the vector similarity functions, or {@code null} if they aren't available on this platform.
+     */
+    @Nullable
+    VectorSimilarityFunctions getVectorSimilarityFunctions();
+}
@@ -21,4 +21,10 @@ public non-sealed interface ZstdLibrary extends NativeLibrary {
     String getErrorName(long code);
 
     long decompress(CloseableByteBuffer dst, CloseableByteBuffer src);
+
+    long compressUsingDict(CloseableByteBuffer dst, CloseableByteBuffer src, CloseableByteBuffer dict, int compressionLevel);
+
+    long decompressUsingDict(CloseableByteBuffer dst, CloseableByteBuffer src, CloseableByteBuffer dict);
+
+    long trainFromBuffer(CloseableByteBuffer dict, CloseableByteBuffer samples, long[] sampleSizes);
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess.jdk;
+
+import org.elasticsearch.logging.LogManager;
+import org.elasticsearch.logging.Logger;
+import org.elasticsearch.nativeaccess.VectorSimilarityFunctions;
+import org.elasticsearch.nativeaccess.lib.VectorLibrary;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static org.elasticsearch.nativeaccess.jdk.LinkerHelper.downcallHandle;
+
+final class JdkVectorLibrary implements VectorLibrary {
+
+    private static final Logger logger = LogManager.getLogger(JdkVectorLibrary.class);
+
+    static final VectorSimilarityFunctions INSTANCE;
+
+    static {
+        VectorSimilarityFunctions instance = null;
+        try {
+            System.loadLibrary("vec");
+            instance = new JdkVectorSimilarityFunctions();
+        } catch (LinkageError e) {
+            // the library isn't shipped for this platform, or is missing some functions
+            logger.debug("native vector similarity functions are not available", e);
+        }
+        INSTANCE = instance;
+    }
+
+    @Override
+    public VectorSimilarityFunctions getVectorSimilarityFunctions() {
+        return INSTANCE;
+    }
+
+    private static final class JdkVectorSimilarityFunctions implements VectorSimilarityFunctions {
+
+        private static final MethodHandle dot7u$mh = downcallHandle(
+            "vec_dot7u",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT)
+        );
+        private static final MethodHandle sqr7u$mh = downcallHandle(
+            "vec_sqr7u",
+            FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT)
+        );
+        private static final MethodHandle dotf32$mh = downcallHandle(
+            "vec_dotf32",
+            FunctionDescriptor.of(JAVA_FLOAT, ADDRESS, ADDRESS, JAVA_INT)
+        );
+        private static final MethodHandle sqrf32$mh = downcallHandle(
+            "vec_sqrf32",
+            FunctionDescriptor.of(JAVA_FLOAT, ADDRESS, ADDRESS, JAVA_INT)
+        );
+
+        private static final MethodHandle DOT_HANDLE_7U;
+        private static final MethodHandle SQR_HANDLE_7U;
+        private static final MethodHandle DOT_HANDLE_FLOAT32;
+        private static final MethodHandle SQR_HANDLE_FLOAT32;
+
+        static {
+            try {
+                var lookup = MethodHandles.lookup();
+                var intType = MethodType.methodType(int.class, MemorySegment.class, MemorySegment.class, int.class);
+                var floatType = MethodType.methodType(float.class, MemorySegment.class, MemorySegment.class, int.class);
+                DOT_HANDLE_7U = lookup.findStatic(JdkVectorSimilarityFunctions.class, "dotProduct7u", intType);
+                SQR_HANDLE_7U = lookup.findStatic(JdkVectorSimilarityFunctions.class, "squareDistance7u", intType);
+                DOT_HANDLE_FLOAT32 = lookup.findStatic(JdkVectorSimilarityFunctions.class, "dotProductFloat32", floatType);
+                SQR_HANDLE_FLOAT32 = lookup.findStatic(JdkVectorSimilarityFunctions.class, "squareDistanceFloat32", floatType);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        static int dotProduct7u(MemorySegment a, MemorySegment b, int length) {
+            checkBounds(a, b, length, Byte.BYTES);
+            try {
+                return (int) dot7u$mh.invokeExact(a, b, length);
+            } catch (Throwable t) {
+                throw new AssertionError(t);
+            }
+        }
+
+        static int squareDistance7u(MemorySegment a, MemorySegment b, int length) {
+            checkBounds(a, b, length, Byte.BYTES);
+            try {
+                return (int) sqr7u$mh.invokeExact(a, b, length);
+            } catch (Throwable t) {
+                throw new AssertionError(t);
+            }
+        }
+
+        static float dotProductFloat32(MemorySegment a, MemorySegment b, int length) {
+            checkBounds(a, b, length, Float.BYTES);
+            try {
+                return (float) dotf32$mh.invokeExact(a, b, length);
+            } catch (Throwable t) {
+                throw new AssertionError(t);
+            }
+        }
+
+        static float squareDistanceFloat32(MemorySegment a, MemorySegment b, int length) {
+            checkBounds(a, b, length, Float.BYTES);
+            try {
+                return (float) sqrf32$mh.invokeExact(a, b, length);
+            } catch (Throwable t) {
+                throw new AssertionError(t);
+            }
+        }
+
+        /**
+         * The native functions read {@code length} elements from both addresses unchecked, so the segments must be large enough.
+         */
+        private static void checkBounds(MemorySegment a, MemorySegment b, int length, int elementBytes) {
+            long bytes = (long) length * elementBytes;
+            if (length < 0 || a.byteSize() < bytes || b.byteSize() < bytes) {
+                throw new IllegalArgumentException(
+                    "vectors of [" + a.byteSize() + "] and [" + b.byteSize() + "] bytes can't hold [" + length + "] dimensions"
+                );
+            }
+        }
+
+        private static MemorySegment segment(ByteBuffer buffer) {
+            if (buffer.isDirect() == false) {
+                throw new IllegalArgumentException("vectors must be held in direct buffers");
+            }
+            return MemorySegment.ofBuffer(buffer);
+        }
+
+        @Override
+        public int dotProduct7u(ByteBuffer a, ByteBuffer b, int length) {
+            return dotProduct7u(segment(a), segment(b), length);
+        }
+
+        @Override
+        public int squareDistance7u(ByteBuffer a, ByteBuffer b, int length) {
+            return squareDistance7u(segment(a), segment(b), length);
+        }
+
+        @Override
+        public MethodHandle dotProductHandle7u() {
+            return DOT_HANDLE_7U;
+        }
+
+        @Override
+        public MethodHandle squareDistanceHandle7u() {
+            return SQR_HANDLE_7U;
+        }
+
+        @Override
+        public MethodHandle dotProductHandleFloat32() {
+            return DOT_HANDLE_FLOAT32;
+        }
+
+        @Override
+        public MethodHandle squareDistanceHandleFloat32() {
+            return SQR_HANDLE_FLOAT32;
+        }
+    }
+}
@@ -11,6 +11,7 @@ package org.elasticsearch.nativeaccess.jdk;
 import org.elasticsearch.nativeaccess.CloseableByteBuffer;
 import org.elasticsearch.nativeaccess.lib.ZstdLibrary;
 
+import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.MemorySegment;
 import java.lang.invoke.MethodHandle;
@@ -38,6 +39,22 @@ class JdkZstdLibrary implements ZstdLibrary {
         "ZSTD_decompress",
         FunctionDescriptor.of(JAVA_LONG, ADDRESS, JAVA_INT, ADDRESS, JAVA_INT)
     );
+    private static final MethodHandle createCCtx$mh = downcallHandle("ZSTD_createCCtx", FunctionDescriptor.of(ADDRESS));
+    private static final MethodHandle freeCCtx$mh = downcallHandle("ZSTD_freeCCtx", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    private static final MethodHandle compressUsingDict$mh = downcallHandle(
+        "ZSTD_compress_usingDict",
+        FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG, JAVA_INT)
+    );
+    private static final MethodHandle createDCtx$mh = downcallHandle("ZSTD_createDCtx", FunctionDescriptor.of(ADDRESS));
+    private static final MethodHandle freeDCtx$mh = downcallHandle("ZSTD_freeDCtx", FunctionDescriptor.of(JAVA_LONG, ADDRESS));
+    private static final MethodHandle decompressUsingDict$mh = downcallHandle(
+        "ZSTD_decompress_usingDict",
+        FunctionDescriptor.of(JAVA_LONG, ADDRESS, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG, ADDRESS, JAVA_LONG)
+    );
+    private static final MethodHandle trainFromBuffer$mh = downcallHandle(
+        "ZDICT_trainFromBuffer",
+        FunctionDescriptor.of(JAVA_LONG, ADDRESS, JAVA_LONG, ADDRESS, ADDRESS, JAVA_INT)
+    );
 
     @Override
     public long compressBound(int srcLen) {
@@ -100,4 +117,108 @@ class JdkZstdLibrary implements ZstdLibrary {
             throw new AssertionError(t);
         }
     }
+
+    @Override
+    public long compressUsingDict(CloseableByteBuffer dst, CloseableByteBuffer src, CloseableByteBuffer dict, int compressionLevel) {
+        assert dst instanceof JdkCloseableByteBuffer;
+        assert src instanceof JdkCloseableByteBuffer;
+        assert dict instanceof JdkCloseableByteBuffer;
+        var segmentDst = slice((JdkCloseableByteBuffer) dst);
+        var segmentSrc = slice((JdkCloseableByteBuffer) src);
+        var segmentDict = slice((JdkCloseableByteBuffer) dict);
+        MemorySegment cctx = createContext(createCCtx$mh, "compression");
+        try {
+            return (long) compressUsingDict$mh.invokeExact(
+                cctx,
+                segmentDst,
+                segmentDst.byteSize(),
+                segmentSrc,
+                segmentSrc.byteSize(),
+                segmentDict,
+                segmentDict.byteSize(),
+                compressionLevel
+            );
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        } finally {
+            freeContext(freeCCtx$mh, cctx);
+        }
+    }
+
+    @Override
+    public long decompressUsingDict(CloseableByteBuffer dst, CloseableByteBuffer src, CloseableByteBuffer dict) {
+        assert dst instanceof JdkCloseableByteBuffer;
+        assert src instanceof JdkCloseableByteBuffer;
+        assert dict instanceof JdkCloseableByteBuffer;
+        var segmentDst = slice((JdkCloseableByteBuffer) dst);
+        var segmentSrc = slice((JdkCloseableByteBuffer) src);
+        var segmentDict = slice((JdkCloseableByteBuffer) dict);
+        MemorySegment dctx = createContext(createDCtx$mh, "decompression");
+        try {
+            return (long) decompressUsingDict$mh.invokeExact(
+                dctx,
+                segmentDst,
+                segmentDst.byteSize(),
+                segmentSrc,
+                segmentSrc.byteSize(),
+                segmentDict,
+                segmentDict.byteSize()
+            );
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        } finally {
+            freeContext(freeDCtx$mh, dctx);
+        }
+    }
+
+    @Override
+    public long trainFromBuffer(CloseableByteBuffer dict, CloseableByteBuffer samples, long[] sampleSizes) {
+        assert dict instanceof JdkCloseableByteBuffer;
+        assert samples instanceof JdkCloseableByteBuffer;
+        var segmentDict = slice((JdkCloseableByteBuffer) dict);
+        var segmentSamples = slice((JdkCloseableByteBuffer) samples);
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segmentSizes = arena.allocate(JAVA_LONG.byteSize() * sampleSizes.length, JAVA_LONG.byteAlignment());
+            for (int i = 0; i < sampleSizes.length; i++) {
+                segmentSizes.setAtIndex(JAVA_LONG, i, sampleSizes[i]);
+            }
+            return (long) trainFromBuffer$mh.invokeExact(
+                segmentDict,
+                segmentDict.byteSize(),
+                segmentSamples,
+                segmentSizes,
+                sampleSizes.length
+            );
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    private static MemorySegment createContext(MethodHandle create, String type) {
+        final MemorySegment context;
+        try {
+            context = (MemorySegment) create.invokeExact();
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+        if (context.equals(MemorySegment.NULL)) {
+            throw new OutOfMemoryError("failed to allocate a zstd " + type + " context");
+        }
+        return context;
+    }
+
+    private static void freeContext(MethodHandle free, MemorySegment context) {
+        try {
+            long ignored = (long) free.invokeExact(context);
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    /**
+     * The segment of the remaining bytes of the given buffer.
+     */
+    private static MemorySegment slice(JdkCloseableByteBuffer buffer) {
+        return buffer.segment.asSlice(buffer.buffer().position(), buffer.buffer().remaining());
+    }
 }
@@ -12,7 +12,10 @@ import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
 import org.junit.BeforeClass;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.hamcrest.Matchers.equalTo;
 
@@ -102,6 +105,76 @@ public class ZstdTests extends ESTestCase {
         doTestRoundtrip(b);
     }
 
+    public void testDictionaryRoundtrip() {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            samples.add(randomDocument());
+        }
+        int samplesSize = samples.stream().mapToInt(sample -> sample.length).sum();
+        try (var samplesBuffer = nativeAccess.newBuffer(samplesSize); var dict = nativeAccess.newBuffer(16 * 1024)) {
+            int[] sampleSizes = new int[samples.size()];
+            for (int i = 0; i < sampleSizes.length; ++i) {
+                samplesBuffer.buffer().put(samples.get(i));
+                sampleSizes[i] = samples.get(i).length;
+            }
+            samplesBuffer.buffer().flip();
+            int dictSize = zstd.trainDictionary(dict, samplesBuffer, sampleSizes);
+            assertThat(dictSize, Matchers.greaterThan(0));
+            assertThat(dictSize, Matchers.lessThanOrEqualTo(16 * 1024));
+            assertThat(samplesBuffer.buffer().position(), equalTo(0));
+            assertThat(samplesBuffer.buffer().limit(), equalTo(samplesSize));
+            dict.buffer().limit(dictSize);
+
+            byte[] data = randomDocument();
+            try (
+                var original = nativeAccess.newBuffer(data.length);
+                var compressed = nativeAccess.newBuffer(zstd.compressBound(data.length));
+                var restored = nativeAccess.newBuffer(data.length)
+            ) {
+                original.buffer().put(0, data);
+                int compressedLength = zstd.compress(compressed, original, 1);
+                int compressedLengthWithDict = zstd.compress(compressed, original, dict, 1);
+                assertThat(compressedLengthWithDict, Matchers.lessThan(compressedLength));
+                compressed.buffer().limit(compressedLengthWithDict);
+                int decompressedLength = zstd.decompress(restored, compressed, dict);
+                assertThat(decompressedLength, equalTo(data.length));
+                assertThat(restored.buffer(), equalTo(original.buffer()));
+            }
+        }
+    }
+
+    public void testDictionaryValidation() {
+        try (var src = nativeAccess.newBuffer(100); var dst = nativeAccess.newBuffer(200); var dict = nativeAccess.newBuffer(1024)) {
+            var npe = expectThrows(NullPointerException.class, () -> zstd.compress(dst, src, null, 0));
+            assertThat(npe.getMessage(), equalTo("Null dictionary buffer"));
+            npe = expectThrows(NullPointerException.class, () -> zstd.decompress(dst, src, null));
+            assertThat(npe.getMessage(), equalTo("Null dictionary buffer"));
+            npe = expectThrows(NullPointerException.class, () -> zstd.trainDictionary(null, src, new int[] { 100 }));
+            assertThat(npe.getMessage(), equalTo("Null dictionary buffer"));
+            npe = expectThrows(NullPointerException.class, () -> zstd.trainDictionary(dict, null, new int[] { 100 }));
+            assertThat(npe.getMessage(), equalTo("Null samples buffer"));
+
+            var e = expectThrows(IllegalArgumentException.class, () -> zstd.trainDictionary(dict, src, new int[] { 50, -1 }));
+            assertThat(e.getMessage(), equalTo("Negative sample size: -1"));
+            e = expectThrows(IllegalArgumentException.class, () -> zstd.trainDictionary(dict, src, new int[] { 50, 51 }));
+            assertThat(e.getMessage(), equalTo("Samples of 101 bytes do not fit the 100 bytes of the samples buffer"));
+            // far too few samples to train on
+            expectThrows(IllegalArgumentException.class, () -> zstd.trainDictionary(dict, src, new int[] { 50, 50 }));
+        }
+    }
+
+    private static byte[] randomDocument() {
+        return ("{\"index\":{\"_index\":\"logs-"
+            + between(0, 9)
+            + "\",\"_id\":\""
+            + randomAlphaOfLength(20)
+            + "\"},\"host\":{\"name\":\"host-"
+            + between(0, 99)
+            + "\"},\"message\":\"GET /api/v1/resource/"
+            + between(0, 999)
+            + " HTTP/1.1 200\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
     private void doTestRoundtrip(byte[] data) {
         try (
             var original = nativeAccess.newBuffer(data.length);
@@ -0,0 +1,130 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.nativeaccess;
+
+import org.apache.lucene.util.Constants;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.BeforeClass;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.Matchers.containsString;
+
+public class VectorSimilarityFunctionsTests extends ESTestCase {
+
+    static VectorSimilarityFunctions functions;
+
+    @BeforeClass
+    public static void getFunctions() {
+        functions = NativeAccess.instance().getVectorSimilarityFunctions().orElse(null);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        // the published vec library covers every platform but windows
+        assumeFalse("the vec library isn't published for windows", Constants.WINDOWS);
+        assertNotNull("native vector similarity functions must be available when the vec library is published", functions);
+    }
+
+    public void test7u() throws Throwable {
+        int dims = randomIntBetween(1, 1024);
+        byte[] a = new byte[dims];
+        byte[] b = new byte[dims];
+        int expectedDot = 0;
+        int expectedSquare = 0;
+        for (int i = 0; i < dims; i++) {
+            a[i] = (byte) randomIntBetween(0, 127);
+            b[i] = (byte) randomIntBetween(0, 127);
+            expectedDot += a[i] * b[i];
+            expectedSquare += (a[i] - b[i]) * (a[i] - b[i]);
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segmentA = arena.allocate(dims);
+            MemorySegment segmentB = arena.allocate(dims);
+            MemorySegment.copy(MemorySegment.ofArray(a), 0, segmentA, 0, dims);
+            MemorySegment.copy(MemorySegment.ofArray(b), 0, segmentB, 0, dims);
+            assertEquals(expectedDot, (int) functions.dotProductHandle7u().invokeExact(segmentA, segmentB, dims));
+            assertEquals(expectedSquare, (int) functions.squareDistanceHandle7u().invokeExact(segmentA, segmentB, dims));
+        }
+    }
+
+    public void test7uByteBuffer() {
+        int dims = randomIntBetween(1, 1024);
+        int offset = randomIntBetween(0, 16);
+        byte[] a = new byte[dims];
+        byte[] b = new byte[dims];
+        int expectedDot = 0;
+        int expectedSquare = 0;
+        for (int i = 0; i < dims; i++) {
+            a[i] = (byte) randomIntBetween(0, 127);
+            b[i] = (byte) randomIntBetween(0, 127);
+            expectedDot += a[i] * b[i];
+            expectedSquare += (a[i] - b[i]) * (a[i] - b[i]);
+        }
+        ByteBuffer bufferA = ByteBuffer.allocateDirect(offset + dims).position(offset);
+        bufferA.put(offset, a);
+        ByteBuffer bufferB = ByteBuffer.allocateDirect(dims);
+        bufferB.put(0, b);
+        assertEquals(expectedDot, functions.dotProduct7u(bufferA, bufferB, dims));
+        assertEquals(expectedSquare, functions.squareDistance7u(bufferA, bufferB, dims));
+        assertEquals(offset, bufferA.position());
+
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> functions.dotProduct7u(ByteBuffer.wrap(a), bufferB, dims)
+        );
+        assertThat(e.getMessage(), containsString("direct buffers"));
+        e = expectThrows(IllegalArgumentException.class, () -> functions.squareDistance7u(bufferA, bufferB, dims + 1));
+        assertThat(e.getMessage(), containsString("can't hold [" + (dims + 1) + "] dimensions"));
+    }
+
+    public void testFloat32() throws Throwable {
+        int dims = randomIntBetween(1, 1024);
+        float[] a = new float[dims];
+        float[] b = new float[dims];
+        double expectedDot = 0;
+        double expectedSquare = 0;
+        for (int i = 0; i < dims; i++) {
+            a[i] = randomFloat() - 0.5f;
+            b[i] = randomFloat() - 0.5f;
+            expectedDot += a[i] * b[i];
+            expectedSquare += (a[i] - b[i]) * (a[i] - b[i]);
+        }
+        long bytes = (long) dims * Float.BYTES;
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segmentA = arena.allocate(bytes);
+            MemorySegment segmentB = arena.allocate(bytes);
+            MemorySegment.copy(MemorySegment.ofArray(a), 0, segmentA, 0, bytes);
+            MemorySegment.copy(MemorySegment.ofArray(b), 0, segmentB, 0, bytes);
+            assertEquals(expectedDot, (float) functions.dotProductHandleFloat32().invokeExact(segmentA, segmentB, dims), 1e-3);
+            assertEquals(expectedSquare, (float) functions.squareDistanceHandleFloat32().invokeExact(segmentA, segmentB, dims), 1e-3);
+        }
+    }
+
+    public void testSegmentTooSmall() {
+        int dims = randomIntBetween(2, 128);
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segmentA = arena.allocate(dims);
+            MemorySegment segmentB = arena.allocate(dims - 1);
+            IllegalArgumentException e = expectThrows(
+                IllegalArgumentException.class,
+                () -> { int ignored = (int) functions.dotProductHandle7u().invokeExact(segmentA, segmentB, dims); }
+            );
+            assertThat(e.getMessage(), containsString("can't hold [" + dims + "] dimensions"));
+            e = expectThrows(
+                IllegalArgumentException.class,
+                () -> { float ignored = (float) functions.dotProductHandleFloat32().invokeExact(segmentA, segmentA, dims); }
+            );
+            assertThat(e.getMessage(), containsString("can't hold [" + dims + "] dimensions"));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+#
+# Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+# or more contributor license agreements. Licensed under the Elastic License
+# 2.0 and the Server Side Public License, v 1; you may not use this file except
+# in compliance with, at your election, the Elastic License 2.0 or the Server
+# Side Public License, v 1.
+#
+
+# Builds the vec library for the host platform into <output>/<os>-<arch>, the layout the native
+# libraries of the distribution use. The output directory defaults to build/platform.
+#
+# The build uses the versioned binaries that publish_vec_binaries.sh uploads rather than this
+# script. To try local changes, build them here and put <output>/<os>-<arch> first on the
+# java.library.path of the tests.
+
+set -e
+
+cd "$(dirname "$0")"
+
+case "$(uname -s)" in
+  Linux) os=linux; lib=libvec.so; shared=-shared ;;
+  Darwin) os=darwin; lib=libvec.dylib; shared=-dynamiclib ;;
+  *) echo "unsupported os $(uname -s)"; exit 1 ;;
+esac
+
+case "$(uname -m)" in
+  x86_64) arch=x64; flags="-march=x86-64-v2" ;;
+  aarch64|arm64) arch=aarch64; flags="-march=armv8-a" ;;
+  *) echo "unsupported architecture $(uname -m)"; exit 1 ;;
+esac
+
+out="${1:-build/platform}/${os}-${arch}"
+mkdir -p "$out"
+${CC:-cc} -O3 $flags -fPIC $shared -Iinclude -o "$out/$lib" src/vec.c
+echo "built $out/$lib"
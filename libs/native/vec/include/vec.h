@@ -0,0 +1,32 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+#ifndef VEC_H
+#define VEC_H
+
+#include <stdint.h>
+
+#ifdef _MSC_VER
+#define EXPORT __declspec(dllexport)
+#else
+#define EXPORT __attribute__((externally_visible, visibility("default")))
+#endif
+
+// Dot product of two vectors of unsigned 7 bit values.
+EXPORT int32_t vec_dot7u(const int8_t *a, const int8_t *b, int32_t dims);
+
+// Squared euclidean distance of two vectors of unsigned 7 bit values.
+EXPORT int32_t vec_sqr7u(const int8_t *a, const int8_t *b, int32_t dims);
+
+// Dot product of two vectors of floats.
+EXPORT float vec_dotf32(const float *a, const float *b, int32_t elementCount);
+
+// Squared euclidean distance of two vectors of floats.
+EXPORT float vec_sqrf32(const float *a, const float *b, int32_t elementCount);
+
+#endif
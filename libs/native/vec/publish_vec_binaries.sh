@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+#
+# Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+# or more contributor license agreements. Licensed under the Elastic License
+# 2.0 and the Server Side Public License, v 1; you may not use this file except
+# in compliance with, at your election, the Elastic License 2.0 or the Server
+# Side Public License, v 1.
+#
+
+# Builds the vec library for every supported platform and uploads it as the versioned
+# org.elasticsearch:vec zip that libs/native/libraries depends on. Run it on an arm64 mac with
+# docker, which builds the linux libraries, after bumping VERSION here and vecVersion in
+# libs/native/libraries/build.gradle. Published versions are never overwritten.
+#
+# Usage: ARTIFACTORY_API_KEY=... ./publish_vec_binaries.sh
+
+set -e
+
+VERSION="1.0.0"
+REPOSITORY="https://artifactory.elastic.dev/artifactory/elasticsearch-native"
+ARTIFACT="$REPOSITORY/org/elasticsearch/vec/$VERSION/vec-$VERSION.zip"
+
+if [ "$(uname -s)" != "Darwin" ] || [ "$(uname -m)" != "arm64" ]; then
+  echo "the vec binaries must be published from an arm64 mac"
+  exit 1
+fi
+
+if [ -z "$ARTIFACTORY_API_KEY" ]; then
+  echo "ARTIFACTORY_API_KEY must be set"
+  exit 1
+fi
+
+if curl -sf -I "$ARTIFACT" > /dev/null; then
+  echo "$ARTIFACT already exists, bump the version"
+  exit 1
+fi
+
+cd "$(dirname "$0")"
+out="$(pwd)/build/publish"
+rm -rf "$out"
+mkdir -p "$out"
+
+./build.sh "$out"
+for platform in linux/arm64 linux/amd64; do
+  docker run --rm --platform "$platform" -v "$(pwd):/vec" -w /vec debian:bookworm \
+    bash -c "apt-get update -qq && apt-get install -y -qq gcc > /dev/null && ./build.sh build/publish"
+done
+
+(cd "$out" && zip -r "vec-$VERSION.zip" darwin-aarch64 linux-aarch64 linux-x64)
+curl -sf -X PUT -H "X-JFrog-Art-Api: $ARTIFACTORY_API_KEY" --data-binary "@$out/vec-$VERSION.zip" "$ARTIFACT"
+echo "published $ARTIFACT"
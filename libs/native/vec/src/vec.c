@@ -0,0 +1,178 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+#include <stddef.h>
+#include <stdint.h>
+#include "vec.h"
+
+#if defined(__aarch64__)
+#include <arm_neon.h>
+#elif defined(__x86_64__)
+#include <immintrin.h>
+#endif
+
+/*
+ * The 7u kernels widen products of bytes to 16 bits before accumulating into 32 bits. Both operands are at most 127, so a pair of
+ * products fits in a signed 16 bit lane, which is what lets x86 use maddubs.
+ */
+
+#if defined(__aarch64__)
+
+static inline int32_t dot7u_inner(const int8_t *a, const int8_t *b, int32_t dims) {
+    int32x4_t acc1 = vdupq_n_s32(0);
+    int32x4_t acc2 = vdupq_n_s32(0);
+    for (int32_t i = 0; i < dims; i += 16) {
+        int8x16_t va = vld1q_s8(a + i);
+        int8x16_t vb = vld1q_s8(b + i);
+        int16x8_t lo = vmull_s8(vget_low_s8(va), vget_low_s8(vb));
+        int16x8_t hi = vmull_high_s8(va, vb);
+        acc1 = vpadalq_s16(acc1, lo);
+        acc2 = vpadalq_s16(acc2, hi);
+    }
+    return vaddvq_s32(vaddq_s32(acc1, acc2));
+}
+
+static inline int32_t sqr7u_inner(const int8_t *a, const int8_t *b, int32_t dims) {
+    int32x4_t acc1 = vdupq_n_s32(0);
+    int32x4_t acc2 = vdupq_n_s32(0);
+    for (int32_t i = 0; i < dims; i += 16) {
+        int8x16_t va = vld1q_s8(a + i);
+        int8x16_t vb = vld1q_s8(b + i);
+        int16x8_t lo = vsubl_s8(vget_low_s8(va), vget_low_s8(vb));
+        int16x8_t hi = vsubl_high_s8(va, vb);
+        acc1 = vmlal_s16(acc1, vget_low_s16(lo), vget_low_s16(lo));
+        acc2 = vmlal_high_s16(acc2, lo, lo);
+        acc1 = vmlal_s16(acc1, vget_low_s16(hi), vget_low_s16(hi));
+        acc2 = vmlal_high_s16(acc2, hi, hi);
+    }
+    return vaddvq_s32(vaddq_s32(acc1, acc2));
+}
+
+#define STRIDE_7U 16
+#define HAS_SIMD_7U() 1
+
+#elif defined(__x86_64__)
+
+__attribute__((target("avx2")))
+static inline int32_t hsum_epi32(__m256i v) {
+    __m128i sum = _mm_add_epi32(_mm256_castsi256_si128(v), _mm256_extracti128_si256(v, 1));
+    sum = _mm_add_epi32(sum, _mm_shuffle_epi32(sum, _MM_SHUFFLE(1, 0, 3, 2)));
+    sum = _mm_add_epi32(sum, _mm_shuffle_epi32(sum, _MM_SHUFFLE(2, 3, 0, 1)));
+    return _mm_cvtsi128_si32(sum);
+}
+
+__attribute__((target("avx2")))
+static int32_t dot7u_inner(const int8_t *a, const int8_t *b, int32_t dims) {
+    const __m256i ones = _mm256_set1_epi16(1);
+    __m256i acc = _mm256_setzero_si256();
+    for (int32_t i = 0; i < dims; i += 32) {
+        __m256i va = _mm256_loadu_si256((const __m256i *) (a + i));
+        __m256i vb = _mm256_loadu_si256((const __m256i *) (b + i));
+        // multiplies unsigned by signed bytes and adds adjacent pairs into 16 bits
+        __m256i pairs = _mm256_maddubs_epi16(va, vb);
+        acc = _mm256_add_epi32(acc, _mm256_madd_epi16(pairs, ones));
+    }
+    return hsum_epi32(acc);
+}
+
+__attribute__((target("avx2")))
+static int32_t sqr7u_inner(const int8_t *a, const int8_t *b, int32_t dims) {
+    __m256i acc = _mm256_setzero_si256();
+    for (int32_t i = 0; i < dims; i += 32) {
+        __m256i va = _mm256_loadu_si256((const __m256i *) (a + i));
+        __m256i vb = _mm256_loadu_si256((const __m256i *) (b + i));
+        __m256i dlo = _mm256_sub_epi16(_mm256_cvtepu8_epi16(_mm256_castsi256_si128(va)),
+                                       _mm256_cvtepu8_epi16(_mm256_castsi256_si128(vb)));
+        __m256i dhi = _mm256_sub_epi16(_mm256_cvtepu8_epi16(_mm256_extracti128_si256(va, 1)),
+                                       _mm256_cvtepu8_epi16(_mm256_extracti128_si256(vb, 1)));
+        acc = _mm256_add_epi32(acc, _mm256_madd_epi16(dlo, dlo));
+        acc = _mm256_add_epi32(acc, _mm256_madd_epi16(dhi, dhi));
+    }
+    return hsum_epi32(acc);
+}
+
+#define STRIDE_7U 32
+// the library is built for a baseline that doesn't include avx2
+#define HAS_SIMD_7U() __builtin_cpu_supports("avx2")
+
+#endif
+
+EXPORT int32_t vec_dot7u(const int8_t *a, const int8_t *b, int32_t dims) {
+    int32_t res = 0;
+    int32_t i = 0;
+#ifdef STRIDE_7U
+    if (dims >= STRIDE_7U && HAS_SIMD_7U()) {
+        i = dims & ~(STRIDE_7U - 1);
+        res = dot7u_inner(a, b, i);
+    }
+#endif
+    for (; i < dims; i++) {
+        res += a[i] * b[i];
+    }
+    return res;
+}
+
+EXPORT int32_t vec_sqr7u(const int8_t *a, const int8_t *b, int32_t dims) {
+    int32_t res = 0;
+    int32_t i = 0;
+#ifdef STRIDE_7U
+    if (dims >= STRIDE_7U && HAS_SIMD_7U()) {
+        i = dims & ~(STRIDE_7U - 1);
+        res = sqr7u_inner(a, b, i);
+    }
+#endif
+    for (; i < dims; i++) {
+        int32_t dist = a[i] - b[i];
+        res += dist * dist;
+    }
+    return res;
+}
+
+/*
+ * The float kernels keep independent accumulators so the compiler can vectorize them without reassociating a single sum.
+ */
+
+#define FLOAT_LANES 16
+
+EXPORT float vec_dotf32(const float *a, const float *b, int32_t elementCount) {
+    float acc[FLOAT_LANES] = { 0 };
+    int32_t i = 0;
+    for (; i + FLOAT_LANES <= elementCount; i += FLOAT_LANES) {
+        for (int32_t j = 0; j < FLOAT_LANES; j++) {
+            acc[j] += a[i + j] * b[i + j];
+        }
+    }
+    float res = 0;
+    for (int32_t j = 0; j < FLOAT_LANES; j++) {
+        res += acc[j];
+    }
+    for (; i < elementCount; i++) {
+        res += a[i] * b[i];
+    }
+    return res;
+}
+
+EXPORT float vec_sqrf32(const float *a, const float *b, int32_t elementCount) {
+    float acc[FLOAT_LANES] = { 0 };
+    int32_t i = 0;
+    for (; i + FLOAT_LANES <= elementCount; i += FLOAT_LANES) {
+        for (int32_t j = 0; j < FLOAT_LANES; j++) {
+            float diff = a[i + j] - b[i + j];
+            acc[j] += diff * diff;
+        }
+    }
+    float res = 0;
+    for (int32_t j = 0; j < FLOAT_LANES; j++) {
+        res += acc[j];
+    }
+    for (; i < elementCount; i++) {
+        float diff = a[i] - b[i];
+        res += diff * diff;
+    }
+    return res;
+}
@@ -22,6 +22,7 @@ import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.PageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.http.HttpPreRequest;
 import org.elasticsearch.http.HttpServerTransport;
 import org.elasticsearch.http.netty4.Netty4HttpServerTransport;
@@ -81,6 +82,27 @@ public class Netty4Plugin extends Plugin implements NetworkPlugin {
         Setting.Property.NodeScope
     );
     public static final Setting<Integer> NETTY_BOSS_COUNT = intSetting("transport.netty.boss_count", 1, 1, Setting.Property.NodeScope);
+    /**
+     * How long the flush of an outbound transport message may be deferred so that it can be coalesced with the flushes of messages that
+     * become ready in the meantime. Disabled by default.
+     */
+    public static final Setting<TimeValue> NETTY_FLUSH_COALESCING_WINDOW = Setting.timeSetting(
+        "transport.netty.flush_coalescing.window",
+        TimeValue.ZERO,
+        TimeValue.ZERO,
+        TimeValue.timeValueMillis(100),
+        Setting.Property.NodeScope
+    );
+    /**
+     * The number of unflushed outbound bytes above which a flush is never deferred.
+     */
+    public static final Setting<ByteSizeValue> NETTY_FLUSH_COALESCING_MAX_BYTES = byteSizeSetting(
+        "transport.netty.flush_coalescing.max_bytes",
+        ByteSizeValue.ofKb(64),
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ofMb(16),
+        Setting.Property.NodeScope
+    );
     /*
      * Size in bytes of an individual message received by io.netty.handler.codec.MessageAggregator which accumulates the content for an
      * HTTP request. This number is used for estimating the maximum number of allowed buffers before the MessageAggregator's internal
@@ -133,7 +155,9 @@ public class Netty4Plugin extends Plugin implements NetworkPlugin {
             NETTY_RECEIVE_PREDICTOR_SIZE,
             NETTY_RECEIVE_PREDICTOR_MIN,
             NETTY_RECEIVE_PREDICTOR_MAX,
-            NETTY_BOSS_COUNT
+            NETTY_BOSS_COUNT,
+            NETTY_FLUSH_COALESCING_WINDOW,
+            NETTY_FLUSH_COALESCING_MAX_BYTES
         );
     }
 
@@ -37,6 +37,7 @@ import org.elasticsearch.common.util.PageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.SuppressForbidden;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.ConnectionProfile;
@@ -73,6 +74,8 @@ public class Netty4Transport extends TcpTransport {
     private final RecvByteBufAllocator recvByteBufAllocator;
     private final ByteSizeValue receivePredictorMin;
     private final ByteSizeValue receivePredictorMax;
+    private final TimeValue flushCoalescingWindow;
+    private final ByteSizeValue flushCoalescingMaxBytes;
     private final Map<String, ServerBootstrap> serverBootstraps = newConcurrentMap();
     private volatile Bootstrap clientBootstrap;
     private volatile SharedGroupFactory.SharedGroup sharedGroup;
@@ -106,6 +109,8 @@ public class Netty4Transport extends TcpTransport {
             );
         }
         this.remoteClusterPortEnabled = REMOTE_CLUSTER_SERVER_ENABLED.get(settings);
+        this.flushCoalescingWindow = Netty4Plugin.NETTY_FLUSH_COALESCING_WINDOW.get(settings);
+        this.flushCoalescingMaxBytes = Netty4Plugin.NETTY_FLUSH_COALESCING_MAX_BYTES.get(settings);
     }
 
     @Override
@@ -353,7 +358,15 @@ public class Netty4Transport extends TcpTransport {
         if (NetworkTraceFlag.TRACE_ENABLED) {
             pipeline.addLast("logging", ESLoggingHandler.INSTANCE);
         }
-        pipeline.addLast("chunked_writer", new Netty4WriteThrottlingHandler(getThreadPool().getThreadContext()));
+        pipeline.addLast(
+            "chunked_writer",
+            new Netty4WriteThrottlingHandler(
+                getThreadPool().getThreadContext(),
+                flushCoalescingWindow.nanos(),
+                flushCoalescingMaxBytes.getBytes(),
+                getMessagesPerFlushTracker()
+            )
+        );
         pipeline.addLast("dispatcher", new Netty4MessageInboundHandler(this, getInboundPipeline(ch, isRemoteClusterServerChannel)));
     }
 
@@ -18,22 +18,30 @@ import io.netty.channel.ChannelPromise;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 import io.netty.util.concurrent.PromiseCombiner;
+import io.netty.util.concurrent.ScheduledFuture;
 
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.network.HandlingTimeTracker;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.transport.Transports;
 
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Channel handler that queues up writes it receives and tries to only flush bytes as they can be written by the backing channel.
  * This is helpful in reducing heap usage with handlers like {@link io.netty.handler.ssl.SslHandler} that might otherwise themselves
  * buffer a large amount of data when the channel is not able to physically execute writes immediately.
+ * <p>
+ * Optionally, flushes are coalesced: rather than flushing the channel for every message, a flush is deferred for up to a configured
+ * window so that messages which become ready in the meantime are written to the socket by the same (gathering) write, unless the
+ * unflushed bytes exceed a configured budget in which case they are flushed right away.
  */
 public final class Netty4WriteThrottlingHandler extends ChannelDuplexHandler {
 
@@ -41,15 +49,46 @@ public final class Netty4WriteThrottlingHandler extends ChannelDuplexHandler {
     private final Queue<WriteOperation> queuedWrites = new LinkedList<>();
 
     private final ThreadContext threadContext;
+    private final long flushWindowNanos;
+    private final long flushMaxBytes;
+    @Nullable
+    private final HandlingTimeTracker messagesPerFlushTracker;
     private WriteOperation currentWrite;
 
+    // messages and bytes written since the last flush
+    private int unflushedMessages;
+    private long unflushedBytes;
+    @Nullable
+    private ScheduledFuture<?> scheduledFlush;
+
     public Netty4WriteThrottlingHandler(ThreadContext threadContext) {
+        this(threadContext, 0L, 0L, null);
+    }
+
+    /**
+     * @param flushWindowNanos        how long a flush may be deferred to coalesce it with the flushes of subsequent messages, or
+     *                                {@code 0} to flush immediately
+     * @param flushMaxBytes           the number of unflushed bytes above which a flush is never deferred
+     * @param messagesPerFlushTracker if not {@code null}, records the number of messages written by each flush
+     */
+    public Netty4WriteThrottlingHandler(
+        ThreadContext threadContext,
+        long flushWindowNanos,
+        long flushMaxBytes,
+        @Nullable HandlingTimeTracker messagesPerFlushTracker
+    ) {
+        assert flushWindowNanos >= 0 : flushWindowNanos;
         this.threadContext = threadContext;
+        this.flushWindowNanos = flushWindowNanos;
+        this.flushMaxBytes = flushMaxBytes;
+        this.messagesPerFlushTracker = messagesPerFlushTracker;
     }
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws IOException {
+        unflushedMessages += 1;
         if (msg instanceof BytesReference reference) {
+            unflushedBytes += reference.length();
             if (reference.hasArray()) {
                 writeSingleByteBuf(ctx, Unpooled.wrappedBuffer(reference.array(), reference.arrayOffset(), reference.length()), promise);
             } else {
@@ -65,6 +104,7 @@ public final class Netty4WriteThrottlingHandler extends ChannelDuplexHandler {
             }
         } else {
             assert msg instanceof ByteBuf;
+            unflushedBytes += ((ByteBuf) msg).readableBytes();
             writeSingleByteBuf(ctx, (ByteBuf) msg, promise);
         }
     }
@@ -123,6 +163,20 @@ public final class Netty4WriteThrottlingHandler extends ChannelDuplexHandler {
 
     @Override
     public void flush(ChannelHandlerContext ctx) {
+        if (flushWindowNanos > 0 && unflushedBytes < flushMaxBytes && ctx.channel().isActive()) {
+            // defer the flush so that messages written in the meantime go out with it, unless one is already pending
+            if (scheduledFlush == null) {
+                scheduledFlush = ctx.executor().schedule(() -> {
+                    scheduledFlush = null;
+                    flushNow(ctx);
+                }, flushWindowNanos, TimeUnit.NANOSECONDS);
+            }
+            return;
+        }
+        flushNow(ctx);
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
         if (doFlush(ctx) == false) {
             ctx.flush();
         }
@@ -134,13 +188,39 @@ public final class Netty4WriteThrottlingHandler extends ChannelDuplexHandler {
         super.channelInactive(ctx);
     }
 
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        cancelScheduledFlush();
+        super.handlerRemoved(ctx);
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private void recordFlush() {
+        if (unflushedMessages > 0 && messagesPerFlushTracker != null) {
+            messagesPerFlushTracker.addHandlingTime(unflushedMessages);
+        }
+        unflushedMessages = 0;
+        unflushedBytes = 0;
+    }
+
     private boolean doFlush(ChannelHandlerContext ctx) {
         assert ctx.executor().inEventLoop();
+        // every flush writes out whatever a scheduled flush would have written
+        cancelScheduledFlush();
         final Channel channel = ctx.channel();
         if (channel.isActive() == false) {
+            unflushedMessages = 0;
+            unflushedBytes = 0;
             failQueuedWrites();
             return false;
         }
+        recordFlush();
         while (channel.isWritable()) {
             if (currentWrite == null) {
                 currentWrite = queuedWrites.poll();
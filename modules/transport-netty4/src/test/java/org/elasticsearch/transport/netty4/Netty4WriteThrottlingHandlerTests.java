@@ -17,15 +17,20 @@ import io.netty.channel.embedded.EmbeddedChannel;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.network.HandlingTimeTracker;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.After;
 import org.junit.Before;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
@@ -165,6 +170,74 @@ public class Netty4WriteThrottlingHandlerTests extends ESTestCase {
         assertTrue(promiseForQueued.isDone());
     }
 
+    public void testCoalescesFlushesUntilByteBudgetExceeded() throws ExecutionException, InterruptedException {
+        final List<ByteBuf> seen = new CopyOnWriteArrayList<>();
+        final HandlingTimeTracker messagesPerFlush = new HandlingTimeTracker();
+        final int maxBytes = 1024;
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(
+            new CapturingHandler(seen),
+            new Netty4WriteThrottlingHandler(new ThreadContext(Settings.EMPTY), TimeUnit.HOURS.toNanos(1), maxBytes, messagesPerFlush)
+        );
+        final int smallMessages = randomIntBetween(1, 5);
+        final List<ChannelPromise> promises = new ArrayList<>();
+        for (int i = 0; i < smallMessages; i++) {
+            final Object message = wrapAsNettyOrEsBuffer(randomByteArrayOfLength(randomIntBetween(0, maxBytes / 8)));
+            final ChannelPromise promise = embeddedChannel.newPromise();
+            promises.add(promise);
+            transportGroup.getLowLevelGroup().submit(() -> embeddedChannel.writeAndFlush(message, promise)).get();
+        }
+        assertThat(seen, hasSize(smallMessages));
+        // the flushes are deferred, so none of the messages has been written out yet
+        for (ChannelPromise promise : promises) {
+            assertFalse(promise.isDone());
+        }
+
+        final Object largeMessage = wrapAsNettyOrEsBuffer(randomByteArrayOfLength(randomIntBetween(maxBytes, 2 * maxBytes)));
+        final ChannelPromise largePromise = embeddedChannel.newPromise();
+        promises.add(largePromise);
+        transportGroup.getLowLevelGroup().submit(() -> embeddedChannel.writeAndFlush(largeMessage, largePromise)).get();
+        // exceeding the byte budget flushes all the messages at once
+        for (ChannelPromise promise : promises) {
+            assertTrue(promise.isDone());
+        }
+        final long[] histogram = messagesPerFlush.getHistogram();
+        assertEquals(1L, Arrays.stream(histogram).sum());
+        assertEquals(1L, histogram[bucketOf(smallMessages + 1)]);
+    }
+
+    public void testFlushesCoalescedMessagesAfterWindow() throws Exception {
+        final List<ByteBuf> seen = new CopyOnWriteArrayList<>();
+        final HandlingTimeTracker messagesPerFlush = new HandlingTimeTracker();
+        final EmbeddedChannel embeddedChannel = new EmbeddedChannel(
+            new CapturingHandler(seen),
+            new Netty4WriteThrottlingHandler(new ThreadContext(Settings.EMPTY), 1L, ByteSizeUnit.MB.toBytes(1), messagesPerFlush)
+        );
+        final int messages = randomIntBetween(1, 5);
+        final List<ChannelPromise> promises = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            final Object message = wrapAsNettyOrEsBuffer(randomByteArrayOfLength(randomIntBetween(0, 100)));
+            final ChannelPromise promise = embeddedChannel.newPromise();
+            promises.add(promise);
+            transportGroup.getLowLevelGroup().submit(() -> embeddedChannel.writeAndFlush(message, promise)).get();
+        }
+        assertBusy(() -> {
+            transportGroup.getLowLevelGroup().submit(embeddedChannel::runScheduledPendingTasks).get();
+            for (ChannelPromise promise : promises) {
+                assertTrue(promise.isDone());
+            }
+        });
+        assertEquals(1L, messagesPerFlush.getHistogram()[bucketOf(messages)]);
+    }
+
+    private static int bucketOf(int messages) {
+        final int[] upperBounds = HandlingTimeTracker.getBucketUpperBounds();
+        int bucket = 0;
+        while (bucket < upperBounds.length && upperBounds[bucket] <= messages) {
+            bucket++;
+        }
+        return bucket;
+    }
+
     private static void assertBufferEquals(ByteBuf expected, Object message) {
         if (message instanceof ByteBuf buf) {
             assertSame(expected, buf);
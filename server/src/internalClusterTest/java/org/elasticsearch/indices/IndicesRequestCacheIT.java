@@ -14,6 +14,7 @@ import org.elasticsearch.action.support.broadcast.BroadcastResponse;
 import org.elasticsearch.client.internal.Client;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
+import org.elasticsearch.index.MergePolicyConfig;
 import org.elasticsearch.index.cache.request.RequestCacheStats;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuilder;
@@ -604,6 +605,61 @@ public class IndicesRequestCacheIT extends ESIntegTestCase {
         }
     }
 
+    public void testSegmentPartials() throws Exception {
+        Client client = client();
+        assertAcked(
+            indicesAdmin().prepareCreate("index")
+                .setMapping("d", "type=date")
+                .setSettings(
+                    indexSettings(1, 0).put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true)
+                        .put(IndicesRequestCache.INDEX_CACHE_SEGMENT_PARTIALS_SETTING.getKey(), true)
+                        .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+                )
+        );
+        // one segment per month
+        for (String[] segment : new String[][] {
+            { "2014-03-10T00:00:00.000Z", "2014-03-11T00:00:00.000Z" },
+            { "2014-05-13T00:00:00.000Z" },
+            { "2014-07-01T00:00:00.000Z" } }) {
+            for (String date : segment) {
+                client.prepareIndex("index").setSource("d", date).get();
+            }
+            refresh("index");
+        }
+        ensureSearchable("index");
+        assertCacheState(client, "index", 0, 0);
+
+        // all segments are within the range, their partial results are cached alongside the result of the request
+        assertSegmentPartialsResponse(client, "2014-03-01T00:00:00.000Z", 4, 2, 1, 1);
+        assertCacheState(client, "index", 0, 4);
+
+        // the range moves forward: only the first segment intersects its bounds and needs to be collected again
+        assertSegmentPartialsResponse(client, "2014-03-11T00:00:00.000Z", 3, 1, 1, 1);
+        assertCacheState(client, "index", 2, 5);
+
+        // the same request is served by the request cache
+        assertSegmentPartialsResponse(client, "2014-03-11T00:00:00.000Z", 3, 1, 1, 1);
+        assertCacheState(client, "index", 3, 5);
+    }
+
+    private static void assertSegmentPartialsResponse(Client client, String from, long expectedHits, long... expectedMonthCounts) {
+        assertNoFailuresAndResponse(
+            client.prepareSearch("index")
+                .setSize(0)
+                .setSearchType(SearchType.QUERY_THEN_FETCH)
+                .setQuery(QueryBuilders.boolQuery().filter(QueryBuilders.rangeQuery("d").gte(from).lt("2014-08-01T00:00:00.000Z")))
+                .addAggregation(dateHistogram("histo").field("d").calendarInterval(DateHistogramInterval.MONTH).minDocCount(1)),
+            response -> {
+                assertThat(response.getHits().getTotalHits().value, equalTo(expectedHits));
+                Histogram histogram = response.getAggregations().get("histo");
+                assertEquals(expectedMonthCounts.length, histogram.getBuckets().size());
+                for (int i = 0; i < expectedMonthCounts.length; i++) {
+                    assertEquals(expectedMonthCounts[i], histogram.getBuckets().get(i).getDocCount());
+                }
+            }
+        );
+    }
+
     private static void assertCacheState(Client client, String index, long expectedHits, long expectedMisses) {
         RequestCacheStats requestCacheStats = client.admin()
             .indices()
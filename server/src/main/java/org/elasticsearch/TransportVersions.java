@@ -166,6 +166,17 @@ public class TransportVersions {
     public static final TransportVersion INDEXING_PRESSURE_DOCUMENT_REJECTIONS_COUNT = def(8_625_00_0);
     public static final TransportVersion ALIAS_ACTION_RESULTS = def(8_626_00_0);
     public static final TransportVersion HISTOGRAM_AGGS_KEY_SORTED = def(8_627_00_0);
+    public static final TransportVersion REQUEST_CACHE_ADMISSION_STATS = def(8_628_00_0);
+    public static final TransportVersion TRANSLOG_SYNC_HISTOGRAMS = def(8_629_00_0);
+    public static final TransportVersion ZSTD_TRANSPORT_COMPRESSION = def(8_630_00_0);
+    public static final TransportVersion TRANSPORT_ACTION_COMPRESSION_STATS = def(8_631_00_0);
+    public static final TransportVersion TRANSPORT_MESSAGES_PER_FLUSH_STATS = def(8_632_00_0);
+    public static final TransportVersion ESQL_LUCENE_ROWS_EMITTED = def(8_633_00_0);
+    public static final TransportVersion KNN_NPROBE_ADDED = def(8_634_00_0);
+    public static final TransportVersion KNN_SEGMENT_VECTOR_OPS_PROFILED = def(8_635_00_0);
+    public static final TransportVersion ZSTD_TRANSPORT_COMPRESSION_HANDSHAKE = def(8_636_00_0);
+    public static final TransportVersion ESQL_PARTITIONED_EXCHANGE = def(8_637_00_0);
+    public static final TransportVersion ZSTD_TRANSPORT_DICTIONARIES = def(8_638_00_0);
 
     /*
      * STOP! READ THIS FIRST! No, really,
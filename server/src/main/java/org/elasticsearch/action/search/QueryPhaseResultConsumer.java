@@ -365,7 +365,7 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
                     }
                     // add one if a partial merge is pending
                     int size = buffer.size() + (hasPartialReduce ? 1 : 0);
-                    if (size >= batchReduceSize) {
+                    if (size >= batchReduceSize || (size >= 2 && isBufferOverBreakerBudget())) {
                         hasPartialReduce = true;
                         executeNextImmediately = false;
                         QuerySearchResult[] clone = buffer.toArray(QuerySearchResult[]::new);
@@ -384,6 +384,27 @@ public class QueryPhaseResultConsumer extends ArraySearchPhaseResults<SearchPhas
             }
         }
 
+        /**
+         * Whether the buffered aggregations should be reduced before the buffer is full because reducing them, together with the result
+         * of the previous partial reduce, would take more than half of the memory that the circuit breaker has left. Reducing them
+         * earlier keeps the buffered aggregations within what the breaker can accommodate, at the cost of more partial reduces, which
+         * means that the batch size adapts to the size of the shard results and to the memory that other requests use at the time.
+         */
+        private boolean isBufferOverBreakerBudget() {
+            if (hasAggs == false) {
+                return false;
+            }
+            final long limit = circuitBreaker.getLimit();
+            if (limit <= 0) {
+                // unlimited breaker
+                return false;
+            }
+            final MergeResult lastMerge = mergeResult;
+            final long toReduce = aggsCurrentBufferSize + (lastMerge != null ? lastMerge.estimatedSize : 0);
+            final long headroom = limit - circuitBreaker.getUsed();
+            return estimateRamBytesUsedForReduce(toReduce) >= headroom / 2;
+        }
+
         private void releaseBuffer() {
             buffer.forEach(QuerySearchResult::releaseAggs);
             buffer.clear();
@@ -9,6 +9,7 @@
 package org.elasticsearch.common.cache;
 
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Tuple;
 
 import java.lang.reflect.Array;
@@ -18,12 +19,15 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.ToLongBiFunction;
 
@@ -49,9 +53,15 @@ import java.util.function.ToLongBiFunction;
  * <li>Promotions could be deferred for entries that were "recently" promoted.</li>
  * <li>Locks on the list could be taken per node being modified instead of globally.</li>
  * </ol>
+ * The first option is available for caches that are read by many threads concurrently, see
+ * {@link CacheBuilder#setBufferReads(boolean)}. With buffered reads a cache hit records the entry in a striped, lossy
+ * read buffer instead of taking the LRU lock, and the recorded promotions are applied to the LRU list in batches by
+ * whichever thread holds the LRU lock next. This takes the LRU lock off the read path at the expense of a slightly
+ * less precise LRU ordering.
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
- * invalidation) or an explicit call to {@link #refresh()}.
+ * invalidation) or an explicit call to {@link #refresh()}. With buffered reads, cache hits only trigger evictions when
+ * they cause the read buffer to be drained.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -91,6 +101,9 @@ public class Cache<K, V> {
     // the removal callback
     private RemovalListener<K, V> removalListener = notification -> {};
 
+    // non-null if promotions on cache hits are buffered instead of being applied to the LRU list immediately
+    private ReadBuffer<K, V> readBuffer;
+
     // use CacheBuilder to construct
     Cache() {}
 
@@ -137,6 +150,10 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setBufferReads(boolean bufferReads) {
+        this.readBuffer = bufferReads ? new ReadBuffer<>() : null;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -351,7 +368,13 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            // the state is read without holding the LRU lock; this is fine since a stale state only means that we either buffer the
+            // promotion of an entry that is dropped when draining, or that we promote the entry under the LRU lock
+            if (readBuffer != null && entry.state == State.EXISTING) {
+                bufferRead(entry, now);
+            } else {
+                promote(entry, now);
+            }
             return entry.value;
         }
     }
@@ -371,6 +394,21 @@ public class Cache<K, V> {
      * @throws ExecutionException thrown if loader throws an exception or returns a null value
      */
     public V computeIfAbsent(K key, CacheLoader<K, V> loader) throws ExecutionException {
+        return computeIfAbsent(key, loader, null);
+    }
+
+    /**
+     * Like {@link #computeIfAbsent(Object, CacheLoader)}, but a computed value is only entered into this map if {@code admission}
+     * accepts it. Concurrent callers for the same key still share a single invocation of the load method and all get its value,
+     * whether it was admitted or not.
+     *
+     * @param key       the key whose associated value is to be returned or computed for if non-existent
+     * @param loader    the function to compute a value given a key
+     * @param admission decides whether a computed value is entered into the map, called once per computed value
+     * @return the current (existing or computed) non-null value associated with the specified key
+     * @throws ExecutionException thrown if loader throws an exception or returns a null value
+     */
+    public V computeIfAbsent(K key, CacheLoader<K, V> loader, @Nullable BiPredicate<K, V> admission) throws ExecutionException {
         long now = now();
         // we have to eagerly evict expired entries or our putIfAbsent call below will fail
         V value = get(key, now, true);
@@ -425,7 +463,19 @@ public class Cache<K, V> {
                     future.completeExceptionally(npe);
                     throw new ExecutionException(npe);
                 } else {
-                    future.complete(new Entry<>(key, loaded, now));
+                    Entry<K, V> entry = new Entry<>(key, loaded, now);
+                    if (admission != null && admission.test(key, loaded) == false) {
+                        // hand the value to the callers that are waiting for it but never link it, then drop it from the map
+                        entry.state = State.DELETED;
+                        future.complete(entry);
+                        try (ReleasableLock ignored = segment.writeLock.acquire()) {
+                            if (segment.map != null && segment.map.remove(key, future) && segment.map.isEmpty()) {
+                                segment.map = null;
+                            }
+                        }
+                    } else {
+                        future.complete(entry);
+                    }
                 }
             } else {
                 completableValue = future.handle(handler);
@@ -522,6 +572,8 @@ public class Cache<K, V> {
 
         boolean[] haveSegmentLock = new boolean[NUMBER_OF_SEGMENTS];
         try (ReleasableLock ignored = lruLock.acquire()) {
+            // release the references held by the read buffer, all entries are deleted below anyway
+            drainReadBuffer();
             try {
                 for (int i = 0; i < NUMBER_OF_SEGMENTS; i++) {
                     segments[i].segmentLock.writeLock().lock();
@@ -559,6 +611,7 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
             evict(now);
         }
     }
@@ -737,6 +790,7 @@ public class Cache<K, V> {
     private void promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
             switch (entry.state) {
                 case DELETED -> promoted = false;
                 case EXISTING -> relinkAtHead(entry);
@@ -748,6 +802,33 @@ public class Cache<K, V> {
         }
     }
 
+    private void bufferRead(Entry<K, V> entry, long now) {
+        if (readBuffer.offer(entry)) {
+            // never block readers on the LRU lock, if another thread holds it then it will drain the buffer soon enough
+            try (ReleasableLock locked = lruLock.tryAcquire()) {
+                if (locked != null) {
+                    drainReadBuffer();
+                    evict(now);
+                }
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        assert lruLock.isHeldByCurrentThread();
+
+        if (readBuffer != null) {
+            readBuffer.drain(this::relinkIfExisting);
+        }
+    }
+
+    private void relinkIfExisting(Entry<K, V> entry) {
+        // entries that were deleted since they were read are skipped, and new entries are linked by the thread that inserted them
+        if (entry.state == State.EXISTING) {
+            relinkAtHead(entry);
+        }
+    }
+
     private void evict(long now) {
         assert lruLock.isHeldByCurrentThread();
 
@@ -859,4 +940,89 @@ public class Cache<K, V> {
     private CacheSegment getCacheSegment(K key) {
         return segments[key.hashCode() & 0xff];
     }
+
+    /**
+     * A lossy, striped buffer of the entries that were hit on the read path. Each reader records the entry it hit in the
+     * stripe picked by its thread, and the buffered entries are promoted in batches while holding the LRU lock. Reads
+     * are dropped when a stripe is full or contended; this only makes the LRU ordering less precise.
+     */
+    private static final class ReadBuffer<K, V> {
+        static final int STRIPE_SIZE = 16;
+        static final int STRIPE_MASK = STRIPE_SIZE - 1;
+        // ask for a drain once a stripe is half full so that readers rarely find a full stripe
+        static final int DRAIN_THRESHOLD = STRIPE_SIZE / 2;
+        static final int MAX_STRIPES = 64;
+
+        private final Stripe<K, V>[] stripes;
+        private final int stripeMask;
+
+        @SuppressWarnings("unchecked")
+        ReadBuffer() {
+            int numberOfStripes = 1;
+            while (numberOfStripes < Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors())) {
+                numberOfStripes <<= 1;
+            }
+            stripes = (Stripe<K, V>[]) Array.newInstance(Stripe.class, numberOfStripes);
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe<>();
+            }
+            stripeMask = numberOfStripes - 1;
+        }
+
+        /**
+         * Records a read of the given entry.
+         *
+         * @param entry the entry that was read
+         * @return true if the buffer should be drained
+         */
+        boolean offer(Entry<K, V> entry) {
+            final Stripe<K, V> stripe = stripes[probe() & stripeMask];
+            final long tail = stripe.writeCounter.get();
+            final long size = tail - stripe.readCounter;
+            if (size >= STRIPE_SIZE) {
+                // the stripe is full, drop the read
+                return true;
+            }
+            if (stripe.writeCounter.compareAndSet(tail, tail + 1)) {
+                stripe.buffer.lazySet((int) (tail & STRIPE_MASK), entry);
+                return size + 1 >= DRAIN_THRESHOLD;
+            }
+            // another reader of the same stripe won the race, drop the read rather than spinning
+            return false;
+        }
+
+        /**
+         * Hands all the recorded reads to the given consumer. Must be called while holding the LRU lock.
+         */
+        void drain(Consumer<Entry<K, V>> consumer) {
+            for (Stripe<K, V> stripe : stripes) {
+                long head = stripe.readCounter;
+                final long tail = stripe.writeCounter.get();
+                for (; head < tail; head++) {
+                    final int index = (int) (head & STRIPE_MASK);
+                    final Entry<K, V> entry = stripe.buffer.get(index);
+                    if (entry == null) {
+                        // the slot was claimed but the entry is not published yet, pick it up on the next drain
+                        break;
+                    }
+                    stripe.buffer.lazySet(index, null);
+                    consumer.accept(entry);
+                }
+                stripe.readCounter = head;
+            }
+        }
+
+        private static int probe() {
+            final int hash = Thread.currentThread().hashCode();
+            return hash ^ (hash >>> 16);
+        }
+
+        private static final class Stripe<K, V> {
+            final AtomicReferenceArray<Entry<K, V>> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+            // the number of slots claimed by readers
+            final AtomicLong writeCounter = new AtomicLong();
+            // the number of slots drained, only written while holding the LRU lock
+            volatile long readCounter;
+        }
+    }
 }
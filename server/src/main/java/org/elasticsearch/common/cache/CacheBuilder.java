@@ -19,6 +19,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private boolean bufferReads;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -78,6 +79,18 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets whether the promotion of an entry on a cache hit is buffered and applied to the LRU list in batches, rather than taking the
+     * LRU lock on every hit. This removes the contention on the LRU lock on the read path at the expense of a slightly less precise LRU
+     * ordering, and should be used for caches that are hit by many threads concurrently.
+     *
+     * @param bufferReads whether cache hits should be buffered
+     */
+    public CacheBuilder<K, V> setBufferReads(boolean bufferReads) {
+        this.bufferReads = bufferReads;
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -95,6 +108,9 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        if (bufferReads) {
+            cache.setBufferReads(true);
+        }
         return cache;
     }
 }
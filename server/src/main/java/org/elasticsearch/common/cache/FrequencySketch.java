@@ -0,0 +1,135 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A count-min sketch estimating how often keys were seen recently, as used by TinyLFU style cache admission policies.
+ * <p>
+ * The sketch holds 4-bit counters packed sixteen to a {@code long}, and each key is counted in four counters picked by
+ * independent hashes. The estimated frequency of a key is the minimum of its four counters, so it may be overestimated
+ * because of collisions but is never underestimated, and saturates at {@link #MAX_FREQUENCY}. To favour recent history,
+ * all counters are halved once the number of recorded accesses reaches the sample size, which is ten times the number of
+ * expected entries.
+ * <p>
+ * The sketch is thread-safe and lock-free. Concurrent increments may occasionally be lost around a halving, which is
+ * acceptable for a frequency estimate.
+ */
+public final class FrequencySketch {
+
+    /**
+     * The maximum frequency that the sketch can report.
+     */
+    public static final int MAX_FREQUENCY = 15;
+
+    static final int DEPTH = 4;
+    static final int MAX_TABLE_LENGTH = 1 << 16;
+
+    // halves each of the sixteen counters of a long once it is shifted right by one
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * @param expectedEntries the number of distinct keys that the sketch should be able to tell apart
+     */
+    public FrequencySketch(int expectedEntries) {
+        if (expectedEntries <= 0) {
+            throw new IllegalArgumentException("expectedEntries must be > 0 but was [" + expectedEntries + "]");
+        }
+        // one long holds the counters of four keys
+        int tableLength = 1;
+        while (tableLength < Math.min(MAX_TABLE_LENGTH, Math.max(1, expectedEntries / DEPTH))) {
+            tableLength <<= 1;
+        }
+        this.table = new AtomicLongArray(tableLength);
+        this.tableMask = tableLength - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * expectedEntries);
+    }
+
+    /**
+     * Records an access to the key with the given hash.
+     */
+    public void increment(int keyHash) {
+        boolean incremented = false;
+        for (int i = 0; i < DEPTH; i++) {
+            final long hash = hash(keyHash, i);
+            incremented |= incrementAt(tableIndex(hash), counterShift(hash));
+        }
+        if (incremented && additions.incrementAndGet() == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the estimated number of recent accesses to the key with the given hash, at most {@link #MAX_FREQUENCY}.
+     */
+    public int frequency(int keyHash) {
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < DEPTH; i++) {
+            final long hash = hash(keyHash, i);
+            final int count = (int) ((table.get(tableIndex(hash)) >>> counterShift(hash)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    // visible for testing
+    int sampleSize() {
+        return sampleSize;
+    }
+
+    private boolean incrementAt(int index, int shift) {
+        final long mask = 0xfL << shift;
+        while (true) {
+            final long current = table.get(index);
+            if ((current & mask) == mask) {
+                // the counter is saturated
+                return false;
+            }
+            if (table.compareAndSet(index, current, current + (1L << shift))) {
+                return true;
+            }
+        }
+    }
+
+    // halves all counters, visible for testing
+    void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            while (true) {
+                final long current = table.get(i);
+                if (table.compareAndSet(i, current, (current >>> 1) & RESET_MASK)) {
+                    break;
+                }
+            }
+        }
+        additions.addAndGet(-sampleSize / 2);
+    }
+
+    private int tableIndex(long hash) {
+        return (int) (hash >>> 32) & tableMask;
+    }
+
+    private static int counterShift(long hash) {
+        return (int) (hash & 0xf) << 2;
+    }
+
+    private static long hash(int keyHash, int depth) {
+        long hash = (keyHash + SEEDS[depth]) * SEEDS[depth];
+        hash ^= hash >>> 29;
+        hash *= 0xbf58476d1ce4e5b9L;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -82,6 +82,7 @@ import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.IndicesRequestCache;
@@ -235,6 +236,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING,
         IndicesService.INDICES_ID_FIELD_DATA_ENABLED_SETTING,
         IndicesService.WRITE_DANGLING_INDICES_INFO_SETTING,
+        TranslogSyncCoordinator.ENABLED_SETTING,
         MappingUpdatedAction.INDICES_MAPPING_DYNAMIC_TIMEOUT_SETTING,
         MappingUpdatedAction.INDICES_MAX_IN_FLIGHT_UPDATES_SETTING,
         Metadata.SETTING_READ_ONLY_SETTING,
@@ -380,6 +382,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         TransportSettings.PUBLISH_PORT_PROFILE,
         TransportSettings.TRANSPORT_COMPRESS,
         TransportSettings.TRANSPORT_COMPRESSION_SCHEME,
+        TransportSettings.TRANSPORT_COMPRESSION_DICTIONARIES,
         TransportSettings.PING_SCHEDULE,
         TransportSettings.CONNECT_TIMEOUT,
         TransportSettings.DEFAULT_FEATURES_SETTING,
@@ -435,8 +438,11 @@ public final class ClusterSettings extends AbstractScopedSettings {
         IndicesService.INDICES_CACHE_CLEAN_INTERVAL_SETTING,
         IndicesFieldDataCache.INDICES_FIELDDATA_CACHE_SIZE_KEY,
         IndicesFieldDataCache.INDICES_FIELDDATA_CACHE_EXPIRE,
+        IndicesFieldDataCache.INDICES_FIELDDATA_CACHE_BUFFER_READS,
         IndicesRequestCache.INDICES_CACHE_QUERY_SIZE,
         IndicesRequestCache.INDICES_CACHE_QUERY_EXPIRE,
+        IndicesRequestCache.INDICES_CACHE_QUERY_BUFFER_READS,
+        IndicesRequestCache.INDICES_CACHE_QUERY_ADMISSION_ENABLED,
         HunspellService.HUNSPELL_LAZY_LOAD,
         HunspellService.HUNSPELL_IGNORE_CASE,
         HunspellService.HUNSPELL_DICTIONARY_OPTIONS,
@@ -77,6 +77,7 @@ import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -426,10 +427,19 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
         }
     }
 
-    public synchronized IndexShard createShard(
+    public IndexShard createShard(
         final ShardRouting routing,
         final GlobalCheckpointSyncer globalCheckpointSyncer,
         final RetentionLeaseSyncer retentionLeaseSyncer
+    ) throws IOException {
+        return createShard(routing, globalCheckpointSyncer, retentionLeaseSyncer, null);
+    }
+
+    public synchronized IndexShard createShard(
+        final ShardRouting routing,
+        final GlobalCheckpointSyncer globalCheckpointSyncer,
+        final RetentionLeaseSyncer retentionLeaseSyncer,
+        @Nullable final TranslogSyncCoordinator translogSyncCoordinator
     ) throws IOException {
         Objects.requireNonNull(retentionLeaseSyncer);
         /*
@@ -541,7 +551,8 @@ public class IndexService extends AbstractIndexComponent implements IndicesClust
                 circuitBreakerService,
                 snapshotCommitSupplier,
                 System::nanoTime,
-                indexCommitListener
+                indexCommitListener,
+                translogSyncCoordinator
             );
             eventListener.indexShardStateChanged(indexShard, null, indexShard.state(), "shard created");
             eventListener.afterIndexShardCreated(indexShard);
@@ -411,6 +411,16 @@ public final class IndexSettings {
         Property.IndexScope
     );
 
+    /**
+     * Index setting to store the entries of the live version map, which tracks the documents that were indexed since the last refresh,
+     * in big arrays that are accounted for by the request circuit breaker, rather than as on-heap objects.
+     */
+    public static final Setting<Boolean> INDEX_COMPACT_VERSION_MAP_SETTING = Setting.boolSetting(
+        "index.compact_version_map",
+        false,
+        Property.IndexScope
+    );
+
     /**
      * Specifies if the index should use soft-delete instead of hard-delete for update/delete operations.
      * Soft-deletes is enabled by default for 7.0 indices and mandatory for 8.0 indices.
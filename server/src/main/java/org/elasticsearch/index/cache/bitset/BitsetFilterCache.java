@@ -78,9 +78,16 @@ public final class BitsetFilterCache
         Property.IndexScope
     );
 
+    public static final Setting<Boolean> INDEX_BUFFER_READS_SETTING = Setting.boolSetting(
+        "index.bitset_filter_cache.buffer_reads",
+        false,
+        Property.IndexScope
+    );
+
     private static final Logger logger = LogManager.getLogger(BitsetFilterCache.class);
 
     private final boolean loadRandomAccessFiltersEagerly;
+    private final boolean bufferReads;
 
     /**
      * Lazy initialized by {@link #buildFiltersCache()} to save heap for indices not using this cache as even empty {@link Cache} are
@@ -97,6 +104,7 @@ public final class BitsetFilterCache
         }
         this.index = indexSettings.getIndex();
         this.loadRandomAccessFiltersEagerly = shouldLoadRandomAccessFiltersEagerly(indexSettings);
+        this.bufferReads = indexSettings.getValue(INDEX_BUFFER_READS_SETTING);
         this.listener = listener;
     }
 
@@ -177,7 +185,7 @@ public final class BitsetFilterCache
         }
         Cache<Query, Value> filterToFbs = filters.computeIfAbsent(coreCacheReader, key -> {
             cacheHelper.addClosedListener(BitsetFilterCache.this);
-            return CacheBuilder.<Query, Value>builder().build();
+            return CacheBuilder.<Query, Value>builder().setBufferReads(bufferReads).build();
         });
 
         return filterToFbs.computeIfAbsent(query, key -> {
@@ -193,7 +201,10 @@ public final class BitsetFilterCache
         if (existing != null) {
             return existing;
         }
-        existing = CacheBuilder.<IndexReader.CacheKey, Cache<Query, Value>>builder().removalListener(this).build();
+        existing = CacheBuilder.<IndexReader.CacheKey, Cache<Query, Value>>builder()
+            .removalListener(this)
+            .setBufferReads(bufferReads)
+            .build();
         loadedFilters = existing;
         return existing;
     }
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.cache.request;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -24,6 +25,8 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
     private long evictions;
     private long hitCount;
     private long missCount;
+    private long admissionCount;
+    private long rejectionCount;
 
     public RequestCacheStats() {}
 
@@ -32,13 +35,23 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         evictions = in.readVLong();
         hitCount = in.readVLong();
         missCount = in.readVLong();
+        if (in.getTransportVersion().onOrAfter(TransportVersions.REQUEST_CACHE_ADMISSION_STATS)) {
+            admissionCount = in.readVLong();
+            rejectionCount = in.readVLong();
+        }
     }
 
     public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount) {
+        this(memorySize, evictions, hitCount, missCount, 0, 0);
+    }
+
+    public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount, long admissionCount, long rejectionCount) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.hitCount = hitCount;
         this.missCount = missCount;
+        this.admissionCount = admissionCount;
+        this.rejectionCount = rejectionCount;
     }
 
     public void add(RequestCacheStats stats) {
@@ -49,6 +62,8 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         this.evictions += stats.evictions;
         this.hitCount += stats.hitCount;
         this.missCount += stats.missCount;
+        this.admissionCount += stats.admissionCount;
+        this.rejectionCount += stats.rejectionCount;
     }
 
     public long getMemorySizeInBytes() {
@@ -71,12 +86,30 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         return this.missCount;
     }
 
+    /**
+     * The number of values computed on a cache miss that were put into the cache.
+     */
+    public long getAdmissionCount() {
+        return this.admissionCount;
+    }
+
+    /**
+     * The number of values computed on a cache miss that the admission policy refused to put into the cache.
+     */
+    public long getRejectionCount() {
+        return this.rejectionCount;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(memorySize);
         out.writeVLong(evictions);
         out.writeVLong(hitCount);
         out.writeVLong(missCount);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.REQUEST_CACHE_ADMISSION_STATS)) {
+            out.writeVLong(admissionCount);
+            out.writeVLong(rejectionCount);
+        }
     }
 
     @Override
@@ -84,12 +117,17 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         RequestCacheStats that = (RequestCacheStats) o;
-        return memorySize == that.memorySize && evictions == that.evictions && hitCount == that.hitCount && missCount == that.missCount;
+        return memorySize == that.memorySize
+            && evictions == that.evictions
+            && hitCount == that.hitCount
+            && missCount == that.missCount
+            && admissionCount == that.admissionCount
+            && rejectionCount == that.rejectionCount;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(memorySize, evictions, hitCount, missCount);
+        return Objects.hash(memorySize, evictions, hitCount, missCount, admissionCount, rejectionCount);
     }
 
     @Override
@@ -99,6 +137,8 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         builder.field(Fields.EVICTIONS, getEvictions());
         builder.field(Fields.HIT_COUNT, getHitCount());
         builder.field(Fields.MISS_COUNT, getMissCount());
+        builder.field(Fields.ADMISSION_COUNT, getAdmissionCount());
+        builder.field(Fields.REJECTION_COUNT, getRejectionCount());
         builder.endObject();
         return builder;
     }
@@ -110,5 +150,7 @@ public class RequestCacheStats implements Writeable, ToXContentFragment {
         static final String EVICTIONS = "evictions";
         static final String HIT_COUNT = "hit_count";
         static final String MISS_COUNT = "miss_count";
+        static final String ADMISSION_COUNT = "admission_count";
+        static final String REJECTION_COUNT = "rejection_count";
     }
 }
@@ -21,9 +21,18 @@ public final class ShardRequestCache {
     final CounterMetric totalMetric = new CounterMetric();
     final CounterMetric hitCount = new CounterMetric();
     final CounterMetric missCount = new CounterMetric();
+    final CounterMetric admissionCount = new CounterMetric();
+    final CounterMetric rejectionCount = new CounterMetric();
 
     public RequestCacheStats stats() {
-        return new RequestCacheStats(totalMetric.count(), evictionsMetric.count(), hitCount.count(), missCount.count());
+        return new RequestCacheStats(
+            totalMetric.count(),
+            evictionsMetric.count(),
+            hitCount.count(),
+            missCount.count(),
+            admissionCount.count(),
+            rejectionCount.count()
+        );
     }
 
     public void onHit() {
@@ -34,6 +43,14 @@ public final class ShardRequestCache {
         missCount.inc();
     }
 
+    public void onAdmitted() {
+        admissionCount.inc();
+    }
+
+    public void onRejected() {
+        rejectionCount.inc();
+    }
+
     public void onCached(Accountable key, BytesReference value) {
         totalMetric.inc(key.ramBytesUsed() + value.ramBytesUsed());
     }
@@ -0,0 +1,149 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.vectors;
+
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.util.VectorUtil;
+
+import java.util.Arrays;
+
+/**
+ * Quantizes vectors to a single bit per dimension: the sign of each dimension of the vector minus the centroid of the segment.
+ * Each vector also keeps two corrections, the distance to the centroid and how well the bits approximate the direction of the
+ * vector, which make the estimate of the similarity to a query unbiased.
+ * <p>
+ *     Queries are quantized asymmetrically, to 4 bits per dimension, so the sum of the query dimensions for which a vector has its bit
+ *     set takes a popcount per bit of the query rather than a pass over the float dimensions.
+ * </p>
+ */
+final class BinaryQuantizer {
+    static final int QUERY_BITS = 4;
+
+    private BinaryQuantizer() {}
+
+    /**
+     * The number of longs a vector of {@code dims} dimensions quantizes to.
+     */
+    static int codeLongs(int dims) {
+        return (dims + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Quantizes a vector into {@code code}.
+     * @param corrections receives the distance of the vector to the centroid and the dot product of the normalized bits and the
+     *                    normalized difference between the vector and the centroid
+     */
+    static void quantize(float[] vector, float[] centroid, long[] code, float[] corrections) {
+        Arrays.fill(code, 0L);
+        double squaredNorm = 0;
+        double absSum = 0;
+        for (int i = 0; i < vector.length; i++) {
+            float residual = vector[i] - centroid[i];
+            if (residual > 0) {
+                code[i >> 6] |= 1L << i;
+            }
+            squaredNorm += residual * residual;
+            absSum += Math.abs(residual);
+        }
+        float norm = (float) Math.sqrt(squaredNorm);
+        corrections[0] = norm;
+        corrections[1] = norm == 0 ? 1 : (float) (absSum / (Math.sqrt(vector.length) * norm));
+    }
+
+    /**
+     * Normalizes a copy of the vector if the similarity expects unit vectors but doesn't normalize them itself.
+     */
+    static float[] normalizeIfCosine(float[] vector, VectorSimilarityFunction similarity) {
+        if (similarity == VectorSimilarityFunction.COSINE) {
+            return VectorUtil.l2normalize(vector.clone());
+        }
+        return vector;
+    }
+
+    /**
+     * A query quantized to score the vectors of a field.
+     */
+    static final class Query {
+        private final VectorSimilarityFunction similarity;
+        private final int dims;
+        private final long[][] bitPlanes;
+        private final float lower;
+        private final float step;
+        private final float sum;
+        private final float squaredNorm;
+        private final float dotCentroid;
+
+        /**
+         * @param target   the query vector
+         * @param centroid the centroid of the field in the segment
+         */
+        Query(VectorSimilarityFunction similarity, float[] target, float[] centroid) {
+            this.similarity = similarity;
+            this.dims = target.length;
+            float[] query = normalizeIfCosine(target, similarity);
+            this.dotCentroid = VectorUtil.dotProduct(query, centroid);
+            if (similarity == VectorSimilarityFunction.EUCLIDEAN) {
+                // euclidean distances are estimated relative to the centroid
+                float[] relative = new float[dims];
+                for (int i = 0; i < dims; i++) {
+                    relative[i] = query[i] - centroid[i];
+                }
+                query = relative;
+            }
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (float v : query) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            int maxLevel = (1 << QUERY_BITS) - 1;
+            this.lower = min;
+            this.step = max > min ? (max - min) / maxLevel : 0;
+            this.bitPlanes = new long[QUERY_BITS][codeLongs(dims)];
+            long levelSum = 0;
+            for (int i = 0; i < dims; i++) {
+                int level = step == 0 ? 0 : Math.round((query[i] - lower) / step);
+                levelSum += level;
+                for (int b = 0; b < QUERY_BITS; b++) {
+                    if ((level & (1 << b)) != 0) {
+                        bitPlanes[b][i >> 6] |= 1L << i;
+                    }
+                }
+            }
+            this.sum = lower * dims + step * levelSum;
+            this.squaredNorm = VectorUtil.dotProduct(query, query);
+        }
+
+        /**
+         * Estimates the score of a quantized vector, on the same scale as {@link VectorSimilarityFunction#compare}.
+         */
+        float score(long[] code, float distanceToCentroid, float projection) {
+            long setBits = 0;
+            long weightedLevels = 0;
+            for (int w = 0; w < code.length; w++) {
+                setBits += Long.bitCount(code[w]);
+                for (int b = 0; b < QUERY_BITS; b++) {
+                    weightedLevels += (long) Long.bitCount(bitPlanes[b][w] & code[w]) << b;
+                }
+            }
+            // the query dimensions where the vector is above the centroid count positively, the others negatively
+            float setSum = lower * setBits + step * weightedLevels;
+            float dotBits = (2 * setSum - sum) / (float) Math.sqrt(dims);
+            float dotResidual = distanceToCentroid * dotBits / projection;
+            return switch (similarity) {
+                case EUCLIDEAN -> {
+                    float squareDistance = squaredNorm + distanceToCentroid * distanceToCentroid - 2 * dotResidual;
+                    yield 1 / (1 + Math.max(squareDistance, 0));
+                }
+                case DOT_PRODUCT, COSINE -> Math.max((1 + dotCentroid + dotResidual) / 2, 0);
+                case MAXIMUM_INNER_PRODUCT -> VectorUtil.scaleMaxInnerProductScore(dotCentroid + dotResidual);
+            };
+        }
+    }
+}
@@ -18,6 +18,7 @@ import org.apache.lucene.codecs.KnnVectorsWriter;
 import org.apache.lucene.codecs.lucene99.Lucene99ScalarQuantizedVectorsFormat;
 import org.apache.lucene.index.ByteVectorValues;
 import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.FloatVectorValues;
 import org.apache.lucene.index.MergeState;
 import org.apache.lucene.index.SegmentReadState;
@@ -40,12 +41,17 @@ public class ES813Int8FlatVectorFormat extends KnnVectorsFormat {
         this(null);
     }
 
+    public ES813Int8FlatVectorFormat(Float confidenceInterval) {
+        this(confidenceInterval, 7, false);
+    }
+
     /**
-     * Sole constructor
+     * @param bits     the number of bits to quantize each dimension to, {@code 7} or {@code 4}
+     * @param compress whether to pack two 4 bit dimensions into each byte
      */
-    public ES813Int8FlatVectorFormat(Float confidenceInterval) {
+    public ES813Int8FlatVectorFormat(Float confidenceInterval, int bits, boolean compress) {
         super(NAME);
-        this.format = new Lucene99ScalarQuantizedVectorsFormat(confidenceInterval);
+        this.format = new Lucene99ScalarQuantizedVectorsFormat(confidenceInterval, bits, compress);
     }
 
     @Override
@@ -55,7 +61,7 @@ public class ES813Int8FlatVectorFormat extends KnnVectorsFormat {
 
     @Override
     public KnnVectorsReader fieldsReader(SegmentReadState state) throws IOException {
-        return new ES813FlatVectorReader(format.fieldsReader(state));
+        return new ES813FlatVectorReader(format.fieldsReader(state), state.fieldInfos);
     }
 
     public static class ES813FlatVectorWriter extends KnnVectorsWriter {
@@ -100,11 +106,13 @@ public class ES813Int8FlatVectorFormat extends KnnVectorsFormat {
 
     public static class ES813FlatVectorReader extends KnnVectorsReader {
 
-        private final FlatVectorsReader reader;
+        final FlatVectorsReader reader;
+        private final FieldInfos fieldInfos;
 
-        public ES813FlatVectorReader(FlatVectorsReader reader) {
+        public ES813FlatVectorReader(FlatVectorsReader reader, FieldInfos fieldInfos) {
             super();
             this.reader = reader;
+            this.fieldInfos = fieldInfos;
         }
 
         @Override
@@ -124,6 +132,9 @@ public class ES813Int8FlatVectorFormat extends KnnVectorsFormat {
 
         @Override
         public void search(String field, float[] target, KnnCollector knnCollector, Bits acceptDocs) throws IOException {
+            if (NativeInt7VectorScorer.search(reader, fieldInfos.fieldInfo(field), target, knnCollector, acceptDocs)) {
+                return;
+            }
             collectAllMatchingDocs(knnCollector, acceptDocs, reader.getRandomVectorScorer(field, target));
         }
 
@@ -0,0 +1,488 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.vectors;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FlatVectorsFormat;
+import org.apache.lucene.codecs.FlatVectorsReader;
+import org.apache.lucene.codecs.FlatVectorsWriter;
+import org.apache.lucene.codecs.KnnFieldVectorsWriter;
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.KnnVectorsReader;
+import org.apache.lucene.codecs.KnnVectorsWriter;
+import org.apache.lucene.codecs.lucene99.Lucene99FlatVectorsFormat;
+import org.apache.lucene.index.ByteVectorValues;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.MergeState;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Sorter;
+import org.apache.lucene.index.VectorEncoding;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.KnnCollector;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.IOSupplier;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.hnsw.NeighborQueue;
+import org.apache.lucene.util.hnsw.OrdinalTranslatedKnnCollector;
+import org.apache.lucene.util.hnsw.RandomVectorScorer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * A flat vector format that keeps a single bit per dimension next to the raw vectors, see {@link BinaryQuantizer}. Searches score
+ * every quantized vector and then rescore the best {@link #RESCORE_OVERSAMPLE} times {@code k} candidates with the raw vectors, so
+ * only the quantized vectors and a few raw ones have to be read.
+ */
+public class ES814BinaryQuantizedFlatVectorFormat extends KnnVectorsFormat {
+
+    static final String NAME = "ES814BinaryQuantizedFlatVectorFormat";
+
+    /**
+     * How many more candidates than requested to rescore with the raw vectors.
+     */
+    static final int RESCORE_OVERSAMPLE = 3;
+
+    static final String META_CODEC_NAME = "ES814BinaryQuantizedFlatVectorFormatMeta";
+    static final String DATA_CODEC_NAME = "ES814BinaryQuantizedFlatVectorFormatData";
+    static final String META_EXTENSION = "vembq";
+    static final String DATA_EXTENSION = "vebq";
+    static final int VERSION_START = 0;
+    static final int VERSION_CURRENT = VERSION_START;
+
+    private final FlatVectorsFormat rawFormat = new Lucene99FlatVectorsFormat();
+
+    /**
+     * Sole constructor
+     */
+    public ES814BinaryQuantizedFlatVectorFormat() {
+        super(NAME);
+    }
+
+    @Override
+    public KnnVectorsWriter fieldsWriter(SegmentWriteState state) throws IOException {
+        return new ES814BinaryQuantizedFlatVectorWriter(state, rawFormat.fieldsWriter(state));
+    }
+
+    @Override
+    public KnnVectorsReader fieldsReader(SegmentReadState state) throws IOException {
+        return new ES814BinaryQuantizedFlatVectorReader(state, rawFormat.fieldsReader(state));
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "(name=" + NAME + ", rescoreOversample=" + RESCORE_OVERSAMPLE + ", rawVectorFormat=" + rawFormat + ")";
+    }
+
+    /**
+     * The number of bytes a quantized vector takes: its bits followed by its two corrections.
+     */
+    static long bytesPerVector(int dims) {
+        return (long) BinaryQuantizer.codeLongs(dims) * Long.BYTES + 2 * Float.BYTES;
+    }
+
+    public static class ES814BinaryQuantizedFlatVectorWriter extends KnnVectorsWriter {
+
+        private final FlatVectorsWriter rawWriter;
+        private final List<FieldWriter> fields = new ArrayList<>();
+        private final IndexOutput meta;
+        private final IndexOutput data;
+        private boolean finished;
+
+        ES814BinaryQuantizedFlatVectorWriter(SegmentWriteState state, FlatVectorsWriter rawWriter) throws IOException {
+            this.rawWriter = rawWriter;
+            String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, META_EXTENSION);
+            String dataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, DATA_EXTENSION);
+            boolean success = false;
+            IndexOutput meta = null;
+            IndexOutput data = null;
+            try {
+                meta = state.directory.createOutput(metaFileName, state.context);
+                data = state.directory.createOutput(dataFileName, state.context);
+                CodecUtil.writeIndexHeader(meta, META_CODEC_NAME, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                CodecUtil.writeIndexHeader(data, DATA_CODEC_NAME, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(meta, data, rawWriter);
+                }
+            }
+            this.meta = meta;
+            this.data = data;
+        }
+
+        @Override
+        public KnnFieldVectorsWriter<?> addField(FieldInfo fieldInfo) throws IOException {
+            if (fieldInfo.getVectorEncoding() != VectorEncoding.FLOAT32) {
+                return rawWriter.addField(fieldInfo, null);
+            }
+            // the raw writer hands us the copies of the vectors it buffers
+            FieldWriter field = new FieldWriter(fieldInfo);
+            fields.add(field);
+            return rawWriter.addField(fieldInfo, field);
+        }
+
+        @Override
+        public void flush(int maxDoc, Sorter.DocMap sortMap) throws IOException {
+            rawWriter.flush(maxDoc, sortMap);
+            for (FieldWriter field : fields) {
+                List<float[]> vectors = field.vectors(sortMap);
+                writeField(field.fieldInfo, () -> new ListFloatVectorValues(vectors, field.fieldInfo.getVectorDimension()));
+            }
+        }
+
+        @Override
+        public void mergeOneField(FieldInfo fieldInfo, MergeState mergeState) throws IOException {
+            rawWriter.mergeOneField(fieldInfo, mergeState);
+            if (fieldInfo.getVectorEncoding() == VectorEncoding.FLOAT32) {
+                writeField(fieldInfo, () -> MergedVectorValues.mergeFloatVectorValues(fieldInfo, mergeState));
+            }
+        }
+
+        /**
+         * Writes the quantized vectors of a field, in two passes over its vectors: one to compute their centroid and one to quantize
+         * them.
+         */
+        private void writeField(FieldInfo fieldInfo, IOSupplier<FloatVectorValues> vectors) throws IOException {
+            int dims = fieldInfo.getVectorDimension();
+            VectorSimilarityFunction similarity = fieldInfo.getVectorSimilarityFunction();
+            float[] centroid = new float[dims];
+            int count = 0;
+            FloatVectorValues values = vectors.get();
+            for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                float[] vector = BinaryQuantizer.normalizeIfCosine(values.vectorValue(), similarity);
+                for (int i = 0; i < dims; i++) {
+                    centroid[i] += vector[i];
+                }
+                count++;
+            }
+            if (count > 0) {
+                for (int i = 0; i < dims; i++) {
+                    centroid[i] /= count;
+                }
+            }
+
+            long offset = data.alignFilePointer(Long.BYTES);
+            long[] code = new long[BinaryQuantizer.codeLongs(dims)];
+            float[] corrections = new float[2];
+            values = vectors.get();
+            for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                BinaryQuantizer.quantize(BinaryQuantizer.normalizeIfCosine(values.vectorValue(), similarity), centroid, code, corrections);
+                for (long word : code) {
+                    data.writeLong(word);
+                }
+                data.writeInt(Float.floatToIntBits(corrections[0]));
+                data.writeInt(Float.floatToIntBits(corrections[1]));
+            }
+
+            meta.writeInt(fieldInfo.number);
+            meta.writeVInt(dims);
+            meta.writeInt(count);
+            for (float c : centroid) {
+                meta.writeInt(Float.floatToIntBits(c));
+            }
+            meta.writeVLong(offset);
+            meta.writeVLong(data.getFilePointer() - offset);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (finished) {
+                throw new IllegalStateException("already finished");
+            }
+            finished = true;
+            rawWriter.finish();
+            meta.writeInt(-1);
+            CodecUtil.writeFooter(meta);
+            CodecUtil.writeFooter(data);
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(meta, data, rawWriter);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            // the vectors are shared with the raw writer, which accounts for them
+            long total = rawWriter.ramBytesUsed();
+            for (FieldWriter field : fields) {
+                total += field.ramBytesUsed();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Keeps references to the vectors that a raw writer buffers.
+     */
+    static class FieldWriter extends KnnFieldVectorsWriter<float[]> {
+        final FieldInfo fieldInfo;
+        private final List<float[]> vectors = new ArrayList<>();
+        private final List<Integer> docs = new ArrayList<>();
+
+        FieldWriter(FieldInfo fieldInfo) {
+            this.fieldInfo = fieldInfo;
+        }
+
+        @Override
+        public void addValue(int docID, float[] vectorValue) {
+            vectors.add(vectorValue);
+            docs.add(docID);
+        }
+
+        /**
+         * The vectors in the order the raw writer writes them, which is the order of their new doc ids if the segment is sorted.
+         */
+        List<float[]> vectors(Sorter.DocMap sortMap) {
+            if (sortMap == null) {
+                return vectors;
+            }
+            int[] ords = IntStream.range(0, vectors.size())
+                .boxed()
+                .sorted(Comparator.comparingInt(ord -> sortMap.oldToNew(docs.get(ord))))
+                .mapToInt(Integer::intValue)
+                .toArray();
+            List<float[]> sorted = new ArrayList<>(vectors.size());
+            for (int ord : ords) {
+                sorted.add(vectors.get(ord));
+            }
+            return sorted;
+        }
+
+        @Override
+        public float[] copyValue(float[] vectorValue) {
+            throw new UnsupportedOperationException("vectors are copied by the raw writer, this writer only keeps references to them");
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            // a reference to each vector and a boxed doc id, the vectors themselves belong to the raw writer
+            return (long) vectors.size() * (2L * RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.NUM_BYTES_OBJECT_HEADER
+                + Integer.BYTES);
+        }
+    }
+
+    static class ListFloatVectorValues extends FloatVectorValues {
+        private final List<float[]> vectors;
+        private final int dims;
+        private int ord = -1;
+
+        ListFloatVectorValues(List<float[]> vectors, int dims) {
+            this.vectors = vectors;
+            this.dims = dims;
+        }
+
+        @Override
+        public int dimension() {
+            return dims;
+        }
+
+        @Override
+        public int size() {
+            return vectors.size();
+        }
+
+        @Override
+        public float[] vectorValue() {
+            return vectors.get(ord);
+        }
+
+        @Override
+        public int docID() {
+            return ord;
+        }
+
+        @Override
+        public int nextDoc() {
+            return advance(ord + 1);
+        }
+
+        @Override
+        public int advance(int target) {
+            ord = target < vectors.size() ? target : NO_MORE_DOCS;
+            return ord;
+        }
+    }
+
+    private record FieldEntry(VectorSimilarityFunction similarity, int dims, int count, float[] centroid, long offset, long length) {}
+
+    public static class ES814BinaryQuantizedFlatVectorReader extends KnnVectorsReader {
+
+        private final FlatVectorsReader rawReader;
+        private final Map<String, FieldEntry> fields = new HashMap<>();
+        private final IndexInput data;
+
+        ES814BinaryQuantizedFlatVectorReader(SegmentReadState state, FlatVectorsReader rawReader) throws IOException {
+            this.rawReader = rawReader;
+            String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, META_EXTENSION);
+            String dataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, DATA_EXTENSION);
+            boolean success = false;
+            IndexInput data = null;
+            try {
+                try (ChecksumIndexInput meta = state.directory.openChecksumInput(metaFileName, state.context)) {
+                    Throwable priorE = null;
+                    try {
+                        CodecUtil.checkIndexHeader(
+                            meta,
+                            META_CODEC_NAME,
+                            VERSION_START,
+                            VERSION_CURRENT,
+                            state.segmentInfo.getId(),
+                            state.segmentSuffix
+                        );
+                        readFields(meta, state.fieldInfos);
+                    } catch (Throwable exception) {
+                        priorE = exception;
+                    } finally {
+                        CodecUtil.checkFooter(meta, priorE);
+                    }
+                }
+                data = state.directory.openInput(dataFileName, state.context);
+                CodecUtil.checkIndexHeader(
+                    data,
+                    DATA_CODEC_NAME,
+                    VERSION_START,
+                    VERSION_CURRENT,
+                    state.segmentInfo.getId(),
+                    state.segmentSuffix
+                );
+                CodecUtil.retrieveChecksum(data);
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(data, rawReader);
+                }
+            }
+            this.data = data;
+        }
+
+        private void readFields(ChecksumIndexInput meta, FieldInfos infos) throws IOException {
+            for (int fieldNumber = meta.readInt(); fieldNumber != -1; fieldNumber = meta.readInt()) {
+                FieldInfo info = infos.fieldInfo(fieldNumber);
+                if (info == null) {
+                    throw new CorruptIndexException("Invalid field number: " + fieldNumber, meta);
+                }
+                int dims = meta.readVInt();
+                int count = meta.readInt();
+                float[] centroid = new float[dims];
+                for (int i = 0; i < dims; i++) {
+                    centroid[i] = Float.intBitsToFloat(meta.readInt());
+                }
+                long offset = meta.readVLong();
+                long length = meta.readVLong();
+                if (length != count * bytesPerVector(dims)) {
+                    throw new CorruptIndexException("Invalid length [" + length + "] for [" + count + "] vectors", meta);
+                }
+                fields.put(info.name, new FieldEntry(info.getVectorSimilarityFunction(), dims, count, centroid, offset, length));
+            }
+        }
+
+        @Override
+        public void checkIntegrity() throws IOException {
+            rawReader.checkIntegrity();
+            CodecUtil.checksumEntireFile(data);
+        }
+
+        @Override
+        public FloatVectorValues getFloatVectorValues(String field) throws IOException {
+            return rawReader.getFloatVectorValues(field);
+        }
+
+        @Override
+        public ByteVectorValues getByteVectorValues(String field) throws IOException {
+            return rawReader.getByteVectorValues(field);
+        }
+
+        @Override
+        public void search(String field, float[] target, KnnCollector knnCollector, Bits acceptDocs) throws IOException {
+            RandomVectorScorer scorer = rawReader.getRandomVectorScorer(field, target);
+            FieldEntry entry = fields.get(field);
+            if (scorer == null || entry == null) {
+                return;
+            }
+            OrdinalTranslatedKnnCollector collector = new OrdinalTranslatedKnnCollector(knnCollector, scorer::ordToDoc);
+            Bits acceptedOrds = scorer.getAcceptOrds(acceptDocs);
+            int candidates = (int) Math.min((long) knnCollector.k() * RESCORE_OVERSAMPLE, entry.count);
+            if (candidates >= entry.count) {
+                // rescoring everything, so there's nothing to gain from the quantized vectors
+                for (int i = 0; i < scorer.maxOrd(); i++) {
+                    if (acceptedOrds == null || acceptedOrds.get(i)) {
+                        collector.collect(i, scorer.score(i));
+                        collector.incVisitedCount(1);
+                    }
+                }
+                return;
+            }
+
+            BinaryQuantizer.Query query = new BinaryQuantizer.Query(entry.similarity, target, entry.centroid);
+            NeighborQueue queue = new NeighborQueue(candidates, false);
+            IndexInput slice = data.slice("binary-quantized-vectors", entry.offset, entry.length);
+            long[] code = new long[BinaryQuantizer.codeLongs(entry.dims)];
+            long bytesPerVector = bytesPerVector(entry.dims);
+            for (int ord = 0; ord < entry.count; ord++) {
+                if (acceptedOrds != null && acceptedOrds.get(ord) == false) {
+                    continue;
+                }
+                slice.seek(ord * bytesPerVector);
+                slice.readLongs(code, 0, code.length);
+                float distanceToCentroid = Float.intBitsToFloat(slice.readInt());
+                float projection = Float.intBitsToFloat(slice.readInt());
+                queue.insertWithOverflow(ord, query.score(code, distanceToCentroid, projection));
+                collector.incVisitedCount(1);
+            }
+            while (queue.size() > 0) {
+                int ord = queue.pop();
+                collector.collect(ord, scorer.score(ord));
+            }
+        }
+
+        @Override
+        public void search(String field, byte[] target, KnnCollector knnCollector, Bits acceptDocs) throws IOException {
+            RandomVectorScorer scorer = rawReader.getRandomVectorScorer(field, target);
+            OrdinalTranslatedKnnCollector collector = new OrdinalTranslatedKnnCollector(knnCollector, scorer::ordToDoc);
+            Bits acceptedOrds = scorer.getAcceptOrds(acceptDocs);
+            for (int i = 0; i < scorer.maxOrd(); i++) {
+                if (acceptedOrds == null || acceptedOrds.get(i)) {
+                    collector.collect(i, scorer.score(i));
+                    collector.incVisitedCount(1);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(data, rawReader);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            long total = rawReader.ramBytesUsed();
+            for (FieldEntry entry : fields.values()) {
+                total += RamUsageEstimator.sizeOf(entry.centroid);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,592 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.vectors;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.FlatVectorsFormat;
+import org.apache.lucene.codecs.FlatVectorsReader;
+import org.apache.lucene.codecs.FlatVectorsWriter;
+import org.apache.lucene.codecs.KnnFieldVectorsWriter;
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.KnnVectorsReader;
+import org.apache.lucene.codecs.KnnVectorsWriter;
+import org.apache.lucene.codecs.lucene99.Lucene99FlatVectorsFormat;
+import org.apache.lucene.index.ByteVectorValues;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.MergeState;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.Sorter;
+import org.apache.lucene.index.VectorEncoding;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.KnnCollector;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.IOSupplier;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.VectorUtil;
+import org.apache.lucene.util.hnsw.NeighborQueue;
+import org.apache.lucene.util.hnsw.OrdinalTranslatedKnnCollector;
+import org.apache.lucene.util.hnsw.RandomVectorScorer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An inverted file vector format: vectors are clustered with k-means when a segment is written, and each cluster is stored as a
+ * contiguous partition of binary quantized vectors, see {@link BinaryQuantizer}. Searches only keep the centroids in memory. They
+ * scan the partitions of the {@code nprobe} centroids closest to the query, reading each sequentially from disk, and then rescore
+ * the best {@link ES814BinaryQuantizedFlatVectorFormat#RESCORE_OVERSAMPLE} times {@code k} candidates with the raw vectors.
+ * <p>
+ *     The number of partitions to scan comes from {@link IvfKnnCollector} if the search collects into one, and defaults to the square
+ *     root of the number of partitions.
+ * </p>
+ */
+public class ES814IvfVectorFormat extends KnnVectorsFormat {
+
+    static final String NAME = "ES814IvfVectorFormat";
+
+    public static final int DEFAULT_VECTORS_PER_CLUSTER = 1000;
+
+    static final int KMEANS_ITERATIONS = 10;
+    /**
+     * K-means runs on a sample of the vectors of at most this many vectors per cluster, and at most {@link #MAX_SAMPLE_BYTES}.
+     */
+    static final int SAMPLES_PER_CLUSTER = 64;
+    static final long MAX_SAMPLE_BYTES = 64 * 1024 * 1024;
+
+    static final String META_CODEC_NAME = "ES814IvfVectorFormatMeta";
+    static final String DATA_CODEC_NAME = "ES814IvfVectorFormatData";
+    static final String META_EXTENSION = "mivf";
+    static final String DATA_EXTENSION = "ivf";
+    static final int VERSION_START = 0;
+    static final int VERSION_CURRENT = VERSION_START;
+
+    private final FlatVectorsFormat rawFormat = new Lucene99FlatVectorsFormat();
+    private final int vectorsPerCluster;
+
+    public ES814IvfVectorFormat() {
+        this(DEFAULT_VECTORS_PER_CLUSTER);
+    }
+
+    /**
+     * @param vectorsPerCluster the average number of vectors per partition
+     */
+    public ES814IvfVectorFormat(int vectorsPerCluster) {
+        super(NAME);
+        if (vectorsPerCluster < 2) {
+            throw new IllegalArgumentException("vectorsPerCluster must be at least 2 but was [" + vectorsPerCluster + "]");
+        }
+        this.vectorsPerCluster = vectorsPerCluster;
+    }
+
+    @Override
+    public KnnVectorsWriter fieldsWriter(SegmentWriteState state) throws IOException {
+        return new ES814IvfVectorWriter(state, rawFormat.fieldsWriter(state), vectorsPerCluster);
+    }
+
+    @Override
+    public KnnVectorsReader fieldsReader(SegmentReadState state) throws IOException {
+        return new ES814IvfVectorReader(state, rawFormat.fieldsReader(state));
+    }
+
+    @Override
+    public String toString() {
+        return NAME + "(name=" + NAME + ", vectorsPerCluster=" + vectorsPerCluster + ", rawVectorFormat=" + rawFormat + ")";
+    }
+
+    /**
+     * The number of bytes a vector takes in a partition: its quantized bits, its two corrections and its ordinal.
+     */
+    static long bytesPerEntry(int dims) {
+        return ES814BinaryQuantizedFlatVectorFormat.bytesPerVector(dims) + Integer.BYTES;
+    }
+
+    /**
+     * How partitions are ranked for a query. Vectors are assigned to their closest centroid, which for the unit vectors of the dot
+     * product and cosine similarities is also the one with the highest dot product.
+     */
+    static float centroidScore(VectorSimilarityFunction similarity, float[] query, float[] centroid) {
+        return similarity == VectorSimilarityFunction.EUCLIDEAN
+            ? -VectorUtil.squareDistance(query, centroid)
+            : VectorUtil.dotProduct(query, centroid);
+    }
+
+    static int nearestCentroid(float[][] centroids, float[] vector) {
+        int nearest = 0;
+        float nearestDistance = Float.POSITIVE_INFINITY;
+        for (int c = 0; c < centroids.length; c++) {
+            float distance = VectorUtil.squareDistance(centroids[c], vector);
+            if (distance < nearestDistance) {
+                nearest = c;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Clusters the sample into at most {@code k} centroids with Lloyd's algorithm, starting from random vectors of the sample.
+     */
+    static float[][] kMeans(float[][] sample, int k, Random random) {
+        int n = sample.length;
+        k = Math.min(k, n);
+        int dims = sample[0].length;
+        int[] picks = new int[n];
+        for (int i = 0; i < n; i++) {
+            picks[i] = i;
+        }
+        float[][] centroids = new float[k][];
+        for (int c = 0; c < k; c++) {
+            int pick = c + random.nextInt(n - c);
+            int swap = picks[c];
+            picks[c] = picks[pick];
+            picks[pick] = swap;
+            centroids[c] = sample[picks[c]].clone();
+        }
+        int[] assignments = new int[n];
+        for (int iteration = 0; iteration < KMEANS_ITERATIONS; iteration++) {
+            boolean changed = false;
+            for (int i = 0; i < n; i++) {
+                int nearest = nearestCentroid(centroids, sample[i]);
+                if (iteration == 0 || nearest != assignments[i]) {
+                    assignments[i] = nearest;
+                    changed = true;
+                }
+            }
+            if (changed == false) {
+                break;
+            }
+            float[][] sums = new float[k][dims];
+            int[] sizes = new int[k];
+            for (int i = 0; i < n; i++) {
+                float[] sum = sums[assignments[i]];
+                for (int d = 0; d < dims; d++) {
+                    sum[d] += sample[i][d];
+                }
+                sizes[assignments[i]]++;
+            }
+            for (int c = 0; c < k; c++) {
+                if (sizes[c] == 0) {
+                    // restart empty clusters from a random vector
+                    centroids[c] = sample[random.nextInt(n)].clone();
+                    continue;
+                }
+                for (int d = 0; d < dims; d++) {
+                    centroids[c][d] = sums[c][d] / sizes[c];
+                }
+            }
+        }
+        return centroids;
+    }
+
+    public static class ES814IvfVectorWriter extends KnnVectorsWriter {
+
+        private final SegmentWriteState state;
+        private final FlatVectorsWriter rawWriter;
+        private final int vectorsPerCluster;
+        private final List<ES814BinaryQuantizedFlatVectorFormat.FieldWriter> fields = new ArrayList<>();
+        private final IndexOutput meta;
+        private final IndexOutput data;
+        private boolean finished;
+
+        ES814IvfVectorWriter(SegmentWriteState state, FlatVectorsWriter rawWriter, int vectorsPerCluster) throws IOException {
+            this.state = state;
+            this.rawWriter = rawWriter;
+            this.vectorsPerCluster = vectorsPerCluster;
+            String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, META_EXTENSION);
+            String dataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, DATA_EXTENSION);
+            boolean success = false;
+            IndexOutput meta = null;
+            IndexOutput data = null;
+            try {
+                meta = state.directory.createOutput(metaFileName, state.context);
+                data = state.directory.createOutput(dataFileName, state.context);
+                CodecUtil.writeIndexHeader(meta, META_CODEC_NAME, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                CodecUtil.writeIndexHeader(data, DATA_CODEC_NAME, VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(meta, data, rawWriter);
+                }
+            }
+            this.meta = meta;
+            this.data = data;
+        }
+
+        @Override
+        public KnnFieldVectorsWriter<?> addField(FieldInfo fieldInfo) throws IOException {
+            if (fieldInfo.getVectorEncoding() != VectorEncoding.FLOAT32) {
+                return rawWriter.addField(fieldInfo, null);
+            }
+            ES814BinaryQuantizedFlatVectorFormat.FieldWriter field = new ES814BinaryQuantizedFlatVectorFormat.FieldWriter(fieldInfo);
+            fields.add(field);
+            return rawWriter.addField(fieldInfo, field);
+        }
+
+        @Override
+        public void flush(int maxDoc, Sorter.DocMap sortMap) throws IOException {
+            rawWriter.flush(maxDoc, sortMap);
+            for (ES814BinaryQuantizedFlatVectorFormat.FieldWriter field : fields) {
+                List<float[]> vectors = field.vectors(sortMap);
+                int dims = field.fieldInfo.getVectorDimension();
+                writeField(field.fieldInfo, () -> new ES814BinaryQuantizedFlatVectorFormat.ListFloatVectorValues(vectors, dims));
+            }
+        }
+
+        @Override
+        public void mergeOneField(FieldInfo fieldInfo, MergeState mergeState) throws IOException {
+            rawWriter.mergeOneField(fieldInfo, mergeState);
+            if (fieldInfo.getVectorEncoding() == VectorEncoding.FLOAT32) {
+                writeField(fieldInfo, () -> MergedVectorValues.mergeFloatVectorValues(fieldInfo, mergeState));
+            }
+        }
+
+        /**
+         * Clusters the vectors of a field and writes them grouped by cluster. Vectors are quantized relative to their centroid in
+         * ordinal order into a temporary file, which is then copied into the partitions.
+         */
+        private void writeField(FieldInfo fieldInfo, IOSupplier<FloatVectorValues> vectors) throws IOException {
+            int dims = fieldInfo.getVectorDimension();
+            VectorSimilarityFunction similarity = fieldInfo.getVectorSimilarityFunction();
+            int count = vectors.get().size();
+            float[][] centroids = count == 0 ? new float[0][] : cluster(fieldInfo, vectors, count);
+
+            int[] assignments = new int[count];
+            int[] sizes = new int[centroids.length];
+            long[] code = new long[BinaryQuantizer.codeLongs(dims)];
+            float[] corrections = new float[2];
+            long bytesPerVector = ES814BinaryQuantizedFlatVectorFormat.bytesPerVector(dims);
+            long offset = data.alignFilePointer(Long.BYTES);
+            String tempName = null;
+            try {
+                try (IndexOutput temp = state.directory.createTempOutput(data.getName(), "temp", state.context)) {
+                    tempName = temp.getName();
+                    FloatVectorValues values = vectors.get();
+                    int ord = 0;
+                    for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                        float[] vector = BinaryQuantizer.normalizeIfCosine(values.vectorValue(), similarity);
+                        int centroid = nearestCentroid(centroids, vector);
+                        assignments[ord++] = centroid;
+                        sizes[centroid]++;
+                        BinaryQuantizer.quantize(vector, centroids[centroid], code, corrections);
+                        for (long word : code) {
+                            temp.writeLong(word);
+                        }
+                        temp.writeInt(Float.floatToIntBits(corrections[0]));
+                        temp.writeInt(Float.floatToIntBits(corrections[1]));
+                    }
+                }
+                // group the ordinals by partition, keeping them sorted within each partition
+                int[] starts = new int[centroids.length + 1];
+                for (int c = 0; c < centroids.length; c++) {
+                    starts[c + 1] = starts[c] + sizes[c];
+                }
+                int[] next = starts.clone();
+                int[] ords = new int[count];
+                for (int ord = 0; ord < count; ord++) {
+                    ords[next[assignments[ord]]++] = ord;
+                }
+                try (IndexInput temp = state.directory.openInput(tempName, state.context)) {
+                    for (int ord : ords) {
+                        temp.seek(ord * bytesPerVector);
+                        temp.readLongs(code, 0, code.length);
+                        for (long word : code) {
+                            data.writeLong(word);
+                        }
+                        data.writeInt(temp.readInt());
+                        data.writeInt(temp.readInt());
+                        data.writeInt(ord);
+                    }
+                }
+            } finally {
+                if (tempName != null) {
+                    IOUtils.deleteFilesIgnoringExceptions(state.directory, tempName);
+                }
+            }
+
+            meta.writeInt(fieldInfo.number);
+            meta.writeVInt(dims);
+            meta.writeInt(count);
+            meta.writeVInt(centroids.length);
+            for (int c = 0; c < centroids.length; c++) {
+                for (float value : centroids[c]) {
+                    meta.writeInt(Float.floatToIntBits(value));
+                }
+                meta.writeVInt(sizes[c]);
+            }
+            meta.writeVLong(offset);
+            meta.writeVLong(data.getFilePointer() - offset);
+        }
+
+        private float[][] cluster(FieldInfo fieldInfo, IOSupplier<FloatVectorValues> vectors, int count) throws IOException {
+            int dims = fieldInfo.getVectorDimension();
+            VectorSimilarityFunction similarity = fieldInfo.getVectorSimilarityFunction();
+            int k = Math.max(1, count / vectorsPerCluster);
+            long maxSample = Math.max(k, MAX_SAMPLE_BYTES / ((long) Float.BYTES * dims));
+            int sampleSize = (int) Math.min(count, Math.min((long) k * SAMPLES_PER_CLUSTER, maxSample));
+            // the same vectors always make the same clusters
+            Random random = new Random(31L * fieldInfo.number + count);
+            float[][] sample = new float[sampleSize][];
+            FloatVectorValues values = vectors.get();
+            int i = 0;
+            for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc(), i++) {
+                int slot = i < sampleSize ? i : random.nextInt(i + 1);
+                if (slot < sampleSize) {
+                    float[] vector = values.vectorValue();
+                    // vector values may reuse their array
+                    sample[slot] = similarity == VectorSimilarityFunction.COSINE
+                        ? BinaryQuantizer.normalizeIfCosine(vector, similarity)
+                        : vector.clone();
+                }
+            }
+            return kMeans(sample, k, random);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (finished) {
+                throw new IllegalStateException("already finished");
+            }
+            finished = true;
+            rawWriter.finish();
+            meta.writeInt(-1);
+            CodecUtil.writeFooter(meta);
+            CodecUtil.writeFooter(data);
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(meta, data, rawWriter);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            long total = rawWriter.ramBytesUsed();
+            for (ES814BinaryQuantizedFlatVectorFormat.FieldWriter field : fields) {
+                total += field.ramBytesUsed();
+            }
+            return total;
+        }
+    }
+
+    private record FieldEntry(
+        VectorSimilarityFunction similarity,
+        int dims,
+        int count,
+        float[][] centroids,
+        int[] sizes,
+        long[] partitionOffsets,
+        long offset,
+        long length
+    ) {}
+
+    public static class ES814IvfVectorReader extends KnnVectorsReader {
+
+        private final FlatVectorsReader rawReader;
+        private final Map<String, FieldEntry> fields = new HashMap<>();
+        private final IndexInput data;
+
+        ES814IvfVectorReader(SegmentReadState state, FlatVectorsReader rawReader) throws IOException {
+            this.rawReader = rawReader;
+            String metaFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, META_EXTENSION);
+            String dataFileName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix, DATA_EXTENSION);
+            boolean success = false;
+            IndexInput data = null;
+            try {
+                try (ChecksumIndexInput meta = state.directory.openChecksumInput(metaFileName, state.context)) {
+                    Throwable priorE = null;
+                    try {
+                        CodecUtil.checkIndexHeader(
+                            meta,
+                            META_CODEC_NAME,
+                            VERSION_START,
+                            VERSION_CURRENT,
+                            state.segmentInfo.getId(),
+                            state.segmentSuffix
+                        );
+                        readFields(meta, state.fieldInfos);
+                    } catch (Throwable exception) {
+                        priorE = exception;
+                    } finally {
+                        CodecUtil.checkFooter(meta, priorE);
+                    }
+                }
+                data = state.directory.openInput(dataFileName, state.context);
+                CodecUtil.checkIndexHeader(
+                    data,
+                    DATA_CODEC_NAME,
+                    VERSION_START,
+                    VERSION_CURRENT,
+                    state.segmentInfo.getId(),
+                    state.segmentSuffix
+                );
+                CodecUtil.retrieveChecksum(data);
+                success = true;
+            } finally {
+                if (success == false) {
+                    IOUtils.closeWhileHandlingException(data, rawReader);
+                }
+            }
+            this.data = data;
+        }
+
+        private void readFields(ChecksumIndexInput meta, FieldInfos infos) throws IOException {
+            for (int fieldNumber = meta.readInt(); fieldNumber != -1; fieldNumber = meta.readInt()) {
+                FieldInfo info = infos.fieldInfo(fieldNumber);
+                if (info == null) {
+                    throw new CorruptIndexException("Invalid field number: " + fieldNumber, meta);
+                }
+                int dims = meta.readVInt();
+                int count = meta.readInt();
+                int numCentroids = meta.readVInt();
+                float[][] centroids = new float[numCentroids][dims];
+                int[] sizes = new int[numCentroids];
+                long[] partitionOffsets = new long[numCentroids];
+                long bytesPerEntry = bytesPerEntry(dims);
+                long partitionOffset = 0;
+                for (int c = 0; c < numCentroids; c++) {
+                    for (int d = 0; d < dims; d++) {
+                        centroids[c][d] = Float.intBitsToFloat(meta.readInt());
+                    }
+                    sizes[c] = meta.readVInt();
+                    partitionOffsets[c] = partitionOffset;
+                    partitionOffset += sizes[c] * bytesPerEntry;
+                }
+                long offset = meta.readVLong();
+                long length = meta.readVLong();
+                if (length != count * bytesPerEntry || partitionOffset != length) {
+                    throw new CorruptIndexException("Invalid length [" + length + "] for [" + count + "] vectors", meta);
+                }
+                fields.put(
+                    info.name,
+                    new FieldEntry(info.getVectorSimilarityFunction(), dims, count, centroids, sizes, partitionOffsets, offset, length)
+                );
+            }
+        }
+
+        @Override
+        public void checkIntegrity() throws IOException {
+            rawReader.checkIntegrity();
+            CodecUtil.checksumEntireFile(data);
+        }
+
+        @Override
+        public FloatVectorValues getFloatVectorValues(String field) throws IOException {
+            return rawReader.getFloatVectorValues(field);
+        }
+
+        @Override
+        public ByteVectorValues getByteVectorValues(String field) throws IOException {
+            return rawReader.getByteVectorValues(field);
+        }
+
+        @Override
+        public void search(String field, float[] target, KnnCollector knnCollector, Bits acceptDocs) throws IOException {
+            RandomVectorScorer scorer = rawReader.getRandomVectorScorer(field, target);
+            FieldEntry entry = fields.get(field);
+            if (scorer == null || entry == null) {
+                return;
+            }
+            OrdinalTranslatedKnnCollector collector = new OrdinalTranslatedKnnCollector(knnCollector, scorer::ordToDoc);
+            Bits acceptedOrds = scorer.getAcceptOrds(acceptDocs);
+            int candidates = (int) Math.min(
+                (long) knnCollector.k() * ES814BinaryQuantizedFlatVectorFormat.RESCORE_OVERSAMPLE,
+                entry.count
+            );
+            if (candidates >= entry.count) {
+                // rescoring everything, so there's nothing to gain from the partitions
+                for (int i = 0; i < scorer.maxOrd(); i++) {
+                    if (acceptedOrds == null || acceptedOrds.get(i)) {
+                        collector.collect(i, scorer.score(i));
+                        collector.incVisitedCount(1);
+                    }
+                }
+                return;
+            }
+
+            int numCentroids = entry.centroids.length;
+            int nprobe = knnCollector instanceof IvfKnnCollector ivf
+                ? ivf.nprobe()
+                : Math.max(1, (int) Math.ceil(Math.sqrt(numCentroids)));
+            nprobe = Math.min(nprobe, numCentroids);
+            float[] query = BinaryQuantizer.normalizeIfCosine(target, entry.similarity);
+            NeighborQueue closest = new NeighborQueue(nprobe, false);
+            for (int c = 0; c < numCentroids; c++) {
+                closest.insertWithOverflow(c, centroidScore(entry.similarity, query, entry.centroids[c]));
+            }
+
+            NeighborQueue queue = new NeighborQueue(candidates, false);
+            IndexInput partitions = data.slice("ivf-partitions", entry.offset, entry.length);
+            long[] code = new long[BinaryQuantizer.codeLongs(entry.dims)];
+            while (closest.size() > 0) {
+                int centroid = closest.pop();
+                // vectors are quantized relative to the centroid of their partition
+                BinaryQuantizer.Query quantizedQuery = new BinaryQuantizer.Query(entry.similarity, target, entry.centroids[centroid]);
+                partitions.seek(entry.partitionOffsets[centroid]);
+                for (int i = 0; i < entry.sizes[centroid]; i++) {
+                    partitions.readLongs(code, 0, code.length);
+                    float distanceToCentroid = Float.intBitsToFloat(partitions.readInt());
+                    float projection = Float.intBitsToFloat(partitions.readInt());
+                    int ord = partitions.readInt();
+                    if (acceptedOrds != null && acceptedOrds.get(ord) == false) {
+                        continue;
+                    }
+                    queue.insertWithOverflow(ord, quantizedQuery.score(code, distanceToCentroid, projection));
+                    collector.incVisitedCount(1);
+                }
+            }
+            while (queue.size() > 0) {
+                int ord = queue.pop();
+                collector.collect(ord, scorer.score(ord));
+            }
+        }
+
+        @Override
+        public void search(String field, byte[] target, KnnCollector knnCollector, Bits acceptDocs) throws IOException {
+            RandomVectorScorer scorer = rawReader.getRandomVectorScorer(field, target);
+            OrdinalTranslatedKnnCollector collector = new OrdinalTranslatedKnnCollector(knnCollector, scorer::ordToDoc);
+            Bits acceptedOrds = scorer.getAcceptOrds(acceptDocs);
+            for (int i = 0; i < scorer.maxOrd(); i++) {
+                if (acceptedOrds == null || acceptedOrds.get(i)) {
+                    collector.collect(i, scorer.score(i));
+                    collector.incVisitedCount(1);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(data, rawReader);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            long total = rawReader.ramBytesUsed();
+            for (FieldEntry entry : fields.values()) {
+                total += RamUsageEstimator.sizeOf(entry.centroids) + RamUsageEstimator.sizeOf(entry.sizes) + RamUsageEstimator.sizeOf(
+                    entry.partitionOffsets
+                );
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.vectors;
+
+import org.apache.lucene.search.KnnCollector;
+import org.apache.lucene.search.TopDocs;
+
+/**
+ * A {@link KnnCollector} that also tells {@link ES814IvfVectorFormat} how many partitions to scan. Other formats collect into it
+ * like into the collector it wraps.
+ */
+public class IvfKnnCollector implements KnnCollector {
+    private final KnnCollector delegate;
+    private final int nprobe;
+
+    public IvfKnnCollector(KnnCollector delegate, int nprobe) {
+        if (nprobe < 1) {
+            throw new IllegalArgumentException("nprobe must be at least 1 but was [" + nprobe + "]");
+        }
+        this.delegate = delegate;
+        this.nprobe = nprobe;
+    }
+
+    /**
+     * The number of partitions, those with the closest centroids to the query, to scan in each segment.
+     */
+    public int nprobe() {
+        return nprobe;
+    }
+
+    @Override
+    public boolean earlyTerminated() {
+        return delegate.earlyTerminated();
+    }
+
+    @Override
+    public void incVisitedCount(int count) {
+        delegate.incVisitedCount(count);
+    }
+
+    @Override
+    public long visitedCount() {
+        return delegate.visitedCount();
+    }
+
+    @Override
+    public long visitLimit() {
+        return delegate.visitLimit();
+    }
+
+    @Override
+    public int k() {
+        return delegate.k();
+    }
+
+    @Override
+    public boolean collect(int docId, float similarity) {
+        return delegate.collect(docId, similarity);
+    }
+
+    @Override
+    public float minCompetitiveSimilarity() {
+        return delegate.minCompetitiveSimilarity();
+    }
+
+    @Override
+    public TopDocs topDocs() {
+        return delegate.topDocs();
+    }
+}
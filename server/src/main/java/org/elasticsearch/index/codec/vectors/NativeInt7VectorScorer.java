@@ -0,0 +1,98 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.vectors;
+
+import org.apache.lucene.codecs.FlatVectorsReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.VectorEncoding;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.KnnCollector;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.VectorUtil;
+import org.apache.lucene.util.quantization.QuantizedByteVectorValues;
+import org.apache.lucene.util.quantization.QuantizedVectorsReader;
+import org.apache.lucene.util.quantization.ScalarQuantizer;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.nativeaccess.VectorSimilarityFunctions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
+
+/**
+ * Scores every int7 scalar quantized vector of a field against a float query with the native functions of the vec library,
+ * producing the same scores as the quantized scorer of Lucene. Lucene doesn't expose the memory mapped vector data, so each
+ * vector is copied into a direct buffer before it's compared.
+ */
+final class NativeInt7VectorScorer {
+
+    private static final VectorSimilarityFunctions FUNCTIONS = NativeAccess.instance().getVectorSimilarityFunctions().orElse(null);
+
+    private NativeInt7VectorScorer() {}
+
+    /**
+     * Collects every vector of {@code fieldInfo} that {@code acceptDocs} accepts, returning {@code false} without collecting
+     * anything if the native functions aren't available or the field isn't quantized to 7 bits.
+     */
+    static boolean search(FlatVectorsReader reader, FieldInfo fieldInfo, float[] target, KnnCollector knnCollector, Bits acceptDocs)
+        throws IOException {
+        if (FUNCTIONS == null
+            || fieldInfo == null
+            || fieldInfo.getVectorEncoding() != VectorEncoding.FLOAT32
+            || reader instanceof QuantizedVectorsReader == false) {
+            return false;
+        }
+        QuantizedVectorsReader quantizedReader = (QuantizedVectorsReader) reader;
+        ScalarQuantizer quantizer = quantizedReader.getQuantizationState(fieldInfo.name);
+        QuantizedByteVectorValues values = quantizedReader.getQuantizedVectorValues(fieldInfo.name);
+        if (quantizer == null || quantizer.getBits() != 7 || values == null) {
+            return false;
+        }
+        VectorSimilarityFunction similarity = fieldInfo.getVectorSimilarityFunction();
+        float[] query = target;
+        if (similarity == VectorSimilarityFunction.COSINE) {
+            query = ArrayUtil.copyOfSubArray(target, 0, target.length);
+            VectorUtil.l2normalize(query);
+        }
+        int dims = values.dimension();
+        byte[] quantizedQuery = new byte[dims];
+        float queryOffset = quantizer.quantize(query, quantizedQuery, similarity);
+        float multiplier = quantizer.getConstantMultiplier();
+        NativeAccess nativeAccess = NativeAccess.instance();
+        try (
+            CloseableByteBuffer queryBuffer = nativeAccess.newBuffer(dims);
+            CloseableByteBuffer vectorBuffer = nativeAccess.newBuffer(dims)
+        ) {
+            ByteBuffer a = queryBuffer.buffer().put(0, quantizedQuery);
+            ByteBuffer b = vectorBuffer.buffer();
+            for (int doc = values.nextDoc(); doc != NO_MORE_DOCS; doc = values.nextDoc()) {
+                if (acceptDocs != null && acceptDocs.get(doc) == false) {
+                    continue;
+                }
+                b.put(0, values.vectorValue());
+                float score = switch (similarity) {
+                    case EUCLIDEAN -> 1 / (1f + FUNCTIONS.squareDistance7u(a, b, dims) * multiplier);
+                    case DOT_PRODUCT, COSINE -> Math.max(
+                        (1 + (FUNCTIONS.dotProduct7u(a, b, dims) * multiplier + queryOffset + values.getScoreCorrectionConstant())) / 2,
+                        0
+                    );
+                    case MAXIMUM_INNER_PRODUCT -> VectorUtil.scaleMaxInnerProductScore(
+                        FUNCTIONS.dotProduct7u(a, b, dims) * multiplier + queryOffset + values.getScoreCorrectionConstant()
+                    );
+                };
+                knnCollector.collect(doc, score);
+                knnCollector.incVisitedCount(1);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe map from _uid to {@link VersionValue} that stores its entries in {@link BigArrays} rather than as objects: the uids
+ * are stored in a {@link BytesRefHash} and the version values as fixed-width rows of longs. This avoids allocating several objects
+ * per indexed document in the live version map, which are short-lived but survive young collections when indexing fast. Memory is
+ * accounted for by the circuit breaker of the provided {@link BigArrays}, and {@link #ramBytesUsed()} reports the bytes of the
+ * arrays that are currently allocated.
+ * <p>
+ * The map is split into stripes by the hash of the uid, each guarded by its own lock. Removing an entry only marks its row as absent,
+ * the uid stays in the hash and no memory is freed until the map is closed, which is fine since the live version map drops its maps
+ * on every refresh.
+ * Once closed, the map ignores writes and looks like an empty map to readers that still hold a reference to it.
+ */
+final class CompactVersionMap extends AbstractMap<BytesRef, VersionValue> implements Accountable, Releasable {
+
+    private static final int STRIPE_BITS = 4;
+    private static final int NUM_STRIPES = 1 << STRIPE_BITS;
+
+    // layout of the row of longs that holds each version value
+    private static final int VERSION = 0;
+    private static final int SEQ_NO = 1;
+    private static final int TERM = 2;
+    // the translog generation of an index, or the time of a delete
+    private static final int GENERATION_OR_TIME = 3;
+    private static final int TRANSLOG_LOCATION = 4;
+    // the size of the translog location in the upper 32 bits, and flags in the lower ones
+    private static final int SIZE_AND_FLAGS = 5;
+    private static final int ROW_LENGTH = 6;
+
+    private static final long PRESENT = 1;
+    private static final long DELETE = 1 << 1;
+    private static final long HAS_LOCATION = 1 << 2;
+
+    private final BigArrays bigArrays;
+    private final Stripe[] stripes = new Stripe[NUM_STRIPES];
+    // the bytes of the arrays of all stripes, updated by the stripes under their own lock
+    private final AtomicLong bytesAllocated = new AtomicLong();
+
+    CompactVersionMap(BigArrays bigArrays) {
+        this.bigArrays = bigArrays;
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripe(BytesRef uid) {
+        return stripes[uid.hashCode() >>> (Integer.SIZE - STRIPE_BITS)];
+    }
+
+    @Override
+    public VersionValue get(Object key) {
+        if (key instanceof BytesRef uid) {
+            return stripe(uid).get(uid);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public VersionValue put(BytesRef uid, VersionValue value) {
+        return stripe(uid).put(uid, value);
+    }
+
+    @Override
+    public VersionValue remove(Object key) {
+        if (key instanceof BytesRef uid) {
+            return stripe(uid).remove(uid);
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Stripe stripe : stripes) {
+            if (stripe.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a point in time copy of the entries of this map.
+     */
+    @Override
+    public Set<Entry<BytesRef, VersionValue>> entrySet() {
+        Set<Entry<BytesRef, VersionValue>> entries = new HashSet<>();
+        for (Stripe stripe : stripes) {
+            stripe.copyEntries(entries);
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the number of bytes of the arrays that this map currently holds, which doesn't go down when entries are removed.
+     */
+    @Override
+    public long ramBytesUsed() {
+        return bytesAllocated.get();
+    }
+
+    @Override
+    public void close() {
+        for (Stripe stripe : stripes) {
+            stripe.close();
+        }
+    }
+
+    private final class Stripe {
+        // both are null until the first put and after closing
+        private BytesRefHash uids;
+        private LongArray rows;
+        private int size;
+        private boolean closed;
+
+        synchronized VersionValue get(BytesRef uid) {
+            if (uids == null) {
+                return null;
+            }
+            final long id = uids.find(uid);
+            return id < 0 ? null : read(id);
+        }
+
+        synchronized VersionValue put(BytesRef uid, VersionValue value) {
+            if (closed) {
+                // a writer raced with a refresh that dropped this map, the value would have been dropped with it anyway
+                return null;
+            }
+            final long bytesBefore = bytesUsed();
+            if (uids == null) {
+                uids = new BytesRefHash(1, bigArrays);
+                rows = bigArrays.newLongArray(ROW_LENGTH, true);
+            }
+            long id = uids.add(uid);
+            final VersionValue previous;
+            if (id < 0) {
+                id = -1 - id;
+                previous = read(id);
+            } else {
+                rows = bigArrays.grow(rows, (id + 1) * ROW_LENGTH);
+                previous = null;
+            }
+            final long bytesAfter = bytesUsed();
+            if (bytesAfter != bytesBefore) {
+                bytesAllocated.addAndGet(bytesAfter - bytesBefore);
+            }
+            write(id, value);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+
+        synchronized VersionValue remove(BytesRef uid) {
+            if (uids == null) {
+                return null;
+            }
+            final long id = uids.find(uid);
+            if (id < 0) {
+                return null;
+            }
+            final VersionValue previous = read(id);
+            if (previous != null) {
+                rows.set(id * ROW_LENGTH + SIZE_AND_FLAGS, 0L);
+                size--;
+            }
+            return previous;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void copyEntries(Set<Entry<BytesRef, VersionValue>> entries) {
+            if (uids == null) {
+                return;
+            }
+            for (long id = 0; id < uids.size(); id++) {
+                final VersionValue value = read(id);
+                if (value != null) {
+                    entries.add(new SimpleImmutableEntry<>(BytesRef.deepCopyOf(uids.get(id, new BytesRef())), value));
+                }
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            size = 0;
+            bytesAllocated.addAndGet(-bytesUsed());
+            Releasables.close(uids, rows);
+            uids = null;
+            rows = null;
+        }
+
+        private long bytesUsed() {
+            return uids == null ? 0 : uids.ramBytesUsed() + rows.ramBytesUsed();
+        }
+
+        private VersionValue read(long id) {
+            final long offset = id * ROW_LENGTH;
+            final long sizeAndFlags = rows.get(offset + SIZE_AND_FLAGS);
+            if ((sizeAndFlags & PRESENT) == 0) {
+                return null;
+            }
+            final long version = rows.get(offset + VERSION);
+            final long seqNo = rows.get(offset + SEQ_NO);
+            final long term = rows.get(offset + TERM);
+            if ((sizeAndFlags & DELETE) != 0) {
+                return new DeleteVersionValue(version, seqNo, term, rows.get(offset + GENERATION_OR_TIME));
+            }
+            Translog.Location location = null;
+            if ((sizeAndFlags & HAS_LOCATION) != 0) {
+                location = new Translog.Location(
+                    rows.get(offset + GENERATION_OR_TIME),
+                    rows.get(offset + TRANSLOG_LOCATION),
+                    (int) (sizeAndFlags >>> Integer.SIZE)
+                );
+            }
+            return new IndexVersionValue(location, version, seqNo, term);
+        }
+
+        private void write(long id, VersionValue value) {
+            final long offset = id * ROW_LENGTH;
+            rows.set(offset + VERSION, value.version);
+            rows.set(offset + SEQ_NO, value.seqNo);
+            rows.set(offset + TERM, value.term);
+            long sizeAndFlags = PRESENT;
+            if (value instanceof DeleteVersionValue delete) {
+                sizeAndFlags |= DELETE;
+                rows.set(offset + GENERATION_OR_TIME, delete.time);
+            } else {
+                final Translog.Location location = value.getLocation();
+                if (location != null) {
+                    sizeAndFlags |= HAS_LOCATION | ((long) location.size << Integer.SIZE);
+                    rows.set(offset + GENERATION_OR_TIME, location.generation);
+                    rows.set(offset + TRANSLOG_LOCATION, location.translogLocation);
+                }
+            }
+            rows.set(offset + SIZE_AND_FLAGS, sizeAndFlags);
+        }
+    }
+}
@@ -231,7 +231,12 @@ public class InternalEngine extends Engine {
         this.relativeTimeInNanosSupplier = config().getRelativeTimeInNanosSupplier();
         this.lastFlushTimestamp = relativeTimeInNanosSupplier.getAsLong(); // default to creation timestamp
         this.liveVersionMapArchive = createLiveVersionMapArchive();
-        this.versionMap = new LiveVersionMap(liveVersionMapArchive);
+        if (liveVersionMapArchive == LiveVersionMapArchive.NOOP_ARCHIVE
+            && engineConfig.getIndexSettings().getValue(IndexSettings.INDEX_COMPACT_VERSION_MAP_SETTING)) {
+            this.versionMap = new LiveVersionMap(engineConfig.getTranslogConfig().getBigArrays());
+        } else {
+            this.versionMap = new LiveVersionMap(liveVersionMapArchive);
+        }
         final TranslogDeletionPolicy translogDeletionPolicy = new TranslogDeletionPolicy();
         store.incRef();
         IndexWriter writer = null;
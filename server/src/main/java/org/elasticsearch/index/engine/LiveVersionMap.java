@@ -12,6 +12,7 @@ import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
 import org.elasticsearch.core.Releasable;
@@ -20,6 +21,7 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
 
 /** Maps _uid value to its version information. */
 public final class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
@@ -28,12 +30,35 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
     private final LiveVersionMapArchive archive;
 
+    // creates the map that backs the current version lookup, given the expected number of entries
+    private final IntFunction<Map<BytesRef, VersionValue>> mapFactory;
+
     LiveVersionMap() {
         this(LiveVersionMapArchive.NOOP_ARCHIVE);
     }
 
     LiveVersionMap(LiveVersionMapArchive archive) {
         this.archive = archive;
+        this.mapFactory = ConcurrentCollections::newConcurrentMapWithAggressiveConcurrency;
+        this.maps = new Maps(mapFactory);
+    }
+
+    /**
+     * Creates a live version map whose current and old version lookups store their entries in the given {@link BigArrays} instead of
+     * on-heap objects, see {@link CompactVersionMap}. The old version lookup is released on refresh, so this can't be used with an
+     * archive that retains it.
+     */
+    LiveVersionMap(BigArrays bigArrays) {
+        this.archive = LiveVersionMapArchive.NOOP_ARCHIVE;
+        this.mapFactory = expectedSize -> {
+            CompactVersionMap map = new CompactVersionMap(bigArrays);
+            if (cleared) {
+                // a refresh raced with closing the index, the map must never allocate anything since nothing will release it
+                map.close();
+            }
+            return map;
+        };
+        this.maps = new Maps(mapFactory);
     }
 
     public static final class VersionLookup {
@@ -45,6 +70,8 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
         private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap());
         private final Map<BytesRef, VersionValue> map;
+        // the map if it stores its entries in big arrays, in which case it accounts for the memory it allocates itself
+        private final CompactVersionMap compactMap;
 
         // each version map has a notion of safe / unsafe which allows us to apply certain optimization in the auto-generated ID usecase
         // where we know that documents can't have any duplicates so we can skip the version map entirely. This reduces
@@ -77,6 +104,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         // Visible for testing
         VersionLookup(Map<BytesRef, VersionValue> map) {
             this.map = map;
+            this.compactMap = map instanceof CompactVersionMap compact ? compact : null;
         }
 
         public VersionValue get(BytesRef key) {
@@ -84,6 +112,9 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         VersionValue put(BytesRef key, VersionValue value) {
+            if (compactMap != null) {
+                return compactMap.put(key, value);
+            }
             long ramAccounting = mapEntryBytesUsed(key, value);
             VersionValue previousValue = map.put(key, value);
             ramAccounting += previousValue == null ? 0 : -mapEntryBytesUsed(key, previousValue);
@@ -109,12 +140,22 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
         VersionValue remove(BytesRef uid) {
             VersionValue previousValue = map.remove(uid);
-            if (previousValue != null) {
+            // removing an entry from a compact map doesn't free any memory, so its accounting stays the same
+            if (previousValue != null && compactMap == null) {
                 adjustRamUsage(-mapEntryBytesUsed(uid, previousValue));
             }
             return previousValue;
         }
 
+        /**
+         * Releases the memory held by this lookup, if it is not held on heap. Entries can't be added to the lookup anymore.
+         */
+        void release() {
+            if (compactMap != null) {
+                compactMap.close();
+            }
+        }
+
         public void updateMinDeletedTimestamp(DeleteVersionValue delete) {
             minDeleteTimestamp.accumulateAndGet(delete.time, Math::min);
         }
@@ -131,7 +172,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         public long ramBytesUsed() {
-            return ramBytesUsed.get();
+            return compactMap == null ? ramBytesUsed.get() : compactMap.ramBytesUsed();
         }
 
         public static long mapEntryBytesUsed(BytesRef key, VersionValue value) {
@@ -157,14 +198,26 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         boolean needsSafeAccess;
         final boolean previousMapsNeededSafeAccess;
 
-        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess) {
+        private final IntFunction<Map<BytesRef, VersionValue>> mapFactory;
+
+        Maps(
+            VersionLookup current,
+            VersionLookup old,
+            boolean previousMapsNeededSafeAccess,
+            IntFunction<Map<BytesRef, VersionValue>> mapFactory
+        ) {
             this.current = current;
             this.old = old;
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
+            this.mapFactory = mapFactory;
+        }
+
+        Maps(IntFunction<Map<BytesRef, VersionValue>> mapFactory) {
+            this(new VersionLookup(mapFactory.apply(16)), VersionLookup.EMPTY, false, mapFactory);
         }
 
         Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()), VersionLookup.EMPTY, false);
+            this(ConcurrentCollections::newConcurrentMapWithAggressiveConcurrency);
         }
 
         boolean isSafeAccessMode() {
@@ -182,18 +235,14 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          * Builds a new map for the refresh transition this should be called in beforeRefresh()
          */
         Maps buildTransitionMap() {
-            return new Maps(
-                new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())),
-                current,
-                shouldInheritSafeAccess()
-            );
+            return new Maps(new VersionLookup(mapFactory.apply(current.size())), current, shouldInheritSafeAccess(), mapFactory);
         }
 
         /**
          * similar to `invalidateOldMap` but used only for the `unsafeKeysMap` used for assertions
          */
         Maps invalidateOldMapForAssert() {
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, mapFactory);
         }
 
         /**
@@ -201,7 +250,8 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          */
         Maps invalidateOldMap(LiveVersionMapArchive archive) {
             archive.afterRefresh(old);
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            old.release();
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, mapFactory);
         }
 
         void put(BytesRef uid, VersionValue version) {
@@ -223,14 +273,16 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         long ramBytesUsed() {
-            return current.ramBytesUsed.get() + old.ramBytesUsed.get();
+            return current.ramBytesUsed() + old.ramBytesUsed();
         }
     }
 
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    private volatile Maps maps;
+    // set once the index is closed, after which maps that a concurrent refresh installs are released right away
+    private volatile boolean cleared;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
     private volatile Maps unsafeKeysMap = new Maps();
@@ -282,6 +334,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         // try this new map, then fallback to old, then to the
         // current searcher:
         maps = maps.buildTransitionMap();
+        releaseIfCleared(maps);
         assert (unsafeKeysMap = unsafeKeysMap.buildTransitionMap()) != null;
         // This is not 100% correct, since concurrent indexing ops can change these counters in between our execution of the previous
         // line and this one, but that should be minor, and the error won't accumulate over time:
@@ -297,6 +350,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         // reflected in the previous reader. We don't touch tombstones here: they expire on their own index.gc_deletes timeframe:
 
         maps = maps.invalidateOldMap(archive);
+        releaseIfCleared(maps);
         assert (unsafeKeysMap = unsafeKeysMap.invalidateOldMapForAssert()) != null;
 
     }
@@ -458,11 +512,26 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
     }
 
+    /**
+     * Releases maps that were installed by a refresh that raced with {@link #clear()}: either the refresh sees that the map was
+     * cleared, or {@link #clear()} sees and releases the maps the refresh installed.
+     */
+    private void releaseIfCleared(Maps installedMaps) {
+        if (cleared) {
+            installedMaps.current.release();
+            installedMaps.old.release();
+        }
+    }
+
     /**
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        cleared = true;
+        final Maps previousMaps = maps;
+        maps = new Maps(mapFactory);
+        previousMaps.current.release();
+        previousMaps.old.release();
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip. Presumably it's fine if our ramBytesUsedForTombstones is non-zero after clear since the
@@ -494,7 +563,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      */
     long reclaimableRefreshRamBytes() {
         return archive == LiveVersionMapArchive.NOOP_ARCHIVE
-            ? maps.current.ramBytesUsed.get()
+            ? maps.current.ramBytesUsed()
             : maps.ramBytesUsed() + archive.getReclaimableRamBytes();
     }
 
@@ -511,7 +580,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * fraction of the Archive entries that are kept around until an ongoing unpromotable refresh is finished.
      */
     long getRefreshingBytes() {
-        return archive == LiveVersionMapArchive.NOOP_ARCHIVE ? maps.old.ramBytesUsed.get() : archive.getRefreshingRamBytes();
+        return archive == LiveVersionMapArchive.NOOP_ARCHIVE ? maps.old.ramBytesUsed() : archive.getRefreshingRamBytes();
     }
 
     /**
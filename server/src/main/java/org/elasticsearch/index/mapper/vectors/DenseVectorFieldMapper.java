@@ -49,6 +49,8 @@ import org.elasticsearch.index.IndexVersion;
 import org.elasticsearch.index.IndexVersions;
 import org.elasticsearch.index.codec.vectors.ES813FlatVectorFormat;
 import org.elasticsearch.index.codec.vectors.ES813Int8FlatVectorFormat;
+import org.elasticsearch.index.codec.vectors.ES814BinaryQuantizedFlatVectorFormat;
+import org.elasticsearch.index.codec.vectors.ES814IvfVectorFormat;
 import org.elasticsearch.index.fielddata.FieldDataContext;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.mapper.ArraySourceValueFetcher;
@@ -201,6 +203,9 @@ public class DenseVectorFieldMapper extends FieldMapper {
                         "[element_type] cannot be [" + elementType.getValue().toString() + "] when using index type [" + v.type + "]"
                     );
                 }
+                if (v != null && dims.getValue() != null) {
+                    v.validateDimension(dims.getValue());
+                }
             }).acceptsNull();
             if (defaultInt8Hnsw) {
                 this.indexOptions.alwaysSerialize();
@@ -833,6 +838,10 @@ public class DenseVectorFieldMapper extends FieldMapper {
         boolean supportsElementType(ElementType elementType) {
             return true;
         }
+
+        void validateDimension(int dim) {
+            // any number of dimensions is supported by default
+        }
     }
 
     private enum VectorIndexType {
@@ -893,6 +902,64 @@ public class DenseVectorFieldMapper extends FieldMapper {
                 MappingParser.checkNoRemainingFields(fieldName, indexOptionsMap);
                 return new Int8FlatIndexOption(confidenceInterval);
             }
+        },
+        INT4_HNSW("int4_hnsw") {
+            @Override
+            public IndexOptions parseIndexOptions(String fieldName, Map<String, ?> indexOptionsMap) {
+                Object mNode = indexOptionsMap.remove("m");
+                Object efConstructionNode = indexOptionsMap.remove("ef_construction");
+                Object confidenceIntervalNode = indexOptionsMap.remove("confidence_interval");
+                if (mNode == null) {
+                    mNode = Lucene99HnswVectorsFormat.DEFAULT_MAX_CONN;
+                }
+                if (efConstructionNode == null) {
+                    efConstructionNode = Lucene99HnswVectorsFormat.DEFAULT_BEAM_WIDTH;
+                }
+                int m = XContentMapValues.nodeIntegerValue(mNode);
+                int efConstruction = XContentMapValues.nodeIntegerValue(efConstructionNode);
+                Float confidenceInterval = null;
+                if (confidenceIntervalNode != null) {
+                    confidenceInterval = (float) XContentMapValues.nodeDoubleValue(confidenceIntervalNode);
+                }
+                MappingParser.checkNoRemainingFields(fieldName, indexOptionsMap);
+                return new Int4HnswIndexOptions(m, efConstruction, confidenceInterval);
+            }
+        },
+        INT4_FLAT("int4_flat") {
+            @Override
+            public IndexOptions parseIndexOptions(String fieldName, Map<String, ?> indexOptionsMap) {
+                Object confidenceIntervalNode = indexOptionsMap.remove("confidence_interval");
+                Float confidenceInterval = null;
+                if (confidenceIntervalNode != null) {
+                    confidenceInterval = (float) XContentMapValues.nodeDoubleValue(confidenceIntervalNode);
+                }
+                MappingParser.checkNoRemainingFields(fieldName, indexOptionsMap);
+                return new Int4FlatIndexOptions(confidenceInterval);
+            }
+        },
+        BINARY_FLAT("binary_flat") {
+            @Override
+            public IndexOptions parseIndexOptions(String fieldName, Map<String, ?> indexOptionsMap) {
+                MappingParser.checkNoRemainingFields(fieldName, indexOptionsMap);
+                return new BinaryFlatIndexOptions();
+            }
+        },
+        IVF("ivf") {
+            @Override
+            public IndexOptions parseIndexOptions(String fieldName, Map<String, ?> indexOptionsMap) {
+                Object vectorsPerClusterNode = indexOptionsMap.remove("vectors_per_cluster");
+                if (vectorsPerClusterNode == null) {
+                    vectorsPerClusterNode = ES814IvfVectorFormat.DEFAULT_VECTORS_PER_CLUSTER;
+                }
+                int vectorsPerCluster = XContentMapValues.nodeIntegerValue(vectorsPerClusterNode);
+                if (vectorsPerCluster < 2) {
+                    throw new IllegalArgumentException(
+                        "[vectors_per_cluster] must be at least 2 but was [" + vectorsPerCluster + "] for field [" + fieldName + "]"
+                    );
+                }
+                MappingParser.checkNoRemainingFields(fieldName, indexOptionsMap);
+                return new IvfIndexOptions(vectorsPerCluster);
+            }
         };
 
         static Optional<VectorIndexType> fromString(String type) {
@@ -951,6 +1018,139 @@ public class DenseVectorFieldMapper extends FieldMapper {
         }
     }
 
+    private static class Int4FlatIndexOptions extends IndexOptions {
+        private final Float confidenceInterval;
+
+        Int4FlatIndexOptions(Float confidenceInterval) {
+            super("int4_flat");
+            this.confidenceInterval = confidenceInterval;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("type", type);
+            if (confidenceInterval != null) {
+                builder.field("confidence_interval", confidenceInterval);
+            }
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        KnnVectorsFormat getVectorsFormat() {
+            return new ES813Int8FlatVectorFormat(confidenceInterval, 4, true);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Int4FlatIndexOptions that = (Int4FlatIndexOptions) o;
+            return Objects.equals(confidenceInterval, that.confidenceInterval);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(confidenceInterval);
+        }
+
+        @Override
+        boolean supportsElementType(ElementType elementType) {
+            return elementType != ElementType.BYTE;
+        }
+
+        @Override
+        void validateDimension(int dim) {
+            // two dimensions are packed into each byte
+            if (dim % 2 != 0) {
+                throw new IllegalArgumentException("[dims] must be even when using index type [" + type + "] but was [" + dim + "]");
+            }
+        }
+    }
+
+    private static class BinaryFlatIndexOptions extends IndexOptions {
+
+        BinaryFlatIndexOptions() {
+            super("binary_flat");
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("type", type);
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        KnnVectorsFormat getVectorsFormat() {
+            return new ES814BinaryQuantizedFlatVectorFormat();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            return o != null && getClass() == o.getClass();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type);
+        }
+
+        @Override
+        boolean supportsElementType(ElementType elementType) {
+            return elementType != ElementType.BYTE;
+        }
+    }
+
+    private static class IvfIndexOptions extends IndexOptions {
+        private final int vectorsPerCluster;
+
+        IvfIndexOptions(int vectorsPerCluster) {
+            super("ivf");
+            this.vectorsPerCluster = vectorsPerCluster;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("type", type);
+            builder.field("vectors_per_cluster", vectorsPerCluster);
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        KnnVectorsFormat getVectorsFormat() {
+            return new ES814IvfVectorFormat(vectorsPerCluster);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            IvfIndexOptions that = (IvfIndexOptions) o;
+            return vectorsPerCluster == that.vectorsPerCluster;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vectorsPerCluster);
+        }
+
+        @Override
+        public String toString() {
+            return "{type=" + type + ", vectors_per_cluster=" + vectorsPerCluster + "}";
+        }
+
+        @Override
+        boolean supportsElementType(ElementType elementType) {
+            return elementType != ElementType.BYTE;
+        }
+    }
+
     private static class FlatIndexOptions extends IndexOptions {
 
         FlatIndexOptions() {
@@ -1044,6 +1244,76 @@ public class DenseVectorFieldMapper extends FieldMapper {
         }
     }
 
+    private static class Int4HnswIndexOptions extends IndexOptions {
+        private final int m;
+        private final int efConstruction;
+        private final Float confidenceInterval;
+
+        private Int4HnswIndexOptions(int m, int efConstruction, Float confidenceInterval) {
+            super("int4_hnsw");
+            this.m = m;
+            this.efConstruction = efConstruction;
+            this.confidenceInterval = confidenceInterval;
+        }
+
+        @Override
+        public KnnVectorsFormat getVectorsFormat() {
+            return new Lucene99HnswScalarQuantizedVectorsFormat(m, efConstruction, 1, 4, true, confidenceInterval, null);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("type", type);
+            builder.field("m", m);
+            builder.field("ef_construction", efConstruction);
+            if (confidenceInterval != null) {
+                builder.field("confidence_interval", confidenceInterval);
+            }
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Int4HnswIndexOptions that = (Int4HnswIndexOptions) o;
+            return m == that.m && efConstruction == that.efConstruction && Objects.equals(confidenceInterval, that.confidenceInterval);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(m, efConstruction, confidenceInterval);
+        }
+
+        @Override
+        public String toString() {
+            return "{type="
+                + type
+                + ", m="
+                + m
+                + ", ef_construction="
+                + efConstruction
+                + ", confidence_interval="
+                + confidenceInterval
+                + "}";
+        }
+
+        @Override
+        boolean supportsElementType(ElementType elementType) {
+            return elementType != ElementType.BYTE;
+        }
+
+        @Override
+        void validateDimension(int dim) {
+            // two dimensions are packed into each byte
+            if (dim % 2 != 0) {
+                throw new IllegalArgumentException("[dims] must be even when using index type [" + type + "] but was [" + dim + "]");
+            }
+        }
+    }
+
     private static class HnswIndexOptions extends IndexOptions {
         private final int m;
         private final int efConstruction;
@@ -1286,6 +1556,21 @@ public class DenseVectorFieldMapper extends FieldMapper {
             Query filter,
             Float similarityThreshold,
             BitSetProducer parentFilter
+        ) {
+            return createKnnQuery(queryVector, numCands, filter, similarityThreshold, parentFilter, null);
+        }
+
+        /**
+         * @param nprobe the number of partitions to scan in each segment if the field is indexed with {@code ivf}, only applies to
+         *               float vectors outside of nested documents
+         */
+        public Query createKnnQuery(
+            VectorData queryVector,
+            int numCands,
+            Query filter,
+            Float similarityThreshold,
+            BitSetProducer parentFilter,
+            Integer nprobe
         ) {
             if (isIndexed() == false) {
                 throw new IllegalArgumentException(
@@ -1294,7 +1579,7 @@ public class DenseVectorFieldMapper extends FieldMapper {
             }
             return switch (getElementType()) {
                 case BYTE -> createKnnByteQuery(queryVector.asByteVector(), numCands, filter, similarityThreshold, parentFilter);
-                case FLOAT -> createKnnFloatQuery(queryVector.asFloatVector(), numCands, filter, similarityThreshold, parentFilter);
+                case FLOAT -> createKnnFloatQuery(queryVector.asFloatVector(), numCands, filter, similarityThreshold, parentFilter, nprobe);
             };
         }
 
@@ -1333,7 +1618,8 @@ public class DenseVectorFieldMapper extends FieldMapper {
             int numCands,
             Query filter,
             Float similarityThreshold,
-            BitSetProducer parentFilter
+            BitSetProducer parentFilter,
+            Integer nprobe
         ) {
             if (queryVector.length != dims) {
                 throw new IllegalArgumentException(
@@ -1356,7 +1642,7 @@ public class DenseVectorFieldMapper extends FieldMapper {
             }
             Query knnQuery = parentFilter != null
                 ? new ESDiversifyingChildrenFloatKnnVectorQuery(name(), queryVector, filter, numCands, parentFilter)
-                : new ESKnnFloatVectorQuery(name(), queryVector, numCands, filter);
+                : new ESKnnFloatVectorQuery(name(), queryVector, numCands, filter, nprobe);
             if (similarityThreshold != null) {
                 knnQuery = new VectorSimilarityQuery(
                     knnQuery,
@@ -1422,6 +1708,9 @@ public class DenseVectorFieldMapper extends FieldMapper {
         }
         if (fieldType().dims == null) {
             int dims = fieldType().elementType.parseDimensionCount(context);
+            if (indexOptions != null) {
+                indexOptions.validateDimension(dims);
+            }
             DenseVectorFieldType updatedDenseVectorFieldType = new DenseVectorFieldType(
                 fieldType().name(),
                 indexCreatedVersion,
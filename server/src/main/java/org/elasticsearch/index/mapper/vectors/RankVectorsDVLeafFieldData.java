@@ -0,0 +1,61 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.mapper.vectors;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.elasticsearch.index.fielddata.LeafFieldData;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.index.mapper.vectors.DenseVectorFieldMapper.ElementType;
+import org.elasticsearch.index.mapper.vectors.RankVectorsFieldMapper.Quantization;
+import org.elasticsearch.script.field.DocValuesScriptFieldFactory;
+import org.elasticsearch.script.field.vectors.RankVectorsDocValuesField;
+
+import java.io.IOException;
+
+final class RankVectorsDVLeafFieldData implements LeafFieldData {
+
+    private final LeafReader reader;
+    private final String field;
+    private final ElementType elementType;
+    private final int dims;
+    private final Quantization quantization;
+
+    RankVectorsDVLeafFieldData(LeafReader reader, String field, ElementType elementType, int dims, Quantization quantization) {
+        this.reader = reader;
+        this.field = field;
+        this.elementType = elementType;
+        this.dims = dims;
+        this.quantization = quantization;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return 0; // not exposed by Lucene
+    }
+
+    @Override
+    public SortedBinaryDocValues getBytesValues() {
+        throw new UnsupportedOperationException("String representation of doc values for vector fields is not supported");
+    }
+
+    @Override
+    public DocValuesScriptFieldFactory getScriptFieldFactory(String name) {
+        try {
+            return new RankVectorsDocValuesField(DocValues.getBinary(reader, field), name, elementType, dims, quantization);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot load doc values for vector field!", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // no-op
+    }
+}
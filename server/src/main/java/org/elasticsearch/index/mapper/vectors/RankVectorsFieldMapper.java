@@ -0,0 +1,538 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.mapper.vectors;
+
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.search.FieldExistsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.elasticsearch.index.fielddata.FieldDataContext;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.mapper.ArraySourceValueFetcher;
+import org.elasticsearch.index.mapper.DocumentParserContext;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MapperBuilderContext;
+import org.elasticsearch.index.mapper.MapperParsingException;
+import org.elasticsearch.index.mapper.MappingParser;
+import org.elasticsearch.index.mapper.TextSearchInfo;
+import org.elasticsearch.index.mapper.ValueFetcher;
+import org.elasticsearch.index.mapper.vectors.DenseVectorFieldMapper.ElementType;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.XContentParser.Token;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.elasticsearch.index.mapper.vectors.DenseVectorFieldMapper.MAX_DIMS_COUNT;
+import static org.elasticsearch.index.mapper.vectors.DenseVectorFieldMapper.namesToElementType;
+
+/**
+ * A {@link FieldMapper} for a variable number of vectors per document, as produced by late-interaction models. All of a document's
+ * vectors are stored, optionally quantized, next to each other in a single binary doc value so scoring a candidate is one
+ * sequential read. Documents are scored with the MaxSim similarity from {@code script_score} queries and rescorers.
+ */
+public class RankVectorsFieldMapper extends FieldMapper {
+
+    public static final String CONTENT_TYPE = "rank_vectors";
+
+    private static RankVectorsFieldMapper toType(FieldMapper in) {
+        return (RankVectorsFieldMapper) in;
+    }
+
+    public static class Builder extends FieldMapper.Builder {
+
+        private final Parameter<ElementType> elementType = new Parameter<>("element_type", false, () -> ElementType.FLOAT, (n, c, o) -> {
+            ElementType elementType = namesToElementType.get((String) o);
+            if (elementType == null) {
+                throw new MapperParsingException("invalid element_type [" + o + "]; available types are " + namesToElementType.keySet());
+            }
+            return elementType;
+        }, m -> toType(m).fieldType().elementType, XContentBuilder::field, Objects::toString);
+
+        private final Parameter<Integer> dims = new Parameter<>("dims", false, () -> null, (n, c, o) -> {
+            if (o instanceof Integer == false) {
+                throw new MapperParsingException("Property [dims] on field [" + n + "] must be an integer but got [" + o + "]");
+            }
+            int dims = XContentMapValues.nodeIntegerValue(o);
+            if (dims < 1 || dims > MAX_DIMS_COUNT) {
+                throw new MapperParsingException(
+                    "The number of dimensions for field ["
+                        + n
+                        + "] should be in the range [1, "
+                        + MAX_DIMS_COUNT
+                        + "] but was ["
+                        + dims
+                        + "]"
+                );
+            }
+            return dims;
+        }, m -> toType(m).fieldType().dims, XContentBuilder::field, Object::toString).addValidator(v -> {
+            if (v == null) {
+                throw new IllegalArgumentException("Field [dims] is required for fields of type [" + CONTENT_TYPE + "]");
+            }
+        });
+
+        private final Parameter<Quantization> indexOptions = new Parameter<>(
+            "index_options",
+            false,
+            () -> Quantization.NONE,
+            (n, c, o) -> parseIndexOptions(n, o),
+            m -> toType(m).fieldType().quantization,
+            (b, n, v) -> b.startObject(n).field("type", v.toString()).endObject(),
+            Objects::toString
+        ).setSerializerCheck((id, ic, v) -> id || v != Quantization.NONE);
+
+        private final Parameter<Map<String, String>> meta = Parameter.metaParam();
+
+        public Builder(String name) {
+            super(name);
+            this.indexOptions.addValidator(v -> {
+                if (v != Quantization.NONE && elementType.getValue() != ElementType.FLOAT) {
+                    throw new IllegalArgumentException(
+                        "[element_type] cannot be [" + elementType.getValue().toString() + "] when using index type [" + v + "]"
+                    );
+                }
+            });
+        }
+
+        @Override
+        protected Parameter<?>[] getParameters() {
+            return new Parameter<?>[] { elementType, dims, indexOptions, meta };
+        }
+
+        @Override
+        public RankVectorsFieldMapper build(MapperBuilderContext context) {
+            return new RankVectorsFieldMapper(
+                name(),
+                new RankVectorsFieldType(
+                    context.buildFullName(name()),
+                    elementType.getValue(),
+                    dims.getValue(),
+                    indexOptions.getValue(),
+                    meta.getValue()
+                ),
+                multiFieldsBuilder.build(this, context),
+                copyTo
+            );
+        }
+    }
+
+    public static final TypeParser PARSER = new TypeParser((n, c) -> new Builder(n), notInMultiFields(CONTENT_TYPE));
+
+    private static Quantization parseIndexOptions(String fieldName, Object propNode) {
+        if (propNode instanceof Map<?, ?> == false) {
+            throw new MapperParsingException("[index_options] must be an object but got [" + propNode + "]");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, ?> indexOptionsMap = (Map<String, ?>) propNode;
+        Object typeNode = indexOptionsMap.remove("type");
+        if (typeNode == null) {
+            throw new MapperParsingException("[index_options] requires field [type] to be configured");
+        }
+        String type = XContentMapValues.nodeStringValue(typeNode);
+        Quantization quantization = Arrays.stream(Quantization.values())
+            .filter(q -> q.type.equals(type))
+            .findFirst()
+            .orElseThrow(() -> new MapperParsingException("Unknown vector index options type [" + type + "] for [" + CONTENT_TYPE + "]"));
+        MappingParser.checkNoRemainingFields(fieldName, indexOptionsMap);
+        return quantization;
+    }
+
+    /**
+     * How each vector of a document is encoded in the field's binary doc value. All encodings are little endian and have a fixed
+     * number of bytes per vector so the number of vectors follows from the length of the doc value.
+     * <p>
+     * The quantized encodings are not the ones of the {@code dense_vector} index options: those share parameters computed over a
+     * whole segment, while these keep their own parameters with every vector, hence the {@code _per_vector} names.
+     */
+    public enum Quantization {
+        /**
+         * Raw vectors: four bytes per dimension for {@code float} elements and one for {@code byte} elements.
+         */
+        NONE("flat") {
+            @Override
+            public int bytesPerVector(ElementType elementType, int dims) {
+                return elementType == ElementType.BYTE ? dims : dims * Float.BYTES;
+            }
+
+            @Override
+            void encode(ElementType elementType, float[] vector, ByteBuffer out) {
+                for (float v : vector) {
+                    if (elementType == ElementType.BYTE) {
+                        out.put((byte) v);
+                    } else {
+                        out.putFloat(v);
+                    }
+                }
+            }
+
+            @Override
+            void decode(ElementType elementType, ByteBuffer in, float[] vector) {
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = elementType == ElementType.BYTE ? in.get() : in.getFloat();
+                }
+            }
+        },
+        /**
+         * One unsigned byte per dimension, scaled between the minimum and the maximum of the vector, which are stored first.
+         */
+        INT8("int8_per_vector") {
+            @Override
+            public int bytesPerVector(ElementType elementType, int dims) {
+                return 2 * Float.BYTES + dims;
+            }
+
+            @Override
+            void encode(ElementType elementType, float[] vector, ByteBuffer out) {
+                float min = min(vector);
+                float step = (max(vector) - min) / 255;
+                out.putFloat(min).putFloat(step);
+                for (float v : vector) {
+                    out.put((byte) quantize(v, min, step, 255));
+                }
+            }
+
+            @Override
+            void decode(ElementType elementType, ByteBuffer in, float[] vector) {
+                float min = in.getFloat();
+                float step = in.getFloat();
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = min + Byte.toUnsignedInt(in.get()) * step;
+                }
+            }
+        },
+        /**
+         * Four bits per dimension, two dimensions to a byte, scaled like {@link #INT8}.
+         */
+        INT4("int4_per_vector") {
+            @Override
+            public int bytesPerVector(ElementType elementType, int dims) {
+                return 2 * Float.BYTES + (dims + 1) / 2;
+            }
+
+            @Override
+            void encode(ElementType elementType, float[] vector, ByteBuffer out) {
+                float min = min(vector);
+                float step = (max(vector) - min) / 15;
+                out.putFloat(min).putFloat(step);
+                for (int i = 0; i < vector.length; i += 2) {
+                    int low = quantize(vector[i], min, step, 15);
+                    int high = i + 1 < vector.length ? quantize(vector[i + 1], min, step, 15) : 0;
+                    out.put((byte) (low | (high << 4)));
+                }
+            }
+
+            @Override
+            void decode(ElementType elementType, ByteBuffer in, float[] vector) {
+                float min = in.getFloat();
+                float step = in.getFloat();
+                for (int i = 0; i < vector.length; i += 2) {
+                    int packed = in.get();
+                    vector[i] = min + (packed & 0x0F) * step;
+                    if (i + 1 < vector.length) {
+                        vector[i + 1] = min + ((packed >> 4) & 0x0F) * step;
+                    }
+                }
+            }
+        },
+        /**
+         * One bit per dimension for its sign, with every dimension decoded to plus or minus the mean of the absolute values of the
+         * vector, which is stored first.
+         */
+        BINARY("binary_per_vector") {
+            @Override
+            public int bytesPerVector(ElementType elementType, int dims) {
+                return Float.BYTES + (dims + 7) / 8;
+            }
+
+            @Override
+            void encode(ElementType elementType, float[] vector, ByteBuffer out) {
+                double sum = 0;
+                for (float v : vector) {
+                    sum += Math.abs(v);
+                }
+                out.putFloat((float) (sum / vector.length));
+                for (int i = 0; i < vector.length; i += 8) {
+                    int bits = 0;
+                    for (int j = 0; j < 8 && i + j < vector.length; j++) {
+                        if (vector[i + j] > 0) {
+                            bits |= 1 << j;
+                        }
+                    }
+                    out.put((byte) bits);
+                }
+            }
+
+            @Override
+            void decode(ElementType elementType, ByteBuffer in, float[] vector) {
+                float scale = in.getFloat();
+                for (int i = 0; i < vector.length; i += 8) {
+                    int bits = in.get();
+                    for (int j = 0; j < 8 && i + j < vector.length; j++) {
+                        vector[i + j] = (bits & (1 << j)) != 0 ? scale : -scale;
+                    }
+                }
+            }
+        };
+
+        private final String type;
+
+        Quantization(String type) {
+            this.type = type;
+        }
+
+        /**
+         * The number of bytes each vector takes in the doc value.
+         */
+        public abstract int bytesPerVector(ElementType elementType, int dims);
+
+        abstract void encode(ElementType elementType, float[] vector, ByteBuffer out);
+
+        abstract void decode(ElementType elementType, ByteBuffer in, float[] vector);
+
+        /**
+         * Decodes the {@code ord}-th vector of a doc value into {@code vector}, whose length is the number of dimensions.
+         */
+        public final void decode(ElementType elementType, BytesRef value, int ord, float[] vector) {
+            int bytesPerVector = bytesPerVector(elementType, vector.length);
+            ByteBuffer in = ByteBuffer.wrap(value.bytes, value.offset + ord * bytesPerVector, bytesPerVector)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            decode(elementType, in, vector);
+        }
+
+        private static float min(float[] vector) {
+            float min = Float.POSITIVE_INFINITY;
+            for (float v : vector) {
+                min = Math.min(min, v);
+            }
+            return min;
+        }
+
+        private static float max(float[] vector) {
+            float max = Float.NEGATIVE_INFINITY;
+            for (float v : vector) {
+                max = Math.max(max, v);
+            }
+            return max;
+        }
+
+        private static int quantize(float v, float min, float step, int maxValue) {
+            if (step == 0) {
+                return 0;
+            }
+            return Math.max(0, Math.min(maxValue, Math.round((v - min) / step)));
+        }
+
+        @Override
+        public String toString() {
+            return type;
+        }
+    }
+
+    public static final class RankVectorsFieldType extends MappedFieldType {
+        private final ElementType elementType;
+        private final int dims;
+        private final Quantization quantization;
+
+        public RankVectorsFieldType(String name, ElementType elementType, int dims, Quantization quantization, Map<String, String> meta) {
+            super(name, false, false, true, TextSearchInfo.NONE, meta);
+            this.elementType = elementType;
+            this.dims = dims;
+            this.quantization = quantization;
+        }
+
+        @Override
+        public String typeName() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public ValueFetcher valueFetcher(SearchExecutionContext context, String format) {
+            if (format != null) {
+                throw new IllegalArgumentException("Field [" + name() + "] of type [" + typeName() + "] doesn't support formats.");
+            }
+            return new ArraySourceValueFetcher(name(), context) {
+                @Override
+                protected Object parseSourceValue(Object value) {
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        public DocValueFormat docValueFormat(String format, ZoneId timeZone) {
+            throw new IllegalArgumentException(
+                "Field [" + name() + "] of type [" + typeName() + "] doesn't support docvalue_fields or aggregations"
+            );
+        }
+
+        @Override
+        public boolean isAggregatable() {
+            return false;
+        }
+
+        @Override
+        public IndexFieldData.Builder fielddataBuilder(FieldDataContext fieldDataContext) {
+            return new RankVectorsIndexFieldData.Builder(name(), CoreValuesSourceType.KEYWORD, elementType, dims, quantization);
+        }
+
+        @Override
+        public Query existsQuery(SearchExecutionContext context) {
+            return new FieldExistsQuery(name());
+        }
+
+        @Override
+        public Query termQuery(Object value, SearchExecutionContext context) {
+            throw new IllegalArgumentException("Field [" + name() + "] of type [" + typeName() + "] doesn't support term queries");
+        }
+
+        public ElementType getElementType() {
+            return elementType;
+        }
+
+        public int getVectorDimensions() {
+            return dims;
+        }
+
+        public Quantization getQuantization() {
+            return quantization;
+        }
+    }
+
+    private RankVectorsFieldMapper(String simpleName, MappedFieldType mappedFieldType, MultiFields multiFields, CopyTo copyTo) {
+        super(simpleName, mappedFieldType, multiFields, copyTo);
+    }
+
+    @Override
+    public RankVectorsFieldType fieldType() {
+        return (RankVectorsFieldType) super.fieldType();
+    }
+
+    @Override
+    public boolean parsesArrayValue() {
+        return true;
+    }
+
+    @Override
+    public void parse(DocumentParserContext context) throws IOException {
+        if (context.doc().getByKey(fieldType().name()) != null) {
+            throw new IllegalArgumentException(
+                "Field ["
+                    + name()
+                    + "] of type ["
+                    + typeName()
+                    + "] does not support indexing multiple values for the same field in the same document"
+            );
+        }
+        Token token = context.parser().currentToken();
+        if (token == Token.VALUE_NULL) {
+            return;
+        }
+        if (token != Token.START_ARRAY) {
+            throw new IllegalArgumentException(
+                "The [" + typeName() + "] field [" + name() + "] must be an array of vectors but got [" + token + "]"
+            );
+        }
+        ElementType elementType = fieldType().elementType;
+        List<float[]> vectors = new ArrayList<>();
+        for (token = context.parser().nextToken(); token != Token.END_ARRAY; token = context.parser().nextToken()) {
+            if (token != Token.START_ARRAY) {
+                throw new IllegalArgumentException(
+                    "The ["
+                        + typeName()
+                        + "] field ["
+                        + name()
+                        + "] in doc ["
+                        + context.documentDescription()
+                        + "] must be an array of vectors but got ["
+                        + token
+                        + "] where a vector was expected"
+                );
+            }
+            float[] vector = parseVector(context);
+            elementType.checkVectorBounds(vector);
+            vectors.add(vector);
+        }
+        if (vectors.isEmpty()) {
+            return;
+        }
+        Quantization quantization = fieldType().quantization;
+        int bytesPerVector = quantization.bytesPerVector(elementType, fieldType().dims);
+        ByteBuffer buffer = ByteBuffer.allocate(bytesPerVector * vectors.size()).order(ByteOrder.LITTLE_ENDIAN);
+        for (float[] vector : vectors) {
+            quantization.encode(elementType, vector, buffer);
+        }
+        context.doc().addWithKey(fieldType().name(), new BinaryDocValuesField(fieldType().name(), new BytesRef(buffer.array())));
+    }
+
+    private float[] parseVector(DocumentParserContext context) throws IOException {
+        int dims = fieldType().dims;
+        float[] vector = new float[dims];
+        int index = 0;
+        for (Token token = context.parser().nextToken(); token != Token.END_ARRAY; token = context.parser().nextToken()) {
+            if (index >= dims) {
+                throw new IllegalArgumentException(
+                    "The ["
+                        + typeName()
+                        + "] field ["
+                        + name()
+                        + "] in doc ["
+                        + context.documentDescription()
+                        + "] has a vector with more dimensions than defined in the mapping ["
+                        + dims
+                        + "]"
+                );
+            }
+            vector[index++] = context.parser().floatValue(true);
+        }
+        if (index != dims) {
+            throw new IllegalArgumentException(
+                String.format(
+                    Locale.ROOT,
+                    "The [%s] field [%s] in doc [%s] has a vector with a different number of dimensions [%d] "
+                        + "than defined in the mapping [%d]",
+                    typeName(),
+                    name(),
+                    context.documentDescription(),
+                    index,
+                    dims
+                )
+            );
+        }
+        return vector;
+    }
+
+    @Override
+    protected void parseCreateField(DocumentParserContext context) {
+        throw new AssertionError("parse is implemented directly");
+    }
+
+    @Override
+    protected String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public FieldMapper.Builder getMergeBuilder() {
+        return new Builder(simpleName()).init(this);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.mapper.vectors;
+
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.script.field.vectors.RankVectors;
+
+/**
+ * The vectors of a {@code rank_vectors} field for the {@code doc} map of scripts, one list element per vector.
+ */
+public class RankVectorsScriptDocValues extends ScriptDocValues<float[]> {
+
+    private final int dims;
+    protected final RankVectorsSupplier rvSupplier;
+
+    public RankVectorsScriptDocValues(RankVectorsSupplier supplier, int dims) {
+        super(supplier);
+        this.rvSupplier = supplier;
+        this.dims = dims;
+    }
+
+    public int dims() {
+        return dims;
+    }
+
+    @Override
+    public float[] get(int index) {
+        RankVectors vectors = rvSupplier.getInternal();
+        if (vectors == null) {
+            throw new IllegalArgumentException(DenseVectorScriptDocValues.MISSING_VECTOR_FIELD_MESSAGE);
+        }
+        return vectors.getVector(index);
+    }
+
+    @Override
+    public int size() {
+        RankVectors vectors = rvSupplier.getInternal();
+        return vectors == null ? 0 : vectors.size();
+    }
+
+    public interface RankVectorsSupplier extends Supplier<float[]> {
+        @Override
+        default float[] getInternal(int index) {
+            throw new UnsupportedOperationException();
+        }
+
+        RankVectors getInternal();
+    }
+}
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.query;
 
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.BytesRef;
@@ -461,18 +462,26 @@ public class RangeQueryBuilder extends AbstractQueryBuilder<RangeQueryBuilder> i
     }
 
     protected MappedFieldType.Relation getRelation(final SearchExecutionContext searchExecutionContext) throws IOException {
+        return getRelation(searchExecutionContext, searchExecutionContext.getIndexReader());
+    }
+
+    /**
+     * Returns how the values of the field in the given reader, which may be a single segment of the shard, relate to this range.
+     */
+    public MappedFieldType.Relation getRelation(final SearchExecutionContext searchExecutionContext, final IndexReader reader)
+        throws IOException {
         final MappedFieldType fieldType = searchExecutionContext.getFieldType(fieldName);
         if (fieldType == null) {
             return MappedFieldType.Relation.DISJOINT;
         }
-        if (searchExecutionContext.getIndexReader() == null) {
+        if (reader == null) {
             // No reader, this may happen e.g. for percolator queries.
             return MappedFieldType.Relation.INTERSECTS;
         }
 
         DateMathParser dateMathParser = getForceDateParser();
         return fieldType.isFieldWithinQuery(
-            searchExecutionContext.getIndexReader(),
+            reader,
             from,
             to,
             includeLower,
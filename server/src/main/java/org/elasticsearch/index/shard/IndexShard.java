@@ -132,6 +132,7 @@ import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
@@ -224,6 +225,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final ReplicationTracker replicationTracker;
     private final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier;
     private final Engine.IndexCommitListener indexCommitListener;
+    @Nullable
+    private final TranslogSyncCoordinator.ShardSyncQueue translogSyncQueue;
     private FieldInfos fieldInfos;
     // sys prop to disable the field has value feature, defaults to true (enabled) if set to false (disabled) the
     // field caps always returns empty fields ignoring the value of the query param `field_caps_empty_fields_filter`.
@@ -321,7 +324,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         final CircuitBreakerService circuitBreakerService,
         final IndexStorePlugin.SnapshotCommitSupplier snapshotCommitSupplier,
         final LongSupplier relativeTimeInNanosSupplier,
-        final Engine.IndexCommitListener indexCommitListener
+        final Engine.IndexCommitListener indexCommitListener,
+        @Nullable final TranslogSyncCoordinator translogSyncCoordinator
     ) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
@@ -407,6 +411,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         this.refreshFieldHasValueListener = new RefreshFieldHasValueListener();
         this.relativeTimeInNanosSupplier = relativeTimeInNanosSupplier;
         this.indexCommitListener = indexCommitListener;
+        this.translogSyncQueue = translogSyncCoordinator == null
+            ? null
+            : translogSyncCoordinator.newShardQueue((location, listener) -> getEngine().asyncEnsureTranslogSynced(location, listener));
         this.fieldInfos = FieldInfos.EMPTY;
     }
 
@@ -1403,7 +1410,15 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     public TranslogStats translogStats() {
-        return getEngine().getTranslogStats();
+        final TranslogStats translogStats = getEngine().getTranslogStats();
+        if (translogSyncQueue == null) {
+            return translogStats;
+        }
+        // the engine may hand out the same instance more than once, so add the sync histograms to a copy
+        final TranslogStats stats = new TranslogStats();
+        stats.add(translogStats);
+        stats.addSyncHistograms(translogSyncQueue.getBatchSizeHistogram(), translogSyncQueue.getLatencyHistogram());
+        return stats;
     }
 
     public CompletionStats completionStats(String... fields) {
@@ -3778,6 +3793,11 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * This method allows indexing threads to continue indexing without blocking on fsync calls. We ensure that there is only one thread
      * blocking on the sync an all others can continue indexing.
      * <p>
+     * If the node coordinates translog fsyncs, the location is instead synced by the next sync round of the
+     * {@link TranslogSyncCoordinator}, together with the pending locations of all the other shards of the node. The caller thread is
+     * still hijacked to run the fsync if no round is running, otherwise the location is synced by the next round once the current one
+     * completes.
+     * <p>
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
      */
@@ -3785,7 +3805,11 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         // TODO AwaitsFix https://github.com/elastic/elasticsearch/issues/97183
         // assert indexShardOperationPermits.getActiveOperationsCount() != 0;
         verifyNotClosed();
-        getEngine().asyncEnsureTranslogSynced(location, syncListener);
+        if (translogSyncQueue != null) {
+            translogSyncQueue.sync(location, syncListener);
+        } else {
+            getEngine().asyncEnsureTranslogSynced(location, syncListener);
+        }
     }
 
     /**
@@ -9,7 +9,12 @@
 package org.elasticsearch.index.translog;
 
 import org.apache.lucene.store.BufferedChecksum;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.Nullable;
 
 import java.io.IOException;
 import java.util.zip.CRC32;
@@ -44,6 +49,22 @@ public final class BufferedChecksumStreamOutput extends StreamOutput {
         digest.update(b, offset, length);
     }
 
+    @Override
+    public void writeBytesReference(@Nullable BytesReference bytes) throws IOException {
+        if (out instanceof ReferencingStreamOutput referencingOut && ReferencingStreamOutput.canReference(bytes)) {
+            writeVInt(bytes.length());
+            // the bytes are referenced rather than written to the underlying stream, so update the checksum chunk by chunk
+            final BytesRefIterator iterator = bytes.iterator();
+            BytesRef chunk;
+            while ((chunk = iterator.next()) != null) {
+                digest.update(chunk.bytes, chunk.offset, chunk.length);
+            }
+            referencingOut.appendReference((ReleasableBytesReference) bytes);
+        } else {
+            super.writeBytesReference(bytes);
+        }
+    }
+
     @Override
     public void flush() throws IOException {
         out.flush();
@@ -0,0 +1,155 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link StreamOutput} for translog operations that references large {@link ReleasableBytesReference}s, such as the source of the
+ * indexed documents, rather than copying them. Everything else is copied to a buffer as usual, and {@link #bytes()} interleaves the
+ * buffer with the referenced bytes. The referenced bytes are retained until this output is closed, and appending this output to
+ * another one with {@link #appendTo} passes them on without copying them either, so the source of a document is only copied once
+ * it is written to the translog file.
+ */
+final class ReferencingStreamOutput extends StreamOutput implements Releasable {
+
+    /**
+     * Bytes shorter than this are copied, since they are cheaper to copy than to reference and write separately.
+     */
+    static final int MIN_REFERENCED_LENGTH = 1024;
+
+    private final ReleasableBytesStreamOutput copied;
+    // the offset in the copied bytes at which each of the referenced bytes goes
+    private final List<Integer> referenceOffsets = new ArrayList<>();
+    private final List<ReleasableBytesReference> references = new ArrayList<>();
+    private int referencedLength;
+
+    ReferencingStreamOutput(BigArrays bigArrays) {
+        this.copied = new ReleasableBytesStreamOutput(bigArrays);
+    }
+
+    /**
+     * Whether the given bytes would be referenced rather than copied by {@link #writeBytesReference}.
+     */
+    static boolean canReference(@Nullable BytesReference bytes) {
+        return bytes instanceof ReleasableBytesReference releasable
+            && releasable.hasReferences()
+            && releasable.length() >= MIN_REFERENCED_LENGTH;
+    }
+
+    @Override
+    public void writeByte(byte b) {
+        copied.writeByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) {
+        copied.writeBytes(b, offset, length);
+    }
+
+    @Override
+    public void writeBytesReference(@Nullable BytesReference bytes) throws IOException {
+        if (canReference(bytes)) {
+            writeVInt(bytes.length());
+            appendReference((ReleasableBytesReference) bytes);
+        } else {
+            super.writeBytesReference(bytes);
+        }
+    }
+
+    /**
+     * Appends the given bytes without copying them, retaining them until this output is closed.
+     */
+    void appendReference(ReleasableBytesReference bytes) {
+        referenceOffsets.add(Math.toIntExact(copied.position()));
+        references.add(bytes.retain());
+        referencedLength += bytes.length();
+    }
+
+    /**
+     * Skips four bytes to be filled in later with {@link #setInt}, e.g. for a size prefix, and returns their offset.
+     */
+    long reserveInt() {
+        final long offset = copied.position();
+        copied.skip(Integer.BYTES);
+        return offset;
+    }
+
+    /**
+     * Fills in the four bytes at the given offset that were reserved with {@link #reserveInt()}.
+     */
+    void setInt(long offset, int value) throws IOException {
+        final long end = copied.position();
+        copied.seek(offset);
+        copied.writeInt(value);
+        copied.seek(end);
+    }
+
+    /**
+     * The number of bytes written to this output, including the referenced ones.
+     */
+    int length() {
+        return Math.toIntExact(copied.size() + referencedLength);
+    }
+
+    /**
+     * Returns the bytes written to this output, which are only valid until this output is closed.
+     */
+    BytesReference bytes() {
+        final BytesReference copiedBytes = copied.bytes();
+        if (references.isEmpty()) {
+            return copiedBytes;
+        }
+        final BytesReference[] parts = new BytesReference[references.size() * 2 + 1];
+        int from = 0;
+        for (int i = 0; i < references.size(); i++) {
+            final int offset = referenceOffsets.get(i);
+            parts[2 * i] = copiedBytes.slice(from, offset - from);
+            parts[2 * i + 1] = references.get(i);
+            from = offset;
+        }
+        parts[parts.length - 1] = copiedBytes.slice(from, copiedBytes.length() - from);
+        return CompositeBytesReference.of(parts);
+    }
+
+    /**
+     * Appends the bytes written to this output to the given output, which retains the referenced bytes rather than copying them.
+     */
+    void appendTo(ReferencingStreamOutput target) throws IOException {
+        final BytesReference copiedBytes = copied.bytes();
+        int from = 0;
+        for (int i = 0; i < references.size(); i++) {
+            final int offset = referenceOffsets.get(i);
+            copiedBytes.slice(from, offset - from).writeTo(target);
+            target.appendReference(references.get(i));
+            from = offset;
+        }
+        copiedBytes.slice(from, copiedBytes.length() - from).writeTo(target);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {
+        Releasables.close(copied, Releasables.wrap(references));
+    }
+}
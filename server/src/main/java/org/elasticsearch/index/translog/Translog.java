@@ -15,7 +15,6 @@ import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.DiskIoBufferPool;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
-import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -572,9 +571,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
      * @throws IOException if adding the operation to the translog resulted in an I/O exception
      */
     public Location add(final Operation operation) throws IOException {
-        try (ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(bigArrays)) {
+        try (ReferencingStreamOutput out = new ReferencingStreamOutput(bigArrays)) {
             writeOperationWithSize(out, operation);
-            final BytesReference bytes = out.bytes();
             try (ReleasableLock ignored = readLock.acquire()) {
                 ensureOpen();
                 if (operation.primaryTerm() > current.getPrimaryTerm()) {
@@ -594,7 +592,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                             + "]"
                     );
                 }
-                return current.add(bytes, operation.seqNo());
+                return current.add(out, operation.seqNo());
             }
         } catch (final AlreadyClosedException | IOException ex) {
             closeOnTragicEvent(ex);
@@ -1593,6 +1591,13 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         out.seek(end);
     }
 
+    static void writeOperationWithSize(ReferencingStreamOutput out, Translog.Operation op) throws IOException {
+        final long sizeOffset = out.reserveInt();
+        final int start = out.length();
+        writeOperationNoSize(new BufferedChecksumStreamOutput(out), op);
+        out.setInt(sizeOffset, out.length() - start);
+    }
+
     /**
      * Gets the minimum generation that could contain any sequence number after the specified sequence number, or the current generation if
      * there is no generation that could any such sequence number.
@@ -7,15 +7,19 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.network.HandlingTimeTracker;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
 
 public class TranslogStats implements Writeable, ToXContentFragment {
@@ -25,6 +29,9 @@ public class TranslogStats implements Writeable, ToXContentFragment {
     private long uncommittedSizeInBytes;
     private int uncommittedOperations;
     private long earliestLastModifiedAge;
+    // histograms of the fsyncs performed by the TranslogSyncCoordinator, empty if it is disabled
+    private long[] syncBatchSizeHistogram = new long[0];
+    private long[] syncLatencyHistogram = new long[0];
 
     public TranslogStats() {}
 
@@ -34,6 +41,10 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         uncommittedOperations = in.readVInt();
         uncommittedSizeInBytes = in.readVLong();
         earliestLastModifiedAge = in.readVLong();
+        if (in.getTransportVersion().onOrAfter(TransportVersions.TRANSLOG_SYNC_HISTOGRAMS)) {
+            syncBatchSizeHistogram = in.readVLongArray();
+            syncLatencyHistogram = in.readVLongArray();
+        }
     }
 
     public TranslogStats(
@@ -79,6 +90,27 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         } else {
             this.earliestLastModifiedAge = Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
         }
+        addSyncHistograms(translogStats.syncBatchSizeHistogram, translogStats.syncLatencyHistogram);
+    }
+
+    /**
+     * Adds the given histograms of the batch sizes and latencies of coordinated translog fsyncs, as reported by
+     * {@link TranslogSyncCoordinator.ShardSyncQueue}.
+     */
+    public void addSyncHistograms(long[] batchSizeHistogram, long[] latencyHistogram) {
+        this.syncBatchSizeHistogram = addHistogram(this.syncBatchSizeHistogram, batchSizeHistogram);
+        this.syncLatencyHistogram = addHistogram(this.syncLatencyHistogram, latencyHistogram);
+    }
+
+    private static long[] addHistogram(long[] histogram, long[] other) {
+        if (other.length == 0) {
+            return histogram;
+        }
+        final long[] sum = Arrays.copyOf(other, other.length);
+        for (int i = 0; i < histogram.length; i++) {
+            sum[i] += histogram[i];
+        }
+        return sum;
     }
 
     public long getTranslogSizeInBytes() {
@@ -103,6 +135,24 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         return earliestLastModifiedAge;
     }
 
+    /**
+     * The number of write requests that each coordinated translog fsync made durable, in buckets with upper bounds as returned by
+     * {@link HandlingTimeTracker#getBucketUpperBounds()} plus an extra bucket for larger batches, or an empty array if translog fsyncs
+     * are not coordinated.
+     */
+    public long[] getSyncBatchSizeHistogram() {
+        return syncBatchSizeHistogram;
+    }
+
+    /**
+     * How long write requests waited for their coordinated translog fsync, in millisecond buckets with upper bounds as returned by
+     * {@link HandlingTimeTracker#getBucketUpperBounds()} plus an extra bucket for longer waits, or an empty array if translog fsyncs
+     * are not coordinated.
+     */
+    public long[] getSyncLatencyHistogram() {
+        return syncLatencyHistogram;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -111,10 +161,44 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", ByteSizeValue.ofBytes(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        if (syncBatchSizeHistogram.length > 0) {
+            histogramToXContent(builder, syncBatchSizeHistogram, "sync_batch_size_histogram", false);
+            histogramToXContent(builder, syncLatencyHistogram, "sync_latency_histogram", true);
+        }
         builder.endObject();
         return builder;
     }
 
+    private static void histogramToXContent(XContentBuilder builder, long[] bucketFrequencies, String fieldName, boolean millis)
+        throws IOException {
+        final int[] bucketBounds = HandlingTimeTracker.getBucketUpperBounds();
+        assert bucketFrequencies.length == bucketBounds.length + 1;
+        builder.startArray(fieldName);
+        for (int i = 0; i < bucketFrequencies.length; i++) {
+            if (bucketFrequencies[i] == 0) {
+                continue;
+            }
+            builder.startObject();
+            if (i > 0 && i <= bucketBounds.length) {
+                if (millis) {
+                    builder.humanReadableField("ge_millis", "ge", TimeValue.timeValueMillis(bucketBounds[i - 1]));
+                } else {
+                    builder.field("ge", bucketBounds[i - 1]);
+                }
+            }
+            if (i < bucketBounds.length) {
+                if (millis) {
+                    builder.humanReadableField("lt_millis", "lt", TimeValue.timeValueMillis(bucketBounds[i]));
+                } else {
+                    builder.field("lt", bucketBounds[i]);
+                }
+            }
+            builder.field("count", bucketFrequencies[i]);
+            builder.endObject();
+        }
+        builder.endArray();
+    }
+
     @Override
     public String toString() {
         return Strings.toString(this, true, true);
@@ -127,6 +211,10 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         out.writeVInt(uncommittedOperations);
         out.writeVLong(uncommittedSizeInBytes);
         out.writeVLong(earliestLastModifiedAge);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.TRANSLOG_SYNC_HISTOGRAMS)) {
+            out.writeVLongArray(syncBatchSizeHistogram);
+            out.writeVLongArray(syncLatencyHistogram);
+        }
     }
 
     @Override
@@ -138,17 +226,22 @@ public class TranslogStats implements Writeable, ToXContentFragment {
             && translogSizeInBytes == that.translogSizeInBytes
             && uncommittedOperations == that.uncommittedOperations
             && uncommittedSizeInBytes == that.uncommittedSizeInBytes
-            && earliestLastModifiedAge == that.earliestLastModifiedAge;
+            && earliestLastModifiedAge == that.earliestLastModifiedAge
+            && Arrays.equals(syncBatchSizeHistogram, that.syncBatchSizeHistogram)
+            && Arrays.equals(syncLatencyHistogram, that.syncLatencyHistogram);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(
+        int result = Objects.hash(
             numberOfOperations,
             translogSizeInBytes,
             uncommittedOperations,
             uncommittedSizeInBytes,
             earliestLastModifiedAge
         );
+        result = 31 * result + Arrays.hashCode(syncBatchSizeHistogram);
+        result = 31 * result + Arrays.hashCode(syncLatencyHistogram);
+        return result;
     }
 }
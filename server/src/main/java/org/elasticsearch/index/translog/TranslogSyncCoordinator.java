@@ -0,0 +1,297 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.network.HandlingTimeTracker;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Coordinates the translog fsyncs that the shards of a node perform after each write request when using
+ * {@link org.elasticsearch.index.translog.Translog.Durability#REQUEST} durability.
+ * <p>
+ * Without coordination, each shard fsyncs its translog independently as soon as a write request needs its operations to be durable, so
+ * that a bulk request spread over hundreds of shards results in hundreds of fsyncs at arbitrary times. Instead, the coordinator runs
+ * node-level sync rounds: a round takes the pending sync requests of every shard that has any, fsyncs the translogs of these shards in
+ * parallel, each of them up to the highest pending location of its shard, and completes the listeners of each shard as soon as the fsync
+ * of that shard is done. The next round only starts once all the fsyncs of the current round are done, and covers all the requests that
+ * arrived in the meantime, so that the number of fsyncs is bounded by how long the rounds take rather than by the number of write
+ * requests. A listener is only completed once its location is durable, so the per-request durability guarantee is unchanged.
+ * <p>
+ * If no round is running then the write thread that requests a sync starts a round itself and fsyncs one of its shards on its own
+ * thread, like {@link org.elasticsearch.common.util.concurrent.AsyncIOProcessor} does for a single shard, so that a lone write request
+ * does not wait for a thread hop. The other fsyncs of the round and all later rounds run on the {@link ThreadPool.Names#TRANSLOG_SYNC}
+ * thread pool.
+ */
+public final class TranslogSyncCoordinator {
+
+    private static final Logger logger = LogManager.getLogger(TranslogSyncCoordinator.class);
+
+    public static final Setting<Boolean> ENABLED_SETTING = Setting.boolSetting(
+        "indices.translog.sync_coordinator.enabled",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    private final ThreadContext threadContext;
+    private final Executor executor;
+    private final LongSupplier relativeTimeInNanosSupplier;
+
+    // all guarded by this
+    private final Set<ShardSyncQueue> pendingShards = new LinkedHashSet<>();
+    private boolean roundRunning;
+    private long completedRounds;
+
+    public TranslogSyncCoordinator(ThreadPool threadPool) {
+        this(threadPool.getThreadContext(), threadPool.executor(ThreadPool.Names.TRANSLOG_SYNC), System::nanoTime);
+    }
+
+    public TranslogSyncCoordinator(ThreadContext threadContext, Executor executor, LongSupplier relativeTimeInNanosSupplier) {
+        this.threadContext = threadContext;
+        this.executor = executor;
+        this.relativeTimeInNanosSupplier = relativeTimeInNanosSupplier;
+    }
+
+    /**
+     * Creates the queue of pending sync requests of a shard.
+     *
+     * @param syncer ensures that the translog of the shard is synced up to the given location, and notifies the given listener once done
+     */
+    public ShardSyncQueue newShardQueue(BiConsumer<Translog.Location, Consumer<Exception>> syncer) {
+        return new ShardSyncQueue(syncer);
+    }
+
+    /**
+     * @return the number of sync rounds that completed so far
+     */
+    public synchronized long getCompletedRounds() {
+        return completedRounds;
+    }
+
+    private void enqueue(ShardSyncQueue shard, PendingSync pendingSync) {
+        final boolean startRound;
+        synchronized (this) {
+            shard.addPending(pendingSync);
+            pendingShards.add(shard);
+            startRound = roundRunning == false;
+            roundRunning = true;
+        }
+        if (startRound) {
+            // caller-runs fast path: nothing is in flight, so sync right away on the calling thread
+            runRound();
+        }
+    }
+
+    private void runRound() {
+        final List<Batch> batches;
+        synchronized (this) {
+            batches = new ArrayList<>(pendingShards.size());
+            for (ShardSyncQueue shard : pendingShards) {
+                batches.add(shard.takeBatch());
+            }
+            pendingShards.clear();
+        }
+        assert batches.isEmpty() == false;
+        final CountDown countDown = new CountDown(batches.size());
+        final Runnable onShardDone = () -> {
+            if (countDown.countDown()) {
+                onRoundDone();
+            }
+        };
+        // the fsyncs are not part of the request that happened to start the round, the listeners restore their own contexts
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            for (int i = 1; i < batches.size(); i++) {
+                final Batch batch = batches.get(i);
+                executor.execute(new AbstractRunnable() {
+                    @Override
+                    protected void doRun() {
+                        batch.sync(onShardDone);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        // only happens if the executor rejects the task, e.g. when the node shuts down
+                        batch.fail(e);
+                        onShardDone.run();
+                    }
+                });
+            }
+            batches.get(0).sync(onShardDone);
+        }
+    }
+
+    private void onRoundDone() {
+        synchronized (this) {
+            completedRounds++;
+            if (pendingShards.isEmpty()) {
+                roundRunning = false;
+                return;
+            }
+        }
+        // fork the next round rather than running it on the thread that completed the last fsync, which may be the thread of a write
+        // request that already returned, and which would otherwise recurse into the next round
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            executor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    runRound();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    // only happens if the executor rejects the task, e.g. when the node shuts down
+                    final List<Batch> batches = new ArrayList<>();
+                    synchronized (TranslogSyncCoordinator.this) {
+                        for (ShardSyncQueue shard : pendingShards) {
+                            batches.add(shard.takeBatch());
+                        }
+                        pendingShards.clear();
+                        roundRunning = false;
+                    }
+                    for (Batch batch : batches) {
+                        batch.fail(e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * The pending sync requests of a shard.
+     */
+    public final class ShardSyncQueue {
+
+        private final BiConsumer<Translog.Location, Consumer<Exception>> syncer;
+        private final HandlingTimeTracker batchSizes = new HandlingTimeTracker();
+        private final HandlingTimeTracker latencies = new HandlingTimeTracker();
+
+        // both guarded by the coordinator
+        private List<PendingSync> pending = new ArrayList<>();
+        private long firstPendingNanos;
+
+        private ShardSyncQueue(BiConsumer<Translog.Location, Consumer<Exception>> syncer) {
+            this.syncer = syncer;
+        }
+
+        /**
+         * Notifies the given listener once the translog of the shard is synced up to the given location, or with the exception that
+         * prevented it from being synced. May sync on the calling thread if no sync round is running.
+         */
+        public void sync(Translog.Location location, Consumer<Exception> listener) {
+            enqueue(this, new PendingSync(location, listener, threadContext.newRestorableContext(false)));
+        }
+
+        /**
+         * @return the number of requests that each fsync of this shard completed, in buckets with upper bounds as returned by
+         *         {@link HandlingTimeTracker#getBucketUpperBounds()}, plus an extra bucket for larger batches.
+         */
+        public long[] getBatchSizeHistogram() {
+            return batchSizes.getHistogram();
+        }
+
+        /**
+         * @return how long requests waited for their fsync in milliseconds, measured from the oldest request of each batch, in buckets
+         *         with upper bounds as returned by {@link HandlingTimeTracker#getBucketUpperBounds()}, plus an extra bucket for longer
+         *         waits.
+         */
+        public long[] getLatencyHistogram() {
+            return latencies.getHistogram();
+        }
+
+        private void addPending(PendingSync pendingSync) {
+            assert Thread.holdsLock(TranslogSyncCoordinator.this);
+            if (pending.isEmpty()) {
+                firstPendingNanos = relativeTimeInNanosSupplier.getAsLong();
+            }
+            pending.add(pendingSync);
+        }
+
+        private Batch takeBatch() {
+            assert Thread.holdsLock(TranslogSyncCoordinator.this);
+            final Batch batch = new Batch(this, pending, firstPendingNanos);
+            pending = new ArrayList<>();
+            return batch;
+        }
+    }
+
+    /**
+     * The requests of a shard that a single fsync completes.
+     */
+    private final class Batch {
+        private final ShardSyncQueue shard;
+        private final List<PendingSync> pending;
+        private final long firstPendingNanos;
+
+        private Batch(ShardSyncQueue shard, List<PendingSync> pending, long firstPendingNanos) {
+            this.shard = shard;
+            this.pending = pending;
+            this.firstPendingNanos = firstPendingNanos;
+        }
+
+        void sync(Runnable onDone) {
+            Translog.Location location = Translog.Location.EMPTY;
+            for (PendingSync pendingSync : pending) {
+                location = location.compareTo(pendingSync.location) >= 0 ? location : pendingSync.location;
+            }
+            final AtomicBoolean notified = new AtomicBoolean();
+            final Consumer<Exception> onSynced = e -> {
+                if (notified.compareAndSet(false, true)) {
+                    try {
+                        shard.batchSizes.addHandlingTime(pending.size());
+                        shard.latencies.addHandlingTime(
+                            TimeValue.nsecToMSec(Math.max(0L, relativeTimeInNanosSupplier.getAsLong() - firstPendingNanos))
+                        );
+                        notifyListeners(e);
+                    } finally {
+                        onDone.run();
+                    }
+                }
+            };
+            try {
+                shard.syncer.accept(location, onSynced);
+            } catch (Exception e) {
+                // e.g. the shard was closed in the meantime
+                onSynced.accept(e);
+            }
+        }
+
+        void fail(Exception e) {
+            notifyListeners(e);
+        }
+
+        private void notifyListeners(Exception exception) {
+            for (PendingSync pendingSync : pending) {
+                try (ThreadContext.StoredContext ignored = pendingSync.context.get()) {
+                    pendingSync.listener.accept(exception);
+                } catch (Exception e) {
+                    logger.warn("failed to notify translog sync listener", e);
+                }
+            }
+        }
+    }
+
+    private record PendingSync(Translog.Location location, Consumer<Exception> listener, Supplier<ThreadContext.StoredContext> context) {}
+}
@@ -16,11 +16,11 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.Channels;
 import org.elasticsearch.common.io.DiskIoBufferPool;
-import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import org.elasticsearch.core.Assertions;
+import org.elasticsearch.core.CheckedConsumer;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.SuppressForbidden;
@@ -46,6 +46,9 @@ import java.util.function.LongSupplier;
 
 public class TranslogWriter extends BaseTranslogReader implements Closeable {
 
+    // the maximum number of buffers written by a single gathering write
+    private static final int GATHERING_WRITE_MAX_BUFFERS = 16;
+
     private final ShardId shardId;
     private final FileChannel checkpointChannel;
     private final Path checkpointPath;
@@ -78,7 +81,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
     private List<Long> nonFsyncedSequenceNumbers = new ArrayList<>(64);
     private final int forceWriteThreshold;
     private volatile long bufferedBytes;
-    private ReleasableBytesStreamOutput buffer;
+    // the operations that are not written to the file yet, which may reference the source of documents rather than copy it
+    private ReferencingStreamOutput buffer;
 
     private final Map<Long, Tuple<BytesReference, Exception>> seenSequenceNumbers;
 
@@ -225,6 +229,23 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
      * @throws IOException if writing to the translog resulted in an I/O exception
      */
     public Translog.Location add(final BytesReference data, final long seqNo) throws IOException {
+        return add(data, seqNo, data::writeTo);
+    }
+
+    /**
+     * Add the given serialized operation to the translog with the specified sequence number; returns the location the operation was
+     * written to. The bytes that the operation references, typically the source of a document, are retained until they are written to
+     * the file rather than copied to the buffer of this writer.
+     */
+    Translog.Location add(final ReferencingStreamOutput operation, final long seqNo) throws IOException {
+        return add(operation.bytes(), seqNo, operation::appendTo);
+    }
+
+    private Translog.Location add(
+        final BytesReference data,
+        final long seqNo,
+        final CheckedConsumer<ReferencingStreamOutput, IOException> appender
+    ) throws IOException {
         long bufferedBytesBeforeAdd = this.bufferedBytes;
         if (bufferedBytesBeforeAdd >= forceWriteThreshold) {
             writeBufferedOps(Long.MAX_VALUE, bufferedBytesBeforeAdd >= forceWriteThreshold * 4);
@@ -234,12 +255,12 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         synchronized (this) {
             ensureOpen();
             if (buffer == null) {
-                buffer = new ReleasableBytesStreamOutput(bigArrays);
+                buffer = new ReferencingStreamOutput(bigArrays);
             }
-            assert bufferedBytes == buffer.size();
+            assert bufferedBytes == buffer.length();
             final long offset = totalOffset;
             totalOffset += data.length();
-            data.writeTo(buffer);
+            appender.accept(buffer);
 
             assert minSeqNo != SequenceNumbers.NO_OPS_PERFORMED || operationCounter == 0;
             assert maxSeqNo != SequenceNumbers.NO_OPS_PERFORMED || operationCounter == 0;
@@ -255,7 +276,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
 
             location = new Translog.Location(generation, offset, data.length());
             operationListener.operationAdded(data, seqNo, location);
-            bufferedBytes = buffer.size();
+            bufferedBytes = buffer.length();
         }
 
         return location;
@@ -541,7 +562,7 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
     private synchronized ReleasableBytesReference pollOpsToWrite() {
         ensureOpen();
         if (this.buffer != null) {
-            ReleasableBytesStreamOutput toWrite = this.buffer;
+            ReferencingStreamOutput toWrite = this.buffer;
             this.buffer = null;
             this.bufferedBytes = 0;
             return new ReleasableBytesReference(toWrite.bytes(), toWrite);
@@ -559,12 +580,9 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
             }
             ByteBuffer ioBuffer = diskIoBufferPool.maybeGetDirectIOBuffer();
             if (ioBuffer == null) {
-                // not using a direct buffer for writes from the current thread so just write without copying to the io buffer
-                BytesRefIterator iterator = toWrite.iterator();
-                BytesRef current;
-                while ((current = iterator.next()) != null) {
-                    Channels.writeToChannel(current.bytes, current.offset, current.length, channel);
-                }
+                // not using a direct buffer for writes from the current thread so just write without copying to the io buffer, with
+                // gathering writes since the buffered operations are made of many chunks when they reference the source of documents
+                writeToFile(BytesReference.toByteBuffers(toWrite));
                 return;
             }
             BytesRefIterator iterator = toWrite.iterator();
@@ -594,6 +612,27 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         }
     }
 
+    @SuppressForbidden(reason = "Channel#write")
+    private void writeToFile(ByteBuffer[] chunks) throws IOException {
+        // the JDK copies heap buffers to temporary direct buffers, so bound their size like Channels#writeToChannel does
+        final List<ByteBuffer> slices = new ArrayList<>(chunks.length);
+        for (ByteBuffer chunk : chunks) {
+            while (chunk.remaining() > Channels.WRITE_CHUNK_SIZE) {
+                slices.add(chunk.slice(chunk.position(), Channels.WRITE_CHUNK_SIZE));
+                chunk.position(chunk.position() + Channels.WRITE_CHUNK_SIZE);
+            }
+            slices.add(chunk);
+        }
+        final ByteBuffer[] buffers = slices.toArray(ByteBuffer[]::new);
+        int first = 0;
+        while (first < buffers.length) {
+            channel.write(buffers, first, Math.min(buffers.length - first, GATHERING_WRITE_MAX_BUFFERS));
+            while (first < buffers.length && buffers[first].hasRemaining() == false) {
+                first++;
+            }
+        }
+    }
+
     @Override
     protected void readBytes(ByteBuffer targetBuffer, long position) throws IOException {
         try {
@@ -38,6 +38,16 @@ abstract class AbstractIndexShardCacheEntity implements IndicesRequestCache.Cach
         stats().onMiss();
     }
 
+    @Override
+    public final void onAdmitted() {
+        stats().onAdmitted();
+    }
+
+    @Override
+    public final void onRejected() {
+        stats().onRejected();
+    }
+
     @Override
     public final void onRemoval(RemovalNotification<IndicesRequestCache.Key, BytesReference> notification) {
         stats().onRemoval(
@@ -9,6 +9,7 @@
 package org.elasticsearch.indices;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.CheckedSupplier;
@@ -16,6 +17,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.cache.CacheLoader;
+import org.elasticsearch.common.cache.FrequencySketch;
 import org.elasticsearch.common.cache.RemovalNotification;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Setting;
@@ -33,6 +35,7 @@ import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * The indices request cache allows to cache a shard level request stage responses, helping with improving
@@ -59,6 +62,16 @@ public final class IndicesRequestCache implements Closeable {
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * Whether aggregation-only requests that filter on a range cache the partial results of the segments whose values are all within
+     * the range, so that requests over a rolling time range only need to collect the segments that intersect its bounds.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_SEGMENT_PARTIALS_SETTING = Setting.boolSetting(
+        "index.requests.cache.segment_partials",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE = Setting.memorySizeSetting(
         "indices.requests.cache.size",
         "1%",
@@ -69,17 +82,56 @@ public final class IndicesRequestCache implements Closeable {
         new TimeValue(0),
         Property.NodeScope
     );
+    public static final Setting<Boolean> INDICES_CACHE_QUERY_BUFFER_READS = Setting.boolSetting(
+        "indices.requests.cache.buffer_reads",
+        false,
+        Property.NodeScope
+    );
+    /**
+     * Whether a frequency based admission policy decides which results are cached once the cache is full. When enabled, a result that
+     * does not fit in the cache any more is only cached if its key was requested before, so that one-off requests do not evict entries
+     * that are requested repeatedly.
+     */
+    public static final Setting<Boolean> INDICES_CACHE_QUERY_ADMISSION_ENABLED = Setting.boolSetting(
+        "indices.requests.cache.admission.enabled",
+        false,
+        Property.NodeScope
+    );
+
+    /**
+     * The average size of a cache entry that is assumed to size the admission sketch from the size of the cache.
+     */
+    static final long ADMISSION_EXPECTED_ENTRY_SIZE_IN_BYTES = 4096;
+    /**
+     * A lower bound on the number of entries the admission sketch is sized for, so that small caches don't suffer from collisions.
+     */
+    static final long ADMISSION_MIN_EXPECTED_ENTRIES = 1024;
+    /**
+     * The minimum number of recent requests for a key to be admitted into a full cache.
+     */
+    static final int ADMISSION_MIN_FREQUENCY = 2;
 
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final Cache<Key, BytesReference> cache;
+    private final long maximumWeight;
+    // null if the admission policy is disabled
+    private final FrequencySketch admissionSketch;
 
     IndicesRequestCache(Settings settings) {
         TimeValue expire = INDICES_CACHE_QUERY_EXPIRE.exists(settings) ? INDICES_CACHE_QUERY_EXPIRE.get(settings) : null;
+        maximumWeight = INDICES_CACHE_QUERY_SIZE.get(settings).getBytes();
+        if (INDICES_CACHE_QUERY_ADMISSION_ENABLED.get(settings)) {
+            long expectedEntries = Math.max(ADMISSION_MIN_EXPECTED_ENTRIES, maximumWeight / ADMISSION_EXPECTED_ENTRY_SIZE_IN_BYTES);
+            admissionSketch = new FrequencySketch((int) Math.min(Integer.MAX_VALUE, expectedEntries));
+        } else {
+            admissionSketch = null;
+        }
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
-            .setMaximumWeight(INDICES_CACHE_QUERY_SIZE.get(settings).getBytes())
+            .setMaximumWeight(maximumWeight)
             .weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed())
-            .removalListener(notification -> notification.getKey().entity.onRemoval(notification));
+            .removalListener(notification -> notification.getKey().entity.onRemoval(notification))
+            .setBufferReads(INDICES_CACHE_QUERY_BUFFER_READS.get(settings));
         if (expire != null) {
             cacheBuilder.setExpireAfterAccess(expire);
         }
@@ -106,27 +158,100 @@ public final class IndicesRequestCache implements Closeable {
         final ESCacheHelper cacheHelper = ElasticsearchDirectoryReader.getESReaderCacheHelper(reader);
         assert cacheHelper != null;
         final Key key = new Key(cacheEntity, mappingCacheKey, cacheHelper.getKey(), cacheKey);
+        if (admissionSketch != null) {
+            // record every request, including hits, so that the sketch tracks how popular each key is
+            final int keyHash = key.hashCode();
+            admissionSketch.increment(keyHash);
+            if (admissionSketch.frequency(keyHash) < ADMISSION_MIN_FREQUENCY) {
+                return getOrComputeUnpopular(key, cacheHelper, loader);
+            }
+        }
         Loader cacheLoader = new Loader(cacheEntity, loader);
         BytesReference value = cache.computeIfAbsent(key, cacheLoader);
         if (cacheLoader.isLoaded()) {
             key.entity.onMiss();
-            // see if its the first time we see this reader, and make sure to register a cleanup key
-            CleanupKey cleanupKey = new CleanupKey(cacheEntity, cacheHelper.getKey());
+            key.entity.onAdmitted();
+            registerClosedListener(cacheEntity, cacheHelper);
+        } else {
+            key.entity.onHit();
+        }
+        return value;
+    }
+
+    /**
+     * Looks up a key that was not requested recently. On a miss the value is computed, but it is only cached if it fits in the
+     * cache without evicting other entries: a key that was seen only once is not worth evicting keys that may be requested again.
+     * Concurrent misses on the same key still compute the value only once.
+     */
+    private BytesReference getOrComputeUnpopular(Key key, ESCacheHelper cacheHelper, CheckedSupplier<BytesReference, IOException> loader)
+        throws ExecutionException {
+        UnpopularLoader cacheLoader = new UnpopularLoader(loader);
+        BytesReference value = cache.computeIfAbsent(key, cacheLoader, (k, v) -> {
+            if (cache.weight() + k.ramBytesUsed() + v.ramBytesUsed() > maximumWeight) {
+                return false;
+            }
+            k.entity.onCached(k, v);
+            cacheLoader.admitted = true;
+            return true;
+        });
+        if (cacheLoader.loaded) {
+            key.entity.onMiss();
+            if (cacheLoader.admitted) {
+                key.entity.onAdmitted();
+                registerClosedListener(key.entity, cacheHelper);
+            } else {
+                key.entity.onRejected();
+            }
+        } else {
+            key.entity.onHit();
+        }
+        return value;
+    }
+
+    private void registerClosedListener(CacheEntity cacheEntity, ESCacheHelper cacheHelper) {
+        // see if its the first time we see this reader, and make sure to register a cleanup key
+        CleanupKey cleanupKey = new CleanupKey(cacheEntity, cacheHelper.getKey());
+        if (registeredClosedListeners.containsKey(cleanupKey) == false) {
+            Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
+            if (previous == null) {
+                cacheHelper.addClosedListener(cleanupKey);
+            }
+        }
+        /*
+         * Note that we don't use a closed listener for the mapping. Instead
+         * we let cache entries for out of date mappings age out. We do this
+         * because we don't reference count the MappingLookup so we can't tell
+         * when one is no longer used. Mapping updates should be a lot less
+         * frequent than reader closes so this is probably ok. On the other
+         * hand, for read only indices mapping changes are, well, possible,
+         * and readers are never changed. Oh well.
+         */
+    }
+
+    /**
+     * Like {@link #getOrCompute} but for a result that only depends on a single segment of the shard, which remains cached across
+     * refreshes for as long as the segment is not modified.
+     */
+    BytesReference getOrComputeLeaf(
+        CacheEntity cacheEntity,
+        CheckedSupplier<BytesReference, IOException> loader,
+        MappingLookup.CacheKey mappingCacheKey,
+        IndexReader.CacheHelper leafCacheHelper,
+        BytesReference cacheKey
+    ) throws Exception {
+        final Key key = new Key(cacheEntity, mappingCacheKey, leafCacheHelper.getKey(), cacheKey);
+        Loader cacheLoader = new Loader(cacheEntity, loader);
+        BytesReference value = cache.computeIfAbsent(key, cacheLoader);
+        if (cacheLoader.isLoaded()) {
+            key.entity.onMiss();
+            key.entity.onAdmitted();
+            CleanupKey cleanupKey = new CleanupKey(cacheEntity, leafCacheHelper.getKey());
             if (registeredClosedListeners.containsKey(cleanupKey) == false) {
                 Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
                 if (previous == null) {
-                    cacheHelper.addClosedListener(cleanupKey);
+                    leafCacheHelper.addClosedListener(cleanupKey::onClose);
                 }
             }
-            /*
-             * Note that we don't use a closed listener for the mapping. Instead
-             * we let cache entries for out of date mappings age out. We do this
-             * because we don't reference count the MappingLookup so we can't tell
-             * when one is no longer used. Mapping updates should be a lot less
-             * frequent than reader closes so this is probably ok. On the other
-             * hand, for read only indices mapping changes are, well, possible,
-             * and readers are never changed. Oh well.
-             */
         } else {
             key.entity.onHit();
         }
@@ -168,6 +293,28 @@ public final class IndicesRequestCache implements Closeable {
         }
     }
 
+    /**
+     * Loads a value that may not be admitted into the cache, so unlike {@link Loader} it leaves notifying the entity that the value
+     * was cached to the admission decision.
+     */
+    private static class UnpopularLoader implements CacheLoader<Key, BytesReference> {
+
+        private final CheckedSupplier<BytesReference, IOException> loader;
+        private boolean loaded;
+        private boolean admitted;
+
+        UnpopularLoader(CheckedSupplier<BytesReference, IOException> loader) {
+            this.loader = loader;
+        }
+
+        @Override
+        public BytesReference load(Key key) throws Exception {
+            BytesReference value = loader.get();
+            loaded = true;
+            return value;
+        }
+    }
+
     /**
      * Basic interface to make this cache testable.
      */
@@ -200,6 +347,16 @@ public final class IndicesRequestCache implements Closeable {
          */
         void onMiss();
 
+        /**
+         * Called each time a value computed on a cache miss of this entity is admitted into the cache.
+         */
+        void onAdmitted();
+
+        /**
+         * Called each time a value computed on a cache miss of this entity is rejected by the admission policy.
+         */
+        void onRejected();
+
         /**
          * Called when this entity instance is removed
          */
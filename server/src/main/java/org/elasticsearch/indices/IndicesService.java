@@ -107,6 +107,7 @@ import org.elasticsearch.index.query.CoordinatorRewriteContextProvider;
 import org.elasticsearch.index.query.DataRewriteContext;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryRewriteContext;
+import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.index.recovery.RecoveryStats;
 import org.elasticsearch.index.refresh.RefreshStats;
 import org.elasticsearch.index.search.stats.SearchStats;
@@ -121,6 +122,7 @@ import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -133,12 +135,14 @@ import org.elasticsearch.plugins.IndexStorePlugin;
 import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.DefaultSearchContext;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QueryPhase;
 import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.query.SegmentPartialsQueryPhase;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.xcontent.XContentParser;
 import org.elasticsearch.xcontent.XContentParserConfiguration;
@@ -223,6 +227,8 @@ public class IndicesService extends AbstractLifecycleComponent
     private final ThreadPool threadPool;
     private final CircuitBreakerService circuitBreakerService;
     private final BigArrays bigArrays;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
     private final ScriptService scriptService;
     private final ClusterService clusterService;
     private final Client client;
@@ -292,6 +298,9 @@ public class IndicesService extends AbstractLifecycleComponent
         this.indexScopedSettings = builder.indexScopedSettings;
         this.circuitBreakerService = builder.circuitBreakerService;
         this.bigArrays = builder.bigArrays;
+        this.translogSyncCoordinator = TranslogSyncCoordinator.ENABLED_SETTING.get(settings)
+            ? new TranslogSyncCoordinator(threadPool)
+            : null;
         this.scriptService = builder.scriptService;
         this.clusterService = builder.clusterService;
         this.client = builder.client;
@@ -872,7 +881,12 @@ public class IndicesService extends AbstractLifecycleComponent
         IndexService indexService = indexService(shardRouting.index());
         assert indexService != null;
         RecoveryState recoveryState = indexService.createRecoveryState(shardRouting, targetNode, sourceNode);
-        IndexShard indexShard = indexService.createShard(shardRouting, globalCheckpointSyncer, retentionLeaseSyncer);
+        IndexShard indexShard = indexService.createShard(
+            shardRouting,
+            globalCheckpointSyncer,
+            retentionLeaseSyncer,
+            translogSyncCoordinator
+        );
         indexShard.addShardFailureCallback(onShardFailure);
         indexShard.startRecovery(recoveryState, recoveryTargetService, recoveryListener, repositoriesService, (mapping, listener) -> {
             assert recoveryState.getRecoverySource().getType() == RecoverySource.Type.LOCAL_SHARDS
@@ -1554,7 +1568,7 @@ public class IndicesService extends AbstractLifecycleComponent
             directoryReader,
             cacheKey,
             out -> {
-                QueryPhase.execute(context);
+                executeQueryPhase(request, context);
                 context.queryResult().writeToNoId(out);
                 loadedFromCache[0] = false;
             }
@@ -1594,6 +1608,53 @@ public class IndicesService extends AbstractLifecycleComponent
         return indexingMemoryController.indexingBufferSize();
     }
 
+    /**
+     * The extra bytes that plugins, like document level security, add to the {@link ShardSearchRequest#cacheKey cache key} of a
+     * shard request. Caches of shard level results outside of the request cache must include them too.
+     */
+    public CheckedBiConsumer<ShardSearchRequest, StreamOutput, IOException> getRequestCacheKeyDifferentiator() {
+        return requestCacheKeyDifferentiator;
+    }
+
+    /**
+     * Executes the query phase of a cacheable request, reusing the cached partial results of the segments that the range filter of
+     * the request fully contains when {@link IndicesRequestCache#INDEX_CACHE_SEGMENT_PARTIALS_SETTING} is enabled.
+     */
+    private void executeQueryPhase(ShardSearchRequest request, SearchContext context) throws Exception {
+        final IndexShard shard = context.indexShard();
+        if (shard.indexSettings().getValue(IndicesRequestCache.INDEX_CACHE_SEGMENT_PARTIALS_SETTING) == false) {
+            QueryPhase.execute(context);
+            return;
+        }
+        final IndexService indexService = indexServiceSafe(shard.shardId().getIndex());
+        final DirectoryReader directoryReader = context.searcher().getDirectoryReader();
+        final RangeQueryBuilder range = SegmentPartialsQueryPhase.partialsRangeFilter(
+            context,
+            field -> DefaultSearchContext.getFieldCardinality(field, indexService, directoryReader)
+        );
+        if (range == null) {
+            QueryPhase.execute(context);
+            return;
+        }
+        final ShardSearchRequest keyRequest = new ShardSearchRequest(request);
+        keyRequest.source(SegmentPartialsQueryPhase.partialsKeySource(request.source(), range));
+        final BytesReference partialsCacheKey = keyRequest.cacheKey(requestCacheKeyDifferentiator);
+        final IndexShardCacheEntity cacheEntity = new IndexShardCacheEntity(shard);
+        final MappingLookup.CacheKey mappingCacheKey = context.getSearchExecutionContext().mappingCacheKey();
+        SegmentPartialsQueryPhase.execute(
+            context,
+            range,
+            (leaf, loader) -> indicesRequestCache.getOrComputeLeaf(
+                cacheEntity,
+                loader,
+                mappingCacheKey,
+                leaf.reader().getReaderCacheHelper(),
+                partialsCacheKey
+            ),
+            namedWriteableRegistry
+        );
+    }
+
     /**
      * Cache something calculated at the shard level.
      * @param shard the shard this item is part of
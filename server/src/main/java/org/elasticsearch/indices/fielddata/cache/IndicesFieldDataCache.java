@@ -55,13 +55,20 @@ public final class IndicesFieldDataCache implements RemovalListener<IndicesField
         new TimeValue(1, TimeUnit.HOURS),
         Property.NodeScope
     );
+    public static final Setting<Boolean> INDICES_FIELDDATA_CACHE_BUFFER_READS = Setting.boolSetting(
+        "indices.fielddata.cache.buffer_reads",
+        false,
+        Property.NodeScope
+    );
     private final IndexFieldDataCache.Listener indicesFieldDataCacheListener;
     private final Cache<Key, Accountable> cache;
 
     public IndicesFieldDataCache(Settings settings, IndexFieldDataCache.Listener indicesFieldDataCacheListener) {
         this.indicesFieldDataCacheListener = indicesFieldDataCacheListener;
         final long sizeInBytes = INDICES_FIELDDATA_CACHE_SIZE_KEY.get(settings).getBytes();
-        CacheBuilder<Key, Accountable> cacheBuilder = CacheBuilder.<Key, Accountable>builder().removalListener(this);
+        CacheBuilder<Key, Accountable> cacheBuilder = CacheBuilder.<Key, Accountable>builder()
+            .removalListener(this)
+            .setBufferReads(INDICES_FIELDDATA_CACHE_BUFFER_READS.get(settings));
         if (sizeInBytes > 0) {
             cacheBuilder.setMaximumWeight(sizeInBytes).weigher(new FieldDataWeigher());
         }
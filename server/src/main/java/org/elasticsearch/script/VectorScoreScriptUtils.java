@@ -11,6 +11,8 @@ package org.elasticsearch.script;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.script.field.vectors.DenseVector;
 import org.elasticsearch.script.field.vectors.DenseVectorDocValuesField;
+import org.elasticsearch.script.field.vectors.RankVectors;
+import org.elasticsearch.script.field.vectors.RankVectorsDocValuesField;
 
 import java.io.IOException;
 import java.util.List;
@@ -288,4 +290,34 @@ public class VectorScoreScriptUtils {
             return function.cosineSimilarity();
         }
     }
+
+    // Calculate the MaxSim similarity between a query's vectors and the vectors of documents' rank_vectors fields
+    public static final class MaxSimDotProduct {
+
+        private final ScoreScript scoreScript;
+        private final RankVectorsDocValuesField field;
+        private final float[][] queryVectors;
+
+        public MaxSimDotProduct(ScoreScript scoreScript, List<?> queryVectors, String fieldName) {
+            this.scoreScript = scoreScript;
+            this.field = (RankVectorsDocValuesField) scoreScript.field(fieldName);
+            this.queryVectors = RankVectors.toFloatVectors(queryVectors);
+            for (float[] queryVector : this.queryVectors) {
+                DenseVector.checkDimensions(field.getDims(), queryVector.length);
+                field.getElementType().checkVectorBounds(queryVector);
+            }
+        }
+
+        public double maxSimDotProduct() {
+            try {
+                field.setNextDocId(scoreScript._getDocId());
+            } catch (IOException e) {
+                throw ExceptionsHelper.convertToElastic(e);
+            }
+            if (field.isEmpty()) {
+                throw new IllegalArgumentException("A document doesn't have a value for a vector field!");
+            }
+            return field.get().maxSimDotProduct(queryVectors);
+        }
+    }
 }
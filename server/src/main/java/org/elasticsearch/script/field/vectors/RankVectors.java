@@ -0,0 +1,122 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.script.field.vectors;
+
+import org.apache.lucene.util.VectorUtil;
+
+import java.util.List;
+
+/**
+ * The vectors of a document in a {@code rank_vectors} field, decoded to floats.
+ */
+public final class RankVectors {
+
+    public static final RankVectors EMPTY = new RankVectors(new float[0][], 0);
+
+    private static final String MISSING_VECTOR_FIELD_MESSAGE = "Rank vectors value missing for a field,"
+        + " use isEmpty() to check for a missing vectors value";
+
+    private final float[][] vectors;
+    private final int size;
+
+    /**
+     * @param vectors the decoded vectors, of which only the first {@code size} belong to the document
+     * @param size the number of vectors of the document
+     */
+    public RankVectors(float[][] vectors, int size) {
+        this.vectors = vectors;
+        this.size = size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * The number of vectors of the document.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getDims() {
+        checkNotEmpty();
+        return vectors[0].length;
+    }
+
+    public float[] getVector(int index) {
+        checkNotEmpty();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for [" + size + "] vectors");
+        }
+        return vectors[index];
+    }
+
+    /**
+     * The MaxSim similarity of late-interaction models: for each query vector the largest dot product with any of the document's
+     * vectors, summed over the query vectors.
+     */
+    public double maxSimDotProduct(float[][] queryVectors) {
+        checkNotEmpty();
+        double sum = 0;
+        for (float[] queryVector : queryVectors) {
+            DenseVector.checkDimensions(vectors[0].length, queryVector.length);
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, VectorUtil.dotProduct(queryVector, vectors[i]));
+            }
+            sum += max;
+        }
+        return sum;
+    }
+
+    /**
+     * Handles {@code float[][]} and lists of numeric lists or {@code float[]}, as passed from scripts.
+     */
+    public double maxSimDotProduct(Object queryVectors) {
+        return maxSimDotProduct(toFloatVectors(queryVectors));
+    }
+
+    /**
+     * Converts query vectors passed from a script to a {@code float[][]}.
+     */
+    public static float[][] toFloatVectors(Object queryVectors) {
+        if (queryVectors instanceof float[][] floats) {
+            return floats;
+        }
+        if (queryVectors instanceof List<?> list) {
+            float[][] floats = new float[list.size()][];
+            for (int i = 0; i < floats.length; i++) {
+                Object queryVector = list.get(i);
+                if (queryVector instanceof float[] vector) {
+                    floats[i] = vector;
+                } else if (queryVector instanceof List<?> values) {
+                    floats[i] = new float[values.size()];
+                    for (int j = 0; j < floats[i].length; j++) {
+                        floats[i][j] = ((Number) values.get(j)).floatValue();
+                    }
+                } else {
+                    throw new IllegalArgumentException(badQueryVectorsType(queryVectors));
+                }
+            }
+            return floats;
+        }
+        throw new IllegalArgumentException(badQueryVectorsType(queryVectors));
+    }
+
+    private static String badQueryVectorsType(Object queryVectors) {
+        return "Cannot use vectors [" + queryVectors + "] with class [" + queryVectors.getClass().getName() + "] as query vectors";
+    }
+
+    private void checkNotEmpty() {
+        if (isEmpty()) {
+            throw new IllegalArgumentException(MISSING_VECTOR_FIELD_MESSAGE);
+        }
+    }
+}
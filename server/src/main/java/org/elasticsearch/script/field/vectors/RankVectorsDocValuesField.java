@@ -0,0 +1,129 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.script.field.vectors;
+
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.mapper.vectors.DenseVectorFieldMapper.ElementType;
+import org.elasticsearch.index.mapper.vectors.RankVectorsFieldMapper.Quantization;
+import org.elasticsearch.index.mapper.vectors.RankVectorsScriptDocValues;
+import org.elasticsearch.script.field.AbstractScriptFieldFactory;
+import org.elasticsearch.script.field.DocValuesScriptFieldFactory;
+import org.elasticsearch.script.field.Field;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Reads the vectors of a {@code rank_vectors} field. All of a document's vectors are decoded at once, from a single doc value,
+ * into buffers that are reused from one document to the next.
+ */
+public class RankVectorsDocValuesField extends AbstractScriptFieldFactory<RankVectors>
+    implements
+        Field<RankVectors>,
+        DocValuesScriptFieldFactory,
+        RankVectorsScriptDocValues.RankVectorsSupplier {
+
+    private final BinaryDocValues input;
+    private final String name;
+    private final ElementType elementType;
+    private final int dims;
+    private final Quantization quantization;
+    private final int bytesPerVector;
+    private float[][] vectors = new float[0][];
+    private BytesRef value;
+    private boolean decoded;
+
+    public RankVectorsDocValuesField(BinaryDocValues input, String name, ElementType elementType, int dims, Quantization quantization) {
+        this.input = input;
+        this.name = name;
+        this.elementType = elementType;
+        this.dims = dims;
+        this.quantization = quantization;
+        this.bytesPerVector = quantization.bytesPerVector(elementType, dims);
+    }
+
+    @Override
+    public void setNextDocId(int docId) throws IOException {
+        decoded = false;
+        if (input.advanceExact(docId)) {
+            value = input.binaryValue();
+        } else {
+            value = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public ElementType getElementType() {
+        return elementType;
+    }
+
+    public int getDims() {
+        return dims;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return value == null;
+    }
+
+    @Override
+    public int size() {
+        return isEmpty() ? 0 : 1;
+    }
+
+    /**
+     * Get the vectors of a document if it has any, RankVectors.EMPTY otherwise
+     */
+    public RankVectors get() {
+        return get(RankVectors.EMPTY);
+    }
+
+    public RankVectors get(RankVectors defaultValue) {
+        if (isEmpty()) {
+            return defaultValue;
+        }
+        int count = value.length / bytesPerVector;
+        if (decoded == false) {
+            if (vectors.length < count) {
+                int oldLength = vectors.length;
+                vectors = Arrays.copyOf(vectors, count);
+                for (int i = oldLength; i < count; i++) {
+                    vectors[i] = new float[dims];
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                quantization.decode(elementType, value, i, vectors[i]);
+            }
+            decoded = true;
+        }
+        return new RankVectors(vectors, count);
+    }
+
+    @Override
+    public RankVectors getInternal() {
+        return get(null);
+    }
+
+    @Override
+    public RankVectorsScriptDocValues toScriptDocValues() {
+        return new RankVectorsScriptDocValues(this, dims);
+    }
+
+    // The vectors of a document are one value, so Iterable does not make sense.
+    @Override
+    public Iterator<RankVectors> iterator() {
+        throw new UnsupportedOperationException("Cannot iterate over single valued rank_vectors field, use get() instead");
+    }
+}
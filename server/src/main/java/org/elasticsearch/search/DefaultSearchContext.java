@@ -222,7 +222,10 @@ final class DefaultSearchContext extends SearchContext {
         }
     }
 
-    static long getFieldCardinality(String field, IndexService indexService, DirectoryReader directoryReader) {
+    /**
+     * Returns the number of distinct values of the given field in the given reader, or {@code -1} if it is unknown.
+     */
+    public static long getFieldCardinality(String field, IndexService indexService, DirectoryReader directoryReader) {
         MappedFieldType mappedFieldType = indexService.mapperService().fieldType(field);
         if (mappedFieldType == null) {
             return -1;
@@ -35,6 +35,7 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
     public static final String QUERY_ARRAY = "query";
 
     public static final String VECTOR_OPERATIONS_COUNT = "vector_operations_count";
+    public static final String SEGMENT_VECTOR_OPERATIONS_COUNTS = "segment_vector_operations_counts";
 
     private final List<ProfileResult> queryProfileResults;
 
@@ -44,17 +45,30 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
 
     private final Long vectorOperationsCount;
 
+    private final long[] segmentVectorOperationsCounts;
+
     public QueryProfileShardResult(
         List<ProfileResult> queryProfileResults,
         long rewriteTime,
         CollectorResult profileCollector,
         @Nullable Long vectorOperationsCount
+    ) {
+        this(queryProfileResults, rewriteTime, profileCollector, vectorOperationsCount, null);
+    }
+
+    public QueryProfileShardResult(
+        List<ProfileResult> queryProfileResults,
+        long rewriteTime,
+        CollectorResult profileCollector,
+        @Nullable Long vectorOperationsCount,
+        @Nullable long[] segmentVectorOperationsCounts
     ) {
         assert (profileCollector != null);
         this.queryProfileResults = queryProfileResults;
         this.profileCollector = profileCollector;
         this.rewriteTime = rewriteTime;
         this.vectorOperationsCount = vectorOperationsCount;
+        this.segmentVectorOperationsCounts = segmentVectorOperationsCounts;
     }
 
     /**
@@ -70,6 +84,11 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         profileCollector = new CollectorResult(in);
         rewriteTime = in.readLong();
         vectorOperationsCount = (in.getTransportVersion().onOrAfter(TransportVersions.V_8_12_0)) ? in.readOptionalLong() : null;
+        if (in.getTransportVersion().onOrAfter(TransportVersions.KNN_SEGMENT_VECTOR_OPS_PROFILED) && in.readBoolean()) {
+            segmentVectorOperationsCounts = in.readVLongArray();
+        } else {
+            segmentVectorOperationsCounts = null;
+        }
     }
 
     @Override
@@ -83,6 +102,12 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_12_0)) {
             out.writeOptionalLong(vectorOperationsCount);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.KNN_SEGMENT_VECTOR_OPS_PROFILED)) {
+            out.writeBoolean(segmentVectorOperationsCounts != null);
+            if (segmentVectorOperationsCounts != null) {
+                out.writeVLongArray(segmentVectorOperationsCounts);
+            }
+        }
     }
 
     public List<ProfileResult> getQueryResults() {
@@ -97,12 +122,24 @@ public final class QueryProfileShardResult implements Writeable, ToXContentObjec
         return profileCollector;
     }
 
+    /**
+     * The number of vector operations of each segment of a kNN search, in the order of the segments, or {@code null} if this
+     * isn't the profile of a kNN search.
+     */
+    @Nullable
+    public long[] getSegmentVectorOperationsCounts() {
+        return segmentVectorOperationsCounts;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject();
         if (vectorOperationsCount != null) {
             builder.field(VECTOR_OPERATIONS_COUNT, vectorOperationsCount);
         }
+        if (segmentVectorOperationsCounts != null) {
+            builder.array(SEGMENT_VECTOR_OPERATIONS_COUNTS, segmentVectorOperationsCounts);
+        }
         builder.startArray(QUERY_ARRAY);
         for (ProfileResult p : queryProfileResults) {
             p.toXContent(builder, params);
@@ -34,6 +34,8 @@ public final class QueryProfiler extends AbstractProfiler<QueryProfileBreakdown,
 
     private long vectorOpsCount;
 
+    private long[] segmentVectorOpsCounts;
+
     public QueryProfiler() {
         super(new InternalQueryProfileTree());
     }
@@ -46,6 +48,15 @@ public final class QueryProfiler extends AbstractProfiler<QueryProfileBreakdown,
         return this.vectorOpsCount;
     }
 
+    /** Set the number of vector operations of each segment, in the order of the segments. */
+    public void setSegmentVectorOpsCounts(long[] segmentVectorOpsCounts) {
+        this.segmentVectorOpsCounts = segmentVectorOpsCounts;
+    }
+
+    public long[] getSegmentVectorOpsCounts() {
+        return this.segmentVectorOpsCounts;
+    }
+
     /** Set the collector result that is associated with this profiler. */
     public void setCollectorResult(CollectorResult collectorResult) {
         if (this.collectorResult != null) {
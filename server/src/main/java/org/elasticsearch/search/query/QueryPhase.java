@@ -217,19 +217,26 @@ public class QueryPhase {
             if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
                 queryResult.terminatedEarly(queryPhaseResult.terminatedAfter());
             }
-            ExecutorService executor = searchContext.indexShard().getThreadPool().executor(ThreadPool.Names.SEARCH);
-            assert executor instanceof TaskExecutionTimeTrackingEsThreadPoolExecutor
-                || (executor instanceof EsThreadPoolExecutor == false /* in case thread pool is mocked out in tests */)
-                : "SEARCH threadpool should have an executor that exposes EWMA metrics, but is of type " + executor.getClass();
-            if (executor instanceof TaskExecutionTimeTrackingEsThreadPoolExecutor rExecutor) {
-                queryResult.nodeQueueSize(rExecutor.getCurrentQueueSize());
-                queryResult.serviceTimeEWMA((long) rExecutor.getTaskExecutionEWMA());
-            }
+            recordThreadPoolStats(searchContext);
         } catch (Exception e) {
             throw new QueryPhaseExecutionException(searchContext.shardTarget(), "Failed to execute main query", e);
         }
     }
 
+    /**
+     * Records the queue size and task execution EWMA of the search thread pool into the query result, for adaptive replica selection.
+     */
+    static void recordThreadPoolStats(SearchContext searchContext) {
+        ExecutorService executor = searchContext.indexShard().getThreadPool().executor(ThreadPool.Names.SEARCH);
+        assert executor instanceof TaskExecutionTimeTrackingEsThreadPoolExecutor
+            || (executor instanceof EsThreadPoolExecutor == false /* in case thread pool is mocked out in tests */)
+            : "SEARCH threadpool should have an executor that exposes EWMA metrics, but is of type " + executor.getClass();
+        if (executor instanceof TaskExecutionTimeTrackingEsThreadPoolExecutor rExecutor) {
+            searchContext.queryResult().nodeQueueSize(rExecutor.getCurrentQueueSize());
+            searchContext.queryResult().serviceTimeEWMA((long) rExecutor.getTaskExecutionEWMA());
+        }
+    }
+
     /**
      * Returns whether collection within the provided <code>reader</code> can be early-terminated if it sorts
      * with <code>sortAndFormats</code>.
@@ -201,6 +201,28 @@ abstract class QueryPhaseCollectorManager implements CollectorManager<Collector,
         return new CollectorResult(collectorName, reason, totalTime, children);
     }
 
+    /**
+     * Creates a collector manager that counts all hits and collects the provided aggregations without collecting any top docs,
+     * regardless of the total hits tracking of the request. Used to compute partial results that can be combined with others.
+     *
+     * @param aggsCollectorManager the collector manager for aggregations
+     * @param sortAndFormats the sort of the search request, if any
+     */
+    static CollectorManager<Collector, QueryPhaseResult> createExactHitCountCollectorManager(
+        CollectorManager<AggregatorCollector, Void> aggsCollectorManager,
+        @Nullable SortAndFormats sortAndFormats
+    ) {
+        return new EmptyHits(
+            null,
+            QueryPhaseCollector.resolveTerminateAfterChecker(SearchContext.DEFAULT_TERMINATE_AFTER),
+            aggsCollectorManager,
+            null,
+            false,
+            sortAndFormats,
+            SearchContext.TRACK_TOTAL_HITS_ACCURATE
+        );
+    }
+
     /**
      * Creates a {@link QueryPhaseCollectorManager} from the provided <code>searchContext</code>.
      *
@@ -0,0 +1,276 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.aggregations.AggregatorCollectorManager;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.sort.SortAndFormats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Executes the query phase of an aggregation-only ({@code size: 0}) request whose query filters on a range, by reusing
+ * partial results computed for individual segments.
+ * <p>
+ * Dashboards typically send the same aggregations over and over with a rolling time range, so every request misses the
+ * {@link org.elasticsearch.indices.IndicesRequestCache}. However, on a segment whose values for the range field all fall
+ * within the range, the range filter matches every document that has a value, so the results of the request on that
+ * segment do not depend on the bounds of the range. The partial aggregations and hit count of such segments are cached
+ * per segment, keyed on the request with the bounds of the range removed, and only the segments that intersect the
+ * bounds of the range (typically the few most recent ones) are collected for each new request. The partial results
+ * are then combined with a partial reduction, as if each segment had been collected by a different slice.
+ */
+public final class SegmentPartialsQueryPhase {
+
+    private SegmentPartialsQueryPhase() {}
+
+    /**
+     * Caches the serialized partial results of a request on a single segment.
+     */
+    @FunctionalInterface
+    public interface SegmentPartialsCache {
+        /**
+         * Returns the cached partial results of the request on the given segment, computing them with the given loader if needed.
+         */
+        BytesReference getOrCompute(LeafReaderContext leaf, CheckedSupplier<BytesReference, IOException> loader) throws Exception;
+    }
+
+    /**
+     * Returns the range filter that the partial results of the given request can ignore, or {@code null} if the request can't be
+     * executed by reusing partial results of segments.
+     */
+    public static RangeQueryBuilder partialsRangeFilter(SearchContext context, ToLongFunction<String> fieldCardinality) {
+        if (context.size() != 0
+            || context.aggregations() == null
+            || context.aggregations().isInSortOrderExecutionRequired()
+            || context.scrollContext() != null
+            || context.parsedPostFilter() != null
+            || context.minimumScore() != null
+            || context.suggest() != null
+            || context.rankShardContext() != null
+            || context.rescore().isEmpty() == false
+            || context.getProfilers() != null
+            || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+            || (context.timeout() != null && context.timeout().equals(SearchService.NO_TIMEOUT) == false)) {
+            return null;
+        }
+        final SearchSourceBuilder source = context.request().source();
+        if (source == null || source.aggregations() == null) {
+            return null;
+        }
+        // the partial results of the segments are combined like the results of concurrent slices
+        if (source.aggregations().supportsParallelCollection(fieldCardinality) == false) {
+            return null;
+        }
+        if (source.query() instanceof RangeQueryBuilder range) {
+            return range;
+        }
+        if (source.query() instanceof BoolQueryBuilder bool) {
+            RangeQueryBuilder range = null;
+            for (QueryBuilder filter : bool.filter()) {
+                if (filter instanceof RangeQueryBuilder rangeFilter) {
+                    if (range != null) {
+                        // more than one range, we don't know which one rolls
+                        return null;
+                    }
+                    range = rangeFilter;
+                }
+            }
+            return range;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a copy of the given source that has the bounds of the given range filter removed, to be used to compute the cache key
+     * of the partial results of segments. On a segment whose values are all within the range, the range filter is equivalent to an
+     * unbounded range on the same field, which is what the range filter is replaced with.
+     */
+    public static SearchSourceBuilder partialsKeySource(SearchSourceBuilder source, RangeQueryBuilder range) {
+        if (source.query() == range) {
+            return source.shallowCopy().query(unbounded(range));
+        }
+        BoolQueryBuilder bool = (BoolQueryBuilder) source.query();
+        BoolQueryBuilder copy = new BoolQueryBuilder();
+        bool.must().forEach(copy::must);
+        bool.should().forEach(copy::should);
+        bool.mustNot().forEach(copy::mustNot);
+        for (QueryBuilder filter : bool.filter()) {
+            if (filter == range) {
+                copy.filter(unbounded(range));
+            } else {
+                copy.filter(filter);
+            }
+        }
+        copy.minimumShouldMatch(bool.minimumShouldMatch());
+        copy.adjustPureNegative(bool.adjustPureNegative());
+        copy.boost(bool.boost());
+        copy.queryName(bool.queryName());
+        return source.shallowCopy().query(copy);
+    }
+
+    private static RangeQueryBuilder unbounded(RangeQueryBuilder range) {
+        return new RangeQueryBuilder(range.fieldName()).boost(range.boost()).queryName(range.queryName());
+    }
+
+    /**
+     * Executes the query phase, reusing the cached partial results of the segments whose values are all within the given range.
+     */
+    public static void execute(
+        SearchContext context,
+        RangeQueryBuilder range,
+        SegmentPartialsCache cache,
+        NamedWriteableRegistry namedWriteableRegistry
+    ) throws QueryPhaseExecutionException {
+        final ContextIndexSearcher searcher = context.searcher();
+        final QuerySearchResult queryResult = context.queryResult();
+        queryResult.searchTimedOut(false);
+        try {
+            AggregationPhase.preProcess(context);
+            queryResult.from(context.from());
+            queryResult.size(context.size());
+
+            final List<LeafReaderContext> leavesToCollect = new ArrayList<>();
+            final List<SegmentPartials> partials = new ArrayList<>();
+            for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                if (leaf.reader().getReaderCacheHelper() != null
+                    && range.getRelation(context.getSearchExecutionContext(), leaf.reader()) == MappedFieldType.Relation.WITHIN) {
+                    BytesReference bytes = cache.getOrCompute(leaf, () -> collect(context, List.of(leaf)).toBytes());
+                    partials.add(SegmentPartials.fromBytes(bytes, namedWriteableRegistry));
+                } else {
+                    leavesToCollect.add(leaf);
+                }
+            }
+            if (leavesToCollect.isEmpty() == false || partials.isEmpty()) {
+                partials.add(collect(context, leavesToCollect));
+            }
+
+            long totalHitCount = 0;
+            final List<InternalAggregations> aggregations = new ArrayList<>(partials.size());
+            for (SegmentPartials partial : partials) {
+                totalHitCount += partial.hitCount;
+                aggregations.add(partial.aggregations);
+            }
+            if (aggregations.size() == 1) {
+                queryResult.aggregations(aggregations.get(0));
+            } else {
+                queryResult.aggregations(
+                    InternalAggregations.topLevelReduce(
+                        aggregations,
+                        context.aggregations().getAggregationReduceContextBuilder().forPartialReduction()
+                    )
+                );
+            }
+            final SortAndFormats sort = context.sort();
+            queryResult.topDocs(
+                new TopDocsAndMaxScore(topDocs(totalHits(totalHitCount, context), sort), Float.NaN),
+                sort == null ? null : sort.formats
+            );
+            QueryPhase.recordThreadPoolStats(context);
+        } catch (Exception e) {
+            throw new QueryPhaseExecutionException(context.shardTarget(), "Failed to execute main query", e);
+        }
+    }
+
+    private static SegmentPartials collect(SearchContext context, List<LeafReaderContext> leaves) throws IOException {
+        final ContextIndexSearcher searcher = context.searcher();
+        final InternalAggregations[] aggregations = new InternalAggregations[1];
+        final AggregatorCollectorManager aggsCollectorManager = new AggregatorCollectorManager(() -> {
+            try {
+                return context.aggregations().getAggsCollectorManager().newCollector();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, internalAggregations -> aggregations[0] = internalAggregations, () -> {
+            throw new IllegalStateException("a single collector is never reduced");
+        });
+        final CollectorManager<Collector, QueryPhaseResult> collectorManager = QueryPhaseCollectorManager
+            .createExactHitCountCollectorManager(aggsCollectorManager, context.sort());
+        final Collector collector = collectorManager.newCollector();
+        Query query = context.rewrittenQuery();
+        query = collector.scoreMode().needsScores() ? searcher.rewrite(query) : searcher.rewrite(new ConstantScoreQuery(query));
+        final Weight weight = searcher.createWeight(query, collector.scoreMode(), 1f);
+        searcher.search(leaves, weight, collector);
+        if (searcher.timeExceeded()) {
+            // partial results must not be cached
+            throw new IllegalStateException("time exceeded while collecting segment partials");
+        }
+        final QueryPhaseResult result = collectorManager.reduce(List.of(collector));
+        assert aggregations[0] != null;
+        return new SegmentPartials(result.topDocsAndMaxScore().topDocs.totalHits.value, aggregations[0]);
+    }
+
+    private static TotalHits totalHits(long totalHitCount, SearchContext context) {
+        final int trackTotalHitsUpTo = context.trackTotalHitsUpTo();
+        if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
+            return new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+        }
+        if (totalHitCount > trackTotalHitsUpTo) {
+            return new TotalHits(trackTotalHitsUpTo, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+        }
+        return new TotalHits(totalHitCount, TotalHits.Relation.EQUAL_TO);
+    }
+
+    private static TopDocs topDocs(TotalHits totalHits, SortAndFormats sortAndFormats) {
+        if (sortAndFormats != null) {
+            return new TopFieldDocs(totalHits, Lucene.EMPTY_SCORE_DOCS, sortAndFormats.sort.getSort());
+        }
+        return new TopDocs(totalHits, Lucene.EMPTY_SCORE_DOCS);
+    }
+
+    /**
+     * The exact hit count and partial aggregations of a request on some segments.
+     */
+    private record SegmentPartials(long hitCount, InternalAggregations aggregations) {
+
+        BytesReference toBytes() throws IOException {
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                out.writeVLong(hitCount);
+                aggregations.writeTo(out);
+                return out.bytes();
+            }
+        }
+
+        static SegmentPartials fromBytes(BytesReference bytes, NamedWriteableRegistry namedWriteableRegistry) throws IOException {
+            try (StreamInput in = new NamedWriteableAwareStreamInput(bytes.streamInput(), namedWriteableRegistry)) {
+                return new SegmentPartials(in.readVLong(), InternalAggregations.readFrom(in));
+            }
+        }
+    }
+}
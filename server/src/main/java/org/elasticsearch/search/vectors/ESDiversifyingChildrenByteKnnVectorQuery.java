@@ -16,6 +16,7 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 
 public class ESDiversifyingChildrenByteKnnVectorQuery extends DiversifyingChildrenByteKnnVectorQuery implements ProfilingQuery {
     private long vectorOpsCount;
+    private long[] segmentVectorOpsCounts;
 
     public ESDiversifyingChildrenByteKnnVectorQuery(String field, byte[] query, Query childFilter, int k, BitSetProducer parentsFilter) {
         super(field, query, childFilter, k, parentsFilter);
@@ -25,11 +26,13 @@ public class ESDiversifyingChildrenByteKnnVectorQuery extends DiversifyingChildr
     protected TopDocs mergeLeafResults(TopDocs[] perLeafResults) {
         TopDocs topK = super.mergeLeafResults(perLeafResults);
         vectorOpsCount = topK.totalHits.value;
+        segmentVectorOpsCounts = ProfilingQuery.segmentVectorOpsCounts(perLeafResults);
         return topK;
     }
 
     @Override
     public void profile(QueryProfiler queryProfiler) {
         queryProfiler.setVectorOpsCount(vectorOpsCount);
+        queryProfiler.setSegmentVectorOpsCounts(segmentVectorOpsCounts);
     }
 }
@@ -16,6 +16,7 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 public class ESKnnByteVectorQuery extends KnnByteVectorQuery implements ProfilingQuery {
 
     private long vectorOpsCount;
+    private long[] segmentVectorOpsCounts;
 
     public ESKnnByteVectorQuery(String field, byte[] target, int k, Query filter) {
         super(field, target, k, filter);
@@ -25,11 +26,13 @@ public class ESKnnByteVectorQuery extends KnnByteVectorQuery implements Profilin
     protected TopDocs mergeLeafResults(TopDocs[] perLeafResults) {
         TopDocs topK = super.mergeLeafResults(perLeafResults);
         vectorOpsCount = topK.totalHits.value;
+        segmentVectorOpsCounts = ProfilingQuery.segmentVectorOpsCounts(perLeafResults);
         return topK;
     }
 
     @Override
     public void profile(QueryProfiler queryProfiler) {
         queryProfiler.setVectorOpsCount(vectorOpsCount);
+        queryProfiler.setSegmentVectorOpsCounts(segmentVectorOpsCounts);
     }
 }
@@ -8,27 +8,77 @@
 
 package org.elasticsearch.search.vectors;
 
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.KnnFloatVectorQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.knn.KnnCollectorManager;
+import org.apache.lucene.util.Bits;
+import org.elasticsearch.index.codec.vectors.IvfKnnCollector;
 import org.elasticsearch.search.profile.query.QueryProfiler;
 
+import java.io.IOException;
+import java.util.Objects;
+
 public class ESKnnFloatVectorQuery extends KnnFloatVectorQuery implements ProfilingQuery {
+    private final Integer nprobe;
     private long vectorOpsCount;
+    private long[] segmentVectorOpsCounts;
 
     public ESKnnFloatVectorQuery(String field, float[] target, int k, Query filter) {
+        this(field, target, k, filter, null);
+    }
+
+    /**
+     * @param nprobe the number of partitions to scan in fields indexed with {@code ivf}, or {@code null} for the default
+     */
+    public ESKnnFloatVectorQuery(String field, float[] target, int k, Query filter, Integer nprobe) {
         super(field, target, k, filter);
+        this.nprobe = nprobe;
+    }
+
+    @Override
+    protected TopDocs approximateSearch(
+        LeafReaderContext context,
+        Bits acceptDocs,
+        int visitedLimit,
+        KnnCollectorManager knnCollectorManager
+    ) throws IOException {
+        if (nprobe == null) {
+            return super.approximateSearch(context, acceptDocs, visitedLimit, knnCollectorManager);
+        }
+        KnnCollectorManager ivfCollectorManager = (limit, ctx) -> new IvfKnnCollector(
+            knnCollectorManager.newCollector(limit, ctx),
+            nprobe
+        );
+        return super.approximateSearch(context, acceptDocs, visitedLimit, ivfCollectorManager);
     }
 
     @Override
     protected TopDocs mergeLeafResults(TopDocs[] perLeafResults) {
         TopDocs topK = super.mergeLeafResults(perLeafResults);
         vectorOpsCount = topK.totalHits.value;
+        segmentVectorOpsCounts = ProfilingQuery.segmentVectorOpsCounts(perLeafResults);
         return topK;
     }
 
     @Override
     public void profile(QueryProfiler queryProfiler) {
         queryProfiler.setVectorOpsCount(vectorOpsCount);
+        queryProfiler.setSegmentVectorOpsCounts(segmentVectorOpsCounts);
+    }
+
+    public Integer getNprobe() {
+        return nprobe;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o) && Objects.equals(nprobe, ((ESKnnFloatVectorQuery) o).nprobe);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(nprobe);
     }
 }
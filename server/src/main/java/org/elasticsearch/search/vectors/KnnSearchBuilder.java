@@ -54,6 +54,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
     public static final ParseField FILTER_FIELD = new ParseField("filter");
     public static final ParseField BOOST_FIELD = AbstractQueryBuilder.BOOST_FIELD;
     public static final ParseField INNER_HITS_FIELD = new ParseField("inner_hits");
+    public static final ParseField NPROBE_FIELD = new ParseField("nprobe");
 
     @SuppressWarnings("unchecked")
     private static final ConstructingObjectParser<KnnSearchBuilder.Builder, Void> PARSER = new ConstructingObjectParser<>("knn", args -> {
@@ -96,6 +97,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             INNER_HITS_FIELD,
             ObjectParser.ValueType.OBJECT
         );
+        PARSER.declareInt(KnnSearchBuilder.Builder::nprobe, NPROBE_FIELD);
     }
 
     public static KnnSearchBuilder.Builder fromXContent(XContentParser parser) throws IOException {
@@ -112,6 +114,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
     final List<QueryBuilder> filterQueries;
     float boost = DEFAULT_BOOST;
     InnerHitBuilder innerHitBuilder;
+    Integer nprobe;
 
     /**
      * Defines a kNN search.
@@ -269,6 +272,9 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         if (in.getTransportVersion().onOrAfter(V_8_11_X)) {
             this.innerHitBuilder = in.readOptionalWriteable(InnerHitBuilder::new);
         }
+        if (in.getTransportVersion().onOrAfter(TransportVersions.KNN_NPROBE_ADDED)) {
+            this.nprobe = in.readOptionalVInt();
+        }
     }
 
     public int k() {
@@ -321,6 +327,21 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         return innerHitBuilder;
     }
 
+    /**
+     * Set the number of partitions to scan in each segment when the field is indexed with {@code ivf}. Other index options ignore it.
+     */
+    public KnnSearchBuilder nprobe(Integer nprobe) {
+        if (nprobe != null && nprobe < 1) {
+            throw new IllegalArgumentException("[" + NPROBE_FIELD.getPreferredName() + "] must be greater than 0");
+        }
+        this.nprobe = nprobe;
+        return this;
+    }
+
+    public Integer nprobe() {
+        return nprobe;
+    }
+
     @Override
     public KnnSearchBuilder rewrite(QueryRewriteContext ctx) throws IOException {
         if (querySupplier != null) {
@@ -329,7 +350,8 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             }
             return new KnnSearchBuilder(field, querySupplier.get(), k, numCands, similarity).boost(boost)
                 .addFilterQueries(filterQueries)
-                .innerHit(innerHitBuilder);
+                .innerHit(innerHitBuilder)
+                .nprobe(nprobe);
         }
         if (queryVectorBuilder != null) {
             SetOnce<float[]> toSet = new SetOnce<>();
@@ -349,7 +371,9 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
                 }
                 ll.onResponse(null);
             })));
-            return new KnnSearchBuilder(field, toSet::get, k, numCands, filterQueries, similarity).boost(boost).innerHit(innerHitBuilder);
+            return new KnnSearchBuilder(field, toSet::get, k, numCands, filterQueries, similarity).boost(boost)
+                .innerHit(innerHitBuilder)
+                .nprobe(nprobe);
         }
         boolean changed = false;
         List<QueryBuilder> rewrittenQueries = new ArrayList<>(filterQueries.size());
@@ -363,7 +387,8 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         if (changed) {
             return new KnnSearchBuilder(field, queryVector, k, numCands, similarity).boost(boost)
                 .addFilterQueries(rewrittenQueries)
-                .innerHit(innerHitBuilder);
+                .innerHit(innerHitBuilder)
+                .nprobe(nprobe);
         }
         return this;
     }
@@ -372,7 +397,9 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         if (queryVectorBuilder != null) {
             throw new IllegalArgumentException("missing rewrite");
         }
-        return new KnnVectorQueryBuilder(field, queryVector, numCands, similarity).boost(boost).addFilterQueries(filterQueries);
+        return new KnnVectorQueryBuilder(field, queryVector, numCands, similarity).boost(boost)
+            .addFilterQueries(filterQueries)
+            .nprobe(nprobe);
     }
 
     @Override
@@ -389,6 +416,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             && Objects.equals(filterQueries, that.filterQueries)
             && Objects.equals(similarity, that.similarity)
             && Objects.equals(innerHitBuilder, that.innerHitBuilder)
+            && Objects.equals(nprobe, that.nprobe)
             && boost == that.boost;
     }
 
@@ -404,6 +432,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             Objects.hashCode(queryVector),
             Objects.hashCode(filterQueries),
             innerHitBuilder,
+            nprobe,
             boost
         );
     }
@@ -441,6 +470,10 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             builder.field(BOOST_FIELD.getPreferredName(), boost);
         }
 
+        if (nprobe != null) {
+            builder.field(NPROBE_FIELD.getPreferredName(), nprobe);
+        }
+
         return builder;
     }
 
@@ -477,6 +510,9 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         if (out.getTransportVersion().onOrAfter(V_8_11_X)) {
             out.writeOptionalWriteable(innerHitBuilder);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.KNN_NPROBE_ADDED)) {
+            out.writeOptionalVInt(nprobe);
+        }
     }
 
     public static class Builder {
@@ -490,6 +526,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
         private final List<QueryBuilder> filterQueries = new ArrayList<>();
         private float boost = DEFAULT_BOOST;
         private InnerHitBuilder innerHitBuilder;
+        private Integer nprobe;
 
         public Builder addFilterQueries(List<QueryBuilder> filterQueries) {
             Objects.requireNonNull(filterQueries);
@@ -537,6 +574,11 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
             return this;
         }
 
+        public Builder nprobe(Integer nprobe) {
+            this.nprobe = nprobe;
+            return this;
+        }
+
         public KnnSearchBuilder build(int size) {
             int requestSize = size < 0 ? DEFAULT_SIZE : size;
             int adjustedK = k == null ? requestSize : k;
@@ -553,7 +595,7 @@ public class KnnSearchBuilder implements Writeable, ToXContentFragment, Rewritea
                 similarity,
                 innerHitBuilder,
                 boost
-            );
+            ).nprobe(nprobe);
         }
     }
 }
@@ -62,6 +62,7 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
     public static final ParseField VECTOR_SIMILARITY_FIELD = new ParseField("similarity");
     public static final ParseField FILTER_FIELD = new ParseField("filter");
     public static final ParseField QUERY_VECTOR_BUILDER_FIELD = new ParseField("query_vector_builder");
+    public static final ParseField NPROBE_FIELD = new ParseField("nprobe");
 
     @SuppressWarnings("unchecked")
     public static final ConstructingObjectParser<KnnVectorQueryBuilder, Void> PARSER = new ConstructingObjectParser<>(
@@ -97,6 +98,7 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             FILTER_FIELD,
             ObjectParser.ValueType.OBJECT_ARRAY
         );
+        PARSER.declareInt(KnnVectorQueryBuilder::nprobe, NPROBE_FIELD);
         declareStandardFields(PARSER);
     }
 
@@ -111,6 +113,7 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
     private final Float vectorSimilarity;
     private final QueryVectorBuilder queryVectorBuilder;
     private final Supplier<float[]> queryVectorSupplier;
+    private Integer nprobe;
 
     public KnnVectorQueryBuilder(String fieldName, float[] queryVector, Integer numCands, Float vectorSimilarity) {
         this(fieldName, VectorData.fromFloats(queryVector), null, null, numCands, vectorSimilarity);
@@ -197,6 +200,9 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         } else {
             this.queryVectorBuilder = null;
         }
+        if (in.getTransportVersion().onOrAfter(TransportVersions.KNN_NPROBE_ADDED)) {
+            this.nprobe = in.readOptionalVInt();
+        }
         this.queryVectorSupplier = null;
     }
 
@@ -222,6 +228,22 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         return filterQueries;
     }
 
+    /**
+     * The number of partitions to scan in each segment of a field indexed with {@code ivf}, ignored by other index options.
+     */
+    public KnnVectorQueryBuilder nprobe(Integer nprobe) {
+        if (nprobe != null && nprobe < 1) {
+            throw new IllegalArgumentException("[" + NPROBE_FIELD.getPreferredName() + "] must be greater than 0");
+        }
+        this.nprobe = nprobe;
+        return this;
+    }
+
+    @Nullable
+    public Integer nprobe() {
+        return nprobe;
+    }
+
     @Nullable
     public QueryVectorBuilder queryVectorBuilder() {
         return queryVectorBuilder;
@@ -290,6 +312,9 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         if (out.getTransportVersion().onOrAfter(TransportVersions.KNN_QUERY_VECTOR_BUILDER)) {
             out.writeOptionalNamedWriteable(queryVectorBuilder);
         }
+        if (out.getTransportVersion().onOrAfter(TransportVersions.KNN_NPROBE_ADDED)) {
+            out.writeOptionalVInt(nprobe);
+        }
     }
 
     @Override
@@ -308,6 +333,9 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
         if (vectorSimilarity != null) {
             builder.field(VECTOR_SIMILARITY_FIELD.getPreferredName(), vectorSimilarity);
         }
+        if (nprobe != null) {
+            builder.field(NPROBE_FIELD.getPreferredName(), nprobe);
+        }
         if (queryVectorBuilder != null) {
             builder.startObject(QUERY_VECTOR_BUILDER_FIELD.getPreferredName());
             builder.field(queryVectorBuilder.getWriteableName(), queryVectorBuilder);
@@ -337,7 +365,8 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             }
             return new KnnVectorQueryBuilder(fieldName, queryVectorSupplier.get(), numCands, vectorSimilarity).boost(boost)
                 .queryName(queryName)
-                .addFilterQueries(filterQueries);
+                .addFilterQueries(filterQueries)
+                .nprobe(nprobe);
         }
         if (queryVectorBuilder != null) {
             SetOnce<float[]> toSet = new SetOnce<>();
@@ -359,7 +388,7 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             })));
             return new KnnVectorQueryBuilder(fieldName, queryVector, queryVectorBuilder, toSet::get, numCands, vectorSimilarity).boost(
                 boost
-            ).queryName(queryName).addFilterQueries(filterQueries);
+            ).queryName(queryName).addFilterQueries(filterQueries).nprobe(nprobe);
         }
         if (ctx.convertToInnerHitsRewriteContext() != null) {
             return new ExactKnnQueryBuilder(queryVector, fieldName).boost(boost).queryName(queryName);
@@ -380,7 +409,8 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             return new KnnVectorQueryBuilder(fieldName, queryVector, queryVectorBuilder, queryVectorSupplier, numCands, vectorSimilarity)
                 .boost(boost)
                 .queryName(queryName)
-                .addFilterQueries(rewrittenQueries);
+                .addFilterQueries(rewrittenQueries)
+                .nprobe(nprobe);
         }
         return this;
     }
@@ -446,14 +476,22 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
                 // Now join the filterQuery & parentFilter to provide the matching blocks of children
                 filterQuery = new ToChildBlockJoinQuery(filterQuery, parentBitSet);
             }
-            return vectorFieldType.createKnnQuery(queryVector, adjustedNumCands, filterQuery, vectorSimilarity, parentBitSet);
+            return vectorFieldType.createKnnQuery(queryVector, adjustedNumCands, filterQuery, vectorSimilarity, parentBitSet, nprobe);
         }
-        return vectorFieldType.createKnnQuery(queryVector, adjustedNumCands, filterQuery, vectorSimilarity, null);
+        return vectorFieldType.createKnnQuery(queryVector, adjustedNumCands, filterQuery, vectorSimilarity, null, nprobe);
     }
 
     @Override
     protected int doHashCode() {
-        return Objects.hash(fieldName, Objects.hashCode(queryVector), numCands, filterQueries, vectorSimilarity, queryVectorBuilder);
+        return Objects.hash(
+            fieldName,
+            Objects.hashCode(queryVector),
+            numCands,
+            filterQueries,
+            vectorSimilarity,
+            queryVectorBuilder,
+            nprobe
+        );
     }
 
     @Override
@@ -463,7 +501,8 @@ public class KnnVectorQueryBuilder extends AbstractQueryBuilder<KnnVectorQueryBu
             && Objects.equals(numCands, other.numCands)
             && Objects.equals(filterQueries, other.filterQueries)
             && Objects.equals(vectorSimilarity, other.vectorSimilarity)
-            && Objects.equals(queryVectorBuilder, other.queryVectorBuilder);
+            && Objects.equals(queryVectorBuilder, other.queryVectorBuilder)
+            && Objects.equals(nprobe, other.nprobe);
     }
 
     @Override
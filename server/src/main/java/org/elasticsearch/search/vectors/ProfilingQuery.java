@@ -9,6 +9,7 @@
 package org.elasticsearch.search.vectors;
 
 import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.search.TopDocs;
 import org.elasticsearch.search.profile.query.QueryProfiler;
 
 /**
@@ -24,4 +25,16 @@ public interface ProfilingQuery {
      * @param queryProfiler an instance of  {@link KnnFloatVectorField}.
      */
     void profile(QueryProfiler queryProfiler);
+
+    /**
+     * The number of vectors each segment's search compared with the query vector, in the order of the segments.
+     * @param perLeafResults the results of the search of each segment, whose total hits are the number of visited vectors
+     */
+    static long[] segmentVectorOpsCounts(TopDocs[] perLeafResults) {
+        long[] counts = new long[perLeafResults.length];
+        for (int i = 0; i < perLeafResults.length; i++) {
+            counts[i] = perLeafResults[i].totalHits.value;
+        }
+        return counts;
+    }
 }
@@ -97,6 +97,11 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
          */
         public static final String MANAGEMENT = "management";
         public static final String FLUSH = "flush";
+        /**
+         * Translog fsyncs that write requests wait for, if the node coordinates them, see
+         * {@link org.elasticsearch.index.translog.TranslogSyncCoordinator}.
+         */
+        public static final String TRANSLOG_SYNC = "translog_sync";
         public static final String REFRESH = "refresh";
         public static final String WARMER = "warmer";
         public static final String SNAPSHOT = "snapshot";
@@ -160,6 +165,7 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
         entry(Names.SEARCH_COORDINATION, ThreadPoolType.FIXED),
         entry(Names.MANAGEMENT, ThreadPoolType.SCALING),
         entry(Names.FLUSH, ThreadPoolType.SCALING),
+        entry(Names.TRANSLOG_SYNC, ThreadPoolType.SCALING),
         entry(Names.REFRESH, ThreadPoolType.SCALING),
         entry(Names.WARMER, ThreadPoolType.SCALING),
         entry(Names.SNAPSHOT, ThreadPoolType.SCALING),
@@ -289,6 +295,11 @@ public class ThreadPool implements ReportingService<ThreadPoolInfo>, Scheduler {
             new ScalingExecutorBuilder(Names.MANAGEMENT, 1, boundedBy(allocatedProcessors, 1, 5), TimeValue.timeValueMinutes(5), false)
         );
         builders.put(Names.FLUSH, new ScalingExecutorBuilder(Names.FLUSH, 1, halfProcMaxAt5, TimeValue.timeValueMinutes(5), false));
+        // each shard queues at most one fsync at a time, so the queue of this pool is bounded by the number of shards
+        builders.put(
+            Names.TRANSLOG_SYNC,
+            new ScalingExecutorBuilder(Names.TRANSLOG_SYNC, 1, halfProcMaxAt10, TimeValue.timeValueMinutes(5), false)
+        );
         // TODO: remove (or refine) this temporary stateless custom refresh pool sizing once ES-7631 is solved.
         final int refreshThreads = DiscoveryNode.isStateless(settings) ? allocatedProcessors : halfProcMaxAt10;
         builders.put(Names.REFRESH, new ScalingExecutorBuilder(Names.REFRESH, 1, refreshThreads, TimeValue.timeValueMinutes(5), false));
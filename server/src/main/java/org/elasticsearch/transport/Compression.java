@@ -15,9 +15,13 @@ import net.jpountz.lz4.LZ4FastDecompressor;
 import org.elasticsearch.TransportVersion;
 import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.util.ByteUtils;
 import org.elasticsearch.core.Booleans;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.lz4.ESLZ4Compressor;
 import org.elasticsearch.lz4.ESLZ4Decompressor;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.nativeaccess.Zstd;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -26,12 +30,25 @@ public class Compression {
 
     public enum Scheme {
         LZ4,
-        DEFLATE;
+        DEFLATE,
+        /**
+         * Zstandard at a low compression level, using the native zstd library. Falls back to {@link #LZ4} when sending to nodes that
+         * do not support it yet, or if the native library is not available on this node.
+         */
+        ZSTD;
 
         static final TransportVersion LZ4_VERSION = TransportVersions.V_7_14_0;
+        static final TransportVersion ZSTD_VERSION = TransportVersions.ZSTD_TRANSPORT_COMPRESSION;
+        static final TransportVersion ZSTD_DICTIONARY_VERSION = TransportVersions.ZSTD_TRANSPORT_DICTIONARIES;
         static final int HEADER_LENGTH = 4;
         private static final byte[] DEFLATE_HEADER = new byte[] { 'D', 'F', 'L', '\0' };
         private static final byte[] LZ4_HEADER = new byte[] { 'L', 'Z', '4', '\0' };
+        private static final byte[] ZSTD_HEADER = new byte[] { 'Z', 'S', 'D', '\0' };
+        // zstd blocks compressed with a dictionary, see ZstdDictionaries
+        private static final byte[] ZSTD_DICTIONARY_HEADER = new byte[] { 'Z', 'S', 'D', 'D' };
+        // low levels compress nearly as fast as LZ4 while still compressing significantly better
+        static final int ZSTD_LEVEL = 1;
+        static final int ZSTD_BLOCK_SIZE = 64 * 1024;
         private static final int LZ4_BLOCK_SIZE;
         private static final boolean USE_FORKED_LZ4;
 
@@ -68,6 +85,24 @@ public class Compression {
             }
         }
 
+        public static boolean isZstd(BytesReference bytes) {
+            byte firstByte = bytes.get(0);
+            if (firstByte != Scheme.ZSTD_HEADER[0]) {
+                return false;
+            } else {
+                return validateHeader(bytes, ZSTD_HEADER);
+            }
+        }
+
+        public static boolean isZstdWithDictionary(BytesReference bytes) {
+            byte firstByte = bytes.get(0);
+            if (firstByte != Scheme.ZSTD_DICTIONARY_HEADER[0]) {
+                return false;
+            } else {
+                return validateHeader(bytes, ZSTD_DICTIONARY_HEADER);
+            }
+        }
+
         private static boolean validateHeader(BytesReference bytes, byte[] header) {
             for (int i = 1; i < Compression.Scheme.HEADER_LENGTH; ++i) {
                 if (bytes.get(i) != header[i]) {
@@ -95,6 +130,59 @@ public class Compression {
             }
             return new ReuseBuffersLZ4BlockOutputStream(outputStream, LZ4_BLOCK_SIZE, lz4Compressor);
         }
+
+        /**
+         * @return whether the native zstd library is available on this node
+         */
+        public static boolean isZstdAvailable() {
+            return ZstdHolder.ZSTD != null;
+        }
+
+        static Zstd zstd() {
+            final Zstd zstd = ZstdHolder.ZSTD;
+            if (zstd == null) {
+                throw new IllegalStateException("zstd transport compression requires native access, which is not available");
+            }
+            return zstd;
+        }
+
+        public static OutputStream zstdOutputStream(OutputStream outputStream) throws IOException {
+            final Zstd zstd = zstd();
+            outputStream.write(ZSTD_HEADER);
+            return new ZstdBlockOutputStream(outputStream, ZSTD_BLOCK_SIZE, ZSTD_LEVEL, zstd);
+        }
+
+        /**
+         * Returns a stream that compresses with the given dictionary if not {@code null}, or passes the uncompressed content of its
+         * first block to the given sampler otherwise. The id of the dictionary is written ahead of the blocks, as well as its content if
+         * {@code inlineDictionary} is set, which is how the receiving node learns about it.
+         */
+        static OutputStream zstdOutputStream(
+            OutputStream outputStream,
+            @Nullable ZstdDictionaries.Dictionary dictionary,
+            boolean inlineDictionary,
+            @Nullable ZstdBlockOutputStream.BlockSampler sampler
+        ) throws IOException {
+            final Zstd zstd = zstd();
+            if (dictionary == null) {
+                outputStream.write(ZSTD_HEADER);
+                return new ZstdBlockOutputStream(outputStream, ZSTD_BLOCK_SIZE, ZSTD_LEVEL, zstd, null, sampler);
+            }
+            outputStream.write(ZSTD_DICTIONARY_HEADER);
+            final byte[] dictionaryHeader = new byte[ZstdTransportDecompressor.DICTIONARY_HEADER_LENGTH];
+            ByteUtils.writeIntBE(dictionary.id(), dictionaryHeader, 0);
+            ByteUtils.writeIntBE(inlineDictionary ? dictionary.bytes().length : 0, dictionaryHeader, Integer.BYTES);
+            outputStream.write(dictionaryHeader);
+            if (inlineDictionary) {
+                outputStream.write(dictionary.bytes());
+            }
+            return new ZstdBlockOutputStream(outputStream, ZSTD_BLOCK_SIZE, ZSTD_LEVEL, zstd, dictionary.bytes(), null);
+        }
+
+        // looked up lazily and only once, since looking up zstd logs a warning every time if native access is not available
+        private static final class ZstdHolder {
+            private static final Zstd ZSTD = NativeAccess.instance().getZstd();
+        }
     }
 
     public enum Enabled {
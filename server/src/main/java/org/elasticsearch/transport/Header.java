@@ -30,6 +30,7 @@ public class Header {
     String actionName;
     Tuple<Map<String, String>, Map<String, Set<String>>> headers;
     private Compression.Scheme compressionScheme = null;
+    private int headerSize = -1;
 
     Header(int networkMessageSize, long requestId, byte status, TransportVersion version) {
         this.networkMessageSize = networkMessageSize;
@@ -105,6 +106,17 @@ public class Header {
         }
     }
 
+    /**
+     * @return the size of the fixed and variable headers of the message, which are never compressed, or {@code -1} if unknown
+     */
+    int getHeaderSize() {
+        return headerSize;
+    }
+
+    void setHeaderSize(int headerSize) {
+        this.headerSize = headerSize;
+    }
+
     void setCompressionScheme(Compression.Scheme compressionScheme) {
         assert isCompressed();
         this.compressionScheme = compressionScheme;
@@ -22,6 +22,8 @@ import org.elasticsearch.core.Releasables;
 
 import java.io.IOException;
 import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 public class InboundDecoder implements Releasable {
@@ -31,6 +33,8 @@ public class InboundDecoder implements Releasable {
 
     private final Recycler<BytesRef> recycler;
     private TransportDecompressor decompressor;
+    // the zstd dictionaries that were received on this channel, see ZstdTransportDecompressor
+    private final Map<Integer, byte[]> zstdDictionaries = new HashMap<>();
     private int totalNetworkSize = -1;
     private int bytesConsumed = 0;
     private boolean isCompressed = false;
@@ -78,6 +82,7 @@ public class InboundDecoder implements Releasable {
                     totalNetworkSize = messageLength + TcpHeader.BYTES_REQUIRED_FOR_MESSAGE_SIZE;
 
                     Header header = readHeader(messageLength, reference, channelType);
+                    header.setHeaderSize(headerBytesToRead);
                     bytesConsumed += headerBytesToRead;
                     if (header.isCompressed()) {
                         isCompressed = true;
@@ -93,7 +98,7 @@ public class InboundDecoder implements Releasable {
         } else {
             if (isCompressed && decompressor == null) {
                 // Attempt to initialize decompressor
-                TransportDecompressor decompressor = TransportDecompressor.getDecompressor(recycler, reference);
+                TransportDecompressor decompressor = TransportDecompressor.getDecompressor(recycler, reference, zstdDictionaries);
                 if (decompressor == null) {
                     return 0;
                 } else {
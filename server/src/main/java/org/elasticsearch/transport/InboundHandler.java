@@ -245,7 +245,13 @@ public class InboundHandler {
         try {
             messageListener.onRequestReceived(requestId, action);
             if (reg != null) {
-                reg.addRequestStats(header.getNetworkMessageSize() + TcpHeader.BYTES_REQUIRED_FOR_MESSAGE_SIZE);
+                final int messageSize = header.getNetworkMessageSize() + TcpHeader.BYTES_REQUIRED_FOR_MESSAGE_SIZE;
+                if (header.isCompressed() && header.getHeaderSize() >= 0 && message.isShortCircuit() == false) {
+                    // the headers are not compressed, the content is the decompressed rest of the message
+                    reg.addCompressedRequestStats(messageSize, header.getHeaderSize() + message.getContentLength());
+                } else {
+                    reg.addRequestStats(messageSize);
+                }
             }
 
             if (message.isShortCircuit()) {
@@ -54,6 +54,11 @@ public abstract class NetworkMessage {
     }
 
     private static Compression.Scheme adjustedScheme(TransportVersion version, Compression.Scheme compressionScheme) {
+        if (compressionScheme == Compression.Scheme.ZSTD
+            && (version.before(Compression.Scheme.ZSTD_VERSION) || Compression.Scheme.isZstdAvailable() == false)) {
+            // the version is the one agreed on in the handshake, so older nodes get the most efficient scheme they understand
+            compressionScheme = Compression.Scheme.LZ4;
+        }
         return compressionScheme == Compression.Scheme.LZ4 && version.before(Compression.Scheme.LZ4_VERSION) ? null : compressionScheme;
     }
 }
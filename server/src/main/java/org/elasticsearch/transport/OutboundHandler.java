@@ -44,6 +44,8 @@ final class OutboundHandler {
     private final Recycler<BytesRef> recycler;
     private final HandlingTimeTracker handlingTimeTracker;
     private final boolean rstOnClose;
+    @Nullable
+    private final ZstdDictionaries zstdDictionaries;
 
     private volatile long slowLogThresholdMs = Long.MAX_VALUE;
 
@@ -56,7 +58,8 @@ final class OutboundHandler {
         ThreadPool threadPool,
         Recycler<BytesRef> recycler,
         HandlingTimeTracker handlingTimeTracker,
-        boolean rstOnClose
+        boolean rstOnClose,
+        @Nullable ZstdDictionaries zstdDictionaries
     ) {
         this.nodeName = nodeName;
         this.version = version;
@@ -65,6 +68,7 @@ final class OutboundHandler {
         this.recycler = recycler;
         this.handlingTimeTracker = handlingTimeTracker;
         this.rstOnClose = rstOnClose;
+        this.zstdDictionaries = zstdDictionaries;
     }
 
     void setSlowLogThreshold(TimeValue slowLogThreshold) {
@@ -108,6 +112,9 @@ final class OutboundHandler {
             isHandshake,
             compressionScheme
         );
+        if (isHandshake == false) {
+            maybeUseZstdDictionary(channel, message, action, true);
+        }
         if (request.tryIncRef() == false) {
             assert false : "request [" + request + "] has been released already";
             throw new AlreadyClosedException("request [" + request + "] has been released already");
@@ -146,6 +153,9 @@ final class OutboundHandler {
             isHandshake,
             compressionScheme
         );
+        if (isHandshake == false) {
+            maybeUseZstdDictionary(channel, message, action, false);
+        }
         response.mustIncRef();
         try {
             sendMessage(channel, message, responseStatsConsumer, () -> {
@@ -191,6 +201,24 @@ final class OutboundHandler {
         }
     }
 
+    /**
+     * Compresses the given zstd compressed message with the dictionary of its action if there is one, sending the dictionary along if
+     * the remote node does not know it yet, or samples the message to train the dictionary on otherwise.
+     */
+    private void maybeUseZstdDictionary(TcpChannel channel, OutboundMessage message, String action, boolean request) {
+        if (zstdDictionaries == null
+            || message.compressionScheme != Compression.Scheme.ZSTD
+            || message.version.before(Compression.Scheme.ZSTD_DICTIONARY_VERSION)) {
+            return;
+        }
+        final ZstdDictionaries.Dictionary dictionary = zstdDictionaries.getDictionary(action, request);
+        if (dictionary != null) {
+            message.setZstdDictionary(dictionary, zstdDictionaries.isSent(channel, dictionary) == false);
+        } else {
+            message.setZstdSampler(zstdDictionaries.sampler(action, request));
+        }
+    }
+
     private void sendMessage(
         TcpChannel channel,
         OutboundMessage networkMessage,
@@ -221,8 +249,23 @@ final class OutboundHandler {
                 release.close();
             }
         }
-        responseStatsConsumer.addResponseStats(message.length());
-        internalSend(channel, message, networkMessage, ActionListener.running(release::close));
+        if (networkMessage.isCompress()) {
+            responseStatsConsumer.addCompressedResponseStats(message.length(), networkMessage.getUncompressedLength());
+        } else {
+            responseStatsConsumer.addResponseStats(message.length());
+        }
+        final ZstdDictionaries.Dictionary inlinedDictionary = networkMessage.getInlinedZstdDictionary();
+        if (inlinedDictionary == null) {
+            internalSend(channel, message, networkMessage, ActionListener.running(release::close));
+        } else {
+            // the messages that are sent once this one was written can refer to the dictionary by its id
+            internalSend(
+                channel,
+                message,
+                networkMessage,
+                ActionListener.releaseAfter(ActionListener.wrap(v -> zstdDictionaries.onSent(channel, inlinedDictionary), e -> {}), release)
+            );
+        }
     }
 
     private void internalSend(
@@ -19,13 +19,22 @@ import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Streams;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 abstract class OutboundMessage extends NetworkMessage {
 
     protected final Writeable message;
+    private int uncompressedLength = -1;
+    @Nullable
+    private ZstdDictionaries.Dictionary zstdDictionary;
+    private boolean inlineZstdDictionary;
+    @Nullable
+    private ZstdBlockOutputStream.BlockSampler zstdSampler;
 
     OutboundMessage(
         ThreadContext threadContext,
@@ -54,7 +63,9 @@ abstract class OutboundMessage extends NetworkMessage {
         }
 
         final boolean compress = TransportStatus.isCompress(status);
-        final StreamOutput stream = compress ? wrapCompressed(bytesStream) : bytesStream;
+        final long preCompressionPosition = bytesStream.position();
+        final CountingOutputStream uncompressedBytes = compress ? new CountingOutputStream(wrapCompressed(bytesStream)) : null;
+        final StreamOutput stream = compress ? new OutputStreamStreamOutput(uncompressedBytes) : bytesStream;
         final BytesReference zeroCopyBuffer;
         try {
             stream.setTransportVersion(version);
@@ -79,6 +90,10 @@ abstract class OutboundMessage extends NetworkMessage {
             }
         }
         final BytesReference message = bytesStream.bytes();
+        if (compress) {
+            // the headers before the compressed part are the same either way
+            uncompressedLength = Math.toIntExact(preCompressionPosition + uncompressedBytes.count);
+        }
         if (zeroCopyBuffer.length() == 0) {
             reference = message;
         } else {
@@ -93,18 +108,79 @@ abstract class OutboundMessage extends NetworkMessage {
 
     // compressed stream wrapped bytes must be no-close wrapped since we need to close the compressed wrapper below to release
     // resources and write EOS marker bytes but must not yet release the bytes themselves
-    private StreamOutput wrapCompressed(RecyclerBytesStreamOutput bytesStream) throws IOException {
+    private OutputStream wrapCompressed(RecyclerBytesStreamOutput bytesStream) throws IOException {
         if (compressionScheme == Compression.Scheme.DEFLATE) {
-            return new OutputStreamStreamOutput(
-                CompressorFactory.COMPRESSOR.threadLocalOutputStream(org.elasticsearch.core.Streams.noCloseStream(bytesStream))
-            );
+            return CompressorFactory.COMPRESSOR.threadLocalOutputStream(org.elasticsearch.core.Streams.noCloseStream(bytesStream));
         } else if (compressionScheme == Compression.Scheme.LZ4) {
-            return new OutputStreamStreamOutput(Compression.Scheme.lz4OutputStream(Streams.noCloseStream(bytesStream)));
+            return Compression.Scheme.lz4OutputStream(Streams.noCloseStream(bytesStream));
+        } else if (compressionScheme == Compression.Scheme.ZSTD) {
+            return Compression.Scheme.zstdOutputStream(
+                Streams.noCloseStream(bytesStream),
+                zstdDictionary,
+                inlineZstdDictionary,
+                zstdSampler
+            );
         } else {
             throw new IllegalArgumentException("Invalid compression scheme: " + compressionScheme);
         }
     }
 
+    /**
+     * Compress this message with the given dictionary, which is written ahead of the compressed content if {@code inline} is set.
+     */
+    void setZstdDictionary(ZstdDictionaries.Dictionary dictionary, boolean inline) {
+        assert compressionScheme == Compression.Scheme.ZSTD : compressionScheme;
+        this.zstdDictionary = dictionary;
+        this.inlineZstdDictionary = inline;
+    }
+
+    /**
+     * Pass the uncompressed content of this message to the given sampler, if not {@code null}, when compressing it.
+     */
+    void setZstdSampler(@Nullable ZstdBlockOutputStream.BlockSampler sampler) {
+        assert compressionScheme == Compression.Scheme.ZSTD : compressionScheme;
+        this.zstdSampler = sampler;
+    }
+
+    /**
+     * @return the dictionary that is written ahead of the compressed content of this message, if any
+     */
+    @Nullable
+    ZstdDictionaries.Dictionary getInlinedZstdDictionary() {
+        return inlineZstdDictionary ? zstdDictionary : null;
+    }
+
+    /**
+     * @return the size that this message would have had without compression, only available once a compressed message was serialized
+     */
+    int getUncompressedLength() {
+        assert uncompressedLength >= 0 : "message is not compressed or not serialized yet";
+        return uncompressedLength;
+    }
+
+    /**
+     * Counts the bytes written to the compressed stream, i.e. the uncompressed size of the compressed part of the message.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
     protected void writeVariableHeader(StreamOutput stream) throws IOException {
         threadContext.writeTo(stream);
     }
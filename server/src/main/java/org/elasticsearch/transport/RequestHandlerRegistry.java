@@ -120,11 +120,20 @@ public class RequestHandlerRegistry<Request extends TransportRequest> implements
         statsTracker.addRequestStats(messageSize);
     }
 
+    public void addCompressedRequestStats(int messageSize, int uncompressedMessageSize) {
+        statsTracker.addCompressedRequestStats(messageSize, uncompressedMessageSize);
+    }
+
     @Override
     public void addResponseStats(int messageSize) {
         statsTracker.addResponseStats(messageSize);
     }
 
+    @Override
+    public void addCompressedResponseStats(int messageSize, int uncompressedMessageSize) {
+        statsTracker.addCompressedResponseStats(messageSize, uncompressedMessageSize);
+    }
+
     public TransportActionStats getStats() {
         return statsTracker.getStats();
     }
@@ -12,5 +12,12 @@ public interface ResponseStatsConsumer {
 
     void addResponseStats(int messageSize);
 
+    /**
+     * Records a compressed response, given its size as sent over the network and the size it would have had without compression.
+     */
+    default void addCompressedResponseStats(int messageSize, int uncompressedMessageSize) {
+        addResponseStats(messageSize);
+    }
+
     ResponseStatsConsumer NONE = messageSize -> {};
 }
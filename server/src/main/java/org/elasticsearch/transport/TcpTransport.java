@@ -128,6 +128,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
     private final TransportHandshaker handshaker;
     private final TransportKeepAlive keepAlive;
     private final HandlingTimeTracker outboundHandlingTimeTracker = new HandlingTimeTracker();
+    private final HandlingTimeTracker messagesPerFlushTracker = new HandlingTimeTracker();
     private final OutboundHandler outboundHandler;
     private final InboundHandler inboundHandler;
     private final ResponseHandlers responseHandlers = new ResponseHandlers();
@@ -163,7 +164,10 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             threadPool,
             recycler,
             outboundHandlingTimeTracker,
-            rstOnClose
+            rstOnClose,
+            TransportSettings.TRANSPORT_COMPRESSION_DICTIONARIES.get(settings) && Compression.Scheme.isZstdAvailable()
+                ? new ZstdDictionaries(Compression.Scheme.zstd(), threadPool.generic())
+                : null
         );
 
         ignoreDeserializationErrors = IGNORE_DESERIALIZATION_ERRORS_SETTING.get(settings);
@@ -182,7 +186,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                 null,
                 true
             ),
-            ignoreDeserializationErrors
+            ignoreDeserializationErrors,
+            Compression.Scheme.isZstdAvailable()
         );
         this.keepAlive = new TransportKeepAlive(threadPool, this.outboundHandler::sendBytes);
         this.inboundHandler = new InboundHandler(
@@ -207,6 +212,13 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         return statsTracker;
     }
 
+    /**
+     * Tracks how many messages each flush of an outbound channel writes, for transport implementations that coalesce flushes.
+     */
+    public HandlingTimeTracker getMessagesPerFlushTracker() {
+        return messagesPerFlushTracker;
+    }
+
     public ThreadPool getThreadPool() {
         return threadPool;
     }
@@ -247,7 +259,7 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             DiscoveryNode node,
             List<TcpChannel> channels,
             ConnectionProfile connectionProfile,
-            TransportVersion handshakeVersion
+            HandshakeResult handshakeResult
         ) {
             this.node = node;
             this.channels = Collections.unmodifiableList(channels);
@@ -259,9 +271,9 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
                     typeMapping.put(type, handle);
                 }
             }
-            version = handshakeVersion;
+            version = handshakeResult.transportVersion();
             compress = connectionProfile.getCompressionEnabled();
-            compressionScheme = connectionProfile.getCompressionScheme();
+            compressionScheme = compressionScheme(connectionProfile.getCompressionScheme(), handshakeResult);
         }
 
         @Override
@@ -946,11 +958,30 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
         }
     }
 
+    /**
+     * The outcome of the transport-level handshake with a remote node.
+     *
+     * @param transportVersion the transport version to use when talking to the remote node
+     * @param zstdCompressionAvailable whether the remote node can decompress messages that are compressed with zstd
+     */
+    public record HandshakeResult(TransportVersion transportVersion, boolean zstdCompressionAvailable) {}
+
+    /**
+     * Returns the compression scheme to use on a connection, which is the configured one unless the remote node cannot decompress it.
+     * Only nodes that have access to the native zstd library can decompress zstd, so connections to other nodes fall back to lz4.
+     */
+    static Compression.Scheme compressionScheme(Compression.Scheme configured, HandshakeResult handshakeResult) {
+        if (configured == Compression.Scheme.ZSTD && handshakeResult.zstdCompressionAvailable() == false) {
+            return Compression.Scheme.LZ4;
+        }
+        return configured;
+    }
+
     public void executeHandshake(
         DiscoveryNode node,
         TcpChannel channel,
         ConnectionProfile profile,
-        ActionListener<TransportVersion> listener
+        ActionListener<HandshakeResult> listener
     ) {
         long requestId = responseHandlers.newRequestId();
         handshaker.sendHandshake(requestId, node, channel, profile.getHandshakeTimeout(), listener);
@@ -1003,7 +1034,8 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             bytesWritten,
             networkService.getHandlingTimeTracker().getHistogram(),
             outboundHandlingTimeTracker.getHistogram(),
-            requestHandlers.getStats()
+            requestHandlers.getStats(),
+            messagesPerFlushTracker.getHistogram()
         );
     }
 
@@ -1112,10 +1144,10 @@ public abstract class TcpTransport extends AbstractLifecycleComponent implements
             if (countDown.countDown()) {
                 final TcpChannel handshakeChannel = channels.get(0);
                 try {
-                    executeHandshake(node, handshakeChannel, connectionProfile, ActionListener.wrap(responseVersion -> {
+                    executeHandshake(node, handshakeChannel, connectionProfile, ActionListener.wrap(handshakeResult -> {
                         final long connectionId = outboundConnectionCount.incrementAndGet();
                         logger.debug("opened transport connection [{}] to [{}] using channels [{}]", connectionId, node, channels);
-                        NodeChannels nodeChannels = new NodeChannels(node, channels, connectionProfile, responseVersion);
+                        NodeChannels nodeChannels = new NodeChannels(node, channels, connectionProfile, handshakeResult);
                         long relativeMillisTime = threadPool.relativeTimeInMillis();
                         nodeChannels.channels.forEach(ch -> {
                             // Mark the channel init time
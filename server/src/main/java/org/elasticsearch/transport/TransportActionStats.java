@@ -8,6 +8,7 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -23,11 +24,42 @@ public record TransportActionStats(
     long[] requestSizeHistogram,
     long responseCount,
     long totalResponseSize,
-    long[] responseSizeHistogram
+    long[] responseSizeHistogram,
+    CompressionStats requestCompression,
+    CompressionStats responseCompression
 ) implements Writeable, ToXContentObject {
 
+    public TransportActionStats(
+        long requestCount,
+        long totalRequestSize,
+        long[] requestSizeHistogram,
+        long responseCount,
+        long totalResponseSize,
+        long[] responseSizeHistogram
+    ) {
+        this(
+            requestCount,
+            totalRequestSize,
+            requestSizeHistogram,
+            responseCount,
+            totalResponseSize,
+            responseSizeHistogram,
+            CompressionStats.EMPTY,
+            CompressionStats.EMPTY
+        );
+    }
+
     public TransportActionStats(StreamInput in) throws IOException {
-        this(in.readVLong(), in.readVLong(), in.readVLongArray(), in.readVLong(), in.readVLong(), in.readVLongArray());
+        this(
+            in.readVLong(),
+            in.readVLong(),
+            in.readVLongArray(),
+            in.readVLong(),
+            in.readVLong(),
+            in.readVLongArray(),
+            CompressionStats.readFrom(in),
+            CompressionStats.readFrom(in)
+        );
     }
 
     @Override
@@ -38,12 +70,14 @@ public record TransportActionStats(
         builder.field("count", requestCount);
         builder.humanReadableField("total_size_in_bytes", "total_size", ByteSizeValue.ofBytes(totalRequestSize));
         histogramToXContent(builder, requestSizeHistogram);
+        requestCompression.toXContent(builder);
         builder.endObject();
 
         builder.startObject("responses");
         builder.field("count", responseCount);
         builder.humanReadableField("total_size_in_bytes", "total_size", ByteSizeValue.ofBytes(totalResponseSize));
         histogramToXContent(builder, responseSizeHistogram);
+        responseCompression.toXContent(builder);
         builder.endObject();
 
         return builder.endObject();
@@ -86,5 +120,54 @@ public record TransportActionStats(
         out.writeVLong(responseCount);
         out.writeVLong(totalResponseSize);
         out.writeVLongArray(responseSizeHistogram);
+        requestCompression.writeTo(out);
+        responseCompression.writeTo(out);
+    }
+
+    /**
+     * Compares the size of the compressed messages of an action with the size that they would have had without compression.
+     *
+     * @param count            the number of compressed messages
+     * @param compressedSize   the total size of the compressed messages, as sent over the network
+     * @param uncompressedSize the total size that the compressed messages would have had without compression
+     */
+    public record CompressionStats(long count, long compressedSize, long uncompressedSize) {
+
+        public static final CompressionStats EMPTY = new CompressionStats(0L, 0L, 0L);
+
+        static CompressionStats readFrom(StreamInput in) throws IOException {
+            if (in.getTransportVersion().onOrAfter(TransportVersions.TRANSPORT_ACTION_COMPRESSION_STATS)) {
+                return new CompressionStats(in.readVLong(), in.readVLong(), in.readVLong());
+            } else {
+                return EMPTY;
+            }
+        }
+
+        void writeTo(StreamOutput out) throws IOException {
+            if (out.getTransportVersion().onOrAfter(TransportVersions.TRANSPORT_ACTION_COMPRESSION_STATS)) {
+                out.writeVLong(count);
+                out.writeVLong(compressedSize);
+                out.writeVLong(uncompressedSize);
+            }
+        }
+
+        /**
+         * @return how many times larger the compressed messages would have been without compression, or {@code 1.0} if none
+         */
+        public double ratio() {
+            return compressedSize == 0L ? 1.0 : (double) uncompressedSize / compressedSize;
+        }
+
+        void toXContent(XContentBuilder builder) throws IOException {
+            if (count == 0L) {
+                return;
+            }
+            builder.startObject("compression");
+            builder.field("count", count);
+            builder.humanReadableField("compressed_size_in_bytes", "compressed_size", ByteSizeValue.ofBytes(compressedSize));
+            builder.humanReadableField("uncompressed_size_in_bytes", "uncompressed_size", ByteSizeValue.ofBytes(uncompressedSize));
+            builder.field("ratio", ratio());
+            builder.endObject();
+        }
     }
 }
@@ -35,15 +35,25 @@ public class TransportActionStatsTracker {
 
     private static final int MAX_BUCKET = getBucketUpperBounds().length;
 
-    private record StatsTracker(LongAdder count, LongAdder totalSize, AtomicLongArray histogram) {
+    private record StatsTracker(
+        LongAdder count,
+        LongAdder totalSize,
+        AtomicLongArray histogram,
+        LongAdder compressedCount,
+        LongAdder compressedSize,
+        LongAdder uncompressedSize
+    ) {
         StatsTracker {
             assert count.longValue() == 0L;
             assert totalSize.longValue() == 0L;
             assert histogram.length() == MAX_BUCKET + 1;
+            assert compressedCount.longValue() == 0L;
+            assert compressedSize.longValue() == 0L;
+            assert uncompressedSize.longValue() == 0L;
         }
 
         StatsTracker() {
-            this(new LongAdder(), new LongAdder(), new AtomicLongArray(MAX_BUCKET + 1));
+            this(new LongAdder(), new LongAdder(), new AtomicLongArray(MAX_BUCKET + 1), new LongAdder(), new LongAdder(), new LongAdder());
         }
 
         void addStats(int messageSize) {
@@ -52,6 +62,21 @@ public class TransportActionStatsTracker {
             histogram().incrementAndGet(bucket(messageSize));
         }
 
+        void addCompressedStats(int messageSize, int uncompressedMessageSize) {
+            addStats(messageSize);
+            compressedCount().increment();
+            compressedSize().add(messageSize);
+            uncompressedSize().add(uncompressedMessageSize);
+        }
+
+        TransportActionStats.CompressionStats getCompressionStats() {
+            return new TransportActionStats.CompressionStats(
+                compressedCount().longValue(),
+                compressedSize().longValue(),
+                uncompressedSize().longValue()
+            );
+        }
+
         long[] getHistogram() {
             long[] histogramCopy = new long[MAX_BUCKET + 1];
             for (int i = 0; i <= MAX_BUCKET; i++) {
@@ -76,6 +101,26 @@ public class TransportActionStatsTracker {
         responseStats.addStats(messageSize);
     }
 
+    /**
+     * Records a compressed request.
+     *
+     * @param messageSize             the size of the request as received over the network
+     * @param uncompressedMessageSize the size that the request would have had without compression
+     */
+    public void addCompressedRequestStats(int messageSize, int uncompressedMessageSize) {
+        requestStats.addCompressedStats(messageSize, uncompressedMessageSize);
+    }
+
+    /**
+     * Records a compressed response.
+     *
+     * @param messageSize             the size of the response as sent over the network
+     * @param uncompressedMessageSize the size that the response would have had without compression
+     */
+    public void addCompressedResponseStats(int messageSize, int uncompressedMessageSize) {
+        responseStats.addCompressedStats(messageSize, uncompressedMessageSize);
+    }
+
     public TransportActionStats getStats() {
         return new TransportActionStats(
             requestStats.count().longValue(),
@@ -83,7 +128,9 @@ public class TransportActionStatsTracker {
             requestStats.getHistogram(),
             responseStats.count().longValue(),
             responseStats.totalSize().longValue(),
-            responseStats.getHistogram()
+            responseStats.getHistogram(),
+            requestStats.getCompressionStats(),
+            responseStats.getCompressionStats()
         );
     }
 
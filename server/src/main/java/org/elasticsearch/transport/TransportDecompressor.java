@@ -17,6 +17,8 @@ import org.elasticsearch.core.Releasable;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
 
 public abstract class TransportDecompressor implements Releasable {
 
@@ -65,6 +67,17 @@ public abstract class TransportDecompressor implements Releasable {
     }
 
     static TransportDecompressor getDecompressor(Recycler<BytesRef> recycler, BytesReference bytes) {
+        return getDecompressor(recycler, bytes, new HashMap<>());
+    }
+
+    /**
+     * @param zstdDictionaries the zstd dictionaries that were received on the channel, see {@link ZstdTransportDecompressor}
+     */
+    static TransportDecompressor getDecompressor(
+        Recycler<BytesRef> recycler,
+        BytesReference bytes,
+        Map<Integer, byte[]> zstdDictionaries
+    ) {
         if (bytes.length() < Compression.Scheme.HEADER_LENGTH) {
             return null;
         }
@@ -73,6 +86,10 @@ public abstract class TransportDecompressor implements Releasable {
             return new DeflateTransportDecompressor(recycler);
         } else if (Compression.Scheme.isLZ4(bytes)) {
             return new Lz4TransportDecompressor(recycler);
+        } else if (Compression.Scheme.isZstd(bytes)) {
+            return new ZstdTransportDecompressor(recycler);
+        } else if (Compression.Scheme.isZstdWithDictionary(bytes)) {
+            return new ZstdTransportDecompressor(recycler, zstdDictionaries);
         } else {
             throw createIllegalState(bytes);
         }
@@ -113,11 +113,18 @@ final class TransportHandshaker {
      *     for their structure.
      * [2] A list of strings, which can safely be ignored
      * [3] Parent task ID should be empty; see org.elasticsearch.tasks.TaskId.writeTo for its structure.
+     *
+     * If both the requesting and the responding node are on or after ZSTD_COMPRESSION_HANDSHAKE_VERSION then the response also carries a
+     * boolean saying whether the responding node can decompress zstd, which requires its native library. The requesting node only uses
+     * zstd for the connection if this flag is set, and falls back to lz4 otherwise. Since the handshake request is always sent with the
+     * MINIMUM_COMPATIBLE protocol version, the responding node relies on the maximum acceptable protocol version of the request body
+     * rather than on the version of the stream to decide whether to write the flag.
      */
 
     static final TransportVersion EARLIEST_HANDSHAKE_VERSION = TransportVersion.fromId(6080099);
     static final TransportVersion REQUEST_HANDSHAKE_VERSION = TransportVersions.MINIMUM_COMPATIBLE;
     static final Set<TransportVersion> ALLOWED_HANDSHAKE_VERSIONS = Set.of(EARLIEST_HANDSHAKE_VERSION, REQUEST_HANDSHAKE_VERSION);
+    static final TransportVersion ZSTD_COMPRESSION_HANDSHAKE_VERSION = TransportVersions.ZSTD_TRANSPORT_COMPRESSION_HANDSHAKE;
 
     static final String HANDSHAKE_ACTION_NAME = "internal:tcp/handshake";
     private final ConcurrentMap<Long, HandshakeResponseHandler> pendingHandshakes = new ConcurrentHashMap<>();
@@ -127,17 +134,20 @@ final class TransportHandshaker {
     private final ThreadPool threadPool;
     private final HandshakeRequestSender handshakeRequestSender;
     private final boolean ignoreDeserializationErrors;
+    private final boolean zstdCompressionAvailable;
 
     TransportHandshaker(
         TransportVersion version,
         ThreadPool threadPool,
         HandshakeRequestSender handshakeRequestSender,
-        boolean ignoreDeserializationErrors
+        boolean ignoreDeserializationErrors,
+        boolean zstdCompressionAvailable
     ) {
         this.version = version;
         this.threadPool = threadPool;
         this.handshakeRequestSender = handshakeRequestSender;
         this.ignoreDeserializationErrors = ignoreDeserializationErrors;
+        this.zstdCompressionAvailable = zstdCompressionAvailable;
     }
 
     void sendHandshake(
@@ -145,7 +155,7 @@ final class TransportHandshaker {
         DiscoveryNode node,
         TcpChannel channel,
         TimeValue timeout,
-        ActionListener<TransportVersion> listener
+        ActionListener<TcpTransport.HandshakeResult> listener
     ) {
         numHandshakes.inc();
         final HandshakeResponseHandler handler = new HandshakeResponseHandler(requestId, listener);
@@ -174,9 +184,10 @@ final class TransportHandshaker {
     }
 
     void handleHandshake(TransportChannel channel, long requestId, StreamInput stream) throws IOException {
+        final HandshakeRequest handshakeRequest;
         try {
             // Must read the handshake request to exhaust the stream
-            new HandshakeRequest(stream);
+            handshakeRequest = new HandshakeRequest(stream);
         } catch (Exception e) {
             assert ignoreDeserializationErrors : e;
             throw e;
@@ -195,7 +206,7 @@ final class TransportHandshaker {
             assert ignoreDeserializationErrors : exception;
             throw exception;
         }
-        channel.sendResponse(new HandshakeResponse(this.version));
+        channel.sendResponse(new HandshakeResponse(this.version, handshakeRequest.version, zstdCompressionAvailable));
     }
 
     TransportResponseHandler<HandshakeResponse> removeHandlerForHandshake(long requestId) {
@@ -213,17 +224,17 @@ final class TransportHandshaker {
     private class HandshakeResponseHandler implements TransportResponseHandler<HandshakeResponse> {
 
         private final long requestId;
-        private final ActionListener<TransportVersion> listener;
+        private final ActionListener<TcpTransport.HandshakeResult> listener;
         private final AtomicBoolean isDone = new AtomicBoolean(false);
 
-        private HandshakeResponseHandler(long requestId, ActionListener<TransportVersion> listener) {
+        private HandshakeResponseHandler(long requestId, ActionListener<TcpTransport.HandshakeResult> listener) {
             this.requestId = requestId;
             this.listener = listener;
         }
 
         @Override
         public HandshakeResponse read(StreamInput in) throws IOException {
-            return new HandshakeResponse(in);
+            return new HandshakeResponse(in, version);
         }
 
         @Override
@@ -246,7 +257,7 @@ final class TransportHandshaker {
                         )
                     );
                 } else {
-                    listener.onResponse(responseVersion);
+                    listener.onResponse(new TcpTransport.HandshakeResult(responseVersion, response.zstdCompressionAvailable));
                 }
             }
         }
@@ -305,25 +316,49 @@ final class TransportHandshaker {
     static final class HandshakeResponse extends TransportResponse {
 
         private final TransportVersion responseVersion;
+        // the maximum acceptable protocol version of the requesting node, or null if it is unknown because the request is v6080099
+        private final TransportVersion requestVersion;
+        private final boolean zstdCompressionAvailable;
 
-        HandshakeResponse(TransportVersion responseVersion) {
+        HandshakeResponse(TransportVersion responseVersion, TransportVersion requestVersion, boolean zstdCompressionAvailable) {
             this.responseVersion = responseVersion;
+            this.requestVersion = requestVersion;
+            this.zstdCompressionAvailable = zstdCompressionAvailable;
         }
 
-        private HandshakeResponse(StreamInput in) throws IOException {
+        private HandshakeResponse(StreamInput in, TransportVersion localVersion) throws IOException {
             super(in);
             responseVersion = TransportVersion.readVersion(in);
+            requestVersion = localVersion;
+            if (carriesZstdCompressionAvailable(responseVersion, requestVersion)) {
+                zstdCompressionAvailable = in.readBoolean();
+            } else {
+                zstdCompressionAvailable = false;
+            }
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             assert responseVersion != null;
             TransportVersion.writeVersion(responseVersion, out);
+            if (carriesZstdCompressionAvailable(responseVersion, requestVersion)) {
+                out.writeBoolean(zstdCompressionAvailable);
+            }
+        }
+
+        private static boolean carriesZstdCompressionAvailable(TransportVersion responseVersion, TransportVersion requestVersion) {
+            return requestVersion != null
+                && requestVersion.onOrAfter(ZSTD_COMPRESSION_HANDSHAKE_VERSION)
+                && responseVersion.onOrAfter(ZSTD_COMPRESSION_HANDSHAKE_VERSION);
         }
 
         TransportVersion getResponseVersion() {
             return responseVersion;
         }
+
+        boolean isZstdCompressionAvailable() {
+            return zstdCompressionAvailable;
+        }
     }
 
     @FunctionalInterface
@@ -82,6 +82,11 @@ public final class TransportSettings {
         Compression.Scheme.LZ4,
         Setting.Property.NodeScope
     );
+    public static final Setting<Boolean> TRANSPORT_COMPRESSION_DICTIONARIES = boolSetting(
+        "transport.compression_dictionaries",
+        false,
+        Setting.Property.NodeScope
+    );
     // the scheduled internal ping interval setting, defaults to disabled (-1)
     public static final Setting<TimeValue> PING_SCHEDULE = timeSetting(
         "transport.ping_schedule",
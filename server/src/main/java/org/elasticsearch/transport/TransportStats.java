@@ -38,6 +38,7 @@ public class TransportStats implements Writeable, ChunkedToXContent {
     private final long[] inboundHandlingTimeBucketFrequencies;
     private final long[] outboundHandlingTimeBucketFrequencies;
     private final Map<String, TransportActionStats> transportActionStats;
+    private final long[] messagesPerFlushFrequencies;
 
     public TransportStats(
         long serverOpen,
@@ -49,6 +50,32 @@ public class TransportStats implements Writeable, ChunkedToXContent {
         long[] inboundHandlingTimeBucketFrequencies,
         long[] outboundHandlingTimeBucketFrequencies,
         Map<String, TransportActionStats> transportActionStats
+    ) {
+        this(
+            serverOpen,
+            totalOutboundConnections,
+            rxCount,
+            rxSize,
+            txCount,
+            txSize,
+            inboundHandlingTimeBucketFrequencies,
+            outboundHandlingTimeBucketFrequencies,
+            transportActionStats,
+            new long[0]
+        );
+    }
+
+    public TransportStats(
+        long serverOpen,
+        long totalOutboundConnections,
+        long rxCount,
+        long rxSize,
+        long txCount,
+        long txSize,
+        long[] inboundHandlingTimeBucketFrequencies,
+        long[] outboundHandlingTimeBucketFrequencies,
+        Map<String, TransportActionStats> transportActionStats,
+        long[] messagesPerFlushFrequencies
     ) {
         this.serverOpen = serverOpen;
         this.totalOutboundConnections = totalOutboundConnections;
@@ -59,6 +86,7 @@ public class TransportStats implements Writeable, ChunkedToXContent {
         this.inboundHandlingTimeBucketFrequencies = inboundHandlingTimeBucketFrequencies;
         this.outboundHandlingTimeBucketFrequencies = outboundHandlingTimeBucketFrequencies;
         this.transportActionStats = transportActionStats;
+        this.messagesPerFlushFrequencies = messagesPerFlushFrequencies;
         assert assertHistogramsConsistent();
     }
 
@@ -87,6 +115,11 @@ public class TransportStats implements Writeable, ChunkedToXContent {
         } else {
             transportActionStats = Map.of();
         }
+        if (in.getTransportVersion().onOrAfter(TransportVersions.TRANSPORT_MESSAGES_PER_FLUSH_STATS)) {
+            messagesPerFlushFrequencies = in.readVLongArray();
+        } else {
+            messagesPerFlushFrequencies = new long[0];
+        }
         assert assertHistogramsConsistent();
     }
 
@@ -111,6 +144,9 @@ public class TransportStats implements Writeable, ChunkedToXContent {
         if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_8_0)) {
             out.writeMap(transportActionStats, StreamOutput::writeWriteable);
         } // else just drop these stats
+        if (out.getTransportVersion().onOrAfter(TransportVersions.TRANSPORT_MESSAGES_PER_FLUSH_STATS)) {
+            out.writeVLongArray(messagesPerFlushFrequencies);
+        }
     }
 
     public long serverOpen() {
@@ -165,6 +201,15 @@ public class TransportStats implements Writeable, ChunkedToXContent {
         return transportActionStats;
     }
 
+    /**
+     * @return how many messages each flush of an outbound channel wrote, in buckets with upper bounds as returned by
+     *         {@link HandlingTimeTracker#getBucketUpperBounds()} plus an extra bucket for larger flushes, or an empty array if the
+     *         transport does not track this
+     */
+    public long[] getMessagesPerFlushFrequencies() {
+        return Arrays.copyOf(messagesPerFlushFrequencies, messagesPerFlushFrequencies.length);
+    }
+
     @UpdateForV9 // Review and simplify the if-else blocks containing this symbol once v9 is released
     private static final boolean IMPOSSIBLE_IN_V9 = true;
 
@@ -176,6 +221,7 @@ public class TransportStats implements Writeable, ChunkedToXContent {
         } else {
             assert inboundHandlingTimeBucketFrequencies.length == HandlingTimeTracker.BUCKET_COUNT;
         }
+        assert messagesPerFlushFrequencies.length == 0 || messagesPerFlushFrequencies.length == HandlingTimeTracker.BUCKET_COUNT;
         return true;
     }
 
@@ -197,6 +243,9 @@ public class TransportStats implements Writeable, ChunkedToXContent {
                 // Stats came from before v8.1
                 assert IMPOSSIBLE_IN_V9;
             }
+            if (Arrays.stream(messagesPerFlushFrequencies).anyMatch(count -> count > 0)) {
+                countHistogramToXContent(builder, messagesPerFlushFrequencies, Fields.MESSAGES_PER_FLUSH_HISTOGRAM);
+            }
             if (transportActionStats.isEmpty() == false) {
                 builder.startObject(Fields.ACTIONS);
             } else {
@@ -250,6 +299,27 @@ public class TransportStats implements Writeable, ChunkedToXContent {
         builder.endArray();
     }
 
+    static void countHistogramToXContent(XContentBuilder builder, long[] bucketFrequencies, String fieldName) throws IOException {
+        final int[] bucketBounds = HandlingTimeTracker.getBucketUpperBounds();
+        assert bucketFrequencies.length == bucketBounds.length + 1;
+        builder.startArray(fieldName);
+        for (int i = 0; i < bucketFrequencies.length; i++) {
+            if (bucketFrequencies[i] == 0) {
+                continue;
+            }
+            builder.startObject();
+            if (i > 0) {
+                builder.field("ge", bucketBounds[i - 1]);
+            }
+            if (i < bucketBounds.length) {
+                builder.field("lt", bucketBounds[i]);
+            }
+            builder.field("count", bucketFrequencies[i]);
+            builder.endObject();
+        }
+        builder.endArray();
+    }
+
     static final class Fields {
         static final String TRANSPORT = "transport";
         static final String SERVER_OPEN = "server_open";
@@ -262,6 +332,7 @@ public class TransportStats implements Writeable, ChunkedToXContent {
         static final String TX_SIZE_IN_BYTES = "tx_size_in_bytes";
         static final String INBOUND_HANDLING_TIME_HISTOGRAM = "inbound_handling_time_histogram";
         static final String OUTBOUND_HANDLING_TIME_HISTOGRAM = "outbound_handling_time_histogram";
+        static final String MESSAGES_PER_FLUSH_HISTOGRAM = "messages_per_flush_histogram";
         static final String ACTIONS = "actions";
     }
 }
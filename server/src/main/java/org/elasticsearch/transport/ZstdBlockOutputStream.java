@@ -0,0 +1,232 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.ByteUtils;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.nativeaccess.Zstd;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses data into blocks of at most {@code blockSize} bytes using zstd. The native zstd binding only compresses whole buffers,
+ * so rather than producing a single zstd frame this stream writes a sequence of blocks, each of them prefixed with its compressed and
+ * decompressed lengths, followed by an empty block that marks the end of the stream. See {@link ZstdTransportDecompressor}.
+ * <p>
+ * Like {@link ReuseBuffersLZ4BlockOutputStream}, a stream must be fully written by a single thread, which is what the native buffers
+ * require as well. The native buffers are allocated for the first block and reused for the following ones, and released when the
+ * stream is closed.
+ * <p>
+ * Blocks may be compressed with a dictionary, which must then be available to the decompressor, see {@link ZstdDictionaries}. The
+ * dictionary is copied into a native buffer for the same reason as the blocks. Without a dictionary, the uncompressed content of the
+ * first block may be passed to a {@link BlockSampler} to train dictionaries on.
+ */
+public class ZstdBlockOutputStream extends FilterOutputStream {
+
+    static final int BLOCK_HEADER_LENGTH = 2 * Integer.BYTES; // compressed length + decompressed length
+
+    /**
+     * Receives the uncompressed content of the first block of a stream. The given bytes are only valid for the duration of the call.
+     */
+    @FunctionalInterface
+    interface BlockSampler {
+        void sample(byte[] bytes, int offset, int length);
+    }
+
+    private final int blockSize;
+    private final int level;
+    private final Zstd zstd;
+    @Nullable
+    private final byte[] dictionary;
+    @Nullable
+    private BlockSampler sampler;
+    private final byte[] header = new byte[BLOCK_HEADER_LENGTH];
+    // grown on demand up to blockSize, so that small messages do not allocate full blocks
+    private byte[] buffer = BytesRef.EMPTY_BYTES;
+    private byte[] copyBuffer = BytesRef.EMPTY_BYTES;
+    // native buffers for the uncompressed and compressed data of a block, null until the first block is compressed
+    private CloseableByteBuffer src;
+    private CloseableByteBuffer dst;
+    private CloseableByteBuffer dict;
+    private int o;
+    private boolean finished;
+
+    public ZstdBlockOutputStream(OutputStream out, int blockSize, int level, Zstd zstd) {
+        this(out, blockSize, level, zstd, null, null);
+    }
+
+    ZstdBlockOutputStream(
+        OutputStream out,
+        int blockSize,
+        int level,
+        Zstd zstd,
+        @Nullable byte[] dictionary,
+        @Nullable BlockSampler sampler
+    ) {
+        super(out);
+        assert dictionary == null || sampler == null : "samples must be compressed without a dictionary";
+        this.blockSize = blockSize;
+        this.level = level;
+        this.zstd = zstd;
+        this.dictionary = dictionary;
+        this.sampler = sampler;
+    }
+
+    private void ensureNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("This stream is already closed");
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (length > buffer.length) {
+            buffer = ArrayUtil.growExact(buffer, Math.min(blockSize, ArrayUtil.oversize(length, Byte.BYTES)));
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureNotFinished();
+        if (o == blockSize) {
+            flushBufferedData();
+        }
+        ensureCapacity(o + 1);
+        buffer[o++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureNotFinished();
+        while (len > 0) {
+            if (o == blockSize) {
+                flushBufferedData();
+            }
+            final int toCopy = Math.min(len, blockSize - o);
+            ensureCapacity(o + toCopy);
+            System.arraycopy(b, off, buffer, o, toCopy);
+            o += toCopy;
+            off += toCopy;
+            len -= toCopy;
+        }
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    private void flushBufferedData() throws IOException {
+        if (o == 0) {
+            return;
+        }
+        if (sampler != null) {
+            final BlockSampler toSample = sampler;
+            sampler = null;
+            toSample.sample(buffer, 0, o);
+        }
+        ensureNativeBuffers(o);
+        src.buffer().clear();
+        src.buffer().put(buffer, 0, o);
+        src.buffer().flip();
+        dst.buffer().clear();
+        final int compressedLength = dict == null ? zstd.compress(dst, src, level) : zstd.compress(dst, src, dict, level);
+        writeBlockHeader(compressedLength, o);
+        if (copyBuffer.length < compressedLength) {
+            copyBuffer = new byte[Math.min(blockSize, ArrayUtil.oversize(compressedLength, Byte.BYTES))];
+        }
+        for (int written = 0; written < compressedLength;) {
+            final int numBytes = Math.min(copyBuffer.length, compressedLength - written);
+            dst.buffer().get(written, copyBuffer, 0, numBytes);
+            out.write(copyBuffer, 0, numBytes);
+            written += numBytes;
+        }
+        o = 0;
+    }
+
+    /**
+     * Makes sure that the native buffers can hold a block of the given length. The first block is either a full block or the only one
+     * of the stream, so the buffers are allocated at most once for all the full blocks of a stream.
+     */
+    private void ensureNativeBuffers(int length) {
+        if (src != null && src.buffer().capacity() >= length) {
+            return;
+        }
+        releaseNativeBuffers();
+        final NativeAccess nativeAccess = NativeAccess.instance();
+        src = nativeAccess.newBuffer(length);
+        dst = nativeAccess.newBuffer(zstd.compressBound(length));
+        if (dictionary != null) {
+            dict = nativeAccess.newBuffer(dictionary.length);
+            dict.buffer().put(dictionary).flip();
+        }
+    }
+
+    private void releaseNativeBuffers() {
+        final CloseableByteBuffer toRelease = src;
+        final CloseableByteBuffer dictToRelease = dict;
+        src = null;
+        dict = null;
+        try (CloseableByteBuffer ignored = dst; CloseableByteBuffer ignored2 = dictToRelease) {
+            dst = null;
+            if (toRelease != null) {
+                toRelease.close();
+            }
+        }
+    }
+
+    private void writeBlockHeader(int compressedLength, int decompressedLength) throws IOException {
+        ByteUtils.writeIntBE(compressedLength, header, 0);
+        ByteUtils.writeIntBE(decompressedLength, header, Integer.BYTES);
+        out.write(header);
+    }
+
+    /**
+     * Compresses the buffered data, writes the end of stream marker and flushes the underlying stream. Writing to this stream
+     * afterwards is not possible, but the underlying stream stays open.
+     */
+    public void finish() throws IOException {
+        ensureNotFinished();
+        try {
+            flushBufferedData();
+        } finally {
+            releaseNativeBuffers();
+        }
+        writeBlockHeader(0, 0);
+        out.flush();
+        finished = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (finished == false) {
+                finish();
+            }
+        } finally {
+            releaseNativeBuffers();
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        }
+    }
+}
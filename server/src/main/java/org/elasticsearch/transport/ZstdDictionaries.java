@@ -0,0 +1,227 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.transport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.nativeaccess.Zstd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The zstd dictionaries that this node compresses its outbound transport messages with. Small messages, which make up most of the
+ * transport traffic, compress poorly on their own because each of them has to spell out the field names and values that all the
+ * messages of the same action share. A dictionary trained on earlier messages of the same action provides these, so that only the
+ * differences need to be encoded.
+ * <p>
+ * The dictionaries are trained per action and separately for requests and responses, from samples of the uncompressed content of
+ * every {@link #SAMPLING_INTERVAL}th message that is compressed without a dictionary. Once enough samples were collected, a dictionary
+ * is trained on the given executor, and kept if it compresses the samples better than zstd does without it. Only the first
+ * {@link #MAX_ACTIONS} actions that compress messages get a dictionary, which bounds the memory that the dictionaries take on this node
+ * and on the nodes that receive them.
+ * <p>
+ * A dictionary is sent to the remote node in-band, ahead of the first message that is compressed with it on each channel, and is only
+ * referenced by its id afterwards, see {@link ZstdTransportDecompressor}. A dictionary is considered known to the remote node once a
+ * message that carries it has been written to the channel, since the messages of a channel are read in the order they are written.
+ */
+final class ZstdDictionaries {
+
+    private static final Logger logger = LogManager.getLogger(ZstdDictionaries.class);
+
+    static final int DICTIONARY_SIZE = 16 * 1024;
+    static final int MAX_SAMPLE_SIZE = 16 * 1024;
+    static final int TRAINING_SAMPLES_SIZE = 512 * 1024;
+    static final int MIN_SAMPLES = 64;
+    static final int SAMPLING_INTERVAL = 8;
+    static final int MAX_ACTIONS = 16;
+    // the samples that a dictionary is evaluated on, it is kept if it saves at least a tenth of their compressed size
+    private static final int EVALUATION_SAMPLES = 32;
+
+    /**
+     * A trained dictionary, identified by an id that is unique on this node.
+     */
+    record Dictionary(int id, byte[] bytes) {}
+
+    private record Key(String action, boolean request) {}
+
+    private final Zstd zstd;
+    private final Executor trainingExecutor;
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Map<Key, ActionDictionary> actions = ConcurrentCollections.newConcurrentMap();
+    private final Map<TcpChannel, Set<Integer>> sentDictionaries = ConcurrentCollections.newConcurrentMap();
+
+    ZstdDictionaries(Zstd zstd, Executor trainingExecutor) {
+        this.zstd = zstd;
+        this.trainingExecutor = trainingExecutor;
+    }
+
+    /**
+     * @return the dictionary to compress the messages of the given action with, or {@code null} if there is none (yet)
+     */
+    @Nullable
+    Dictionary getDictionary(String action, boolean request) {
+        final ActionDictionary actionDictionary = actions.get(new Key(action, request));
+        return actionDictionary == null ? null : actionDictionary.dictionary;
+    }
+
+    /**
+     * @return the sampler to pass the uncompressed content of the next message of the given action to, or {@code null} if this message
+     *         should not be sampled
+     */
+    @Nullable
+    ZstdBlockOutputStream.BlockSampler sampler(String action, boolean request) {
+        final Key key = new Key(action, request);
+        ActionDictionary actionDictionary = actions.get(key);
+        if (actionDictionary == null) {
+            if (actions.size() >= MAX_ACTIONS) {
+                return null;
+            }
+            actionDictionary = actions.computeIfAbsent(key, k -> new ActionDictionary(k.action()));
+        }
+        return actionDictionary.nextSampler();
+    }
+
+    /**
+     * @return whether the given dictionary was already written to the given channel
+     */
+    boolean isSent(TcpChannel channel, Dictionary dictionary) {
+        final Set<Integer> sent = sentDictionaries.get(channel);
+        return sent != null && sent.contains(dictionary.id());
+    }
+
+    /**
+     * Records that a message that carries the given dictionary was written to the given channel, so that the following messages only
+     * need to reference it.
+     */
+    void onSent(TcpChannel channel, Dictionary dictionary) {
+        Set<Integer> sent = sentDictionaries.get(channel);
+        if (sent == null) {
+            final Set<Integer> newSent = ConcurrentCollections.newConcurrentSet();
+            sent = sentDictionaries.putIfAbsent(channel, newSent);
+            if (sent == null) {
+                sent = newSent;
+                channel.addCloseListener(ActionListener.running(() -> sentDictionaries.remove(channel)));
+            }
+        }
+        sent.add(dictionary.id());
+    }
+
+    private final class ActionDictionary {
+        private final String action;
+        private final AtomicLong messages = new AtomicLong();
+        private volatile Dictionary dictionary;
+        // set once the dictionary is being trained, or failed to be
+        private volatile boolean sampled;
+
+        // guarded by this
+        private List<byte[]> samples = new ArrayList<>();
+        private long samplesSize;
+
+        ActionDictionary(String action) {
+            this.action = action;
+        }
+
+        @Nullable
+        ZstdBlockOutputStream.BlockSampler nextSampler() {
+            if (sampled || messages.getAndIncrement() % SAMPLING_INTERVAL != 0) {
+                return null;
+            }
+            return this::addSample;
+        }
+
+        private void addSample(byte[] bytes, int offset, int length) {
+            final List<byte[]> toTrain;
+            synchronized (this) {
+                if (sampled) {
+                    return;
+                }
+                samples.add(Arrays.copyOfRange(bytes, offset, offset + Math.min(length, MAX_SAMPLE_SIZE)));
+                samplesSize += Math.min(length, MAX_SAMPLE_SIZE);
+                if (samplesSize < TRAINING_SAMPLES_SIZE || samples.size() < MIN_SAMPLES) {
+                    return;
+                }
+                sampled = true;
+                toTrain = samples;
+                samples = null;
+            }
+            trainingExecutor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    dictionary = train(toTrain);
+                    logger.debug(
+                        "trained zstd dictionary for [{}] from [{}] samples: {}",
+                        action,
+                        toTrain.size(),
+                        dictionary == null ? "not used since it does not improve compression" : dictionary.bytes().length + " bytes"
+                    );
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    logger.debug(() -> "failed to train zstd dictionary for [" + action + "]", e);
+                }
+            });
+        }
+    }
+
+    @Nullable
+    private Dictionary train(List<byte[]> samples) {
+        final NativeAccess nativeAccess = NativeAccess.instance();
+        final int[] sampleSizes = new int[samples.size()];
+        int samplesSize = 0;
+        int maxSampleSize = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            sampleSizes[i] = samples.get(i).length;
+            samplesSize += sampleSizes[i];
+            maxSampleSize = Math.max(maxSampleSize, sampleSizes[i]);
+        }
+        try (
+            CloseableByteBuffer samplesBuffer = nativeAccess.newBuffer(samplesSize);
+            CloseableByteBuffer dict = nativeAccess.newBuffer(DICTIONARY_SIZE);
+            CloseableByteBuffer src = nativeAccess.newBuffer(maxSampleSize);
+            CloseableByteBuffer dst = nativeAccess.newBuffer(zstd.compressBound(maxSampleSize))
+        ) {
+            for (byte[] sample : samples) {
+                samplesBuffer.buffer().put(sample);
+            }
+            samplesBuffer.buffer().flip();
+            final int dictSize = zstd.trainDictionary(dict, samplesBuffer, sampleSizes);
+            dict.buffer().limit(dictSize);
+
+            long compressedSize = 0;
+            long compressedSizeWithDictionary = 0;
+            for (byte[] sample : samples.subList(Math.max(0, samples.size() - EVALUATION_SAMPLES), samples.size())) {
+                src.buffer().clear();
+                src.buffer().put(sample).flip();
+                compressedSize += zstd.compress(dst, src, Compression.Scheme.ZSTD_LEVEL);
+                compressedSizeWithDictionary += zstd.compress(dst, src, dict, Compression.Scheme.ZSTD_LEVEL);
+            }
+            if (compressedSizeWithDictionary > compressedSize * 9 / 10) {
+                return null;
+            }
+            final byte[] bytes = new byte[dictSize];
+            dict.buffer().get(0, bytes);
+            return new Dictionary(nextId.incrementAndGet(), bytes);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.nativeaccess.CloseableByteBuffer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+import org.elasticsearch.nativeaccess.Zstd;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decompresses the blocks written by {@link ZstdBlockOutputStream} as they arrive: each block is decompressed as soon as all of its
+ * bytes have been received, directly into pages obtained from the recycler, so that a large compressed message never needs to be
+ * buffered in full before it can be decoded.
+ * <p>
+ * Messages that are compressed with a dictionary, see {@link ZstdDictionaries}, start with the id of the dictionary and the length of
+ * its content, which is only sent with the first message that uses the dictionary on a channel. The dictionaries are registered in the
+ * given map, which is shared by all the messages of the channel, and looked up by id for the following messages.
+ */
+public class ZstdTransportDecompressor extends TransportDecompressor {
+
+    /**
+     * The largest block that is accepted. Larger than the blocks that are currently written, to leave room for changing their size.
+     */
+    static final int MAX_BLOCK_SIZE = 1 << 20;
+
+    static final int DICTIONARY_HEADER_LENGTH = 2 * Integer.BYTES; // id + length of the content if sent with this message
+    /**
+     * The largest dictionary that is accepted, and how many dictionaries a channel accepts. Both are larger than what is currently sent,
+     * to leave room for changing how dictionaries are trained.
+     */
+    static final int MAX_DICTIONARY_SIZE = 1 << 20;
+    static final int MAX_DICTIONARIES = 64;
+
+    private enum State {
+        DICTIONARY_HEADER,
+        DICTIONARY_DATA,
+        INIT_BLOCK,
+        DECOMPRESS_DATA,
+        FINISHED,
+        CORRUPTED
+    }
+
+    private final Zstd zstd;
+    @Nullable
+    private final Map<Integer, byte[]> dictionaries;
+    private State currentState;
+    private int compressedLength;
+    private int decompressedLength;
+    private int dictionaryId;
+    private int dictionaryLength;
+    // the dictionary that the blocks of this message are compressed with, if any
+    private byte[] dictionary;
+    // native buffers reused across the blocks of the message, released on close
+    private CloseableByteBuffer src;
+    private CloseableByteBuffer dst;
+    private CloseableByteBuffer dict;
+
+    public ZstdTransportDecompressor(Recycler<BytesRef> recycler) {
+        this(recycler, null);
+    }
+
+    /**
+     * @param dictionaries the dictionaries of the channel, if the message is compressed with a dictionary
+     */
+    ZstdTransportDecompressor(Recycler<BytesRef> recycler, @Nullable Map<Integer, byte[]> dictionaries) {
+        super(recycler);
+        this.zstd = Compression.Scheme.zstd();
+        this.dictionaries = dictionaries;
+        this.currentState = dictionaries == null ? State.INIT_BLOCK : State.DICTIONARY_HEADER;
+    }
+
+    @Override
+    public Compression.Scheme getScheme() {
+        return Compression.Scheme.ZSTD;
+    }
+
+    @Override
+    public int decompress(BytesReference bytesReference) throws IOException {
+        int bytesConsumed = 0;
+        if (hasSkippedHeader == false) {
+            hasSkippedHeader = true;
+            int esHeaderLength = Compression.Scheme.HEADER_LENGTH;
+            bytesReference = bytesReference.slice(esHeaderLength, bytesReference.length() - esHeaderLength);
+            bytesConsumed += esHeaderLength;
+        }
+
+        while (true) {
+            int consumed = decodeBlock(bytesReference);
+            bytesConsumed += consumed;
+            int newLength = bytesReference.length() - consumed;
+            if (consumed > 0 && newLength > 0) {
+                bytesReference = bytesReference.slice(consumed, newLength);
+            } else {
+                break;
+            }
+        }
+
+        return bytesConsumed;
+    }
+
+    private int decodeBlock(BytesReference reference) throws IOException {
+        try {
+            switch (currentState) {
+                case DICTIONARY_HEADER:
+                    if (reference.length() < DICTIONARY_HEADER_LENGTH) {
+                        return 0;
+                    }
+                    dictionaryId = reference.getInt(0);
+                    dictionaryLength = reference.getInt(Integer.BYTES);
+                    if (dictionaryLength < 0 || dictionaryLength > MAX_DICTIONARY_SIZE) {
+                        throw new IllegalStateException(
+                            String.format(
+                                Locale.ROOT,
+                                "invalid dictionaryLength: %d (expected: 0-%d)",
+                                dictionaryLength,
+                                MAX_DICTIONARY_SIZE
+                            )
+                        );
+                    }
+                    if (dictionaryLength == 0) {
+                        dictionary = dictionaries.get(dictionaryId);
+                        if (dictionary == null) {
+                            throw new IllegalStateException("unknown zstd dictionary [" + dictionaryId + "]");
+                        }
+                        currentState = State.INIT_BLOCK;
+                    } else {
+                        currentState = State.DICTIONARY_DATA;
+                    }
+                    return DICTIONARY_HEADER_LENGTH;
+                case DICTIONARY_DATA:
+                    if (reference.length() < dictionaryLength) {
+                        return 0;
+                    }
+                    if (dictionaries.containsKey(dictionaryId) == false && dictionaries.size() >= MAX_DICTIONARIES) {
+                        throw new IllegalStateException("too many zstd dictionaries, expected at most [" + MAX_DICTIONARIES + "]");
+                    }
+                    dictionary = BytesReference.toBytes(reference.slice(0, dictionaryLength));
+                    dictionaries.put(dictionaryId, dictionary);
+                    currentState = State.INIT_BLOCK;
+                    return dictionaryLength;
+                case INIT_BLOCK:
+                    if (reference.length() < ZstdBlockOutputStream.BLOCK_HEADER_LENGTH) {
+                        return 0;
+                    }
+                    final int compressedLength = reference.getInt(0);
+                    final int decompressedLength = reference.getInt(Integer.BYTES);
+                    if (decompressedLength < 0 || decompressedLength > MAX_BLOCK_SIZE) {
+                        throw new IllegalStateException(
+                            String.format(
+                                Locale.ROOT,
+                                "invalid decompressedLength: %d (expected: 0-%d)",
+                                decompressedLength,
+                                MAX_BLOCK_SIZE
+                            )
+                        );
+                    }
+                    final int maxCompressedLength = zstd.compressBound(decompressedLength);
+                    if (compressedLength < 0
+                        || compressedLength > maxCompressedLength
+                        || (decompressedLength == 0) != (compressedLength == 0)) {
+                        throw new IllegalStateException(
+                            String.format(
+                                Locale.ROOT,
+                                "stream corrupted: compressedLength(%d) and decompressedLength(%d) mismatch",
+                                compressedLength,
+                                decompressedLength
+                            )
+                        );
+                    }
+                    if (decompressedLength == 0) {
+                        currentState = State.FINISHED;
+                    } else {
+                        this.compressedLength = compressedLength;
+                        this.decompressedLength = decompressedLength;
+                        currentState = State.DECOMPRESS_DATA;
+                    }
+                    return ZstdBlockOutputStream.BLOCK_HEADER_LENGTH;
+                case DECOMPRESS_DATA:
+                    if (reference.length() < this.compressedLength) {
+                        return 0;
+                    }
+                    decompressBlock(reference.slice(0, this.compressedLength));
+                    currentState = State.INIT_BLOCK;
+                    return this.compressedLength;
+                case FINISHED:
+                    return 0;
+                case CORRUPTED:
+                    throw new IllegalStateException("zstd stream corrupted.");
+                default:
+                    throw new IllegalStateException();
+            }
+        } catch (IOException | RuntimeException e) {
+            currentState = State.CORRUPTED;
+            throw e;
+        }
+    }
+
+    private void decompressBlock(BytesReference compressed) throws IOException {
+        ensureNativeBuffers(compressedLength, decompressedLength);
+        src.buffer().clear();
+        final BytesRefIterator iterator = compressed.iterator();
+        for (BytesRef ref = iterator.next(); ref != null; ref = iterator.next()) {
+            src.buffer().put(ref.bytes, ref.offset, ref.length);
+        }
+        src.buffer().flip();
+        dst.buffer().clear().limit(decompressedLength);
+        final int decompressed = dict == null ? zstd.decompress(dst, src) : zstd.decompress(dst, src, dict);
+        if (decompressed != decompressedLength) {
+            throw new IllegalStateException("expected " + decompressedLength + " decompressed bytes, got " + decompressed);
+        }
+
+        int bytesToCopy = decompressedLength;
+        int uncompressedOffset = 0;
+        while (bytesToCopy > 0) {
+            maybeAddNewPage();
+            final Recycler.V<BytesRef> page = pages.getLast();
+            int toCopy = Math.min(bytesToCopy, pageLength - pageOffset);
+            dst.buffer().get(uncompressedOffset, page.v().bytes, page.v().offset + pageOffset, toCopy);
+            pageOffset += toCopy;
+            bytesToCopy -= toCopy;
+            uncompressedOffset += toCopy;
+        }
+    }
+
+    /**
+     * Makes sure that the native buffers can hold a block of the given lengths. The source buffer is sized for the worst compressed
+     * length of the block, and the first block of a message is its largest, so the buffers are allocated once per message.
+     */
+    private void ensureNativeBuffers(int compressedLength, int decompressedLength) {
+        final NativeAccess nativeAccess = NativeAccess.instance();
+        if (src == null || src.buffer().capacity() < compressedLength) {
+            releaseBuffer(src);
+            src = null;
+            src = nativeAccess.newBuffer(zstd.compressBound(decompressedLength));
+        }
+        if (dst == null || dst.buffer().capacity() < decompressedLength) {
+            releaseBuffer(dst);
+            dst = null;
+            dst = nativeAccess.newBuffer(decompressedLength);
+        }
+        if (dictionary != null && dict == null) {
+            dict = nativeAccess.newBuffer(dictionary.length);
+            dict.buffer().put(dictionary).flip();
+        }
+    }
+
+    private static void releaseBuffer(CloseableByteBuffer buffer) {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            final CloseableByteBuffer toRelease = src;
+            final CloseableByteBuffer dictToRelease = dict;
+            src = null;
+            dict = null;
+            try (CloseableByteBuffer ignored = dst; CloseableByteBuffer ignored2 = dictToRelease) {
+                dst = null;
+                releaseBuffer(toRelease);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if and only if the end of the compressed stream has been reached.
+     */
+    public boolean isClosed() {
+        return currentState == State.FINISHED;
+    }
+}
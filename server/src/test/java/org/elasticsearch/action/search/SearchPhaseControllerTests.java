@@ -85,6 +85,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Collections.emptyList;
@@ -862,6 +863,61 @@ public class SearchPhaseControllerTests extends ESTestCase {
         }
     }
 
+    public void testPartialReduceOnBreakerPressure() throws Exception {
+        int expectedNumResults = randomIntBetween(50, 100);
+        SearchRequest request = randomSearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(new MaxAggregationBuilder("test")).size(0));
+        // the buffer never fills up, so partial reduces only happen because the breaker is running out of memory
+        request.setBatchedReduceSize(expectedNumResults + 1);
+        LimitedCircuitBreaker circuitBreaker = new LimitedCircuitBreaker(CircuitBreaker.REQUEST, 512);
+        try (
+            SearchPhaseResults<SearchPhaseResult> consumer = searchPhaseController.newSearchPhaseResults(
+                fixedExecutor,
+                circuitBreaker,
+                () -> false,
+                SearchProgressListener.NOOP,
+                request,
+                expectedNumResults,
+                exc -> {}
+            )
+        ) {
+            AtomicInteger max = new AtomicInteger();
+            CountDownLatch latch = new CountDownLatch(expectedNumResults);
+            for (int i = 0; i < expectedNumResults; i++) {
+                int number = randomIntBetween(1, 1000);
+                max.updateAndGet(prev -> Math.max(prev, number));
+                QuerySearchResult result = new QuerySearchResult(
+                    new ShardSearchContextId("", i),
+                    new SearchShardTarget("node", new ShardId("a", "b", i), null),
+                    null
+                );
+                try {
+                    result.topDocs(
+                        new TopDocsAndMaxScore(new TopDocs(new TotalHits(1, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]), number),
+                        new DocValueFormat[0]
+                    );
+                    InternalAggregations aggs = InternalAggregations.from(
+                        Collections.singletonList(new Max("test", (double) number, DocValueFormat.RAW, Collections.emptyMap()))
+                    );
+                    result.aggregations(aggs);
+                    result.setShardIndex(i);
+                    result.size(1);
+                    consumer.consumeResult(result, latch::countDown);
+                } finally {
+                    result.decRef();
+                }
+            }
+            latch.await();
+
+            SearchPhaseController.ReducedQueryPhase reduce = consumer.reduce();
+            assertThat(reduce.numReducePhases(), greaterThan(1));
+            Max internalMax = (Max) reduce.aggregations().asList().get(0);
+            assertEquals(max.get(), internalMax.value(), 0.0D);
+            assertEquals(expectedNumResults, reduce.totalHits().value);
+        }
+        assertEquals(0L, circuitBreaker.getUsed());
+    }
+
     public void testConsumerOnlyHits() throws Exception {
         int expectedNumResults = randomIntBetween(1, 100);
         int bufferSize = randomIntBetween(2, 200);
@@ -1452,6 +1508,37 @@ public class SearchPhaseControllerTests extends ESTestCase {
         }
     }
 
+    private static class LimitedCircuitBreaker extends NoopCircuitBreaker {
+        private final long limit;
+        private final AtomicLong used = new AtomicLong();
+
+        LimitedCircuitBreaker(String name, long limit) {
+            super(name);
+            this.limit = limit;
+        }
+
+        @Override
+        public void addEstimateBytesAndMaybeBreak(long bytes, String label) throws CircuitBreakingException {
+            // never breaks, so that the reduce only reacts to the remaining memory
+            used.addAndGet(bytes);
+        }
+
+        @Override
+        public void addWithoutBreaking(long bytes) {
+            used.addAndGet(bytes);
+        }
+
+        @Override
+        public long getUsed() {
+            return used.get();
+        }
+
+        @Override
+        public long getLimit() {
+            return limit;
+        }
+    }
+
     private static class AssertingCircuitBreaker extends NoopCircuitBreaker {
         private final AtomicBoolean shouldBreak = new AtomicBoolean(false);
 
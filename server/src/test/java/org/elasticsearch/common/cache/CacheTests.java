@@ -30,6 +30,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
@@ -37,6 +38,7 @@ import java.util.stream.Collectors;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class CacheTests extends ESTestCase {
     private int numberOfEntries;
@@ -389,6 +391,86 @@ public class CacheTests extends ESTestCase {
         }
     }
 
+    // same as testPromotion but with buffered reads, the buffered promotions must be applied before evicting on refresh
+    public void testPromotionWithBufferedReads() {
+        AtomicLong now = new AtomicLong();
+        Cache<Integer, String> cache = new Cache<Integer, String>() {
+            @Override
+            protected long now() {
+                return now.get();
+            }
+        };
+        cache.setExpireAfterAccessNanos(1);
+        cache.setBufferReads(true);
+        now.set(0);
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        now.set(1);
+        Set<Integer> promotedKeys = new HashSet<>();
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (rarely()) {
+                assertNotNull(cache.get(i));
+                promotedKeys.add(i);
+            }
+        }
+        now.set(2);
+        cache.refresh();
+        assertEquals(promotedKeys.size(), cache.count());
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (promotedKeys.contains(i)) {
+                assertNotNull(cache.get(i));
+            } else {
+                assertNull(cache.get(i));
+            }
+        }
+    }
+
+    // hit the same entries from many threads with buffered reads, then check that the LRU list is still consistent
+    public void testBufferedReadsTorture() {
+        int numberOfThreads = randomIntBetween(2, 32);
+        int maximumWeight = randomIntBetween(10, 1000);
+        final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder()
+            .setMaximumWeight(maximumWeight)
+            .setBufferReads(true)
+            .build();
+        int numberOfKeys = 2 * maximumWeight;
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                safeAwait(barrier);
+                Random random = new Random(random().nextLong());
+                for (int j = 0; j < numberOfEntries; j++) {
+                    Integer key = random.nextInt(numberOfKeys);
+                    if (random.nextInt(10) == 0) {
+                        cache.put(key, Integer.toString(j));
+                    } else {
+                        cache.get(key);
+                    }
+                }
+                safeAwait(barrier);
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        safeAwait(barrier);
+        // wait for all threads to finish
+        safeAwait(barrier);
+
+        cache.refresh();
+        assertThat(cache.count(), lessThanOrEqualTo(maximumWeight));
+        int keys = 0;
+        for (Integer ignored : cache.keys()) {
+            keys++;
+        }
+        assertEquals(cache.count(), keys);
+        cache.invalidateAll();
+        assertEquals(0, cache.count());
+        assertEquals(0, cache.weight());
+    }
+
     // randomly invalidate some cached entries, then check that a lookup for each of those and only those keys is null
     public void testInvalidate() {
         Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().build();
@@ -634,6 +716,70 @@ public class CacheTests extends ESTestCase {
         assertThat(failures, is(empty()));
     }
 
+    public void testComputeIfAbsentDoesNotCacheRejectedValues() throws ExecutionException {
+        final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().build();
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("0", cache.computeIfAbsent(0, key -> {
+            loads.incrementAndGet();
+            return Integer.toString(key);
+        }, (key, value) -> false));
+        assertEquals(1, loads.get());
+        assertEquals(0, cache.count());
+        assertNull(cache.get(0));
+        assertEquals("1", cache.computeIfAbsent(1, key -> Integer.toString(key), (key, value) -> true));
+        assertEquals(1, cache.count());
+        assertEquals("1", cache.get(1));
+    }
+
+    public void testComputeIfAbsentWithRejectedValueCallsOnce() throws Exception {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().build();
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger admissions = new AtomicInteger();
+        CopyOnWriteArrayList<String> values = new CopyOnWriteArrayList<>();
+        CopyOnWriteArrayList<Exception> failures = new CopyOnWriteArrayList<>();
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            threads.add(new Thread(() -> {
+                safeAwait(barrier);
+                try {
+                    values.add(cache.computeIfAbsent(0, key -> {
+                        loads.incrementAndGet();
+                        // only complete the load once every other caller waits for it
+                        assertBusy(() -> {
+                            for (Thread thread : threads) {
+                                if (thread != Thread.currentThread()) {
+                                    assertEquals(Thread.State.WAITING, thread.getState());
+                                }
+                            }
+                        });
+                        return Integer.toString(key);
+                    }, (key, value) -> {
+                        admissions.incrementAndGet();
+                        return false;
+                    }));
+                } catch (Exception e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        safeAwait(barrier);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(failures, is(empty()));
+        assertEquals(1, loads.get());
+        assertEquals(1, admissions.get());
+        assertEquals(numberOfThreads, values.size());
+        assertTrue(values.stream().allMatch("0"::equals));
+        assertEquals(0, cache.count());
+    }
+
     public void testComputeIfAbsentThrowsExceptionIfLoaderReturnsANullValue() {
         final Cache<Integer, String> cache = CacheBuilder.<Integer, String>builder().build();
         try {
@@ -0,0 +1,73 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        int keyHash = randomInt();
+        assertEquals(0, sketch.frequency(keyHash));
+        int increments = randomIntBetween(1, FrequencySketch.MAX_FREQUENCY);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(keyHash);
+        }
+        assertEquals(increments, sketch.frequency(keyHash));
+    }
+
+    public void testSaturation() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        int keyHash = randomInt();
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY * 2; i++) {
+            sketch.increment(keyHash);
+        }
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency(keyHash));
+    }
+
+    public void testNeverUnderestimates() {
+        FrequencySketch sketch = new FrequencySketch(randomIntBetween(16, 1024));
+        int numberOfKeys = randomIntBetween(1, 512);
+        int[] counts = new int[numberOfKeys];
+        // stay below the sample size so that no halving takes place
+        int additions = randomIntBetween(0, sketch.sampleSize() / FrequencySketch.MAX_FREQUENCY);
+        for (int i = 0; i < additions; i++) {
+            int key = randomIntBetween(0, numberOfKeys - 1);
+            sketch.increment(key);
+            counts[key]++;
+        }
+        for (int key = 0; key < numberOfKeys; key++) {
+            assertThat(sketch.frequency(key), greaterThanOrEqualTo(Math.min(counts[key], FrequencySketch.MAX_FREQUENCY)));
+        }
+    }
+
+    public void testAging() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        int hotKey = randomInt();
+        int warmKey = randomValueOtherThan(hotKey, ESTestCase::randomInt);
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY; i++) {
+            sketch.increment(hotKey);
+        }
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(warmKey);
+        }
+        sketch.reset();
+        assertEquals(7, sketch.frequency(hotKey));
+        assertEquals(2, sketch.frequency(warmKey));
+    }
+
+    public void testInvalidExpectedEntries() {
+        int expectedEntries = randomIntBetween(-10, 0);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new FrequencySketch(expectedEntries));
+        assertEquals("expectedEntries must be > 0 but was [" + expectedEntries + "]", e.getMessage());
+    }
+}
@@ -11,7 +11,28 @@ package org.elasticsearch.index.codec.vectors;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.KnnVectorsFormat;
 import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.perfield.PerFieldKnnVectorsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopKnnCollector;
+import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.BaseKnnVectorsFormatTestCase;
+import org.apache.lucene.tests.util.TestUtil;
+import org.apache.lucene.util.VectorUtil;
+import org.apache.lucene.util.hnsw.RandomVectorScorer;
+import org.elasticsearch.nativeaccess.NativeAccess;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ES813Int8FlatVectorFormatTests extends BaseKnnVectorsFormatTestCase {
     @Override
@@ -28,4 +49,54 @@ public class ES813Int8FlatVectorFormatTests extends BaseKnnVectorsFormatTestCase
         assumeTrue("requires graph based vector codec", false);
     }
 
+    public void testNativeScoresMatchLucene() throws IOException {
+        assumeTrue("requires the native vector similarity functions", NativeAccess.instance().getVectorSimilarityFunctions().isPresent());
+        VectorSimilarityFunction[] similarities = VectorSimilarityFunction.values();
+        VectorSimilarityFunction similarity = similarities[random().nextInt(similarities.length)];
+        int dims = TestUtil.nextInt(random(), 1, 100);
+        int numDocs = TestUtil.nextInt(random(), 1, 200);
+        try (Directory dir = newDirectory(); IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setCodec(getCodec()))) {
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                if (random().nextInt(10) > 0) {
+                    doc.add(new KnnFloatVectorField("f", randomUnitVector(dims), similarity));
+                }
+                w.addDocument(doc);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(w)) {
+                for (LeafReaderContext ctx : reader.leaves()) {
+                    CodecReader codecReader = (CodecReader) ctx.reader();
+                    var fieldsReader = (PerFieldKnnVectorsFormat.FieldsReader) codecReader.getVectorReader();
+                    var fieldReader = (ES813Int8FlatVectorFormat.ES813FlatVectorReader) fieldsReader.getFieldReader("f");
+                    if (fieldReader == null) {
+                        continue;
+                    }
+                    float[] target = randomUnitVector(dims);
+                    FieldInfo fieldInfo = codecReader.getFieldInfos().fieldInfo("f");
+                    TopKnnCollector collector = new TopKnnCollector(numDocs, Integer.MAX_VALUE);
+                    assertTrue(NativeInt7VectorScorer.search(fieldReader.reader, fieldInfo, target, collector, null));
+
+                    RandomVectorScorer luceneScorer = fieldReader.reader.getRandomVectorScorer("f", target);
+                    Map<Integer, Float> expected = new HashMap<>();
+                    for (int ord = 0; ord < luceneScorer.maxOrd(); ord++) {
+                        expected.put(luceneScorer.ordToDoc(ord), luceneScorer.score(ord));
+                    }
+                    TopDocs topDocs = collector.topDocs();
+                    assertEquals(expected.size(), topDocs.scoreDocs.length);
+                    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                        assertEquals(expected.get(scoreDoc.doc), scoreDoc.score, 1e-6f);
+                    }
+                }
+            }
+        }
+    }
+
+    private static float[] randomUnitVector(int dims) {
+        float[] vector = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            vector[i] = random().nextFloat() + 0.01f;
+        }
+        VectorUtil.l2normalize(vector);
+        return vector;
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.vectors;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.BaseKnnVectorsFormatTestCase;
+import org.apache.lucene.util.VectorUtil;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+public class ES814BinaryQuantizedFlatVectorFormatTests extends BaseKnnVectorsFormatTestCase {
+    @Override
+    protected Codec getCodec() {
+        return new Lucene99Codec() {
+            @Override
+            public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                return new ES814BinaryQuantizedFlatVectorFormat();
+            }
+        };
+    }
+
+    public void testSearchWithVisitedLimit() {
+        assumeTrue("requires graph based vector codec", false);
+    }
+
+    /**
+     * With many more vectors than candidates to rescore, results come from the quantized vectors but their scores from the raw ones.
+     */
+    public void testRecallAndRescoring() throws IOException {
+        int dims = random().nextInt(64, 129);
+        int numDocs = 1000;
+        int k = 10;
+        VectorSimilarityFunction similarity = random().nextBoolean()
+            ? VectorSimilarityFunction.DOT_PRODUCT
+            : VectorSimilarityFunction.EUCLIDEAN;
+        float[][] vectors = new float[numDocs][];
+        try (Directory dir = newDirectory()) {
+            // merging adjacent segments only keeps the doc ids in the order the vectors were added
+            IndexWriterConfig iwc = new IndexWriterConfig().setCodec(getCodec()).setMergePolicy(new LogDocMergePolicy());
+            try (IndexWriter w = new IndexWriter(dir, iwc)) {
+                for (int i = 0; i < numDocs; i++) {
+                    vectors[i] = randomNormalizedVector(dims);
+                    Document doc = new Document();
+                    doc.add(new KnnFloatVectorField("f", vectors[i], similarity));
+                    w.addDocument(doc);
+                }
+                w.forceMerge(1);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                IndexSearcher searcher = newSearcher(reader, false);
+                int queries = 10;
+                int found = 0;
+                for (int q = 0; q < queries; q++) {
+                    float[] query = randomNormalizedVector(dims);
+                    TopDocs topDocs = searcher.search(new KnnFloatVectorQuery("f", query, k), k);
+                    assertEquals(k, topDocs.scoreDocs.length);
+                    Set<Integer> expected = new HashSet<>();
+                    IntStream.range(0, numDocs)
+                        .boxed()
+                        .sorted(Comparator.comparingDouble(d -> -similarity.compare(query, vectors[d])))
+                        .limit(k)
+                        .forEach(expected::add);
+                    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                        assertEquals(similarity.compare(query, vectors[scoreDoc.doc]), scoreDoc.score, 1e-5f);
+                        if (expected.contains(scoreDoc.doc)) {
+                            found++;
+                        }
+                    }
+                }
+                float recall = (float) found / (queries * k);
+                // picking docs at random would find 1% of them
+                assertTrue("recall [" + recall + "] is too low", recall >= 0.3f);
+            }
+        }
+    }
+
+    public void testQuantizedEstimate() {
+        int dims = random().nextInt(32, 257);
+        float[] centroid = new float[dims];
+        float[] vector = randomNormalizedVector(dims);
+        float[] query = randomNormalizedVector(dims);
+        long[] code = new long[BinaryQuantizer.codeLongs(dims)];
+        float[] corrections = new float[2];
+        BinaryQuantizer.quantize(vector, centroid, code, corrections);
+        assertEquals(1f, corrections[0], 1e-5f);
+        assertTrue(corrections[1] > 0 && corrections[1] <= 1);
+
+        if (dims % Long.SIZE != 0) {
+            // bits past the last dimension are never set
+            assertEquals(Arrays.toString(code), 0, code[code.length - 1] >>> (dims % Long.SIZE));
+        }
+
+        // the estimated similarity of a vector to itself is close to exact, up to the quantization of the query
+        BinaryQuantizer.Query self = new BinaryQuantizer.Query(VectorSimilarityFunction.DOT_PRODUCT, vector, centroid);
+        assertEquals(1f, self.score(code, corrections[0], corrections[1]), 0.05f);
+        float score = new BinaryQuantizer.Query(VectorSimilarityFunction.DOT_PRODUCT, query, centroid).score(
+            code,
+            corrections[0],
+            corrections[1]
+        );
+        assertTrue(score >= 0);
+    }
+
+    private static float[] randomNormalizedVector(int dims) {
+        float[] vector = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            vector[i] = (float) random().nextGaussian();
+        }
+        return VectorUtil.l2normalize(vector);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec.vectors;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogDocMergePolicy;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.BaseKnnVectorsFormatTestCase;
+import org.apache.lucene.util.VectorUtil;
+import org.elasticsearch.search.vectors.ESKnnFloatVectorQuery;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+public class ES814IvfVectorFormatTests extends BaseKnnVectorsFormatTestCase {
+    @Override
+    protected Codec getCodec() {
+        return codec(new ES814IvfVectorFormat());
+    }
+
+    private static Codec codec(KnnVectorsFormat format) {
+        return new Lucene99Codec() {
+            @Override
+            public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                return format;
+            }
+        };
+    }
+
+    public void testSearchWithVisitedLimit() {
+        assumeTrue("requires graph based vector codec", false);
+    }
+
+    /**
+     * Scanning every partition finds about as many of the true nearest neighbors as scanning all the quantized vectors, and scanning a
+     * single partition still returns a full page of rescored hits.
+     */
+    public void testRecallAndNprobe() throws IOException {
+        int dims = random().nextInt(16, 65);
+        int numDocs = 2000;
+        int vectorsPerCluster = 50;
+        int numCentroids = numDocs / vectorsPerCluster;
+        int k = 10;
+        VectorSimilarityFunction similarity = random().nextBoolean()
+            ? VectorSimilarityFunction.DOT_PRODUCT
+            : VectorSimilarityFunction.EUCLIDEAN;
+        float[][] vectors = new float[numDocs][];
+        try (Directory dir = newDirectory()) {
+            // merging adjacent segments only keeps the doc ids in the order the vectors were added
+            IndexWriterConfig iwc = new IndexWriterConfig().setCodec(codec(new ES814IvfVectorFormat(vectorsPerCluster)))
+                .setMergePolicy(new LogDocMergePolicy());
+            try (IndexWriter w = new IndexWriter(dir, iwc)) {
+                for (int i = 0; i < numDocs; i++) {
+                    vectors[i] = randomNormalizedVector(dims);
+                    Document doc = new Document();
+                    doc.add(new KnnFloatVectorField("f", vectors[i], similarity));
+                    w.addDocument(doc);
+                }
+                w.forceMerge(1);
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                IndexSearcher searcher = newSearcher(reader, false);
+                int queries = 10;
+                int found = 0;
+                for (int q = 0; q < queries; q++) {
+                    float[] query = randomNormalizedVector(dims);
+                    TopDocs topDocs = searcher.search(new ESKnnFloatVectorQuery("f", query, k, null, numCentroids), k);
+                    assertEquals(k, topDocs.scoreDocs.length);
+                    Set<Integer> expected = new HashSet<>();
+                    IntStream.range(0, numDocs)
+                        .boxed()
+                        .sorted(Comparator.comparingDouble(d -> -similarity.compare(query, vectors[d])))
+                        .limit(k)
+                        .forEach(expected::add);
+                    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                        assertEquals(similarity.compare(query, vectors[scoreDoc.doc]), scoreDoc.score, 1e-5f);
+                        if (expected.contains(scoreDoc.doc)) {
+                            found++;
+                        }
+                    }
+
+                    // a partition holds more vectors than there are hits, on average
+                    TopDocs singlePartition = searcher.search(new ESKnnFloatVectorQuery("f", query, k, null, 1), k);
+                    for (ScoreDoc scoreDoc : singlePartition.scoreDocs) {
+                        assertEquals(similarity.compare(query, vectors[scoreDoc.doc]), scoreDoc.score, 1e-5f);
+                    }
+                }
+                float recall = (float) found / (queries * k);
+                // picking docs at random would find 0.5% of them
+                assertTrue("recall [" + recall + "] is too low", recall >= 0.3f);
+            }
+        }
+    }
+
+    public void testKMeans() {
+        int dims = random().nextInt(2, 33);
+        float[][] sample = new float[random().nextInt(1, 100)][];
+        float[] mean = new float[dims];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = randomNormalizedVector(dims);
+            for (int d = 0; d < dims; d++) {
+                mean[d] += sample[i][d] / sample.length;
+            }
+        }
+        // a single cluster is centered on the mean
+        float[][] centroids = ES814IvfVectorFormat.kMeans(sample, 1, random());
+        assertEquals(1, centroids.length);
+        for (int d = 0; d < dims; d++) {
+            assertEquals(mean[d], centroids[0][d], 1e-4f);
+        }
+
+        // there are never more clusters than vectors, which then each get their own cluster
+        centroids = ES814IvfVectorFormat.kMeans(sample, sample.length + random().nextInt(1, 10), random());
+        assertEquals(sample.length, centroids.length);
+        for (float[] vector : sample) {
+            int nearest = ES814IvfVectorFormat.nearestCentroid(centroids, vector);
+            assertEquals(0f, VectorUtil.squareDistance(vector, centroids[nearest]), 1e-6f);
+        }
+    }
+
+    private static float[] randomNormalizedVector(int dims) {
+        float[] vector = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            vector[i] = (float) random().nextGaussian();
+        }
+        return VectorUtil.l2normalize(vector);
+    }
+}
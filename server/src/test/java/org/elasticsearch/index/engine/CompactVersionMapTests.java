@@ -0,0 +1,167 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.elasticsearch.index.engine.LiveVersionMapTestUtils.randomIndexVersionValue;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class CompactVersionMapTests extends ESTestCase {
+
+    private static BigArrays newBigArrays() {
+        return new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), ByteSizeValue.ofMb(100));
+    }
+
+    private static BytesRef uid(int i) {
+        return new BytesRef("uid-" + i);
+    }
+
+    private static VersionValue randomVersionValue() {
+        if (randomBoolean()) {
+            return new DeleteVersionValue(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomLong());
+        }
+        return randomIndexVersionValue();
+    }
+
+    public void testRandomOperations() {
+        try (CompactVersionMap map = new CompactVersionMap(newBigArrays())) {
+            Map<BytesRef, VersionValue> expected = new HashMap<>();
+            final int numUids = between(1, 500);
+            for (int i = 0; i < 5000; i++) {
+                final BytesRef uid = uid(randomInt(numUids));
+                switch (between(0, 2)) {
+                    case 0 -> {
+                        VersionValue value = randomVersionValue();
+                        assertThat(map.put(uid, value), equalTo(expected.put(uid, value)));
+                    }
+                    case 1 -> assertThat(map.remove(uid), equalTo(expected.remove(uid)));
+                    default -> assertThat(map.get(uid), equalTo(expected.get(uid)));
+                }
+                assertThat(map.size(), equalTo(expected.size()));
+            }
+            assertThat(map.isEmpty(), equalTo(expected.isEmpty()));
+            assertThat(Map.copyOf(map), equalTo(expected));
+        }
+    }
+
+    public void testCircuitBreakerAccounting() {
+        BigArrays bigArrays = newBigArrays();
+        CircuitBreaker breaker = bigArrays.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        CompactVersionMap map = new CompactVersionMap(bigArrays);
+        assertThat(breaker.getUsed(), equalTo(0L));
+        for (int i = 0; i < 10000; i++) {
+            map.put(uid(i), randomIndexVersionValue());
+        }
+        assertThat(breaker.getUsed(), greaterThan(0L));
+        map.close();
+        assertThat(breaker.getUsed(), equalTo(0L));
+    }
+
+    public void testRamBytesUsedTracksAllocatedArrays() {
+        BigArrays bigArrays = newBigArrays();
+        CircuitBreaker breaker = bigArrays.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        CompactVersionMap map = new CompactVersionMap(bigArrays);
+        assertThat(map.ramBytesUsed(), equalTo(0L));
+        final int numUids = between(1, 10000);
+        for (int i = 0; i < numUids; i++) {
+            map.put(uid(i), randomIndexVersionValue());
+        }
+        long ramBytesUsed = map.ramBytesUsed();
+        long breakerUsed = breaker.getUsed();
+        assertThat(ramBytesUsed, greaterThan(0L));
+        // removing entries doesn't free anything, so neither the accounting nor the breaker go down
+        for (int i = 0; i < numUids; i++) {
+            map.remove(uid(i));
+        }
+        assertTrue(map.isEmpty());
+        assertThat(map.ramBytesUsed(), equalTo(ramBytesUsed));
+        assertThat(breaker.getUsed(), equalTo(breakerUsed));
+        map.close();
+        assertThat(map.ramBytesUsed(), equalTo(0L));
+        assertThat(breaker.getUsed(), equalTo(0L));
+    }
+
+    public void testClosedMapIgnoresWrites() {
+        CompactVersionMap map = new CompactVersionMap(newBigArrays());
+        map.put(uid(0), randomIndexVersionValue());
+        map.close();
+        assertNull(map.get(uid(0)));
+        assertNull(map.put(uid(1), randomIndexVersionValue()));
+        assertNull(map.get(uid(1)));
+        assertTrue(map.isEmpty());
+    }
+
+    public void testLiveVersionMapReleasesMapsOnRefresh() throws Exception {
+        BigArrays bigArrays = newBigArrays();
+        CircuitBreaker breaker = bigArrays.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        LiveVersionMap map = new LiveVersionMap(bigArrays);
+        map.enforceSafeAccess();
+        for (int i = 0; i < 1000; i++) {
+            BytesRef uid = uid(i);
+            try (Releasable r = map.acquireLock(uid)) {
+                IndexVersionValue value = randomIndexVersionValue();
+                map.putIndexUnderLock(uid, value);
+                assertThat(map.getUnderLock(uid), equalTo(value));
+            }
+        }
+        assertThat(map.ramBytesUsed(), greaterThan(0L));
+        long usedBeforeRefresh = breaker.getUsed();
+        assertThat(usedBeforeRefresh, greaterThan(0L));
+
+        map.beforeRefresh();
+        try (Releasable r = map.acquireLock(uid(0))) {
+            // still visible while the refresh is running
+            assertNotNull(map.getUnderLock(uid(0)));
+        }
+        map.afterRefresh(true);
+        assertThat(breaker.getUsed(), equalTo(0L));
+        try (Releasable r = map.acquireLock(uid(0))) {
+            assertNull(map.getUnderLock(uid(0)));
+            map.putIndexUnderLock(uid(0), randomIndexVersionValue());
+        }
+        assertThat(breaker.getUsed(), greaterThan(0L));
+        map.clear();
+        assertThat(breaker.getUsed(), equalTo(0L));
+    }
+
+    public void testLiveVersionMapReleasesMapsOfRefreshAfterClear() throws Exception {
+        BigArrays bigArrays = newBigArrays();
+        CircuitBreaker breaker = bigArrays.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        LiveVersionMap map = new LiveVersionMap(bigArrays);
+        map.enforceSafeAccess();
+        try (Releasable r = map.acquireLock(uid(0))) {
+            map.putIndexUnderLock(uid(0), randomIndexVersionValue());
+        }
+        map.beforeRefresh();
+        map.clear();
+        assertThat(breaker.getUsed(), equalTo(0L));
+        // a refresh that races with closing the index must not leave allocated maps behind
+        map.afterRefresh(true);
+        map.beforeRefresh();
+        try (Releasable r = map.acquireLock(uid(1))) {
+            map.putIndexUnderLock(uid(1), randomIndexVersionValue());
+        }
+        map.afterRefresh(true);
+        assertThat(map.ramBytesUsed(), equalTo(0L));
+        assertThat(breaker.getUsed(), equalTo(0L));
+    }
+}
@@ -12,6 +12,7 @@ import com.carrotsearch.randomizedtesting.generators.RandomPicks;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
 import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.document.KnnByteVectorField;
 import org.apache.lucene.document.KnnFloatVectorField;
@@ -29,6 +30,9 @@ import org.elasticsearch.index.IndexVersion;
 import org.elasticsearch.index.IndexVersions;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.codec.PerFieldMapperCodec;
+import org.elasticsearch.index.codec.vectors.ES813Int8FlatVectorFormat;
+import org.elasticsearch.index.codec.vectors.ES814BinaryQuantizedFlatVectorFormat;
+import org.elasticsearch.index.codec.vectors.ES814IvfVectorFormat;
 import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.DocumentParsingException;
 import org.elasticsearch.index.mapper.LuceneDocument;
@@ -566,6 +570,26 @@ public class DenseVectorFieldMapperTests extends MapperTestCase {
             e.getMessage(),
             containsString("Failed to parse mapping: [element_type] cannot be [byte] when using index type [int8_hnsw]")
         );
+        String quantizedType = randomFrom("int4_hnsw", "int4_flat", "binary_flat", "ivf");
+        e = expectThrows(
+            MapperParsingException.class,
+            () -> createDocumentMapper(
+                fieldMapping(
+                    b -> b.field("type", "dense_vector")
+                        .field("dims", 3)
+                        .field("element_type", "byte")
+                        .field("similarity", "l2_norm")
+                        .field("index", true)
+                        .startObject("index_options")
+                        .field("type", quantizedType)
+                        .endObject()
+                )
+            )
+        );
+        assertThat(
+            e.getMessage(),
+            containsString("Failed to parse mapping: [element_type] cannot be [byte] when using index type [" + quantizedType + "]")
+        );
     }
 
     public void testInvalidParametersBeforeIndexedByDefault() {
@@ -1160,6 +1184,122 @@ public class DenseVectorFieldMapperTests extends MapperTestCase {
         assertEquals(expectedString, knnVectorsFormat.toString());
     }
 
+    public void testKnnInt4HNSWVectorsFormat() throws IOException {
+        final int m = randomIntBetween(1, DEFAULT_MAX_CONN + 10);
+        final int efConstruction = randomIntBetween(1, DEFAULT_BEAM_WIDTH + 10);
+        MapperService mapperService = createMapperService(fieldMapping(b -> {
+            b.field("type", "dense_vector");
+            b.field("dims", 4);
+            b.field("index", true);
+            b.field("similarity", "dot_product");
+            b.startObject("index_options");
+            b.field("type", "int4_hnsw");
+            b.field("m", m);
+            b.field("ef_construction", efConstruction);
+            b.endObject();
+        }));
+        CodecService codecService = new CodecService(mapperService, BigArrays.NON_RECYCLING_INSTANCE);
+        Codec codec = codecService.codec("default");
+        assertThat(codec, instanceOf(PerFieldMapperCodec.class));
+        KnnVectorsFormat knnVectorsFormat = ((PerFieldMapperCodec) codec).getKnnVectorsFormatForField("field");
+        assertThat(knnVectorsFormat, instanceOf(Lucene99HnswScalarQuantizedVectorsFormat.class));
+        assertThat(knnVectorsFormat.toString(), containsString("maxConn=" + m + ", beamWidth=" + efConstruction));
+    }
+
+    public void testInt4OddDims() throws IOException {
+        String type = randomFrom("int4_hnsw", "int4_flat");
+        MapperParsingException e = expectThrows(
+            MapperParsingException.class,
+            () -> createDocumentMapper(
+                fieldMapping(
+                    b -> b.field("type", "dense_vector")
+                        .field("dims", 3)
+                        .field("index", true)
+                        .field("similarity", "l2_norm")
+                        .startObject("index_options")
+                        .field("type", type)
+                        .endObject()
+                )
+            )
+        );
+        assertThat(
+            e.getMessage(),
+            containsString("Failed to parse mapping: [dims] must be even when using index type [" + type + "] but was [3]")
+        );
+
+        // dims that are only set by the first document are checked too
+        DocumentMapper mapper = createDocumentMapper(
+            fieldMapping(
+                b -> b.field("type", "dense_vector")
+                    .field("index", true)
+                    .field("similarity", "l2_norm")
+                    .startObject("index_options")
+                    .field("type", type)
+                    .endObject()
+            )
+        );
+        DocumentParsingException dpe = expectThrows(
+            DocumentParsingException.class,
+            () -> mapper.parse(source(b -> b.array("field", new float[] { 1, 2, 3 })))
+        );
+        assertNotNull(dpe.getCause());
+        assertThat(dpe.getCause().getMessage(), containsString("[dims] must be even when using index type [" + type + "] but was [3]"));
+        assertNotNull(mapper.parse(source(b -> b.array("field", new float[] { 1, 2, 3, 4 }))).dynamicMappingsUpdate());
+    }
+
+    public void testKnnQuantizedFlatVectorsFormat() throws IOException {
+        String type = randomFrom("int8_flat", "int4_flat", "binary_flat");
+        MapperService mapperService = createMapperService(fieldMapping(b -> {
+            b.field("type", "dense_vector");
+            b.field("dims", 4);
+            b.field("index", true);
+            b.field("similarity", "dot_product");
+            b.startObject("index_options");
+            b.field("type", type);
+            b.endObject();
+        }));
+        CodecService codecService = new CodecService(mapperService, BigArrays.NON_RECYCLING_INSTANCE);
+        Codec codec = codecService.codec("default");
+        assertThat(codec, instanceOf(PerFieldMapperCodec.class));
+        KnnVectorsFormat knnVectorsFormat = ((PerFieldMapperCodec) codec).getKnnVectorsFormatForField("field");
+        assertThat(
+            knnVectorsFormat,
+            instanceOf(type.equals("binary_flat") ? ES814BinaryQuantizedFlatVectorFormat.class : ES813Int8FlatVectorFormat.class)
+        );
+    }
+
+    public void testKnnIvfVectorsFormat() throws IOException {
+        int vectorsPerCluster = randomIntBetween(2, 5000);
+        MapperService mapperService = createMapperService(fieldMapping(b -> {
+            b.field("type", "dense_vector");
+            b.field("dims", 4);
+            b.field("index", true);
+            b.field("similarity", "l2_norm");
+            b.startObject("index_options");
+            b.field("type", "ivf");
+            b.field("vectors_per_cluster", vectorsPerCluster);
+            b.endObject();
+        }));
+        CodecService codecService = new CodecService(mapperService, BigArrays.NON_RECYCLING_INSTANCE);
+        Codec codec = codecService.codec("default");
+        assertThat(codec, instanceOf(PerFieldMapperCodec.class));
+        KnnVectorsFormat knnVectorsFormat = ((PerFieldMapperCodec) codec).getKnnVectorsFormatForField("field");
+        assertThat(knnVectorsFormat, instanceOf(ES814IvfVectorFormat.class));
+        assertThat(knnVectorsFormat.toString(), containsString("vectorsPerCluster=" + vectorsPerCluster));
+
+        MapperParsingException e = expectThrows(MapperParsingException.class, () -> createDocumentMapper(fieldMapping(b -> {
+            b.field("type", "dense_vector");
+            b.field("dims", 4);
+            b.field("index", true);
+            b.field("similarity", "l2_norm");
+            b.startObject("index_options");
+            b.field("type", "ivf");
+            b.field("vectors_per_cluster", 1);
+            b.endObject();
+        })));
+        assertThat(e.getMessage(), containsString("[vectors_per_cluster] must be at least 2 but was [1]"));
+    }
+
     @Override
     protected IngestScriptSupport ingestScriptSupport() {
         throw new AssumptionViolatedException("not supported");
@@ -0,0 +1,338 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.mapper.vectors;
+
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.search.FieldExistsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.DocumentParsingException;
+import org.elasticsearch.index.mapper.LuceneDocument;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.MapperParsingException;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.MapperTestCase;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.index.mapper.vectors.DenseVectorFieldMapper.ElementType;
+import org.elasticsearch.index.mapper.vectors.RankVectorsFieldMapper.Quantization;
+import org.elasticsearch.index.mapper.vectors.RankVectorsFieldMapper.RankVectorsFieldType;
+import org.elasticsearch.script.field.vectors.RankVectors;
+import org.elasticsearch.script.field.vectors.RankVectorsDocValuesField;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.junit.AssumptionViolatedException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class RankVectorsFieldMapperTests extends MapperTestCase {
+
+    private final ElementType elementType;
+
+    public RankVectorsFieldMapperTests() {
+        this.elementType = randomFrom(ElementType.BYTE, ElementType.FLOAT);
+    }
+
+    @Override
+    protected void minimalMapping(XContentBuilder b) throws IOException {
+        b.field("type", "rank_vectors");
+        if (elementType != ElementType.FLOAT) {
+            b.field("element_type", elementType.toString());
+        }
+        b.field("dims", 4);
+    }
+
+    @Override
+    protected Object getSampleValueForDocument() {
+        return elementType == ElementType.BYTE
+            ? List.of(List.of(1, 1, 1, 1), List.of(-1, 2, -3, 4))
+            : List.of(List.of(0.5, 0.5, 0.5, 0.5), List.of(-0.5, 0.25, 0.75, 0.1));
+    }
+
+    @Override
+    protected void registerParameters(ParameterChecker checker) throws IOException {
+        checker.registerConflictCheck(
+            "dims",
+            fieldMapping(b -> b.field("type", "rank_vectors").field("dims", 4)),
+            fieldMapping(b -> b.field("type", "rank_vectors").field("dims", 5))
+        );
+        checker.registerConflictCheck(
+            "element_type",
+            fieldMapping(b -> b.field("type", "rank_vectors").field("dims", 4).field("element_type", "float")),
+            fieldMapping(b -> b.field("type", "rank_vectors").field("dims", 4).field("element_type", "byte"))
+        );
+        checker.registerConflictCheck(
+            "index_options",
+            fieldMapping(b -> b.field("type", "rank_vectors").field("dims", 4)),
+            fieldMapping(
+                b -> b.field("type", "rank_vectors")
+                    .field("dims", 4)
+                    .startObject("index_options")
+                    .field("type", "int8_per_vector")
+                    .endObject()
+            )
+        );
+    }
+
+    @Override
+    protected boolean supportsStoredFields() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportsIgnoreMalformed() {
+        return false;
+    }
+
+    @Override
+    protected boolean supportsEmptyInputArray() {
+        return false;
+    }
+
+    @Override
+    protected void assertSearchable(MappedFieldType fieldType) {
+        assertThat(fieldType, instanceOf(RankVectorsFieldType.class));
+        assertFalse(fieldType.isIndexed());
+        assertFalse(fieldType.isSearchable());
+    }
+
+    @Override
+    protected void assertExistsQuery(MappedFieldType fieldType, Query query, LuceneDocument fields) {
+        assertThat(query, instanceOf(FieldExistsQuery.class));
+        assertEquals("field", ((FieldExistsQuery) query).getField());
+        assertNoFieldNamesField(fields);
+    }
+
+    // Like dense vectors, rank vectors provide fielddata for scripts without being aggregatable
+    @Override
+    public void testAggregatableConsistency() {}
+
+    @Override
+    protected void assertFetchMany(MapperService mapperService, String field, Object value, String format, int count) {
+        throw new AssumptionViolatedException("rank_vectors fields don't support docvalue_fields");
+    }
+
+    @Override
+    protected void assertFetch(MapperService mapperService, String field, Object value, String format) {
+        throw new AssumptionViolatedException("rank_vectors fields don't support docvalue_fields");
+    }
+
+    @Override
+    protected Object generateRandomInputValue(MappedFieldType ft) {
+        return randomVectors(((RankVectorsFieldType) ft).getVectorDimensions(), between(1, 5));
+    }
+
+    @Override
+    protected IngestScriptSupport ingestScriptSupport() {
+        throw new AssumptionViolatedException("not supported");
+    }
+
+    @Override
+    protected SyntheticSourceSupport syntheticSourceSupport(boolean ignoreMalformed) {
+        throw new AssumptionViolatedException("not supported");
+    }
+
+    public void testDimsRequired() {
+        Exception e = expectThrows(
+            MapperParsingException.class,
+            () -> createDocumentMapper(fieldMapping(b -> b.field("type", "rank_vectors")))
+        );
+        assertThat(e.getMessage(), containsString("Field [dims] is required for fields of type [rank_vectors]"));
+    }
+
+    public void testQuantizationRequiresFloats() {
+        Exception e = expectThrows(
+            MapperParsingException.class,
+            () -> createDocumentMapper(
+                fieldMapping(
+                    b -> b.field("type", "rank_vectors")
+                        .field("dims", 4)
+                        .field("element_type", "byte")
+                        .startObject("index_options")
+                        .field("type", randomFrom("int8_per_vector", "int4_per_vector", "binary_per_vector"))
+                        .endObject()
+                )
+            )
+        );
+        assertThat(e.getMessage(), containsString("[element_type] cannot be [byte] when using index type"));
+    }
+
+    public void testUnknownIndexOptionsType() {
+        Exception e = expectThrows(
+            MapperParsingException.class,
+            () -> createDocumentMapper(
+                fieldMapping(
+                    b -> b.field("type", "rank_vectors").field("dims", 4).startObject("index_options").field("type", "hnsw").endObject()
+                )
+            )
+        );
+        assertThat(e.getMessage(), containsString("Unknown vector index options type [hnsw] for [rank_vectors]"));
+    }
+
+    public void testDefaults() throws Exception {
+        DocumentMapper mapper = createDocumentMapper(fieldMapping(this::minimalMapping));
+        assertEquals(Strings.toString(fieldMapping(this::minimalMapping)), mapper.mappingSource().toString());
+
+        ParsedDocument doc = mapper.parse(source(this::writeField));
+        List<IndexableField> fields = doc.rootDoc().getFields("field");
+        assertEquals(1, fields.size());
+        assertThat(fields.get(0), instanceOf(BinaryDocValuesField.class));
+        int bytesPerVector = elementType == ElementType.BYTE ? 4 : 4 * Float.BYTES;
+        assertEquals(2 * bytesPerVector, fields.get(0).binaryValue().length);
+    }
+
+    public void testDimensionMismatch() throws Exception {
+        DocumentMapper mapper = createDocumentMapper(fieldMapping(this::minimalMapping));
+        Exception e = expectThrows(
+            DocumentParsingException.class,
+            () -> mapper.parse(source(b -> b.field("field", List.of(List.of(1, 1, 1, 1), List.of(1, 1, 1)))))
+        );
+        assertThat(e.getCause().getMessage(), containsString("has a vector with a different number of dimensions [3]"));
+
+        e = expectThrows(
+            DocumentParsingException.class,
+            () -> mapper.parse(source(b -> b.field("field", List.of(List.of(1, 1, 1, 1, 1)))))
+        );
+        assertThat(e.getCause().getMessage(), containsString("has a vector with more dimensions than defined in the mapping [4]"));
+    }
+
+    public void testRejectsSingleVector() throws Exception {
+        DocumentMapper mapper = createDocumentMapper(fieldMapping(this::minimalMapping));
+        Exception e = expectThrows(DocumentParsingException.class, () -> mapper.parse(source(b -> b.field("field", List.of(1, 1, 1, 1)))));
+        assertThat(e.getCause().getMessage(), containsString("must be an array of vectors"));
+    }
+
+    public void testByteBounds() throws Exception {
+        DocumentMapper mapper = createDocumentMapper(
+            fieldMapping(b -> b.field("type", "rank_vectors").field("dims", 2).field("element_type", "byte"))
+        );
+        Exception e = expectThrows(
+            DocumentParsingException.class,
+            () -> mapper.parse(source(b -> b.field("field", List.of(List.of(1, 200)))))
+        );
+        assertThat(e.getCause().getMessage(), containsString("vectors only support integers between [-128, 127]"));
+    }
+
+    public void testRoundTrip() throws Exception {
+        int dims = between(1, 64);
+        List<List<Float>> vectors = randomVectors(dims, between(1, 20));
+        for (Quantization quantization : Quantization.values()) {
+            DocumentMapper mapper = createDocumentMapper(
+                fieldMapping(
+                    b -> b.field("type", "rank_vectors")
+                        .field("dims", dims)
+                        .startObject("index_options")
+                        .field("type", quantization.toString())
+                        .endObject()
+                )
+            );
+            ParsedDocument doc = mapper.parse(source(b -> b.field("field", vectors)));
+            BytesRef value = doc.rootDoc().getField("field").binaryValue();
+            assertEquals(vectors.size() * quantization.bytesPerVector(ElementType.FLOAT, dims), value.length);
+
+            RankVectorsDocValuesField field = new RankVectorsDocValuesField(wrap(value), "field", ElementType.FLOAT, dims, quantization);
+            field.setNextDocId(0);
+            RankVectors decoded = field.get();
+            assertEquals(vectors.size(), decoded.size());
+            assertEquals(dims, decoded.getDims());
+            for (int i = 0; i < vectors.size(); i++) {
+                float[] vector = decoded.getVector(i);
+                for (int d = 0; d < dims; d++) {
+                    float expected = vectors.get(i).get(d);
+                    switch (quantization) {
+                        case NONE -> assertEquals(expected, vector[d], 0f);
+                        // the error of scalar quantization is at most half a step, a step being 1/255 or 1/15 of the range of [-1, 1]
+                        case INT8 -> assertEquals(expected, vector[d], 1f / 255 + 1e-5f);
+                        case INT4 -> assertEquals(expected, vector[d], 1f / 15 + 1e-5f);
+                        // binary quantization only keeps the sign
+                        case BINARY -> assertEquals(expected > 0, vector[d] > 0);
+                    }
+                }
+            }
+        }
+    }
+
+    public void testMaxSim() throws Exception {
+        DocumentMapper mapper = createDocumentMapper(fieldMapping(b -> b.field("type", "rank_vectors").field("dims", 2)));
+        ParsedDocument doc = mapper.parse(source(b -> b.field("field", List.of(List.of(1, 0), List.of(0, 1), List.of(0.5, 0.5)))));
+        RankVectorsDocValuesField field = new RankVectorsDocValuesField(
+            wrap(doc.rootDoc().getField("field").binaryValue()),
+            "field",
+            ElementType.FLOAT,
+            2,
+            Quantization.NONE
+        );
+        field.setNextDocId(0);
+        // the best matches of the query vectors are [1, 0] with 2, [0, 1] with 3 and [0.5, 0.5] with 0.6
+        assertEquals(5.6, field.get().maxSimDotProduct(List.of(List.of(2, 0), List.of(-1, 3), List.of(0.6, 0.6))), 1e-6);
+
+        field.setNextDocId(1);
+        assertTrue(field.get().isEmpty());
+        expectThrows(IllegalArgumentException.class, () -> field.get().maxSimDotProduct(List.of(List.of(1, 0))));
+    }
+
+    private static List<List<Float>> randomVectors(int dims, int count) {
+        List<List<Float>> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Float> vector = new ArrayList<>(dims);
+            for (int d = 0; d < dims; d++) {
+                vector.add(randomFloat() * 2 - 1);
+            }
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+
+    /**
+     * Doc values with the given values for the first documents.
+     */
+    public static BinaryDocValues wrap(BytesRef... values) {
+        return new BinaryDocValues() {
+            int idx = -1;
+
+            @Override
+            public BytesRef binaryValue() {
+                return values[idx];
+            }
+
+            @Override
+            public boolean advanceExact(int target) {
+                idx = target;
+                return target < values.length;
+            }
+
+            @Override
+            public int docID() {
+                return idx;
+            }
+
+            @Override
+            public int nextDoc() {
+                return idx++;
+            }
+
+            @Override
+            public int advance(int target) {
+                throw new IllegalArgumentException("not defined!");
+            }
+
+            @Override
+            public long cost() {
+                throw new IllegalArgumentException("not defined!");
+            }
+        };
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TranslogSyncCoordinatorTests extends ESTestCase {
+
+    private final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+    private final Queue<Runnable> tasks = new LinkedList<>();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(threadContext, tasks::add, nanoTime::get);
+
+    private static Translog.Location location(long offset) {
+        return new Translog.Location(1, offset, 10);
+    }
+
+    public void testCallerSyncsIfNoRoundIsRunning() {
+        final RecordingSyncer syncer = new RecordingSyncer();
+        final TranslogSyncCoordinator.ShardSyncQueue shard = coordinator.newShardQueue(syncer);
+        final List<Exception> results = new ArrayList<>();
+
+        shard.sync(location(10), results::add);
+        // the calling thread runs the fsync right away
+        assertThat(syncer.locations, contains(location(10)));
+        assertThat(tasks, hasSize(0));
+        syncer.complete(null);
+        assertThat(results, hasSize(1));
+        assertThat(results.get(0), nullValue());
+        assertThat(tasks, hasSize(0));
+        assertThat(coordinator.getCompletedRounds(), equalTo(1L));
+
+        shard.sync(location(20), results::add);
+        assertThat(syncer.locations, contains(location(10), location(20)));
+        assertThat(tasks, hasSize(0));
+    }
+
+    public void testRoundSyncsPendingRequestsOfAllShards() {
+        final RecordingSyncer syncer1 = new RecordingSyncer();
+        final RecordingSyncer syncer2 = new RecordingSyncer();
+        final TranslogSyncCoordinator.ShardSyncQueue shard1 = coordinator.newShardQueue(syncer1);
+        final TranslogSyncCoordinator.ShardSyncQueue shard2 = coordinator.newShardQueue(syncer2);
+        final List<Exception> results = new ArrayList<>();
+
+        shard1.sync(location(10), results::add);
+        assertThat(syncer1.locations, contains(location(10)));
+
+        // requests that arrive while a round is running wait for the next round
+        shard1.sync(location(30), results::add);
+        shard1.sync(location(20), results::add);
+        shard2.sync(location(5), results::add);
+        assertThat(tasks, hasSize(0));
+        assertThat(syncer1.locations, hasSize(1));
+        assertThat(syncer2.locations, hasSize(0));
+
+        nanoTime.addAndGet(TimeValue.timeValueMillis(3).nanos());
+        syncer1.complete(null);
+        assertThat(results, hasSize(1));
+        assertThat(coordinator.getCompletedRounds(), equalTo(1L));
+
+        // the next round fsyncs each shard once, in parallel
+        assertThat(tasks, hasSize(1));
+        tasks.poll().run();
+        assertThat(syncer1.locations, contains(location(10), location(30)));
+        assertThat(tasks, hasSize(1));
+        tasks.poll().run();
+        assertThat(syncer2.locations, contains(location(5)));
+
+        syncer2.complete(null);
+        assertThat(results, hasSize(2));
+        syncer1.complete(null);
+        assertThat(results, hasSize(4));
+        results.forEach(e -> assertThat(e, nullValue()));
+        assertThat(tasks, hasSize(0));
+        assertThat(coordinator.getCompletedRounds(), equalTo(2L));
+
+        // a batch of two requests that waited 3ms
+        assertThat(shard1.getBatchSizeHistogram()[1], equalTo(1L));
+        assertThat(shard1.getBatchSizeHistogram()[2], equalTo(1L));
+        assertThat(shard1.getLatencyHistogram()[2], equalTo(1L));
+        assertThat(shard2.getBatchSizeHistogram()[1], equalTo(1L));
+    }
+
+    public void testNextRoundWaitsForAllShardsOfTheRound() {
+        final RecordingSyncer slowSyncer = new RecordingSyncer();
+        final RecordingSyncer syncer = new RecordingSyncer();
+        final TranslogSyncCoordinator.ShardSyncQueue slowShard = coordinator.newShardQueue(slowSyncer);
+        final TranslogSyncCoordinator.ShardSyncQueue shard = coordinator.newShardQueue(syncer);
+        final List<Exception> slowResults = new ArrayList<>();
+        final List<Exception> results = new ArrayList<>();
+
+        final RecordingSyncer otherSyncer = new RecordingSyncer();
+        coordinator.newShardQueue(otherSyncer).sync(location(1), e -> {});
+        slowShard.sync(location(10), slowResults::add);
+        shard.sync(location(10), results::add);
+        otherSyncer.complete(null);
+        tasks.poll().run();
+        tasks.poll().run();
+        assertThat(slowSyncer.locations, contains(location(10)));
+        assertThat(syncer.locations, contains(location(10)));
+
+        // the other shard completes its requests as soon as its own fsync is done ...
+        syncer.complete(null);
+        assertThat(results, hasSize(1));
+        // ... but its new requests wait for the slow fsync to complete the round, and are batched meanwhile
+        for (int i = 1; i <= 3; i++) {
+            shard.sync(location(10 + i), results::add);
+        }
+        assertThat(tasks, hasSize(0));
+        assertThat(slowResults, hasSize(0));
+
+        slowSyncer.complete(null);
+        assertThat(slowResults, hasSize(1));
+        assertThat(tasks, hasSize(1));
+        tasks.poll().run();
+        assertThat(syncer.locations, contains(location(10), location(13)));
+        syncer.complete(null);
+        assertThat(results, hasSize(4));
+        assertThat(coordinator.getCompletedRounds(), equalTo(3L));
+    }
+
+    public void testFailuresAreReportedToAllListenersOfTheBatch() {
+        final TranslogSyncCoordinator.ShardSyncQueue closedShard = coordinator.newShardQueue((location, listener) -> {
+            throw new AlreadyClosedException("engine is closed");
+        });
+        final RecordingSyncer syncer = new RecordingSyncer();
+        final TranslogSyncCoordinator.ShardSyncQueue shard = coordinator.newShardQueue(syncer);
+        final List<Exception> results = new ArrayList<>();
+
+        shard.sync(location(1), results::add);
+        closedShard.sync(location(10), results::add);
+        closedShard.sync(location(20), results::add);
+        shard.sync(location(10), results::add);
+        syncer.complete(null);
+        assertThat(results, hasSize(1));
+
+        tasks.poll().run();
+        assertThat(results, hasSize(3));
+        results.subList(1, 3).forEach(e -> assertThat(e, instanceOf(AlreadyClosedException.class)));
+
+        // the failure does not affect the other shard
+        tasks.poll().run();
+        syncer.complete(null);
+        assertThat(results, hasSize(4));
+        assertThat(results.get(3), nullValue());
+        assertThat(tasks, hasSize(0));
+    }
+
+    public void testRejectionFailsPendingRequests() {
+        final TranslogSyncCoordinator rejectingCoordinator = new TranslogSyncCoordinator(
+            threadContext,
+            command -> ((AbstractRunnable) command).onRejection(new EsRejectedExecutionException("shutting down", true)),
+            nanoTime::get
+        );
+        final RecordingSyncer syncer = new RecordingSyncer();
+        final TranslogSyncCoordinator.ShardSyncQueue shard = rejectingCoordinator.newShardQueue(syncer);
+        final List<Exception> results = new ArrayList<>();
+
+        shard.sync(location(10), results::add);
+        shard.sync(location(20), results::add);
+        shard.sync(location(30), results::add);
+        syncer.complete(null);
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0), nullValue());
+        results.subList(1, 3).forEach(e -> assertThat(e, instanceOf(EsRejectedExecutionException.class)));
+
+        // the coordinator is idle again
+        shard.sync(location(40), results::add);
+        assertThat(syncer.locations, contains(location(10), location(40)));
+    }
+
+    public void testListenersAreNotifiedInTheirThreadContext() {
+        final RecordingSyncer syncer = new RecordingSyncer();
+        final TranslogSyncCoordinator.ShardSyncQueue shard = coordinator.newShardQueue(syncer);
+        final List<String> headers = new ArrayList<>();
+        shard.sync(location(0), e -> {});
+        for (int i = 1; i <= 3; i++) {
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("request", "request-" + i);
+                shard.sync(location(i), e -> headers.add(threadContext.getHeader("request")));
+            }
+        }
+        syncer.complete(null);
+        // all three requests are covered by a single fsync
+        tasks.poll().run();
+        syncer.complete(null);
+        assertThat(syncer.locations, contains(location(0), location(3)));
+        assertThat(headers, contains("request-1", "request-2", "request-3"));
+    }
+
+    private static class RecordingSyncer implements BiConsumer<Translog.Location, Consumer<Exception>> {
+        private final List<Translog.Location> locations = new ArrayList<>();
+        private final Queue<Consumer<Exception>> listeners = new LinkedList<>();
+
+        @Override
+        public void accept(Translog.Location location, Consumer<Exception> listener) {
+            locations.add(location);
+            listeners.add(listener);
+        }
+
+        void complete(Exception e) {
+            listeners.poll().accept(e);
+        }
+    }
+}
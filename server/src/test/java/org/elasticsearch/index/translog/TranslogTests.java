@@ -45,6 +45,7 @@ import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.core.Assertions;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Tuple;
@@ -420,6 +421,31 @@ public class TranslogTests extends ESTestCase {
         }
     }
 
+    public void testReferencesReleasableSourcesUntilWritten() throws IOException {
+        final List<Translog.Operation> ops = new ArrayList<>();
+        final List<ReleasableBytesReference> sources = new ArrayList<>();
+        final int numOps = between(1, 20);
+        for (int i = 0; i < numOps; i++) {
+            final byte[] bytes = randomByteArrayOfLength(between(ReferencingStreamOutput.MIN_REFERENCED_LENGTH, 1 << 16));
+            final ReleasableBytesReference source = new ReleasableBytesReference(new BytesArray(bytes), AbstractRefCounted.of(() -> {}));
+            translog.add(new Translog.Index(Integer.toString(i), i, primaryTerm.get(), 1, source, null, -1));
+            ops.add(new Translog.Index(Integer.toString(i), i, primaryTerm.get(), 1, new BytesArray(bytes), null, -1));
+            // like a network buffer that is released once the request completes
+            source.decRef();
+            sources.add(source);
+        }
+        // the last operation is always still buffered, so its source must still be referenced
+        assertTrue(sources.get(numOps - 1).hasReferences());
+
+        translog.sync();
+        for (ReleasableBytesReference source : sources) {
+            assertFalse(source.hasReferences());
+        }
+        try (Translog.Snapshot snapshot = translog.newSnapshot()) {
+            assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+        }
+    }
+
     protected TranslogStats stats() throws IOException {
         // force flushing and updating of stats
         translog.sync();
@@ -345,6 +345,104 @@ public class IndicesRequestCacheTests extends ESTestCase {
         IOUtils.close(reader, secondReader, thirdReader, writer, dir, cache);
     }
 
+    public void testAdmission() throws Exception {
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        writer.updateDocument(new Term("id", "0"), newDoc(0, "bar"));
+        DirectoryReader secondReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        writer.updateDocument(new Term("id", "0"), newDoc(0, "baz"));
+        DirectoryReader thirdReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+
+        // size the cache so that it can hold exactly two entries
+        final ByteSizeValue size;
+        {
+            IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+            ShardRequestCache requestCacheStats = new ShardRequestCache();
+            cache.getOrCompute(new TestEntity(requestCacheStats, indexShard), new Loader(reader, 0), mappingKey, reader, termBytes);
+            cache.getOrCompute(
+                new TestEntity(requestCacheStats, indexShard),
+                new Loader(secondReader, 0),
+                mappingKey,
+                secondReader,
+                termBytes
+            );
+            size = requestCacheStats.stats().getMemorySize();
+            cache.close();
+        }
+
+        IndicesRequestCache cache = new IndicesRequestCache(
+            Settings.builder()
+                .put(IndicesRequestCache.INDICES_CACHE_QUERY_SIZE.getKey(), size.getBytes() + 1 + "b")
+                .put(IndicesRequestCache.INDICES_CACHE_QUERY_ADMISSION_ENABLED.getKey(), true)
+                .build()
+        );
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+
+        // the first two results fit in the cache so they are admitted even though their keys were never seen before
+        BytesReference value1 = cache.getOrCompute(
+            new TestEntity(requestCacheStats, indexShard),
+            new Loader(reader, 0),
+            mappingKey,
+            reader,
+            termBytes
+        );
+        assertEquals("foo", value1.streamInput().readString());
+        BytesReference value2 = cache.getOrCompute(
+            new TestEntity(requestCacheStats, indexShard),
+            new Loader(secondReader, 0),
+            mappingKey,
+            secondReader,
+            termBytes
+        );
+        assertEquals("bar", value2.streamInput().readString());
+        assertEquals(2, cache.count());
+        assertEquals(2, requestCacheStats.stats().getAdmissionCount());
+        assertEquals(0, requestCacheStats.stats().getRejectionCount());
+
+        // the cache is full, a key that was never seen before is computed but not cached
+        Loader thirdLoader = new Loader(thirdReader, 0);
+        BytesReference value3 = cache.getOrCompute(
+            new TestEntity(requestCacheStats, indexShard),
+            thirdLoader,
+            mappingKey,
+            thirdReader,
+            termBytes
+        );
+        assertEquals("baz", value3.streamInput().readString());
+        assertFalse(thirdLoader.loadedFromCache);
+        assertEquals(2, cache.count());
+        assertEquals(0, requestCacheStats.stats().getEvictions());
+        assertEquals(3, requestCacheStats.stats().getMissCount());
+        assertEquals(2, requestCacheStats.stats().getAdmissionCount());
+        assertEquals(1, requestCacheStats.stats().getRejectionCount());
+
+        // the second time the key is requested it is admitted, which evicts the least recently used entry
+        thirdLoader = new Loader(thirdReader, 0);
+        value3 = cache.getOrCompute(new TestEntity(requestCacheStats, indexShard), thirdLoader, mappingKey, thirdReader, termBytes);
+        assertEquals("baz", value3.streamInput().readString());
+        assertFalse(thirdLoader.loadedFromCache);
+        assertEquals(2, cache.count());
+        assertEquals(1, requestCacheStats.stats().getEvictions());
+        assertEquals(3, requestCacheStats.stats().getAdmissionCount());
+        assertEquals(1, requestCacheStats.stats().getRejectionCount());
+
+        // and from then on it is a cache hit
+        thirdLoader = new Loader(thirdReader, 0);
+        value3 = cache.getOrCompute(new TestEntity(requestCacheStats, indexShard), thirdLoader, mappingKey, thirdReader, termBytes);
+        assertEquals("baz", value3.streamInput().readString());
+        assertTrue(thirdLoader.loadedFromCache);
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+
+        IOUtils.close(reader, secondReader, thirdReader, writer, dir, cache);
+    }
+
     public void testClearAllEntityIdentity() throws Exception {
         IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
         AtomicBoolean indexShard = new AtomicBoolean(true);
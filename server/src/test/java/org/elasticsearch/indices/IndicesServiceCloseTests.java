@@ -281,6 +281,12 @@ public class IndicesServiceCloseTests extends ESTestCase {
             @Override
             public void onMiss() {}
 
+            @Override
+            public void onAdmitted() {}
+
+            @Override
+            public void onRejected() {}
+
             @Override
             public void onRemoval(RemovalNotification<Key, BytesReference> notification) {}
         };
@@ -8,23 +8,30 @@
 
 package org.elasticsearch.script;
 
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.index.IndexVersion;
 import org.elasticsearch.index.IndexVersions;
 import org.elasticsearch.index.mapper.vectors.BinaryDenseVectorScriptDocValuesTests;
 import org.elasticsearch.index.mapper.vectors.DenseVectorFieldMapper.ElementType;
 import org.elasticsearch.index.mapper.vectors.KnnDenseVectorScriptDocValuesTests;
+import org.elasticsearch.index.mapper.vectors.RankVectorsFieldMapper.Quantization;
+import org.elasticsearch.index.mapper.vectors.RankVectorsFieldMapperTests;
 import org.elasticsearch.script.VectorScoreScriptUtils.CosineSimilarity;
 import org.elasticsearch.script.VectorScoreScriptUtils.DotProduct;
 import org.elasticsearch.script.VectorScoreScriptUtils.L1Norm;
 import org.elasticsearch.script.VectorScoreScriptUtils.L2Norm;
+import org.elasticsearch.script.VectorScoreScriptUtils.MaxSimDotProduct;
 import org.elasticsearch.script.field.vectors.BinaryDenseVectorDocValuesField;
 import org.elasticsearch.script.field.vectors.ByteBinaryDenseVectorDocValuesField;
 import org.elasticsearch.script.field.vectors.ByteKnnDenseVectorDocValuesField;
 import org.elasticsearch.script.field.vectors.DenseVectorDocValuesField;
 import org.elasticsearch.script.field.vectors.KnnDenseVectorDocValuesField;
+import org.elasticsearch.script.field.vectors.RankVectorsDocValuesField;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.List;
 
@@ -456,4 +463,35 @@ public class VectorScoreScriptUtilsTests extends ESTestCase {
             );
         }
     }
+
+    public void testMaxSimDotProduct() throws IOException {
+        String fieldName = "vectors";
+        float[][] docVectors = new float[][] { { 1f, 0f, 0f }, { 0f, 1f, 0f }, { 0f, 0f, -1f } };
+        ByteBuffer buffer = ByteBuffer.allocate(docVectors.length * 3 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float[] vector : docVectors) {
+            for (float v : vector) {
+                buffer.putFloat(v);
+            }
+        }
+        RankVectorsDocValuesField field = new RankVectorsDocValuesField(
+            RankVectorsFieldMapperTests.wrap(new BytesRef(buffer.array())),
+            "test",
+            ElementType.FLOAT,
+            3,
+            Quantization.NONE
+        );
+        ScoreScript scoreScript = mock(ScoreScript.class);
+        when(scoreScript.field(fieldName)).thenAnswer(mock -> field);
+
+        // [1, 2, 3] matches [0, 1, 0] best and [-1, 0, -2] matches [0, 0, -1] best, both with a dot product of 2
+        List<List<Number>> queryVectors = List.of(List.of(1, 2, 3), List.of(-1f, 0f, -2f));
+        MaxSimDotProduct function = new MaxSimDotProduct(scoreScript, queryVectors, fieldName);
+        assertEquals(4.0, function.maxSimDotProduct(), 0.001);
+
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> new MaxSimDotProduct(scoreScript, List.of(List.of(1, 2)), fieldName)
+        );
+        assertThat(e.getMessage(), containsString("query vector has a different number of dimensions [2] than the document vectors [3]"));
+    }
 }
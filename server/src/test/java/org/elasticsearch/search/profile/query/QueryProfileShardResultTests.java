@@ -36,7 +36,20 @@ public class QueryProfileShardResultTests extends AbstractXContentSerializingTes
         }
 
         Long vectorOperationsCount = randomBoolean() ? null : randomNonNegativeLong();
-        return new QueryProfileShardResult(queryProfileResults, rewriteTime, profileCollector, vectorOperationsCount);
+        long[] segmentVectorOperationsCounts = null;
+        if (vectorOperationsCount != null && randomBoolean()) {
+            segmentVectorOperationsCounts = new long[between(0, 5)];
+            for (int i = 0; i < segmentVectorOperationsCounts.length; i++) {
+                segmentVectorOperationsCounts[i] = randomNonNegativeLong();
+            }
+        }
+        return new QueryProfileShardResult(
+            queryProfileResults,
+            rewriteTime,
+            profileCollector,
+            vectorOperationsCount,
+            segmentVectorOperationsCounts
+        );
     }
 
     @Override
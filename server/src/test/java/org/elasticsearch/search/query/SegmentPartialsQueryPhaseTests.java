@@ -0,0 +1,75 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class SegmentPartialsQueryPhaseTests extends ESTestCase {
+
+    public void testKeySourceIgnoresRangeBounds() {
+        RangeQueryBuilder range1 = QueryBuilders.rangeQuery("@timestamp").gte("2024-01-01").lt("2024-01-02").queryName("range");
+        RangeQueryBuilder range2 = QueryBuilders.rangeQuery("@timestamp").gte("2024-01-01T00:15:00").lt("2024-01-02T00:15:00");
+        range2.queryName("range");
+        SearchSourceBuilder source1 = source(range1);
+        SearchSourceBuilder source2 = source(range2);
+        assertThat(source1, not(equalTo(source2)));
+
+        SearchSourceBuilder keySource1 = SegmentPartialsQueryPhase.partialsKeySource(source1, range1);
+        SearchSourceBuilder keySource2 = SegmentPartialsQueryPhase.partialsKeySource(source2, range2);
+        assertThat(keySource1, equalTo(keySource2));
+        assertThat(keySource1.aggregations(), sameInstance(source1.aggregations()));
+
+        BoolQueryBuilder bool = (BoolQueryBuilder) keySource1.query();
+        assertThat(bool.must(), equalTo(((BoolQueryBuilder) source1.query()).must()));
+        assertThat(bool.filter().size(), equalTo(2));
+        assertThat(bool.filter().get(0), equalTo(QueryBuilders.termQuery("service", "web")));
+        assertThat(bool.filter().get(1), instanceOf(RangeQueryBuilder.class));
+        RangeQueryBuilder unbounded = (RangeQueryBuilder) bool.filter().get(1);
+        assertThat(unbounded.fieldName(), equalTo("@timestamp"));
+        assertThat(unbounded.from(), nullValue());
+        assertThat(unbounded.to(), nullValue());
+        assertThat(unbounded.queryName(), equalTo("range"));
+
+        // the original source is left untouched
+        assertThat(((BoolQueryBuilder) source1.query()).filter().get(1), sameInstance(range1));
+    }
+
+    public void testKeySourceOfTopLevelRange() {
+        RangeQueryBuilder range = QueryBuilders.rangeQuery("@timestamp").gte("2024-01-01").lt("2024-01-02");
+        SearchSourceBuilder source = new SearchSourceBuilder().size(0)
+            .query(range)
+            .aggregation(AggregationBuilders.dateHistogram("histo").field("@timestamp"));
+        SearchSourceBuilder keySource = SegmentPartialsQueryPhase.partialsKeySource(source, range);
+        assertThat(keySource.query(), equalTo(QueryBuilders.rangeQuery("@timestamp")));
+        assertThat(keySource.size(), equalTo(0));
+        assertThat(source.query(), sameInstance(range));
+    }
+
+    private static SearchSourceBuilder source(RangeQueryBuilder range) {
+        return new SearchSourceBuilder().size(0)
+            .query(
+                QueryBuilders.boolQuery()
+                    .must(QueryBuilders.matchQuery("message", "error"))
+                    .filter(QueryBuilders.termQuery("service", "web"))
+                    .filter(range)
+            )
+            .aggregation(AggregationBuilders.dateHistogram("histo").field("@timestamp"));
+    }
+}
@@ -148,6 +148,20 @@ abstract class AbstractKnnVectorQueryBuilderTestCase extends AbstractQueryTestCa
         assertThat(e.getMessage(), containsString("the query vector has a different dimension [2] than the index vectors [3]"));
     }
 
+    public void testNprobe() throws IOException {
+        SearchExecutionContext context = createSearchExecutionContext();
+        int nprobe = randomIntBetween(1, 100);
+        KnnVectorQueryBuilder query = new KnnVectorQueryBuilder(VECTOR_FIELD, new float[] { 1.0f, 2.0f, 3.0f }, 10, null).nprobe(nprobe);
+        Query luceneQuery = query.doToQuery(context);
+        switch (elementType()) {
+            case FLOAT -> assertThat(((ESKnnFloatVectorQuery) luceneQuery).getNprobe(), equalTo(nprobe));
+            // byte vectors don't support ivf
+            case BYTE -> assertTrue(luceneQuery instanceof ESKnnByteVectorQuery);
+        }
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> query.nprobe(0));
+        assertThat(e.getMessage(), containsString("[nprobe] must be greater than 0"));
+    }
+
     public void testNonexistentField() {
         SearchExecutionContext context = createSearchExecutionContext();
         KnnVectorQueryBuilder query = new KnnVectorQueryBuilder("nonexistent", new float[] { 1.0f, 1.0f, 1.0f }, 10, null);
@@ -99,7 +99,7 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
 
     @Override
     protected KnnSearchBuilder mutateInstance(KnnSearchBuilder instance) {
-        switch (random().nextInt(7)) {
+        switch (random().nextInt(8)) {
             case 0:
                 String newField = randomValueOtherThan(instance.field, () -> randomAlphaOfLength(5));
                 return new KnnSearchBuilder(newField, instance.queryVector, instance.k, instance.numCands, instance.similarity).boost(
@@ -139,6 +139,11 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
                     instance.numCands,
                     randomValueOtherThan(instance.similarity, ESTestCase::randomFloat)
                 ).addFilterQueries(instance.filterQueries).boost(instance.boost);
+            case 7:
+                return new KnnSearchBuilder(instance.field, instance.queryVector, instance.k, instance.numCands, instance.similarity)
+                    .addFilterQueries(instance.filterQueries)
+                    .boost(instance.boost)
+                    .nprobe(randomValueOtherThan(instance.nprobe, () -> randomIntBetween(1, 100)));
             default:
                 throw new IllegalStateException();
         }
@@ -166,7 +171,12 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
             builder.addFilterQuery(filter);
         }
 
-        QueryBuilder expected = new KnnVectorQueryBuilder(field, vector, numCands, similarity).addFilterQueries(filterQueries).boost(boost);
+        Integer nprobe = randomBoolean() ? null : randomIntBetween(1, 100);
+        builder.nprobe(nprobe);
+
+        QueryBuilder expected = new KnnVectorQueryBuilder(field, vector, numCands, similarity).addFilterQueries(filterQueries)
+            .boost(boost)
+            .nprobe(nprobe);
         assertEquals(expected, builder.toQueryBuilder());
     }
 
@@ -194,6 +204,12 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
         assertThat(e.getMessage(), containsString("[k] must be greater than 0"));
     }
 
+    public void testInvalidNprobe() {
+        KnnSearchBuilder builder = new KnnSearchBuilder("field", randomVector(3), 10, 100, null);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> builder.nprobe(0));
+        assertThat(e.getMessage(), containsString("[nprobe] must be greater than 0"));
+    }
+
     public void testRewrite() throws Exception {
         float[] expectedArray = randomVector(randomIntBetween(10, 1024));
         KnnSearchBuilder searchBuilder = new KnnSearchBuilder(
@@ -204,6 +220,7 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
             1f
         );
         searchBuilder.boost(randomFloat());
+        searchBuilder.nprobe(randomBoolean() ? null : randomIntBetween(1, 100));
         searchBuilder.addFilterQueries(List.of(new RewriteableQuery()));
 
         QueryRewriteContext context = new QueryRewriteContext(null, null, null);
@@ -213,6 +230,7 @@ public class KnnSearchBuilderTests extends AbstractXContentSerializingTestCase<K
 
         assertThat(rewritten.field, equalTo(searchBuilder.field));
         assertThat(rewritten.boost, equalTo(searchBuilder.boost));
+        assertThat(rewritten.nprobe, equalTo(searchBuilder.nprobe));
         assertThat(rewritten.queryVector.asFloatVector(), equalTo(expectedArray));
         assertThat(rewritten.queryVectorBuilder, nullValue());
         assertThat(rewritten.filterQueries, hasSize(1));
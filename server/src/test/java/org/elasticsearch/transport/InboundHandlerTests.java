@@ -73,7 +73,8 @@ public class InboundHandlerTests extends ESTestCase {
             TransportVersion.current(),
             threadPool,
             (n, c, r, v) -> {},
-            ignoreDeserializationErrors
+            ignoreDeserializationErrors,
+            randomBoolean()
         );
         TransportKeepAlive keepAlive = new TransportKeepAlive(threadPool, TcpChannel::sendMessage);
         OutboundHandler outboundHandler = new OutboundHandler(
@@ -83,7 +84,8 @@ public class InboundHandlerTests extends ESTestCase {
             threadPool,
             new BytesRefRecycler(PageCacheRecycler.NON_RECYCLING_INSTANCE),
             new HandlingTimeTracker(),
-            false
+            false,
+            null
         );
         requestHandlers = new Transport.RequestHandlers();
         responseHandlers = new Transport.ResponseHandlers();
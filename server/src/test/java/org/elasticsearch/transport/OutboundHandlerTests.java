@@ -86,7 +86,8 @@ public class OutboundHandlerTests extends ESTestCase {
             threadPool,
             recycler,
             new HandlingTimeTracker(),
-            false
+            false,
+            null
         );
 
         final LongSupplier millisSupplier = () -> TimeValue.nsecToMSec(System.nanoTime());
@@ -227,10 +228,22 @@ public class OutboundHandlerTests extends ESTestCase {
                 responseRef.set(response);
             }
         });
+        TransportActionStatsTracker actionStatsTracker = new TransportActionStatsTracker();
+        ResponseStatsConsumer responseStatsConsumer = new ResponseStatsConsumer() {
+            @Override
+            public void addResponseStats(int messageSize) {
+                actionStatsTracker.addResponseStats(messageSize);
+            }
+
+            @Override
+            public void addCompressedResponseStats(int messageSize, int uncompressedMessageSize) {
+                actionStatsTracker.addCompressedResponseStats(messageSize, uncompressedMessageSize);
+            }
+        };
         if (compress) {
-            handler.sendResponse(version, channel, requestId, action, response, compressionScheme, isHandshake, ResponseStatsConsumer.NONE);
+            handler.sendResponse(version, channel, requestId, action, response, compressionScheme, isHandshake, responseStatsConsumer);
         } else {
-            handler.sendResponse(version, channel, requestId, action, response, null, isHandshake, ResponseStatsConsumer.NONE);
+            handler.sendResponse(version, channel, requestId, action, response, null, isHandshake, responseStatsConsumer);
         }
 
         BytesReference reference = channel.getMessageCaptor().get();
@@ -267,6 +280,19 @@ public class OutboundHandlerTests extends ESTestCase {
 
         assertEquals(value, message.value);
         assertEquals("header_value", header.getHeaders().v1().get("header"));
+
+        final TransportActionStats actionStats = actionStatsTracker.getStats();
+        assertEquals(1L, actionStats.responseCount());
+        assertEquals(reference.length(), actionStats.totalResponseSize());
+        if (compress) {
+            assertEquals(1L, actionStats.responseCompression().count());
+            assertEquals(reference.length(), actionStats.responseCompression().compressedSize());
+            // the receiver computes the same uncompressed size from the headers and the decompressed content
+            assertEquals(header.getHeaderSize() + tuple.v2().length(), actionStats.responseCompression().uncompressedSize());
+        } else {
+            assertEquals(TransportActionStats.CompressionStats.EMPTY, actionStats.responseCompression());
+            assertEquals(reference.length(), header.getHeaderSize() + tuple.v2().length());
+        }
     }
 
     public void testErrorResponse() throws IOException {
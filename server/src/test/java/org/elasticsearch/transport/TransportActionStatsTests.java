@@ -8,10 +8,13 @@
 
 package org.elasticsearch.transport;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
 import org.elasticsearch.xcontent.ToXContentFragment;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 public class TransportActionStatsTests extends ESTestCase {
@@ -37,6 +40,56 @@ public class TransportActionStatsTests extends ESTestCase {
             ]}}""", Strings.toString(new TransportActionStats(7, 8, requestSizeHistogram, 11, 12, responseSizeHistogram), false, true));
     }
 
+    public void testCompressionToXContent() {
+        final var histogram = new long[29];
+        histogram[4] = 3;
+
+        assertEquals("""
+            {"requests":{"count":3,"total_size":"600b","total_size_in_bytes":600,"histogram":[\
+            {"ge":"64b","ge_bytes":64,"lt":"128b","lt_bytes":128,"count":3}\
+            ],"compression":{"count":2,"compressed_size":"400b","compressed_size_in_bytes":400,\
+            "uncompressed_size":"1000b","uncompressed_size_in_bytes":1000,"ratio":2.5}},\
+            "responses":{"count":0,"total_size":"0b","total_size_in_bytes":0,"histogram":[]}}""",
+            Strings.toString(
+                new TransportActionStats(
+                    3,
+                    600,
+                    histogram,
+                    0,
+                    0,
+                    new long[29],
+                    new TransportActionStats.CompressionStats(2, 400, 1000),
+                    TransportActionStats.CompressionStats.EMPTY
+                ),
+                false,
+                true
+            )
+        );
+    }
+
+    public void testCompressionStatsSerialization() throws IOException {
+        final var compressionStats = new TransportActionStats.CompressionStats(
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong()
+        );
+        final var stats = new TransportActionStats(1, 2, new long[29], 3, 4, new long[29], compressionStats, compressionStats);
+
+        final var current = copyWriteable(stats, writableRegistry(), TransportActionStats::new);
+        assertEquals(compressionStats, current.requestCompression());
+        assertEquals(compressionStats, current.responseCompression());
+
+        final var previous = copyWriteable(
+            stats,
+            writableRegistry(),
+            TransportActionStats::new,
+            TransportVersionUtils.getPreviousVersion(TransportVersions.TRANSPORT_ACTION_COMPRESSION_STATS)
+        );
+        assertEquals(TransportActionStats.CompressionStats.EMPTY, previous.requestCompression());
+        assertEquals(TransportActionStats.CompressionStats.EMPTY, previous.responseCompression());
+        assertEquals(stats.responseCount(), previous.responseCount());
+    }
+
     private static void assertHistogram(long[] histogram, String expectedJson) {
         assertEquals(expectedJson, Strings.toString((ToXContentFragment) (builder, params) -> {
             TransportActionStats.histogramToXContent(builder, histogram);
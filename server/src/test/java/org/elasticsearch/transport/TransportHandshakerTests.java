@@ -8,6 +8,7 @@
 package org.elasticsearch.transport;
 
 import org.elasticsearch.TransportVersion;
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -17,6 +18,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
 import org.elasticsearch.threadpool.TestThreadPool;
 
 import java.io.IOException;
@@ -35,6 +37,7 @@ public class TransportHandshakerTests extends ESTestCase {
     private TcpChannel channel;
     private TestThreadPool threadPool;
     private TransportHandshaker.HandshakeRequestSender requestSender;
+    private boolean zstdCompressionAvailable;
 
     @Override
     public void setUp() throws Exception {
@@ -49,7 +52,8 @@ public class TransportHandshakerTests extends ESTestCase {
             .roles(Collections.emptySet())
             .build();
         threadPool = new TestThreadPool("thread-poll");
-        handshaker = new TransportHandshaker(TransportVersion.current(), threadPool, requestSender, false);
+        zstdCompressionAvailable = randomBoolean();
+        handshaker = new TransportHandshaker(TransportVersion.current(), threadPool, requestSender, false, zstdCompressionAvailable);
     }
 
     @Override
@@ -59,7 +63,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testHandshakeRequestAndResponse() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
 
@@ -79,7 +83,8 @@ public class TransportHandshakerTests extends ESTestCase {
         handler.handleResponse((TransportHandshaker.HandshakeResponse) responseFuture.actionGet());
 
         assertTrue(versionFuture.isDone());
-        assertEquals(TransportVersion.current(), versionFuture.actionGet());
+        assertEquals(TransportVersion.current(), versionFuture.actionGet().transportVersion());
+        assertEquals(zstdCompressionAvailable, versionFuture.actionGet().zstdCompressionAvailable());
     }
 
     public void testHandshakeRequestFutureVersionsCompatibility() throws IOException {
@@ -117,8 +122,87 @@ public class TransportHandshakerTests extends ESTestCase {
         assertEquals(TransportVersion.current(), response.getResponseVersion());
     }
 
+    public void testResponderWithoutZstdDoesNotAdvertiseIt() throws IOException {
+        // the responding node has no access to the native zstd library, so the requesting node must not send it zstd messages
+        final TransportHandshaker responder = new TransportHandshaker(TransportVersion.current(), threadPool, requestSender, false, false);
+        final TransportHandshaker requester = new TransportHandshaker(TransportVersion.current(), threadPool, requestSender, false, true);
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
+        long reqId = randomLongBetween(1, 10);
+        requester.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
+
+        final TransportHandshaker.HandshakeResponse response = respond(responder, reqId, TransportVersion.current());
+        assertFalse(response.isZstdCompressionAvailable());
+        final TransportResponseHandler<TransportHandshaker.HandshakeResponse> handler = requester.removeHandlerForHandshake(reqId);
+        handler.handleResponse(roundTrip(handler, response));
+
+        final TcpTransport.HandshakeResult result = versionFuture.actionGet();
+        assertFalse(result.zstdCompressionAvailable());
+        assertEquals(Compression.Scheme.LZ4, TcpTransport.compressionScheme(Compression.Scheme.ZSTD, result));
+        assertEquals(Compression.Scheme.LZ4, TcpTransport.compressionScheme(Compression.Scheme.LZ4, result));
+    }
+
+    public void testResponderWithZstdAdvertisesIt() throws IOException {
+        final TransportHandshaker responder = new TransportHandshaker(TransportVersion.current(), threadPool, requestSender, false, true);
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
+        long reqId = randomLongBetween(1, 10);
+        handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
+
+        final TransportHandshaker.HandshakeResponse response = respond(responder, reqId, TransportVersion.current());
+        final TransportResponseHandler<TransportHandshaker.HandshakeResponse> handler = handshaker.removeHandlerForHandshake(reqId);
+        handler.handleResponse(roundTrip(handler, response));
+
+        final TcpTransport.HandshakeResult result = versionFuture.actionGet();
+        assertTrue(result.zstdCompressionAvailable());
+        assertEquals(Compression.Scheme.ZSTD, TcpTransport.compressionScheme(Compression.Scheme.ZSTD, result));
+    }
+
+    public void testZstdIsNotAdvertisedToOlderNodes() throws IOException {
+        final TransportVersion olderVersion = TransportVersionUtils.randomVersionBetween(
+            random(),
+            TransportVersions.MINIMUM_COMPATIBLE,
+            TransportVersionUtils.getPreviousVersion(TransportHandshaker.ZSTD_COMPRESSION_HANDSHAKE_VERSION)
+        );
+        final TransportHandshaker responder = new TransportHandshaker(TransportVersion.current(), threadPool, requestSender, false, true);
+        final TransportHandshaker requester = new TransportHandshaker(olderVersion, threadPool, requestSender, false, true);
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
+        long reqId = randomLongBetween(1, 10);
+        requester.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
+
+        // an older node does not expect the flag in the response, so it must not be written
+        final TransportHandshaker.HandshakeResponse response = respond(responder, reqId, olderVersion);
+        final TransportResponseHandler<TransportHandshaker.HandshakeResponse> handler = requester.removeHandlerForHandshake(reqId);
+        handler.handleResponse(roundTrip(handler, response));
+
+        final TcpTransport.HandshakeResult result = versionFuture.actionGet();
+        assertEquals(TransportVersion.current(), result.transportVersion());
+        assertFalse(result.zstdCompressionAvailable());
+        assertEquals(Compression.Scheme.LZ4, TcpTransport.compressionScheme(Compression.Scheme.ZSTD, result));
+    }
+
+    private static TransportHandshaker.HandshakeResponse respond(TransportHandshaker responder, long reqId, TransportVersion requestVersion)
+        throws IOException {
+        BytesStreamOutput requestBytes = new BytesStreamOutput();
+        new TransportHandshaker.HandshakeRequest(requestVersion).writeTo(requestBytes);
+        final PlainActionFuture<TransportResponse> responseFuture = new PlainActionFuture<>();
+        responder.handleHandshake(new TestTransportChannel(responseFuture), reqId, requestBytes.bytes().streamInput());
+        return (TransportHandshaker.HandshakeResponse) responseFuture.actionGet();
+    }
+
+    private static TransportHandshaker.HandshakeResponse roundTrip(
+        TransportResponseHandler<TransportHandshaker.HandshakeResponse> handler,
+        TransportHandshaker.HandshakeResponse response
+    ) throws IOException {
+        BytesStreamOutput responseBytes = new BytesStreamOutput();
+        response.writeTo(responseBytes);
+        try (StreamInput in = responseBytes.bytes().streamInput()) {
+            final TransportHandshaker.HandshakeResponse read = handler.read(in);
+            assertEquals("response not fully read", 0, in.available());
+            return read;
+        }
+    }
+
     public void testHandshakeError() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(30, TimeUnit.SECONDS), versionFuture);
 
@@ -135,7 +219,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testSendRequestThrowsException() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         doThrow(new IOException("boom")).when(requestSender)
             .sendRequest(node, channel, reqId, TransportHandshaker.REQUEST_HANDSHAKE_VERSION);
@@ -149,7 +233,7 @@ public class TransportHandshakerTests extends ESTestCase {
     }
 
     public void testHandshakeTimeout() throws IOException {
-        PlainActionFuture<TransportVersion> versionFuture = new PlainActionFuture<>();
+        PlainActionFuture<TcpTransport.HandshakeResult> versionFuture = new PlainActionFuture<>();
         long reqId = randomLongBetween(1, 10);
         handshaker.sendHandshake(reqId, node, channel, new TimeValue(100, TimeUnit.MILLISECONDS), versionFuture);
 
@@ -98,6 +98,28 @@ public class TransportStatsTests extends ESTestCase {
         );
     }
 
+    public void testMessagesPerFlushToXContent() {
+        final var messagesPerFlush = new long[HandlingTimeTracker.BUCKET_COUNT];
+        assertEquals("""
+            {"transport":{"server_open":1,"total_outbound_connections":2,\
+            "rx_count":3,"rx_size":"4b","rx_size_in_bytes":4,\
+            "tx_count":5,"tx_size":"6b","tx_size_in_bytes":6\
+            }}""", Strings.toString(statsWithMessagesPerFlush(messagesPerFlush), false, true));
+
+        messagesPerFlush[1] = 7;
+        messagesPerFlush[3] = 2;
+        assertEquals("""
+            {"transport":{"server_open":1,"total_outbound_connections":2,\
+            "rx_count":3,"rx_size":"4b","rx_size_in_bytes":4,\
+            "tx_count":5,"tx_size":"6b","tx_size_in_bytes":6,\
+            "messages_per_flush_histogram":[{"ge":1,"lt":2,"count":7},{"ge":4,"lt":8,"count":2}]\
+            }}""", Strings.toString(statsWithMessagesPerFlush(messagesPerFlush), false, true));
+    }
+
+    private static TransportStats statsWithMessagesPerFlush(long[] messagesPerFlush) {
+        return new TransportStats(1, 2, 3, 4, 5, 6, new long[0], new long[0], Map.of(), messagesPerFlush);
+    }
+
     private static void assertHistogram(long[] histogram, String expectedJson) {
         assertEquals(expectedJson, Strings.toString((ToXContentFragment) (builder, params) -> {
             TransportStats.histogramToXContent(builder, histogram, "h");
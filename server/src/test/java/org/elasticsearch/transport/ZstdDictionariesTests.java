@@ -0,0 +1,103 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ZstdDictionariesTests extends ESTestCase {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        assumeTrue("requires native access", Compression.Scheme.isZstdAvailable());
+    }
+
+    public void testTrainsDictionaryFromSamples() {
+        ZstdDictionaries dictionaries = new ZstdDictionaries(Compression.Scheme.zstd(), EsExecutors.DIRECT_EXECUTOR_SERVICE);
+        assertThat(dictionaries.getDictionary("action", true), nullValue());
+
+        int messages = 0;
+        while (dictionaries.getDictionary("action", true) == null) {
+            ZstdBlockOutputStream.BlockSampler sampler = dictionaries.sampler("action", true);
+            if (messages++ % ZstdDictionaries.SAMPLING_INTERVAL == 0) {
+                assertThat(sampler, notNullValue());
+                byte[] sample = randomSample();
+                sampler.sample(sample, 0, sample.length);
+            } else {
+                assertThat(sampler, nullValue());
+            }
+            assertThat(messages, lessThanOrEqualTo(ZstdDictionaries.SAMPLING_INTERVAL * 10_000));
+        }
+
+        ZstdDictionaries.Dictionary dictionary = dictionaries.getDictionary("action", true);
+        assertThat(dictionary.bytes().length, lessThanOrEqualTo(ZstdDictionaries.DICTIONARY_SIZE));
+        // sampling stops once the dictionary is trained, and the responses of the action get their own dictionary
+        for (int i = 0; i < ZstdDictionaries.SAMPLING_INTERVAL; i++) {
+            assertThat(dictionaries.sampler("action", true), nullValue());
+        }
+        assertThat(dictionaries.getDictionary("action", false), nullValue());
+        assertThat(dictionaries.sampler("action", false), notNullValue());
+    }
+
+    public void testLimitsSampledActions() {
+        ZstdDictionaries dictionaries = new ZstdDictionaries(Compression.Scheme.zstd(), EsExecutors.DIRECT_EXECUTOR_SERVICE);
+        for (int i = 0; i < ZstdDictionaries.MAX_ACTIONS; i++) {
+            assertThat(dictionaries.sampler("action-" + i, randomBoolean()), notNullValue());
+        }
+        assertThat(dictionaries.sampler("another-action", randomBoolean()), nullValue());
+        assertThat(dictionaries.getDictionary("another-action", randomBoolean()), nullValue());
+    }
+
+    public void testTracksSentDictionariesPerChannel() {
+        ZstdDictionaries dictionaries = new ZstdDictionaries(Compression.Scheme.zstd(), EsExecutors.DIRECT_EXECUTOR_SERVICE);
+        ZstdDictionaries.Dictionary dictionary = new ZstdDictionaries.Dictionary(1, randomByteArrayOfLength(10));
+        ZstdDictionaries.Dictionary otherDictionary = new ZstdDictionaries.Dictionary(2, randomByteArrayOfLength(10));
+        FakeTcpChannel channel = new FakeTcpChannel();
+        FakeTcpChannel otherChannel = new FakeTcpChannel();
+
+        assertFalse(dictionaries.isSent(channel, dictionary));
+        dictionaries.onSent(channel, dictionary);
+        assertTrue(dictionaries.isSent(channel, dictionary));
+        assertFalse(dictionaries.isSent(channel, otherDictionary));
+        assertFalse(dictionaries.isSent(otherChannel, dictionary));
+
+        dictionaries.onSent(channel, otherDictionary);
+        assertTrue(dictionaries.isSent(channel, otherDictionary));
+
+        channel.close();
+        assertFalse(dictionaries.isSent(channel, dictionary));
+        assertFalse(dictionaries.isSent(channel, otherDictionary));
+    }
+
+    // documents that share their structure, like the messages of an action do
+    private static byte[] randomSample() {
+        StringBuilder sample = new StringBuilder();
+        int documents = between(1, 5);
+        for (int i = 0; i < documents; i++) {
+            sample.append("{\"index\":{\"_index\":\"logs-")
+                .append(between(0, 9))
+                .append("\",\"_id\":\"")
+                .append(randomAlphaOfLength(20))
+                .append("\"},\"host\":{\"name\":\"host-")
+                .append(between(0, 99))
+                .append("\"},\"message\":\"GET /api/v1/resource/")
+                .append(between(0, 999))
+                .append(" HTTP/1.1 200\"}\n");
+        }
+        return sample.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
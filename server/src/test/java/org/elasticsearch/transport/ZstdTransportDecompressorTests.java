@@ -0,0 +1,273 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.TransportVersion;
+import org.elasticsearch.TransportVersions;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ZstdTransportDecompressorTests extends ESTestCase {
+
+    private final Recycler<BytesRef> recycler = new BytesRefRecycler(new MockPageCacheRecycler(Settings.EMPTY));
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        assumeTrue("requires native access", Compression.Scheme.isZstdAvailable());
+    }
+
+    public void testSimpleCompression() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            byte randomByte = randomByte();
+            try (OutputStream zstdStream = Compression.Scheme.zstdOutputStream(org.elasticsearch.core.Streams.noCloseStream(output))) {
+                zstdStream.write(randomByte);
+            }
+
+            BytesReference bytes = output.bytes();
+            assertTrue(Compression.Scheme.isZstd(bytes));
+            try (TransportDecompressor detected = TransportDecompressor.getDecompressor(recycler, bytes)) {
+                assertThat(detected, instanceOf(ZstdTransportDecompressor.class));
+            }
+
+            try (ZstdTransportDecompressor decompressor = new ZstdTransportDecompressor(recycler)) {
+                int bytesConsumed = decompressor.decompress(bytes);
+                assertEquals(bytes.length(), bytesConsumed);
+                assertTrue(decompressor.isClosed());
+                ReleasableBytesReference releasableBytesReference = decompressor.pollDecompressedPage(true);
+                assertEquals(1, releasableBytesReference.length());
+                assertEquals(randomByte, releasableBytesReference.get(0));
+                releasableBytesReference.close();
+            }
+        }
+    }
+
+    public void testIncrementalMultiBlockCompression() throws IOException {
+        // spans several blocks and several pages
+        int intsToWrite = between(20000, 100000);
+        int uncompressedLength = intsToWrite * 4;
+
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (
+                StreamOutput zstdStream = new OutputStreamStreamOutput(
+                    Compression.Scheme.zstdOutputStream(Streams.flushOnCloseStream(output))
+                )
+            ) {
+                for (int i = 0; i < intsToWrite; ++i) {
+                    zstdStream.writeInt(i % 256 < 200 ? i % 7 : i);
+                }
+            }
+
+            BytesReference bytes = output.bytes();
+            assertThat(bytes.length(), lessThan(uncompressedLength / 2));
+
+            try (ZstdTransportDecompressor decompressor = new ZstdTransportDecompressor(recycler)) {
+                List<ReleasableBytesReference> polledReferences = new ArrayList<>();
+                int consumed = 0;
+                BytesReference pending = BytesArray.EMPTY;
+                while (consumed < bytes.length()) {
+                    // feed the decompressor in arbitrary chunks, as they would arrive from the network
+                    int chunk = Math.min(between(1, 10000), bytes.length() - consumed);
+                    pending = CompositeBytesReference.of(pending, bytes.slice(consumed, chunk));
+                    consumed += chunk;
+                    int bytesConsumed = decompressor.decompress(pending);
+                    pending = pending.slice(bytesConsumed, pending.length() - bytesConsumed);
+                    ReleasableBytesReference page;
+                    while ((page = decompressor.pollDecompressedPage(false)) != null) {
+                        polledReferences.add(page);
+                    }
+                }
+                assertEquals(0, pending.length());
+                assertTrue(decompressor.isClosed());
+                polledReferences.add(decompressor.pollDecompressedPage(true));
+                assertNull(decompressor.pollDecompressedPage(true));
+
+                BytesReference composite = CompositeBytesReference.of(polledReferences.toArray(new BytesReference[0]));
+                assertEquals(uncompressedLength, composite.length());
+                StreamInput streamInput = composite.streamInput();
+                for (int i = 0; i < intsToWrite; ++i) {
+                    assertEquals(i % 256 < 200 ? i % 7 : i, streamInput.readInt());
+                }
+                Releasables.close(polledReferences);
+            }
+        }
+    }
+
+    public void testCorruptedBlockHeader() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (OutputStream zstdStream = Compression.Scheme.zstdOutputStream(org.elasticsearch.core.Streams.noCloseStream(output))) {
+                zstdStream.write(randomByteArrayOfLength(between(1, 1000)));
+            }
+            byte[] bytes = BytesReference.toBytes(output.bytes());
+            // an impossible decompressed length
+            bytes[Compression.Scheme.HEADER_LENGTH + Integer.BYTES] = (byte) 0x7F;
+
+            try (ZstdTransportDecompressor decompressor = new ZstdTransportDecompressor(recycler)) {
+                IllegalStateException e = expectThrows(IllegalStateException.class, () -> decompressor.decompress(new BytesArray(bytes)));
+                assertThat(e.getMessage(), containsString("invalid decompressedLength"));
+                e = expectThrows(IllegalStateException.class, () -> decompressor.decompress(new BytesArray(bytes)));
+                assertThat(e.getMessage(), containsString("corrupted"));
+            }
+        }
+    }
+
+    public void testDictionary() throws IOException {
+        byte[] content = randomByteArrayOfLength(between(200, 1000));
+        // zstd accepts any content as a dictionary, which is most useful if it shares content with the messages
+        ZstdDictionaries.Dictionary dictionary = new ZstdDictionaries.Dictionary(randomInt(), content);
+        Map<Integer, byte[]> dictionaries = new HashMap<>();
+
+        BytesReference inlined = compressWithDictionary(content, dictionary, true);
+        BytesReference referenced = compressWithDictionary(content, dictionary, false);
+        assertTrue(Compression.Scheme.isZstdWithDictionary(inlined));
+        assertTrue(Compression.Scheme.isZstdWithDictionary(referenced));
+        assertThat(inlined.length(), equalTo(referenced.length() + content.length));
+        assertThat(referenced.length(), lessThan(content.length / 2));
+
+        assertThat(decompress(inlined, dictionaries), equalTo(new BytesArray(content)));
+        assertThat(dictionaries.keySet(), equalTo(Set.of(dictionary.id())));
+        // following messages only refer to the dictionary
+        assertThat(decompress(referenced, dictionaries), equalTo(new BytesArray(content)));
+
+        try (TransportDecompressor decompressor = TransportDecompressor.getDecompressor(recycler, referenced, new HashMap<>())) {
+            IllegalStateException e = expectThrows(IllegalStateException.class, () -> decompressor.decompress(referenced));
+            assertThat(e.getMessage(), equalTo("unknown zstd dictionary [" + dictionary.id() + "]"));
+        }
+    }
+
+    public void testTooManyDictionaries() throws IOException {
+        Map<Integer, byte[]> dictionaries = new HashMap<>();
+        for (int i = 0; i < ZstdTransportDecompressor.MAX_DICTIONARIES; i++) {
+            dictionaries.put(i, new byte[] { (byte) i });
+        }
+        byte[] content = randomByteArrayOfLength(between(1, 100));
+        BytesReference bytes = compressWithDictionary(content, new ZstdDictionaries.Dictionary(-1, content), true);
+        try (TransportDecompressor decompressor = TransportDecompressor.getDecompressor(recycler, bytes, dictionaries)) {
+            IllegalStateException e = expectThrows(IllegalStateException.class, () -> decompressor.decompress(bytes));
+            assertThat(e.getMessage(), containsString("too many zstd dictionaries"));
+        }
+    }
+
+    public void testSamplesFirstBlock() throws IOException {
+        byte[] content = randomByteArrayOfLength(between(1, 3 * Compression.Scheme.ZSTD_BLOCK_SIZE));
+        List<BytesArray> samples = new ArrayList<>();
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (
+                OutputStream zstdStream = Compression.Scheme.zstdOutputStream(
+                    org.elasticsearch.core.Streams.noCloseStream(output),
+                    null,
+                    false,
+                    (bytes, offset, length) -> samples.add(new BytesArray(Arrays.copyOfRange(bytes, offset, offset + length)))
+                )
+            ) {
+                zstdStream.write(content);
+            }
+            assertTrue(Compression.Scheme.isZstd(output.bytes()));
+            assertThat(decompress(output.bytes(), new HashMap<>()), equalTo(new BytesArray(content)));
+        }
+        assertThat(
+            samples,
+            equalTo(List.of(new BytesArray(content, 0, Math.min(content.length, Compression.Scheme.ZSTD_BLOCK_SIZE))))
+        );
+    }
+
+    private static BytesReference compressWithDictionary(byte[] content, ZstdDictionaries.Dictionary dictionary, boolean inline)
+        throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (
+                OutputStream zstdStream = Compression.Scheme.zstdOutputStream(
+                    org.elasticsearch.core.Streams.noCloseStream(output),
+                    dictionary,
+                    inline,
+                    null
+                )
+            ) {
+                zstdStream.write(content);
+            }
+            return output.copyBytes();
+        }
+    }
+
+    private BytesReference decompress(BytesReference bytes, Map<Integer, byte[]> dictionaries) throws IOException {
+        try (TransportDecompressor decompressor = TransportDecompressor.getDecompressor(recycler, bytes, dictionaries)) {
+            assertThat(decompressor, instanceOf(ZstdTransportDecompressor.class));
+            assertEquals(bytes.length(), decompressor.decompress(bytes));
+            assertTrue(((ZstdTransportDecompressor) decompressor).isClosed());
+            List<ReleasableBytesReference> pages = new ArrayList<>();
+            ReleasableBytesReference page;
+            while ((page = decompressor.pollDecompressedPage(true)) != null) {
+                pages.add(page);
+            }
+            try {
+                return new BytesArray(BytesReference.toBytes(CompositeBytesReference.of(pages.toArray(new BytesReference[0]))));
+            } finally {
+                Releasables.close(pages);
+            }
+        }
+    }
+
+    public void testFallsBackToLz4ForOlderNodes() {
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        TransportVersion olderVersion = TransportVersionUtils.randomVersionBetween(
+            random(),
+            Compression.Scheme.LZ4_VERSION,
+            TransportVersionUtils.getPreviousVersion(TransportVersions.ZSTD_TRANSPORT_COMPRESSION)
+        );
+        OutboundMessage olderNodeRequest = new OutboundMessage.Request(
+            threadContext,
+            TransportRequest.Empty.INSTANCE,
+            olderVersion,
+            "action",
+            1,
+            false,
+            Compression.Scheme.ZSTD
+        );
+        assertThat(olderNodeRequest.compressionScheme, equalTo(Compression.Scheme.LZ4));
+
+        OutboundMessage currentNodeRequest = new OutboundMessage.Request(
+            threadContext,
+            TransportRequest.Empty.INSTANCE,
+            TransportVersion.current(),
+            "action",
+            1,
+            false,
+            Compression.Scheme.ZSTD
+        );
+        assertThat(currentNodeRequest.compressionScheme, equalTo(Compression.Scheme.ZSTD));
+    }
+}
@@ -528,6 +528,7 @@ public enum SearchResponseUtils {
         List<ProfileResult> queryProfileResults = new ArrayList<>();
         long rewriteTime = 0;
         Long vectorOperationsCount = null;
+        long[] segmentVectorOperationsCounts = null;
         CollectorResult collector = null;
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
             if (token == XContentParser.Token.FIELD_NAME) {
@@ -549,6 +550,12 @@ public enum SearchResponseUtils {
                     while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
                         collector = CollectorResult.fromXContent(parser);
                     }
+                } else if (QueryProfileShardResult.SEGMENT_VECTOR_OPERATIONS_COUNTS.equals(currentFieldName)) {
+                    List<Long> counts = new ArrayList<>();
+                    while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                        counts.add(parser.longValue());
+                    }
+                    segmentVectorOperationsCounts = counts.stream().mapToLong(Long::longValue).toArray();
                 } else {
                     parser.skipChildren();
                 }
@@ -556,7 +563,13 @@ public enum SearchResponseUtils {
                 parser.skipChildren();
             }
         }
-        return new QueryProfileShardResult(queryProfileResults, rewriteTime, collector, vectorOperationsCount);
+        return new QueryProfileShardResult(
+            queryProfileResults,
+            rewriteTime,
+            collector,
+            vectorOperationsCount,
+            segmentVectorOperationsCounts
+        );
     }
 
     public static SearchHits parseSearchHits(XContentParser parser) throws IOException {
@@ -42,6 +42,11 @@ import java.lang.annotation.Target;
  *     not need this after we convert AVG into a composite operation.
  * </p>
  * <p>
+ *     If there is a method called {@code combineVector} the non-grouping aggregation
+ *     calls it with the primitive state and a whole vector instead of calling
+ *     {@code combine} once per value, so it can process many values at once.
+ * </p>
+ * <p>
  *     The generation code also looks for the optional methods {@code combineIntermediate}
  *     and {@code evaluateFinal} which are used to combine intermediate states and
  *     produce the final output. If the first is missing then the generated code will
@@ -42,4 +42,12 @@ public @interface Evaluator {
      * into a warning and turn into a null value.
      */
     Class<? extends Exception>[] warnExceptions() default {};
+
+    /**
+     * Name of a static method in the same class that processes whole vectors at
+     * once. It receives the {@code BlockFactory} and a vector per argument and
+     * returns the result vector, or {@code null} to process one position at a
+     * time with the {@code process} method.
+     */
+    String vector() default "";
 }
@@ -69,6 +69,7 @@ public class AggregatorImplementer {
     private final ExecutableElement init;
     private final ExecutableElement combine;
     private final ExecutableElement combineValueCount;
+    private final ExecutableElement combineVector;
     private final ExecutableElement combineIntermediate;
     private final ExecutableElement evaluateFinal;
     private final ClassName implementation;
@@ -95,6 +96,7 @@ public class AggregatorImplementer {
             return firstParamType.isPrimitive() || firstParamType.toString().equals(stateType.toString());
         });
         this.combineValueCount = findMethod(declarationType, "combineValueCount");
+        this.combineVector = findMethod(declarationType, "combineVector");
         this.combineIntermediate = findMethod(declarationType, "combineIntermediate");
         this.evaluateFinal = findMethod(declarationType, "evaluateFinal");
         this.createParameters = init.getParameters()
@@ -319,11 +321,17 @@ public class AggregatorImplementer {
             builder.addStatement("$T scratch = new $T()", BYTES_REF, BYTES_REF);
         }
 
-        builder.beginControlFlow("for (int i = 0; i < vector.getPositionCount(); i++)");
-        {
-            combineRawInput(builder, "vector");
+        if (combineVector != null) {
+            // the whole vector is combined at once, which can use the ArrayKernels
+            TypeName returnType = TypeName.get(combine.getReturnType());
+            builder.addStatement("state.$TValue($T.combineVector(state.$TValue(), vector))", returnType, declarationType, returnType);
+        } else {
+            builder.beginControlFlow("for (int i = 0; i < vector.getPositionCount(); i++)");
+            {
+                combineRawInput(builder, "vector");
+            }
+            builder.endControlFlow();
         }
-        builder.endControlFlow();
         if (combineValueCount != null) {
             builder.addStatement("$T.combineValueCount(state, vector.getPositionCount())", declarationType);
         }
@@ -34,6 +34,7 @@ import javax.lang.model.util.Elements;
 
 import static org.elasticsearch.compute.gen.Methods.appendMethod;
 import static org.elasticsearch.compute.gen.Methods.buildFromFactory;
+import static org.elasticsearch.compute.gen.Methods.findMethod;
 import static org.elasticsearch.compute.gen.Methods.getMethod;
 import static org.elasticsearch.compute.gen.Types.BLOCK;
 import static org.elasticsearch.compute.gen.Types.BOOLEAN_BLOCK;
@@ -59,16 +60,29 @@ public class EvaluatorImplementer {
     private final ProcessFunction processFunction;
     private final ClassName implementation;
     private final boolean processOutputsMultivalued;
+    private final ExecutableElement vectorFunction;
 
     public EvaluatorImplementer(
         Elements elements,
         javax.lang.model.util.Types types,
         ExecutableElement processFunction,
         String extraName,
-        List<TypeMirror> warnExceptions
+        List<TypeMirror> warnExceptions,
+        String vector
     ) {
         this.declarationType = (TypeElement) processFunction.getEnclosingElement();
         this.processFunction = new ProcessFunction(elements, types, processFunction, warnExceptions);
+        if (vector.isEmpty()) {
+            this.vectorFunction = null;
+        } else {
+            this.vectorFunction = findMethod(declarationType, new String[] { vector }, e -> true);
+            if (vectorFunction == null) {
+                throw new IllegalArgumentException("can't find static method [" + vector + "] in " + declarationType);
+            }
+            if (this.processFunction.args.stream().anyMatch(a -> a instanceof StandardProcessFunctionArg == false)) {
+                throw new IllegalArgumentException("[" + vector + "] requires a process function that only takes values");
+            }
+        }
 
         this.implementation = ClassName.get(
             elements.getPackageOf(declarationType).toString(),
@@ -173,6 +187,20 @@ public class EvaluatorImplementer {
             }
         });
 
+        if (blockStyle == false && vectorFunction != null) {
+            // try processing the whole vectors at once, which returns null when it can't
+            String params = processFunction.args.stream().map(a -> a.paramName(false)).collect(Collectors.joining(", "));
+            builder.addStatement(
+                "$T vectorized = $T.$N(driverContext.blockFactory(), " + params + ")",
+                TypeName.get(vectorFunction.getReturnType()),
+                declarationType,
+                vectorFunction.getSimpleName()
+            );
+            builder.beginControlFlow("if (vectorized != null)");
+            builder.addStatement(resultDataType.simpleName().endsWith("Block") ? "return vectorized.asBlock()" : "return vectorized");
+            builder.endControlFlow();
+        }
+
         TypeName builderType = builderType(resultDataType);
         builder.beginControlFlow(
             "try($T result = driverContext.blockFactory().$L(positionCount))",
@@ -69,6 +69,13 @@ final class BooleanArrayVector extends AbstractVector implements BooleanVector {
         return values[position];
     }
 
+    /**
+     * The array holding the values, which may be longer than the vector. Read by {@link VectorKernels}.
+     */
+    boolean[] values() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.BOOLEAN;
@@ -68,6 +68,13 @@ final class DoubleArrayVector extends AbstractVector implements DoubleVector {
         return values[position];
     }
 
+    /**
+     * The array holding the values, which may be longer than the vector. Read by {@link VectorKernels}.
+     */
+    double[] values() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.DOUBLE;
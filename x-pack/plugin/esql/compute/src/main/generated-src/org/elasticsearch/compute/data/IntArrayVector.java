@@ -68,6 +68,13 @@ final class IntArrayVector extends AbstractVector implements IntVector {
         return values[position];
     }
 
+    /**
+     * The array holding the values, which may be longer than the vector. Read by {@link VectorKernels}.
+     */
+    int[] values() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.INT;
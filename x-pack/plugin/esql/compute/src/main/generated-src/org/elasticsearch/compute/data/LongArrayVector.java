@@ -68,6 +68,13 @@ final class LongArrayVector extends AbstractVector implements LongVector {
         return values[position];
     }
 
+    /**
+     * The array holding the values, which may be longer than the vector. Read by {@link VectorKernels}.
+     */
+    long[] values() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.LONG;
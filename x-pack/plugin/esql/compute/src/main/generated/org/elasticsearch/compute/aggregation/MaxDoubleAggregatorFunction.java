@@ -67,9 +67,7 @@ public final class MaxDoubleAggregatorFunction implements AggregatorFunction {
 
   private void addRawVector(DoubleVector vector) {
     state.seen(true);
-    for (int i = 0; i < vector.getPositionCount(); i++) {
-      state.doubleValue(MaxDoubleAggregator.combine(state.doubleValue(), vector.getDouble(i)));
-    }
+    state.doubleValue(MaxDoubleAggregator.combineVector(state.doubleValue(), vector));
   }
 
   private void addRawBlock(DoubleBlock block) {
@@ -67,9 +67,7 @@ public final class MaxIntAggregatorFunction implements AggregatorFunction {
 
   private void addRawVector(IntVector vector) {
     state.seen(true);
-    for (int i = 0; i < vector.getPositionCount(); i++) {
-      state.intValue(MaxIntAggregator.combine(state.intValue(), vector.getInt(i)));
-    }
+    state.intValue(MaxIntAggregator.combineVector(state.intValue(), vector));
   }
 
   private void addRawBlock(IntBlock block) {
@@ -67,9 +67,7 @@ public final class MaxLongAggregatorFunction implements AggregatorFunction {
 
   private void addRawVector(LongVector vector) {
     state.seen(true);
-    for (int i = 0; i < vector.getPositionCount(); i++) {
-      state.longValue(MaxLongAggregator.combine(state.longValue(), vector.getLong(i)));
-    }
+    state.longValue(MaxLongAggregator.combineVector(state.longValue(), vector));
   }
 
   private void addRawBlock(LongBlock block) {
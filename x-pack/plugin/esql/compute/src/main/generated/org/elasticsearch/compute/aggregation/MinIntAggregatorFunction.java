@@ -67,9 +67,7 @@ public final class MinIntAggregatorFunction implements AggregatorFunction {
 
   private void addRawVector(IntVector vector) {
     state.seen(true);
-    for (int i = 0; i < vector.getPositionCount(); i++) {
-      state.intValue(MinIntAggregator.combine(state.intValue(), vector.getInt(i)));
-    }
+    state.intValue(MinIntAggregator.combineVector(state.intValue(), vector));
   }
 
   private void addRawBlock(IntBlock block) {
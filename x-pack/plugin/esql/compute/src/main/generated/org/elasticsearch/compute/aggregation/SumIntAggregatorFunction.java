@@ -69,9 +69,7 @@ public final class SumIntAggregatorFunction implements AggregatorFunction {
 
   private void addRawVector(IntVector vector) {
     state.seen(true);
-    for (int i = 0; i < vector.getPositionCount(); i++) {
-      state.longValue(SumIntAggregator.combine(state.longValue(), vector.getInt(i)));
-    }
+    state.longValue(SumIntAggregator.combineVector(state.longValue(), vector));
   }
 
   private void addRawBlock(IntBlock block) {
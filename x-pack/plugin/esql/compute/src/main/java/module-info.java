@@ -27,4 +27,5 @@ module org.elasticsearch.compute {
     exports org.elasticsearch.compute.aggregation.blockhash;
     exports org.elasticsearch.compute.aggregation.spatial;
     exports org.elasticsearch.compute.operator.topn;
+    exports org.elasticsearch.compute.vectorization;
 }
@@ -29,6 +29,14 @@ public class GroupingAggregator implements Releasable {
         this.mode = mode;
     }
 
+    /**
+     * Whether this aggregator outputs intermediate state that is merged downstream, in which case it may output the same group
+     * more than once.
+     */
+    public boolean isOutputPartial() {
+        return mode.isOutputPartial();
+    }
+
     /** The number of Blocks required for evaluation. */
     public int evaluateBlockCount() {
         return mode.isOutputPartial() ? aggregatorFunction.intermediateBlockCount() : 1;
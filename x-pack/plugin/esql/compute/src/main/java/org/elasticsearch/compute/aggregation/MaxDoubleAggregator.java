@@ -10,6 +10,8 @@ package org.elasticsearch.compute.aggregation;
 import org.elasticsearch.compute.ann.Aggregator;
 import org.elasticsearch.compute.ann.GroupingAggregator;
 import org.elasticsearch.compute.ann.IntermediateState;
+import org.elasticsearch.compute.data.DoubleVector;
+import org.elasticsearch.compute.data.VectorKernels;
 
 @Aggregator({ @IntermediateState(name = "max", type = "DOUBLE"), @IntermediateState(name = "seen", type = "BOOLEAN") })
 @GroupingAggregator
@@ -22,4 +24,8 @@ class MaxDoubleAggregator {
     public static double combine(double current, double v) {
         return Math.max(current, v);
     }
+
+    public static double combineVector(double current, DoubleVector vector) {
+        return VectorKernels.max(current, vector);
+    }
 }
@@ -10,6 +10,8 @@ package org.elasticsearch.compute.aggregation;
 import org.elasticsearch.compute.ann.Aggregator;
 import org.elasticsearch.compute.ann.GroupingAggregator;
 import org.elasticsearch.compute.ann.IntermediateState;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.VectorKernels;
 
 @Aggregator({ @IntermediateState(name = "max", type = "INT"), @IntermediateState(name = "seen", type = "BOOLEAN") })
 @GroupingAggregator
@@ -22,4 +24,8 @@ class MaxIntAggregator {
     public static int combine(int current, int v) {
         return Math.max(current, v);
     }
+
+    public static int combineVector(int current, IntVector vector) {
+        return VectorKernels.max(current, vector);
+    }
 }
@@ -10,6 +10,8 @@ package org.elasticsearch.compute.aggregation;
 import org.elasticsearch.compute.ann.Aggregator;
 import org.elasticsearch.compute.ann.GroupingAggregator;
 import org.elasticsearch.compute.ann.IntermediateState;
+import org.elasticsearch.compute.data.LongVector;
+import org.elasticsearch.compute.data.VectorKernels;
 
 @Aggregator({ @IntermediateState(name = "max", type = "LONG"), @IntermediateState(name = "seen", type = "BOOLEAN") })
 @GroupingAggregator
@@ -22,4 +24,8 @@ class MaxLongAggregator {
     public static long combine(long current, long v) {
         return Math.max(current, v);
     }
+
+    public static long combineVector(long current, LongVector vector) {
+        return VectorKernels.max(current, vector);
+    }
 }
@@ -10,6 +10,8 @@ package org.elasticsearch.compute.aggregation;
 import org.elasticsearch.compute.ann.Aggregator;
 import org.elasticsearch.compute.ann.GroupingAggregator;
 import org.elasticsearch.compute.ann.IntermediateState;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.VectorKernels;
 
 @Aggregator({ @IntermediateState(name = "sum", type = "LONG"), @IntermediateState(name = "seen", type = "BOOLEAN") })
 @GroupingAggregator
@@ -26,4 +28,8 @@ class SumIntAggregator {
     public static long combine(long current, long v) {
         return Math.addExact(current, v);
     }
+
+    public static long combineVector(long current, IntVector vector) {
+        return VectorKernels.sum(current, vector);
+    }
 }
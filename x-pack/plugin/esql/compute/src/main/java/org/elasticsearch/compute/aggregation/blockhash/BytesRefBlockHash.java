@@ -23,11 +23,14 @@ import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.OrdinalBytesRefBlock;
+import org.elasticsearch.compute.data.OrdinalBytesRefVector;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.MultivalueDedupe;
 import org.elasticsearch.compute.operator.MultivalueDedupeBytesRef;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Maps a {@link BytesRefBlock} column to group ids.
@@ -63,7 +66,13 @@ final class BytesRefBlockHash extends BlockHash {
         } else {
             BytesRefBlock bytesBlock = (BytesRefBlock) block;
             BytesRefVector bytesVector = bytesBlock.asVector();
-            if (bytesVector == null) {
+            if (bytesBlock instanceof OrdinalBytesRefBlock ordinalBlock
+                && ordinalBlock.isDense()
+                && ordinalBlock.mayHaveMultivaluedFields() == false) {
+                try (IntVector groupIds = addOrdinals(ordinalBlock.getOrdinalsBlock(), ordinalBlock.getDictionaryVector())) {
+                    addInput.add(0, groupIds);
+                }
+            } else if (bytesVector == null) {
                 try (IntBlock groupIds = add(bytesBlock)) {
                     addInput.add(0, groupIds);
                 }
@@ -76,6 +85,9 @@ final class BytesRefBlockHash extends BlockHash {
     }
 
     private IntVector add(BytesRefVector vector) {
+        if (vector instanceof OrdinalBytesRefVector ordinalVector && ordinalVector.isDense()) {
+            return addOrdinals(ordinalVector.getOrdinalsVector().asBlock(), ordinalVector.getDictionaryVector());
+        }
         int positions = vector.getPositionCount();
         try (var builder = blockFactory.newIntVectorFixedBuilder(positions)) {
             for (int i = 0; i < positions; i++) {
@@ -85,6 +97,33 @@ final class BytesRefBlockHash extends BlockHash {
         }
     }
 
+    /**
+     * Hashes each value of the dictionary at most once rather than once per position, and only if a position refers to it, so that
+     * no group is created for the values that the ordinals don't use.
+     */
+    private IntVector addOrdinals(IntBlock ordinals, BytesRefVector dictionary) {
+        int positions = ordinals.getPositionCount();
+        int[] dictionaryGroupIds = new int[dictionary.getPositionCount()];
+        Arrays.fill(dictionaryGroupIds, -1);
+        try (var builder = blockFactory.newIntVectorFixedBuilder(positions)) {
+            for (int i = 0; i < positions; i++) {
+                if (ordinals.isNull(i)) {
+                    seenNull = true;
+                    builder.appendInt(0);
+                    continue;
+                }
+                int ord = ordinals.getInt(ordinals.getFirstValueIndex(i));
+                int groupId = dictionaryGroupIds[ord];
+                if (groupId < 0) {
+                    groupId = Math.toIntExact(hashOrdToGroupNullReserved(bytesRefHash.add(dictionary.getBytesRef(ord, bytes))));
+                    dictionaryGroupIds[ord] = groupId;
+                }
+                builder.appendInt(groupId);
+            }
+            return builder.build();
+        }
+    }
+
     private IntBlock add(BytesRefBlock block) {
         // TODO: use block factory
         MultivalueDedupe.HashResult result = new MultivalueDedupeBytesRef(block).hash(blockFactory, bytesRefHash);
@@ -48,6 +48,20 @@ public final class OrdinalBytesRefBlock extends AbstractNonThreadSafeRefCounted
         bytes.writeTo(out);
     }
 
+    /**
+     * Returns the ordinals of this block, each of them the position of its value in {@link #getDictionaryVector()}
+     */
+    public IntBlock getOrdinalsBlock() {
+        return ordinals;
+    }
+
+    /**
+     * Returns the dictionary of this block, the distinct values that its ordinals refer to
+     */
+    public BytesRefVector getDictionaryVector() {
+        return bytes;
+    }
+
     /**
      * Returns true if this ordinal block is dense enough to enable optimizations using its ordinals
      */
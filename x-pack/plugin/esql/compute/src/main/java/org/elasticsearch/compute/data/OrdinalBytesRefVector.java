@@ -49,6 +49,20 @@ public final class OrdinalBytesRefVector extends AbstractNonThreadSafeRefCounted
         bytes.writeTo(out);
     }
 
+    /**
+     * Returns the ordinals of this vector, each of them the position of its value in {@link #getDictionaryVector()}
+     */
+    public IntVector getOrdinalsVector() {
+        return ordinals;
+    }
+
+    /**
+     * Returns the dictionary of this vector, the distinct values that its ordinals refer to
+     */
+    public BytesRefVector getDictionaryVector() {
+        return bytes;
+    }
+
     /**
      * Returns true if this ordinal vector is dense enough to enable optimizations using its ordinals
      */
@@ -84,7 +98,8 @@ public final class OrdinalBytesRefVector extends AbstractNonThreadSafeRefCounted
 
     @Override
     public BytesRefVector filter(int... positions) {
-        if (positions.length >= ordinals.getPositionCount()) {
+        // keep the ordinals while the filtered vector is still dense so filtered keyword columns can still be grouped by ordinals
+        if (positions.length * 2 / 3 >= bytes.getPositionCount()) {
             OrdinalBytesRefVector result = null;
             IntVector filteredOrdinals = ordinals.filter(positions);
             try {
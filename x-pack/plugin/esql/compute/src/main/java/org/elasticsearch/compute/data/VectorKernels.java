@@ -0,0 +1,274 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.data;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.compute.vectorization.ArrayKernels;
+import org.elasticsearch.compute.vectorization.ArrayKernels.Comparison;
+import org.elasticsearch.compute.vectorization.Vectorization;
+import org.elasticsearch.core.Nullable;
+
+/**
+ * Runs the {@link ArrayKernels} of {@link Vectorization} on the arrays backing vectors. Vectors that aren't backed by an array,
+ * like constant vectors or vectors backed by big arrays, are processed one position at a time.
+ * <p>
+ *     The methods that build a new vector return {@code null} when the kernels would be no faster than the per position loops of the
+ *     generated evaluators, or when a value overflows, so the evaluator falls back to its loop, which also registers the warnings.
+ * </p>
+ */
+public final class VectorKernels {
+    private VectorKernels() {}
+
+    /**
+     * Writes the positions of the {@code true} values of the vector into {@code positions}, which must be able to hold a position for
+     * every position of the vector, and returns how many there are.
+     */
+    public static int selectedPositions(BooleanVector vector, int[] positions) {
+        if (vector instanceof BooleanArrayVector array) {
+            return Vectorization.kernels().selectedPositions(array.values(), array.getPositionCount(), positions);
+        }
+        // always writing the position and only advancing the count for true values keeps the loop free of unpredictable branches
+        int count = 0;
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            positions[count] = p;
+            count += vector.getBoolean(p) ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Adds the values of the vector to {@code current}, throwing an {@link ArithmeticException} if the sum overflows.
+     */
+    public static long sum(long current, IntVector vector) {
+        if (vector instanceof IntArrayVector array) {
+            return Vectorization.kernels().sum(current, array.values(), array.getPositionCount());
+        }
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            current = Math.addExact(current, vector.getInt(p));
+        }
+        return current;
+    }
+
+    /**
+     * Adds the values of the vector to {@code current}, throwing an {@link ArithmeticException} if the sum overflows.
+     */
+    public static long sum(long current, LongVector vector) {
+        if (vector instanceof LongArrayVector array) {
+            return Vectorization.kernels().sum(current, array.values(), array.getPositionCount());
+        }
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            current = Math.addExact(current, vector.getLong(p));
+        }
+        return current;
+    }
+
+    public static int min(int current, IntVector vector) {
+        if (vector instanceof IntArrayVector array) {
+            return Vectorization.kernels().min(current, array.values(), array.getPositionCount());
+        }
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            current = Math.min(current, vector.getInt(p));
+        }
+        return current;
+    }
+
+    public static int max(int current, IntVector vector) {
+        if (vector instanceof IntArrayVector array) {
+            return Vectorization.kernels().max(current, array.values(), array.getPositionCount());
+        }
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            current = Math.max(current, vector.getInt(p));
+        }
+        return current;
+    }
+
+    public static long min(long current, LongVector vector) {
+        if (vector instanceof LongArrayVector array) {
+            return Vectorization.kernels().min(current, array.values(), array.getPositionCount());
+        }
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            current = Math.min(current, vector.getLong(p));
+        }
+        return current;
+    }
+
+    public static long max(long current, LongVector vector) {
+        if (vector instanceof LongArrayVector array) {
+            return Vectorization.kernels().max(current, array.values(), array.getPositionCount());
+        }
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            current = Math.max(current, vector.getLong(p));
+        }
+        return current;
+    }
+
+    public static double min(double current, DoubleVector vector) {
+        if (vector instanceof DoubleArrayVector array) {
+            return Vectorization.kernels().min(current, array.values(), array.getPositionCount());
+        }
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            current = Math.min(current, vector.getDouble(p));
+        }
+        return current;
+    }
+
+    public static double max(double current, DoubleVector vector) {
+        if (vector instanceof DoubleArrayVector array) {
+            return Vectorization.kernels().max(current, array.values(), array.getPositionCount());
+        }
+        for (int p = 0; p < vector.getPositionCount(); p++) {
+            current = Math.max(current, vector.getDouble(p));
+        }
+        return current;
+    }
+
+    @Nullable
+    public static BooleanVector compare(BlockFactory blockFactory, Comparison comparison, IntVector lhs, IntVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof IntArrayVector l && rhs instanceof IntArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjustBooleans(blockFactory, positionCount);
+            boolean[] result = new boolean[positionCount];
+            Vectorization.kernels().compare(comparison, l.values(), r.values(), positionCount, result);
+            return blockFactory.newBooleanArrayVector(result, positionCount, preAdjustedBytes);
+        }
+        return null;
+    }
+
+    @Nullable
+    public static BooleanVector compare(BlockFactory blockFactory, Comparison comparison, LongVector lhs, LongVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof LongArrayVector l && rhs instanceof LongArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjustBooleans(blockFactory, positionCount);
+            boolean[] result = new boolean[positionCount];
+            Vectorization.kernels().compare(comparison, l.values(), r.values(), positionCount, result);
+            return blockFactory.newBooleanArrayVector(result, positionCount, preAdjustedBytes);
+        }
+        return null;
+    }
+
+    @Nullable
+    public static BooleanVector compare(BlockFactory blockFactory, Comparison comparison, DoubleVector lhs, DoubleVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof DoubleArrayVector l && rhs instanceof DoubleArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjustBooleans(blockFactory, positionCount);
+            boolean[] result = new boolean[positionCount];
+            Vectorization.kernels().compare(comparison, l.values(), r.values(), positionCount, result);
+            return blockFactory.newBooleanArrayVector(result, positionCount, preAdjustedBytes);
+        }
+        return null;
+    }
+
+    /**
+     * Adds the values pairwise, like {@link Math#addExact(int, int)}.
+     * @return {@code null} if an addition overflows or the vectors aren't vectorized
+     */
+    @Nullable
+    public static IntVector addExact(BlockFactory blockFactory, IntVector lhs, IntVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof IntArrayVector l && rhs instanceof IntArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjust(blockFactory, positionCount, Integer.BYTES);
+            int[] result = new int[positionCount];
+            if (Vectorization.kernels().addExact(l.values(), r.values(), positionCount, result)) {
+                return blockFactory.newIntArrayVector(result, positionCount, preAdjustedBytes);
+            }
+            blockFactory.adjustBreaker(-preAdjustedBytes);
+        }
+        return null;
+    }
+
+    /**
+     * Adds the values pairwise, like {@link Math#addExact(long, long)}.
+     * @return {@code null} if an addition overflows or the vectors aren't vectorized
+     */
+    @Nullable
+    public static LongVector addExact(BlockFactory blockFactory, LongVector lhs, LongVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof LongArrayVector l && rhs instanceof LongArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjust(blockFactory, positionCount, Long.BYTES);
+            long[] result = new long[positionCount];
+            if (Vectorization.kernels().addExact(l.values(), r.values(), positionCount, result)) {
+                return blockFactory.newLongArrayVector(result, positionCount, preAdjustedBytes);
+            }
+            blockFactory.adjustBreaker(-preAdjustedBytes);
+        }
+        return null;
+    }
+
+    @Nullable
+    public static DoubleVector add(BlockFactory blockFactory, DoubleVector lhs, DoubleVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof DoubleArrayVector l && rhs instanceof DoubleArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjust(blockFactory, positionCount, Double.BYTES);
+            double[] result = new double[positionCount];
+            Vectorization.kernels().add(l.values(), r.values(), positionCount, result);
+            return blockFactory.newDoubleArrayVector(result, positionCount, preAdjustedBytes);
+        }
+        return null;
+    }
+
+    /**
+     * Subtracts the values pairwise, like {@link Math#subtractExact(int, int)}.
+     * @return {@code null} if a subtraction overflows or the vectors aren't vectorized
+     */
+    @Nullable
+    public static IntVector subtractExact(BlockFactory blockFactory, IntVector lhs, IntVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof IntArrayVector l && rhs instanceof IntArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjust(blockFactory, positionCount, Integer.BYTES);
+            int[] result = new int[positionCount];
+            if (Vectorization.kernels().subtractExact(l.values(), r.values(), positionCount, result)) {
+                return blockFactory.newIntArrayVector(result, positionCount, preAdjustedBytes);
+            }
+            blockFactory.adjustBreaker(-preAdjustedBytes);
+        }
+        return null;
+    }
+
+    /**
+     * Subtracts the values pairwise, like {@link Math#subtractExact(long, long)}.
+     * @return {@code null} if a subtraction overflows or the vectors aren't vectorized
+     */
+    @Nullable
+    public static LongVector subtractExact(BlockFactory blockFactory, LongVector lhs, LongVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof LongArrayVector l && rhs instanceof LongArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjust(blockFactory, positionCount, Long.BYTES);
+            long[] result = new long[positionCount];
+            if (Vectorization.kernels().subtractExact(l.values(), r.values(), positionCount, result)) {
+                return blockFactory.newLongArrayVector(result, positionCount, preAdjustedBytes);
+            }
+            blockFactory.adjustBreaker(-preAdjustedBytes);
+        }
+        return null;
+    }
+
+    @Nullable
+    public static DoubleVector subtract(BlockFactory blockFactory, DoubleVector lhs, DoubleVector rhs) {
+        if (Vectorization.isVectorized() && lhs instanceof DoubleArrayVector l && rhs instanceof DoubleArrayVector r) {
+            int positionCount = l.getPositionCount();
+            long preAdjustedBytes = preAdjust(blockFactory, positionCount, Double.BYTES);
+            double[] result = new double[positionCount];
+            Vectorization.kernels().subtract(l.values(), r.values(), positionCount, result);
+            return blockFactory.newDoubleArrayVector(result, positionCount, preAdjustedBytes);
+        }
+        return null;
+    }
+
+    private static long preAdjustBooleans(BlockFactory blockFactory, int positionCount) {
+        return preAdjust(blockFactory, positionCount, Byte.BYTES);
+    }
+
+    /**
+     * Reserves the bytes of the result array before allocating it, like the array vectors do when they are read.
+     */
+    private static long preAdjust(BlockFactory blockFactory, int positionCount, int bytesPerValue) {
+        long bytes = RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) positionCount * bytesPerValue;
+        blockFactory.adjustBreaker(bytes);
+        return bytes;
+    }
+}
@@ -64,6 +64,7 @@ public abstract class LuceneOperator extends SourceOperator {
 
     long processingNanos;
     int pagesEmitted;
+    long rowsEmitted;
     boolean doneCollecting;
 
     protected LuceneOperator(BlockFactory blockFactory, int maxPageSize, LuceneSliceQueue sliceQueue) {
@@ -201,6 +202,7 @@ public abstract class LuceneOperator extends SourceOperator {
         private final long processingNanos;
         private final int totalSlices;
         private final int pagesEmitted;
+        private final long rowsEmitted;
         private final int sliceIndex;
         private final int sliceMin;
         private final int sliceMax;
@@ -229,6 +231,7 @@ public abstract class LuceneOperator extends SourceOperator {
                 current = scorer.position;
             }
             pagesEmitted = operator.pagesEmitted;
+            rowsEmitted = operator.rowsEmitted;
         }
 
         Status(
@@ -239,6 +242,7 @@ public abstract class LuceneOperator extends SourceOperator {
             int sliceIndex,
             int totalSlices,
             int pagesEmitted,
+            long rowsEmitted,
             int sliceMin,
             int sliceMax,
             int current
@@ -250,6 +254,7 @@ public abstract class LuceneOperator extends SourceOperator {
             this.sliceIndex = sliceIndex;
             this.totalSlices = totalSlices;
             this.pagesEmitted = pagesEmitted;
+            this.rowsEmitted = rowsEmitted;
             this.sliceMin = sliceMin;
             this.sliceMax = sliceMax;
             this.current = current;
@@ -271,6 +276,7 @@ public abstract class LuceneOperator extends SourceOperator {
             sliceMin = in.readVInt();
             sliceMax = in.readVInt();
             current = in.readVInt();
+            rowsEmitted = in.getTransportVersion().onOrAfter(TransportVersions.ESQL_LUCENE_ROWS_EMITTED) ? in.readVLong() : 0;
         }
 
         @Override
@@ -289,6 +295,9 @@ public abstract class LuceneOperator extends SourceOperator {
             out.writeVInt(sliceMin);
             out.writeVInt(sliceMax);
             out.writeVInt(current);
+            if (out.getTransportVersion().onOrAfter(TransportVersions.ESQL_LUCENE_ROWS_EMITTED)) {
+                out.writeVLong(rowsEmitted);
+            }
         }
 
         @Override
@@ -324,6 +333,14 @@ public abstract class LuceneOperator extends SourceOperator {
             return pagesEmitted;
         }
 
+        /**
+         * The number of rows emitted by this driver. Compared with the other drivers of the same query this shows how evenly the
+         * slices were spread between them.
+         */
+        public long rowsEmitted() {
+            return rowsEmitted;
+        }
+
         public int sliceMin() {
             return sliceMin;
         }
@@ -349,6 +366,7 @@ public abstract class LuceneOperator extends SourceOperator {
             builder.field("slice_index", sliceIndex);
             builder.field("total_slices", totalSlices);
             builder.field("pages_emitted", pagesEmitted);
+            builder.field("rows_emitted", rowsEmitted);
             builder.field("slice_min", sliceMin);
             builder.field("slice_max", sliceMax);
             builder.field("current", current);
@@ -367,6 +385,7 @@ public abstract class LuceneOperator extends SourceOperator {
                 && sliceIndex == status.sliceIndex
                 && totalSlices == status.totalSlices
                 && pagesEmitted == status.pagesEmitted
+                && rowsEmitted == status.rowsEmitted
                 && sliceMin == status.sliceMin
                 && sliceMax == status.sliceMax
                 && current == status.current;
@@ -374,7 +393,7 @@ public abstract class LuceneOperator extends SourceOperator {
 
         @Override
         public int hashCode() {
-            return Objects.hash(processedSlices, sliceIndex, totalSlices, pagesEmitted, sliceMin, sliceMax, current);
+            return Objects.hash(processedSlices, sliceIndex, totalSlices, pagesEmitted, rowsEmitted, sliceMin, sliceMax, current);
         }
 
         @Override
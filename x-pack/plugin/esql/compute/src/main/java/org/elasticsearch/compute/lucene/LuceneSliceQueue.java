@@ -28,6 +28,17 @@ import java.util.function.Supplier;
 public final class LuceneSliceQueue {
     private static final int MAX_DOCS_PER_SLICE = 250_000; // copied from IndexSearcher
     private static final int MAX_SEGMENTS_PER_SLICE = 5; // copied from IndexSearcher
+    /**
+     * With {@link DataPartitioning#DOC} each driver takes up to this many slices from the queue. Drivers that run through their
+     * slices faster, for example because their documents match less or are cheaper to read, take more of them rather than waiting
+     * for the slowest driver to finish a single large slice.
+     */
+    static final int DOC_SLICES_PER_TASK = 4;
+    /**
+     * The fewest documents in a {@link DataPartitioning#DOC} slice, when there are more slices than tasks. Smaller slices don't
+     * balance the load any better, but each of them costs a new scorer.
+     */
+    static final int MIN_DOCS_PER_DOC_SLICE = 32 * 1024;
 
     private final int totalSlices;
     private final Queue<LuceneSlice> slices;
@@ -62,7 +73,10 @@ public final class LuceneSliceQueue {
             List<List<PartialLeafReaderContext>> groups = switch (dataPartitioning) {
                 case SHARD -> Collections.singletonList(leafContexts.stream().map(PartialLeafReaderContext::new).toList());
                 case SEGMENT -> segmentSlices(leafContexts);
-                case DOC -> docSlices(ctx.searcher().getIndexReader(), taskConcurrency);
+                case DOC -> {
+                    IndexReader reader = ctx.searcher().getIndexReader();
+                    yield docSlices(reader, docSliceCount(reader.maxDoc(), taskConcurrency));
+                }
             };
             final Weight[] cachedWeight = new Weight[1];
             final Supplier<Weight> weight = () -> {
@@ -83,6 +97,14 @@ public final class LuceneSliceQueue {
         return new LuceneSliceQueue(slices);
     }
 
+    /**
+     * The number of slices to split a shard into with {@link DataPartitioning#DOC}. At least one per task, so that every task has
+     * something to do, and up to {@link #DOC_SLICES_PER_TASK} per task if the shard is large enough.
+     */
+    static int docSliceCount(int maxDoc, int taskConcurrency) {
+        return Math.max(taskConcurrency, Math.min(taskConcurrency * DOC_SLICES_PER_TASK, maxDoc / MIN_DOCS_PER_DOC_SLICE));
+    }
+
     static List<List<PartialLeafReaderContext>> docSlices(IndexReader indexReader, int numSlices) {
         final int totalDocCount = indexReader.maxDoc();
         final int normalMaxDocsPerSlice = totalDocCount / numSlices;
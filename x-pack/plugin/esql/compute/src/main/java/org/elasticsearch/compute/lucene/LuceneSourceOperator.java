@@ -159,6 +159,7 @@ public class LuceneSourceOperator extends LuceneOperator {
                         Releasables.closeExpectNoException(shard, leaf, docs);
                     }
                 }
+                rowsEmitted += currentPagePos;
                 currentPagePos = 0;
             }
             return page;
@@ -227,6 +227,7 @@ public final class LuceneTopNSourceOperator extends LuceneOperator {
             }
         }
         pagesEmitted++;
+        rowsEmitted += size;
         return page;
     }
 
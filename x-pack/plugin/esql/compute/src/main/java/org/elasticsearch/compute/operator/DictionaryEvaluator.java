@@ -0,0 +1,138 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator;
+
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BlockUtils;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.BytesRefVector;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.OrdinalBytesRefVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.data.Vector;
+import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
+import org.elasticsearch.core.Releasables;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates an expression that reads a single channel once per distinct value of that channel rather than once per position,
+ * when the channel is a constant or a dense {@link OrdinalBytesRefVector}, the dictionary encoding that keyword doc values are
+ * loaded into. The results are mapped back onto the positions, and a {@code BytesRef} result of a dictionary keeps the ordinals
+ * of its input, so that {@code WHERE}, {@code EVAL} and {@code STATS ... BY} all work on the dictionary ids.
+ */
+public final class DictionaryEvaluator implements ExpressionEvaluator {
+
+    /**
+     * Wraps the evaluators built by {@code next}, which must only read {@code channel}.
+     */
+    public record Factory(int channel, ExpressionEvaluator.Factory next) implements ExpressionEvaluator.Factory {
+        @Override
+        public ExpressionEvaluator get(DriverContext context) {
+            return new DictionaryEvaluator(context.blockFactory(), channel, next.get(context));
+        }
+
+        @Override
+        public String toString() {
+            return next.toString();
+        }
+    }
+
+    private final BlockFactory blockFactory;
+    private final int channel;
+    private final ExpressionEvaluator next;
+
+    public DictionaryEvaluator(BlockFactory blockFactory, int channel, ExpressionEvaluator next) {
+        this.blockFactory = blockFactory;
+        this.channel = channel;
+        this.next = next;
+    }
+
+    @Override
+    public Block eval(Page page) {
+        Block block = page.getBlock(channel);
+        Vector vector = block.asVector();
+        if (vector == null || page.getPositionCount() < 2) {
+            return next.eval(page);
+        }
+        if (vector.isConstant()) {
+            return evalConstant(page, block);
+        }
+        if (vector instanceof OrdinalBytesRefVector ordinals && ordinals.isDense()) {
+            return evalDictionary(page, ordinals);
+        }
+        return next.eval(page);
+    }
+
+    private Block evalConstant(Page page, Block block) {
+        try (Block first = block.filter(0); Block result = evalDistinct(page, first)) {
+            if (result.isNull(0)) {
+                return blockFactory.newConstantNullBlock(page.getPositionCount());
+            }
+            if (result.getValueCount(0) == 1) {
+                return constant(result, page.getPositionCount());
+            }
+            return result.filter(new int[page.getPositionCount()]);
+        }
+    }
+
+    private Block constant(Block result, int positionCount) {
+        return BlockUtils.constantBlock(blockFactory, BlockUtils.toJavaObject(result, 0), positionCount);
+    }
+
+    private Block evalDictionary(Page page, OrdinalBytesRefVector vector) {
+        BytesRefVector dictionary = vector.getDictionaryVector();
+        IntVector ordinals = vector.getOrdinalsVector();
+        dictionary.incRef();
+        Block result = null;
+        try (Block dictionaryBlock = dictionary.asBlock()) {
+            result = evalDistinct(page, dictionaryBlock);
+            Vector resultVector = result.asVector();
+            if (resultVector != null && resultVector.isConstant()) {
+                return constant(result, page.getPositionCount());
+            }
+            if (result instanceof BytesRefBlock bytes && bytes.asVector() != null) {
+                BytesRefVector mappedDictionary = bytes.asVector();
+                mappedDictionary.incRef();
+                ordinals.incRef();
+                return new OrdinalBytesRefVector(ordinals, mappedDictionary).asBlock();
+            }
+            int[] positions = new int[ordinals.getPositionCount()];
+            for (int p = 0; p < positions.length; p++) {
+                positions[p] = ordinals.getInt(p);
+            }
+            return result.filter(positions);
+        } finally {
+            Releasables.closeExpectNoException(result);
+        }
+    }
+
+    /**
+     * Evaluates {@link #next} over a page of the distinct values. The other channels are never read, so they are all filled with
+     * the same constant null block.
+     */
+    private Block evalDistinct(Page page, Block distinct) {
+        Block[] blocks = new Block[page.getBlockCount()];
+        try (Block nulls = blockFactory.newConstantNullBlock(distinct.getPositionCount())) {
+            Arrays.fill(blocks, nulls);
+            blocks[channel] = distinct;
+            return next.eval(new Page(distinct.getPositionCount(), blocks));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return next.toString();
+    }
+
+    @Override
+    public void close() {
+        next.close();
+    }
+}
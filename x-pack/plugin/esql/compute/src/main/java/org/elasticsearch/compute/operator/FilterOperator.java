@@ -9,7 +9,9 @@ package org.elasticsearch.compute.operator;
 
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.BooleanVector;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
 import org.elasticsearch.core.Releasables;
 
@@ -47,16 +49,27 @@ public class FilterOperator extends AbstractPageMappingOperator {
                 page.releaseBlocks();
                 return null;
             }
-            // TODO we can detect constant true or false from the type
-            // TODO or we could make a new method in bool-valued evaluators that returns a list of numbers
-            for (int p = 0; p < page.getPositionCount(); p++) {
-                if (test.isNull(p) || test.getValueCount(p) != 1) {
-                    // Null is like false
-                    // And, for now, multivalued results are like false too
-                    continue;
+            BooleanVector testVector = test.asVector();
+            if (testVector != null) {
+                if (testVector.isConstant() && testVector.getPositionCount() > 0) {
+                    if (testVector.getBoolean(0)) {
+                        return page;
+                    }
+                    page.releaseBlocks();
+                    return null;
                 }
-                if (test.getBoolean(test.getFirstValueIndex(p))) {
-                    positions[rowCount++] = p;
+                rowCount = VectorKernels.selectedPositions(testVector, positions);
+            } else {
+                // TODO or we could make a new method in bool-valued evaluators that returns a list of numbers
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    if (test.isNull(p) || test.getValueCount(p) != 1) {
+                        // Null is like false
+                        // And, for now, multivalued results are like false too
+                        continue;
+                    }
+                    if (test.getBoolean(test.getFirstValueIndex(p))) {
+                        positions[rowCount++] = p;
+                    }
                 }
             }
 
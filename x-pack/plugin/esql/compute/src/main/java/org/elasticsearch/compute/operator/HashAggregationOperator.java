@@ -10,6 +10,7 @@ package org.elasticsearch.compute.operator;
 import org.elasticsearch.TransportVersion;
 import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -48,6 +49,7 @@ public class HashAggregationOperator implements Operator {
             return new HashAggregationOperator(
                 aggregators,
                 () -> BlockHash.build(groups, driverContext.blockFactory(), maxPageSize, false),
+                true,
                 driverContext
             );
         }
@@ -62,10 +64,20 @@ public class HashAggregationOperator implements Operator {
         }
     }
 
+    /**
+     * The fraction of the limit of the circuit breaker above which an operator that outputs partial results emits the groups that
+     * it has collected so far and starts over with an empty hash, rather than growing the hash until the breaker trips.
+     */
+    static final double EMIT_PARTIAL_BREAKER_RATIO = 0.8;
+
     private boolean finished;
     private Page output;
 
-    private final BlockHash blockHash;
+    private final List<GroupingAggregator.Factory> aggregatorFactories;
+    private final Supplier<BlockHash> blockHashSupplier;
+    private final boolean emitPartialOnBreakerPressure;
+
+    private BlockHash blockHash;
 
     private final List<GroupingAggregator> aggregators;
 
@@ -83,21 +95,45 @@ public class HashAggregationOperator implements Operator {
      * Count of pages this operator has processed.
      */
     private int pagesProcessed;
+    /**
+     * Count of pages added since partial results were last emitted.
+     */
+    private int pagesSinceEmit;
+    /**
+     * Count of times partial results were emitted before the operator finished.
+     */
+    private int partialEmits;
 
+    public HashAggregationOperator(
+        List<GroupingAggregator.Factory> aggregators,
+        Supplier<BlockHash> blockHash,
+        DriverContext driverContext
+    ) {
+        this(aggregators, blockHash, false, driverContext);
+    }
+
+    /**
+     * @param emitPartialOnBreakerPressure whether to emit the groups collected so far and start over when the circuit breaker is
+     *                                     close to its limit, if all the aggregators output partial results. This requires
+     *                                     {@code blockHash} to build a new hash every time it is called.
+     */
     @SuppressWarnings("this-escape")
     public HashAggregationOperator(
         List<GroupingAggregator.Factory> aggregators,
         Supplier<BlockHash> blockHash,
+        boolean emitPartialOnBreakerPressure,
         DriverContext driverContext
     ) {
+        this.aggregatorFactories = aggregators;
+        this.blockHashSupplier = blockHash;
         this.aggregators = new ArrayList<>(aggregators.size());
         this.driverContext = driverContext;
         boolean success = false;
         try {
-            this.blockHash = blockHash.get();
-            for (GroupingAggregator.Factory a : aggregators) {
-                this.aggregators.add(a.apply(driverContext));
-            }
+            initHash();
+            this.emitPartialOnBreakerPressure = emitPartialOnBreakerPressure
+                && this.aggregators.isEmpty() == false
+                && this.aggregators.stream().allMatch(GroupingAggregator::isOutputPartial);
             success = true;
         } finally {
             if (success == false) {
@@ -106,9 +142,16 @@ public class HashAggregationOperator implements Operator {
         }
     }
 
+    private void initHash() {
+        this.blockHash = blockHashSupplier.get();
+        for (GroupingAggregator.Factory a : aggregatorFactories) {
+            this.aggregators.add(a.apply(driverContext));
+        }
+    }
+
     @Override
     public boolean needsInput() {
-        return finished == false;
+        return finished == false && output == null;
     }
 
     @Override
@@ -166,7 +209,31 @@ public class HashAggregationOperator implements Operator {
         } finally {
             page.releaseBlocks();
             pagesProcessed++;
+            pagesSinceEmit++;
         }
+        if (emitPartialOnBreakerPressure && isBreakerUnderPressure()) {
+            emitPartial();
+        }
+    }
+
+    private boolean isBreakerUnderPressure() {
+        final CircuitBreaker breaker = driverContext.breaker();
+        final long limit = breaker.getLimit();
+        return limit > 0 && breaker.getUsed() >= EMIT_PARTIAL_BREAKER_RATIO * limit;
+    }
+
+    /**
+     * Emits the partial results for the groups collected so far and releases the hash and the aggregator states, so that
+     * memory usage stays bounded. Downstream operators merge the partial results of the same group.
+     */
+    private void emitPartial() {
+        output = buildOutput();
+        partialEmits++;
+        pagesSinceEmit = 0;
+        Releasables.close(blockHash, () -> Releasables.close(aggregators));
+        blockHash = null;
+        aggregators.clear();
+        initHash();
     }
 
     @Override
@@ -182,6 +249,15 @@ public class HashAggregationOperator implements Operator {
             return;
         }
         finished = true;
+        if (partialEmits > 0 && pagesSinceEmit == 0) {
+            // everything has been emitted already
+            return;
+        }
+        assert output == null : "no input is accepted while partial results are pending";
+        output = buildOutput();
+    }
+
+    private Page buildOutput() {
         Block[] blocks = null;
         IntVector selected = null;
         boolean success = false;
@@ -197,8 +273,9 @@ public class HashAggregationOperator implements Operator {
                 aggregator.evaluate(blocks, offset, selected, driverContext);
                 offset += aggBlockCounts[i];
             }
-            output = new Page(blocks);
+            Page page = new Page(blocks);
             success = true;
+            return page;
         } finally {
             // selected should always be closed
             if (selected != null) {
@@ -11,6 +11,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.ElasticsearchTimeoutException;
 import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.action.support.ChannelActionListener;
@@ -37,9 +38,11 @@ import org.elasticsearch.transport.TransportService;
 import org.elasticsearch.transport.Transports;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 /**
  * {@link ExchangeService} is responsible for exchanging pages between exchange sinks and sources on the same or different nodes.
@@ -135,22 +138,51 @@ public final class ExchangeService extends AbstractLifecycleComponent {
         int exchangeBuffer,
         Executor responseExecutor,
         ActionListener<Void> listener
+    ) {
+        openExchange(transportService, connection, sessionId, 1, exchangeBuffer, responseExecutor, listener);
+    }
+
+    /**
+     * Opens remote sink handlers on the remote node for the given session ID. If there is more than one partition, then one sink
+     * handler is opened for each of them, under the ids returned by {@link #exchangeIds}.
+     */
+    public static void openExchange(
+        TransportService transportService,
+        Transport.Connection connection,
+        String sessionId,
+        int partitions,
+        int exchangeBuffer,
+        Executor responseExecutor,
+        ActionListener<Void> listener
     ) {
         transportService.sendRequest(
             connection,
             OPEN_EXCHANGE_ACTION_NAME,
-            new OpenExchangeRequest(sessionId, exchangeBuffer),
+            new OpenExchangeRequest(sessionId, partitions, exchangeBuffer),
             TransportRequestOptions.EMPTY,
             new ActionListenerResponseHandler<>(listener.map(unused -> null), in -> TransportResponse.Empty.INSTANCE, responseExecutor)
         );
     }
 
+    /**
+     * Returns the ids of the exchanges of each partition of the exchange of the given session ID. An exchange with a single partition
+     * keeps the session ID.
+     */
+    public static List<String> exchangeIds(String sessionId, int partitions) {
+        if (partitions == 1) {
+            return List.of(sessionId);
+        }
+        return IntStream.range(0, partitions).mapToObj(p -> sessionId + "[p" + p + "]").toList();
+    }
+
     private static class OpenExchangeRequest extends TransportRequest {
         private final String sessionId;
+        private final int partitions;
         private final int exchangeBuffer;
 
-        OpenExchangeRequest(String sessionId, int exchangeBuffer) {
+        OpenExchangeRequest(String sessionId, int partitions, int exchangeBuffer) {
             this.sessionId = sessionId;
+            this.partitions = partitions;
             this.exchangeBuffer = exchangeBuffer;
         }
 
@@ -158,6 +190,11 @@ public final class ExchangeService extends AbstractLifecycleComponent {
             super(in);
             this.sessionId = in.readString();
             this.exchangeBuffer = in.readVInt();
+            if (in.getTransportVersion().onOrAfter(TransportVersions.ESQL_PARTITIONED_EXCHANGE)) {
+                this.partitions = in.readVInt();
+            } else {
+                this.partitions = 1;
+            }
         }
 
         @Override
@@ -165,13 +202,20 @@ public final class ExchangeService extends AbstractLifecycleComponent {
             super.writeTo(out);
             out.writeString(sessionId);
             out.writeVInt(exchangeBuffer);
+            if (out.getTransportVersion().onOrAfter(TransportVersions.ESQL_PARTITIONED_EXCHANGE)) {
+                out.writeVInt(partitions);
+            } else if (partitions != 1) {
+                throw new IllegalArgumentException("partitioned exchanges are not supported on [" + out.getTransportVersion() + "]");
+            }
         }
     }
 
     private class OpenExchangeRequestHandler implements TransportRequestHandler<OpenExchangeRequest> {
         @Override
         public void messageReceived(OpenExchangeRequest request, TransportChannel channel, Task task) throws Exception {
-            createSinkHandler(request.sessionId, request.exchangeBuffer);
+            for (String exchangeId : exchangeIds(request.sessionId, request.partitions)) {
+                createSinkHandler(exchangeId, request.exchangeBuffer);
+            }
             channel.sendResponse(TransportResponse.Empty.INSTANCE);
         }
     }
@@ -0,0 +1,262 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.exchange;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
+import org.apache.lucene.util.hppc.BitMixer;
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.DoubleBlock;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.SinkOperator;
+import org.elasticsearch.core.Releasables;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Sink operator that routes each row to one of several {@link ExchangeSink}s, picked by the hash of the values of its key channels.
+ * Rows with the same keys always end up in the same sink, even when they come from different nodes, so that each of the drivers
+ * reading from these sinks can, for example, compute the final result of a grouping aggregation for its own share of the groups.
+ * <p>
+ * A grouping aggregation adds a row to the group of each value of a multivalued key, so such rows are routed once for every
+ * combination of their key values, with each key narrowed down to the single value that picked the partition.
+ */
+public class PartitionedExchangeSinkOperator extends SinkOperator {
+
+    private final ExchangeSink[] sinks;
+    private final int[] keyChannels;
+    private final BytesRef scratch = new BytesRef();
+    private int pagesAccepted;
+
+    /**
+     * @param partitions    the number of sinks to route rows to
+     * @param exchangeSinks creates the sink of each partition
+     * @param keyChannels   the channels whose values pick the partition of each row
+     */
+    public record Factory(int partitions, IntFunction<ExchangeSink> exchangeSinks, List<Integer> keyChannels)
+        implements
+            SinkOperatorFactory {
+
+        @Override
+        public SinkOperator get(DriverContext driverContext) {
+            ExchangeSink[] sinks = new ExchangeSink[partitions];
+            for (int p = 0; p < partitions; p++) {
+                sinks[p] = exchangeSinks.apply(p);
+            }
+            return new PartitionedExchangeSinkOperator(sinks, keyChannels);
+        }
+
+        @Override
+        public String describe() {
+            return "PartitionedExchangeSinkOperator[partitions=" + partitions + ", keyChannels=" + keyChannels + "]";
+        }
+    }
+
+    public PartitionedExchangeSinkOperator(ExchangeSink[] sinks, List<Integer> keyChannels) {
+        if (sinks.length == 0) {
+            throw new IllegalArgumentException("at least one partition is required");
+        }
+        this.sinks = sinks;
+        this.keyChannels = keyChannels.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public boolean isFinished() {
+        for (ExchangeSink sink : sinks) {
+            if (sink.isFinished() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void finish() {
+        for (ExchangeSink sink : sinks) {
+            sink.finish();
+        }
+    }
+
+    @Override
+    public SubscribableListener<Void> isBlocked() {
+        // a row may go to any of the sinks, so accept more input only once all of them have room for it
+        for (ExchangeSink sink : sinks) {
+            SubscribableListener<Void> blocked = sink.waitForWriting();
+            if (blocked.isDone() == false) {
+                return blocked;
+            }
+        }
+        return NOT_BLOCKED;
+    }
+
+    @Override
+    public boolean needsInput() {
+        return isFinished() == false && isBlocked().isDone();
+    }
+
+    @Override
+    protected void doAddInput(Page page) {
+        pagesAccepted++;
+        page = expandMultivaluedKeys(page);
+        boolean passedOn = false;
+        try {
+            int positionCount = page.getPositionCount();
+            int[] partitionOf = new int[positionCount];
+            int[] counts = new int[sinks.length];
+            for (int p = 0; p < positionCount; p++) {
+                partitionOf[p] = partition(page, p);
+                counts[partitionOf[p]]++;
+            }
+            for (int s = 0; s < sinks.length; s++) {
+                if (counts[s] == positionCount) {
+                    // all rows belong to the same partition, no need to copy them
+                    passedOn = true;
+                    sinks[s].addPage(page);
+                    return;
+                }
+            }
+            int[][] positions = new int[sinks.length][];
+            for (int s = 0; s < sinks.length; s++) {
+                positions[s] = new int[counts[s]];
+            }
+            Arrays.fill(counts, 0);
+            for (int p = 0; p < positionCount; p++) {
+                int s = partitionOf[p];
+                positions[s][counts[s]++] = p;
+            }
+            for (int s = 0; s < sinks.length; s++) {
+                if (positions[s].length > 0) {
+                    sinks[s].addPage(filter(page, positions[s]));
+                }
+            }
+        } finally {
+            if (passedOn == false) {
+                page.releaseBlocks();
+            }
+        }
+    }
+
+    private static Page filter(Page page, int[] positions) {
+        Block[] blocks = new Block[page.getBlockCount()];
+        boolean success = false;
+        try {
+            for (int b = 0; b < blocks.length; b++) {
+                blocks[b] = page.getBlock(b).filter(positions);
+            }
+            success = true;
+        } finally {
+            if (success == false) {
+                Releasables.closeExpectNoException(blocks);
+            }
+        }
+        return new Page(blocks);
+    }
+
+    /**
+     * Expands the rows with multivalued keys into one row for each combination of their key values, repeating the values of the other
+     * channels. Releases the given page if it had to be expanded.
+     */
+    private Page expandMultivaluedKeys(Page page) {
+        boolean success = false;
+        try {
+            for (int channel : keyChannels) {
+                Block keys = page.getBlock(channel);
+                if (keys.mayHaveMultivaluedFields() == false) {
+                    continue;
+                }
+                int positionCount = keys.getPositionCount();
+                int expandedCount = 0;
+                for (int p = 0; p < positionCount; p++) {
+                    expandedCount += Math.max(1, keys.getValueCount(p));
+                }
+                if (expandedCount == positionCount) {
+                    continue;
+                }
+                int[] duplicates = new int[expandedCount];
+                for (int p = 0, i = 0; p < positionCount; p++) {
+                    int count = Math.max(1, keys.getValueCount(p));
+                    Arrays.fill(duplicates, i, i + count, p);
+                    i += count;
+                }
+                Block[] blocks = new Block[page.getBlockCount()];
+                boolean expanded = false;
+                try {
+                    for (int b = 0; b < blocks.length; b++) {
+                        blocks[b] = b == channel ? keys.expand() : page.getBlock(b).filter(duplicates);
+                    }
+                    expanded = true;
+                } finally {
+                    if (expanded == false) {
+                        Releasables.closeExpectNoException(blocks);
+                    }
+                }
+                page.releaseBlocks();
+                page = new Page(blocks);
+            }
+            success = true;
+            return page;
+        } finally {
+            if (success == false) {
+                page.releaseBlocks();
+            }
+        }
+    }
+
+    /**
+     * The partition of a row, whose keys have at most one value each. This must not depend on anything but the key values, since the
+     * same keys have to be routed to the same partition on every node.
+     */
+    private int partition(Page page, int position) {
+        int hash = 0;
+        for (int channel : keyChannels) {
+            hash = 31 * hash + hash(page.getBlock(channel), position);
+        }
+        return Math.floorMod(BitMixer.mix32(hash), sinks.length);
+    }
+
+    private int hash(Block block, int position) {
+        if (block.isNull(position)) {
+            return 0;
+        }
+        assert block.getValueCount(position) == 1 : "multivalued keys must be expanded";
+        int i = block.getFirstValueIndex(position);
+        return switch (block.elementType()) {
+            case INT -> Integer.hashCode(((IntBlock) block).getInt(i));
+            case LONG -> Long.hashCode(((LongBlock) block).getLong(i));
+            case DOUBLE -> Double.hashCode(((DoubleBlock) block).getDouble(i));
+            case BOOLEAN -> Boolean.hashCode(((BooleanBlock) block).getBoolean(i));
+            // BytesRef#hashCode is seeded differently on each node
+            case BYTES_REF -> StringHelper.murmurhash3_x86_32(((BytesRefBlock) block).getBytesRef(i, scratch), 0);
+            default -> throw new IllegalArgumentException("can't partition on [" + block.elementType() + "]");
+        };
+    }
+
+    @Override
+    public void close() {
+        finish();
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionedExchangeSinkOperator[partitions=" + sinks.length + ", keyChannels=" + Arrays.toString(keyChannels) + "]";
+    }
+
+    @Override
+    public Operator.Status status() {
+        return new ExchangeSinkOperator.Status(pagesAccepted);
+    }
+}
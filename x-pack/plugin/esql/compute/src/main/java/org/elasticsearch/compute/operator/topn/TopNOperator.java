@@ -12,7 +12,6 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.PriorityQueue;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.breaker.CircuitBreaker;
-import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.ElementType;
@@ -26,7 +25,6 @@ import org.elasticsearch.core.Releasables;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -276,7 +274,12 @@ public class TopNOperator implements Operator, Accountable {
     private int spareValuesPreAllocSize = 0;
     private int spareKeysPreAllocSize = 0;
 
-    private Iterator<Page> output;
+    /**
+     * The rows in the order in which they are output, once {@link #finish} has been called. Each page of output is built when it
+     * is requested, releasing the rows it contains, so that the sorted rows are never held both as rows and as pages.
+     */
+    private List<Row> sortedRows;
+    private int nextRow;
 
     public TopNOperator(
         BlockFactory blockFactory,
@@ -332,7 +335,7 @@ public class TopNOperator implements Operator, Accountable {
 
     @Override
     public boolean needsInput() {
-        return output == null;
+        return sortedRows == null;
     }
 
     @Override
@@ -374,49 +377,41 @@ public class TopNOperator implements Operator, Accountable {
 
     @Override
     public void finish() {
-        if (output == null) {
-            output = toPages();
+        if (sortedRows == null) {
+            sortedRows = popSortedRows();
         }
     }
 
-    private Iterator<Page> toPages() {
+    private List<Row> popSortedRows() {
         if (spare != null) {
             // Remove the spare, we're never going to use it again.
             spare.close();
             spare = null;
         }
-        if (inputQueue.size() == 0) {
-            return Collections.emptyIterator();
-        }
         List<Row> list = new ArrayList<>(inputQueue.size());
-        List<Page> result = new ArrayList<>();
-        ResultBuilder[] builders = null;
-        boolean success = false;
+        while (inputQueue.size() > 0) {
+            list.add(inputQueue.pop());
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    private Page buildPage() {
+        int size = Math.min(maxPageSize, sortedRows.size() - nextRow);
+        ResultBuilder[] builders = new ResultBuilder[elementTypes.size()];
         try {
-            while (inputQueue.size() > 0) {
-                list.add(inputQueue.pop());
+            for (int b = 0; b < builders.length; b++) {
+                builders[b] = ResultBuilder.resultBuilderFor(
+                    blockFactory,
+                    elementTypes.get(b),
+                    encoders.get(b).toUnsortable(),
+                    channelInKey(sortOrders, b),
+                    size
+                );
             }
-            Collections.reverse(list);
-
-            int p = 0;
-            int size = 0;
-            for (int i = 0; i < list.size(); i++) {
-                if (builders == null) {
-                    size = Math.min(maxPageSize, list.size() - i);
-                    builders = new ResultBuilder[elementTypes.size()];
-                    for (int b = 0; b < builders.length; b++) {
-                        builders[b] = ResultBuilder.resultBuilderFor(
-                            blockFactory,
-                            elementTypes.get(b),
-                            encoders.get(b).toUnsortable(),
-                            channelInKey(sortOrders, b),
-                            size
-                        );
-                    }
-                    p = 0;
-                }
 
-                Row row = list.get(i);
+            for (int i = 0; i < size; i++) {
+                Row row = sortedRows.get(nextRow);
                 BytesRef keys = row.keys.bytesRefView();
                 for (SortOrder so : sortOrders) {
                     if (keys.bytes[keys.offset] == so.nul()) {
@@ -440,38 +435,25 @@ public class TopNOperator implements Operator, Accountable {
                     throw new IllegalArgumentException("didn't read all values");
                 }
 
-                list.set(i, null);
+                // if decoding fails the row stays in the list and is released when closing
+                sortedRows.set(nextRow, null);
+                nextRow++;
                 row.close();
+            }
 
-                p++;
-                if (p == size) {
-                    Block[] blocks = new Block[builders.length];
-                    try {
-                        for (int b = 0; b < blocks.length; b++) {
-                            blocks[b] = builders[b].build();
-                        }
-                    } finally {
-                        if (blocks[blocks.length - 1] == null) {
-                            Releasables.closeExpectNoException(blocks);
-                        }
-                    }
-                    result.add(new Page(blocks));
-                    Releasables.closeExpectNoException(builders);
-                    builders = null;
+            Block[] blocks = new Block[builders.length];
+            try {
+                for (int b = 0; b < blocks.length; b++) {
+                    blocks[b] = builders[b].build();
                 }
-            }
-            assert builders == null;
-            success = true;
-            return result.iterator();
-        } finally {
-            if (success == false) {
-                List<Releasable> close = new ArrayList<>(list);
-                for (Page p : result) {
-                    close.add(p::releaseBlocks);
+            } finally {
+                if (blocks[blocks.length - 1] == null) {
+                    Releasables.closeExpectNoException(blocks);
                 }
-                Collections.addAll(close, builders);
-                Releasables.closeExpectNoException(Releasables.wrap(close));
             }
+            return new Page(blocks);
+        } finally {
+            Releasables.closeExpectNoException(builders);
         }
     }
 
@@ -486,13 +468,13 @@ public class TopNOperator implements Operator, Accountable {
 
     @Override
     public boolean isFinished() {
-        return output != null && output.hasNext() == false;
+        return sortedRows != null && nextRow == sortedRows.size();
     }
 
     @Override
     public Page getOutput() {
-        if (output != null && output.hasNext()) {
-            return output.next();
+        if (sortedRows != null && nextRow < sortedRows.size()) {
+            return buildPage();
         }
         return null;
     }
@@ -501,13 +483,13 @@ public class TopNOperator implements Operator, Accountable {
     public void close() {
         /*
          * If we close before calling finish then spare and inputQueue will be live rows
-         * that need closing. If we close after calling finish then the output iterator
-         * will contain pages of results that have yet to be returned.
+         * that need closing. If we close after calling finish then the sorted rows that
+         * have yet to be returned need closing.
          */
         Releasables.closeExpectNoException(
             spare,
             inputQueue == null ? null : Releasables.wrap(inputQueue),
-            output == null ? null : Releasables.wrap(() -> Iterators.map(output, p -> p::releaseBlocks))
+            sortedRows == null ? null : Releasables.wrap(sortedRows.subList(nextRow, sortedRows.size()))
         );
     }
 
@@ -516,7 +498,6 @@ public class TopNOperator implements Operator, Accountable {
 
     @Override
     public long ramBytesUsed() {
-        // NOTE: this is ignoring the output iterator for now. Pages are not Accountable. Yet.
         long arrHeader = RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
         long ref = RamUsageEstimator.NUM_BYTES_OBJECT_REF;
         long size = SHALLOW_SIZE;
@@ -526,6 +507,12 @@ public class TopNOperator implements Operator, Accountable {
         size += RamUsageEstimator.alignObjectSize(arrHeader + ref * sortOrders.size());
         size += sortOrders.size() * SortOrder.SHALLOW_SIZE;
         size += inputQueue.ramBytesUsed();
+        if (sortedRows != null) {
+            size += RamUsageEstimator.alignObjectSize(arrHeader + ref * sortedRows.size());
+            for (int i = nextRow; i < sortedRows.size(); i++) {
+                size += sortedRows.get(i).ramBytesUsed();
+            }
+        }
         return size;
     }
 
@@ -0,0 +1,94 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.vectorization;
+
+/**
+ * Kernels over the arrays behind dense vectors, which have neither {@code null}s nor multivalued positions. Each kernel processes the
+ * first {@code length} values of its arrays. {@link ScalarArrayKernels} implements them with plain loops, and the kernels in
+ * {@code src/main21} with the Vector API. Both must produce the same results, see {@link Vectorization}.
+ */
+public interface ArrayKernels {
+
+    enum Comparison {
+        EQ,
+        NEQ,
+        GT,
+        GTE,
+        LT,
+        LTE
+    }
+
+    /**
+     * Writes the indices of the {@code true} values into {@code positions}, which must be able to hold {@code length} indices, and
+     * returns how many there are.
+     */
+    int selectedPositions(boolean[] values, int length, int[] positions);
+
+    /**
+     * Adds the values to {@code current}, throwing an {@link ArithmeticException} if the sum overflows.
+     */
+    long sum(long current, int[] values, int length);
+
+    /**
+     * Adds the values to {@code current}, throwing an {@link ArithmeticException} if the sum overflows. Like for a sum of several
+     * pages, whether a sum with intermediate overflows but a total that fits throws depends on the order of the additions.
+     */
+    long sum(long current, long[] values, int length);
+
+    int min(int current, int[] values, int length);
+
+    int max(int current, int[] values, int length);
+
+    long min(long current, long[] values, int length);
+
+    long max(long current, long[] values, int length);
+
+    /**
+     * The minimum of {@code current} and the values, like {@link Math#min(double, double)}.
+     */
+    double min(double current, double[] values, int length);
+
+    /**
+     * The maximum of {@code current} and the values, like {@link Math#max(double, double)}.
+     */
+    double max(double current, double[] values, int length);
+
+    void compare(Comparison comparison, int[] lhs, int[] rhs, int length, boolean[] result);
+
+    void compare(Comparison comparison, long[] lhs, long[] rhs, int length, boolean[] result);
+
+    void compare(Comparison comparison, double[] lhs, double[] rhs, int length, boolean[] result);
+
+    /**
+     * Adds the values pairwise into {@code result}, like {@link Math#addExact(int, int)}.
+     * @return {@code false} if an addition overflows, in which case the content of {@code result} is undefined
+     */
+    boolean addExact(int[] lhs, int[] rhs, int length, int[] result);
+
+    /**
+     * Adds the values pairwise into {@code result}, like {@link Math#addExact(long, long)}.
+     * @return {@code false} if an addition overflows, in which case the content of {@code result} is undefined
+     */
+    boolean addExact(long[] lhs, long[] rhs, int length, long[] result);
+
+    void add(double[] lhs, double[] rhs, int length, double[] result);
+
+    /**
+     * Subtracts the values pairwise into {@code result}, like {@link Math#subtractExact(int, int)}.
+     * @return {@code false} if a subtraction overflows, in which case the content of {@code result} is undefined
+     */
+    boolean subtractExact(int[] lhs, int[] rhs, int length, int[] result);
+
+    /**
+     * Subtracts the values pairwise into {@code result}, like {@link Math#subtractExact(long, long)}.
+     * @return {@code false} if a subtraction overflows, in which case the content of {@code result} is undefined
+     */
+    boolean subtractExact(long[] lhs, long[] rhs, int length, long[] result);
+
+    void subtract(double[] lhs, double[] rhs, int length, double[] result);
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.vectorization;
+
+/**
+ * Plain loops, used when the Vector API isn't available or enabled, and for the values that don't fill a whole vector.
+ */
+final class ScalarArrayKernels implements ArrayKernels {
+
+    @Override
+    public int selectedPositions(boolean[] values, int length, int[] positions) {
+        return selectedPositions(values, 0, length, positions, 0);
+    }
+
+    /**
+     * Always writing the position and only advancing the count for {@code true} values keeps the loop free of unpredictable branches,
+     * which matters when about half the positions are selected.
+     */
+    static int selectedPositions(boolean[] values, int from, int to, int[] positions, int count) {
+        for (int i = from; i < to; i++) {
+            positions[count] = i;
+            count += values[i] ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Override
+    public long sum(long current, int[] values, int length) {
+        return sum(current, values, 0, length);
+    }
+
+    static long sum(long current, int[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            current = Math.addExact(current, values[i]);
+        }
+        return current;
+    }
+
+    @Override
+    public long sum(long current, long[] values, int length) {
+        return sum(current, values, 0, length);
+    }
+
+    static long sum(long current, long[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            current = Math.addExact(current, values[i]);
+        }
+        return current;
+    }
+
+    @Override
+    public int min(int current, int[] values, int length) {
+        return min(current, values, 0, length);
+    }
+
+    static int min(int current, int[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            current = Math.min(current, values[i]);
+        }
+        return current;
+    }
+
+    @Override
+    public int max(int current, int[] values, int length) {
+        return max(current, values, 0, length);
+    }
+
+    static int max(int current, int[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            current = Math.max(current, values[i]);
+        }
+        return current;
+    }
+
+    @Override
+    public long min(long current, long[] values, int length) {
+        return min(current, values, 0, length);
+    }
+
+    static long min(long current, long[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            current = Math.min(current, values[i]);
+        }
+        return current;
+    }
+
+    @Override
+    public long max(long current, long[] values, int length) {
+        return max(current, values, 0, length);
+    }
+
+    static long max(long current, long[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            current = Math.max(current, values[i]);
+        }
+        return current;
+    }
+
+    @Override
+    public double min(double current, double[] values, int length) {
+        return min(current, values, 0, length);
+    }
+
+    static double min(double current, double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            current = Math.min(current, values[i]);
+        }
+        return current;
+    }
+
+    @Override
+    public double max(double current, double[] values, int length) {
+        return max(current, values, 0, length);
+    }
+
+    static double max(double current, double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            current = Math.max(current, values[i]);
+        }
+        return current;
+    }
+
+    @Override
+    public void compare(Comparison comparison, int[] lhs, int[] rhs, int length, boolean[] result) {
+        compare(comparison, lhs, rhs, 0, length, result);
+    }
+
+    static void compare(Comparison comparison, int[] lhs, int[] rhs, int from, int to, boolean[] result) {
+        switch (comparison) {
+            case EQ -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] == rhs[i];
+                }
+            }
+            case NEQ -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] != rhs[i];
+                }
+            }
+            case GT -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] > rhs[i];
+                }
+            }
+            case GTE -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] >= rhs[i];
+                }
+            }
+            case LT -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] < rhs[i];
+                }
+            }
+            case LTE -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] <= rhs[i];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void compare(Comparison comparison, long[] lhs, long[] rhs, int length, boolean[] result) {
+        compare(comparison, lhs, rhs, 0, length, result);
+    }
+
+    static void compare(Comparison comparison, long[] lhs, long[] rhs, int from, int to, boolean[] result) {
+        switch (comparison) {
+            case EQ -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] == rhs[i];
+                }
+            }
+            case NEQ -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] != rhs[i];
+                }
+            }
+            case GT -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] > rhs[i];
+                }
+            }
+            case GTE -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] >= rhs[i];
+                }
+            }
+            case LT -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] < rhs[i];
+                }
+            }
+            case LTE -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] <= rhs[i];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void compare(Comparison comparison, double[] lhs, double[] rhs, int length, boolean[] result) {
+        compare(comparison, lhs, rhs, 0, length, result);
+    }
+
+    static void compare(Comparison comparison, double[] lhs, double[] rhs, int from, int to, boolean[] result) {
+        switch (comparison) {
+            case EQ -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] == rhs[i];
+                }
+            }
+            case NEQ -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] != rhs[i];
+                }
+            }
+            case GT -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] > rhs[i];
+                }
+            }
+            case GTE -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] >= rhs[i];
+                }
+            }
+            case LT -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] < rhs[i];
+                }
+            }
+            case LTE -> {
+                for (int i = from; i < to; i++) {
+                    result[i] = lhs[i] <= rhs[i];
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean addExact(int[] lhs, int[] rhs, int length, int[] result) {
+        return addExact(lhs, rhs, 0, length, result);
+    }
+
+    static boolean addExact(int[] lhs, int[] rhs, int from, int to, int[] result) {
+        for (int i = from; i < to; i++) {
+            int r = lhs[i] + rhs[i];
+            // like Math.addExact, the sum overflowed if both operands have a different sign than the result
+            if (((lhs[i] ^ r) & (rhs[i] ^ r)) < 0) {
+                return false;
+            }
+            result[i] = r;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addExact(long[] lhs, long[] rhs, int length, long[] result) {
+        return addExact(lhs, rhs, 0, length, result);
+    }
+
+    static boolean addExact(long[] lhs, long[] rhs, int from, int to, long[] result) {
+        for (int i = from; i < to; i++) {
+            long r = lhs[i] + rhs[i];
+            if (((lhs[i] ^ r) & (rhs[i] ^ r)) < 0) {
+                return false;
+            }
+            result[i] = r;
+        }
+        return true;
+    }
+
+    @Override
+    public void add(double[] lhs, double[] rhs, int length, double[] result) {
+        add(lhs, rhs, 0, length, result);
+    }
+
+    static void add(double[] lhs, double[] rhs, int from, int to, double[] result) {
+        for (int i = from; i < to; i++) {
+            result[i] = lhs[i] + rhs[i];
+        }
+    }
+
+    @Override
+    public boolean subtractExact(int[] lhs, int[] rhs, int length, int[] result) {
+        return subtractExact(lhs, rhs, 0, length, result);
+    }
+
+    static boolean subtractExact(int[] lhs, int[] rhs, int from, int to, int[] result) {
+        for (int i = from; i < to; i++) {
+            int r = lhs[i] - rhs[i];
+            // like Math.subtractExact, the difference overflowed if the operands have different signs and the result doesn't have the
+            // sign of the first operand
+            if (((lhs[i] ^ rhs[i]) & (lhs[i] ^ r)) < 0) {
+                return false;
+            }
+            result[i] = r;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean subtractExact(long[] lhs, long[] rhs, int length, long[] result) {
+        return subtractExact(lhs, rhs, 0, length, result);
+    }
+
+    static boolean subtractExact(long[] lhs, long[] rhs, int from, int to, long[] result) {
+        for (int i = from; i < to; i++) {
+            long r = lhs[i] - rhs[i];
+            if (((lhs[i] ^ rhs[i]) & (lhs[i] ^ r)) < 0) {
+                return false;
+            }
+            result[i] = r;
+        }
+        return true;
+    }
+
+    @Override
+    public void subtract(double[] lhs, double[] rhs, int length, double[] result) {
+        subtract(lhs, rhs, 0, length, result);
+    }
+
+    static void subtract(double[] lhs, double[] rhs, int from, int to, double[] result) {
+        for (int i = from; i < to; i++) {
+            result[i] = lhs[i] - rhs[i];
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.vectorization;
+
+import org.elasticsearch.common.util.FeatureFlag;
+import org.elasticsearch.logging.LogManager;
+import org.elasticsearch.logging.Logger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+
+/**
+ * Looks up the {@link ArrayKernels} to use. The kernels that use the Vector API live in {@code src/main21}, since the API needs Java 21
+ * and the incubator module, which the distribution's {@code jvm.options} add. They are only used if the {@code esql_vector_api} feature
+ * flag is enabled, the incubator module is resolved and the hardware supports vectors of at least 256 bits. Otherwise, the
+ * {@link ScalarArrayKernels} are used, and the callers of the kernels that would have no benefit from the scalar kernels keep using
+ * their own loops, see {@link #isVectorized}.
+ */
+public final class Vectorization {
+
+    private static final Logger logger = LogManager.getLogger(Vectorization.class);
+
+    public static final FeatureFlag VECTOR_API_FEATURE_FLAG = new FeatureFlag("esql_vector_api");
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final ArrayKernels SCALAR_KERNELS = new ScalarArrayKernels();
+    private static final ArrayKernels KERNELS = lookup();
+
+    private Vectorization() {}
+
+    /**
+     * @return the kernels that use the Vector API if it is available and enabled, or the scalar kernels otherwise
+     */
+    public static ArrayKernels kernels() {
+        return KERNELS;
+    }
+
+    /**
+     * @return the kernels that use plain loops
+     */
+    public static ArrayKernels scalarKernels() {
+        return SCALAR_KERNELS;
+    }
+
+    /**
+     * @return whether {@link #kernels()} use the Vector API
+     */
+    public static boolean isVectorized() {
+        return KERNELS != SCALAR_KERNELS;
+    }
+
+    private static ArrayKernels lookup() {
+        if (VECTOR_API_FEATURE_FLAG.isEnabled() == false) {
+            return SCALAR_KERNELS;
+        }
+        if (Runtime.version().feature() < 21) {
+            logger.debug("not using the Vector API for ES|QL, it requires Java 21 or later");
+            return SCALAR_KERNELS;
+        }
+        Optional<Module> vectorModule = ModuleLayer.boot().findModule(VECTOR_MODULE);
+        if (vectorModule.isEmpty()) {
+            logger.warn(
+                "not using the Vector API for ES|QL, the [{}] module is not resolved, add [--add-modules={}]",
+                VECTOR_MODULE,
+                VECTOR_MODULE
+            );
+            return SCALAR_KERNELS;
+        }
+        // this module doesn't require the incubator module, since it must load without it
+        Vectorization.class.getModule().addReads(vectorModule.get());
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> kernelsClass = lookup.findClass("org.elasticsearch.compute.vectorization.PanamaArrayKernels");
+            ArrayKernels kernels = (ArrayKernels) lookup.findConstructor(kernelsClass, MethodType.methodType(void.class)).invoke();
+            logger.info("using the Vector API for ES|QL: {}", kernels);
+            return kernels;
+        } catch (UnsupportedOperationException e) {
+            logger.debug("not using the Vector API for ES|QL: {}", e.getMessage());
+            return SCALAR_KERNELS;
+        } catch (ClassNotFoundException e) {
+            // only when running from the classes of src/main rather than from the jar
+            logger.warn("not using the Vector API for ES|QL, the Java 21 kernels are missing");
+            return SCALAR_KERNELS;
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new AssertionError(e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.vectorization;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ArrayKernels} that process as many values at once as fit the preferred vector size of the hardware, and process the remaining
+ * values like the {@link ScalarArrayKernels}. Loaded by {@link Vectorization}.
+ */
+final class PanamaArrayKernels implements ArrayKernels {
+
+    private static final VectorSpecies<Byte> MASK_SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // the ints that are widened into the longs of a LONG_SPECIES vector, to sum them without overflowing
+    private static final VectorSpecies<Integer> WIDENED_INT_SPECIES = IntVector.SPECIES_PREFERRED.withShape(
+        VectorShape.forBitSize(LongVector.SPECIES_PREFERRED.vectorBitSize() / 2)
+    );
+    private static final IntVector IOTA = IntVector.zero(INT_SPECIES).addIndex(1);
+    // the bits of a mask of MASK_SPECIES that is all set, it has at most 64 lanes
+    private static final long ALL_SELECTED = MASK_SPECIES.length() == Long.SIZE ? -1L : (1L << MASK_SPECIES.length()) - 1;
+
+    PanamaArrayKernels() {
+        // with 128 bit vectors the masks of the comparisons are slower to write into arrays than comparing the values one by one
+        if (VectorShape.preferredShape().vectorBitSize() < 256) {
+            throw new UnsupportedOperationException("vectors of [" + VectorShape.preferredShape().vectorBitSize() + "] bits are too small");
+        }
+    }
+
+    @Override
+    public int selectedPositions(boolean[] values, int length, int[] positions) {
+        int count = 0;
+        int i = 0;
+        for (int bound = MASK_SPECIES.loopBound(length); i < bound; i += MASK_SPECIES.length()) {
+            long selected = VectorMask.fromArray(MASK_SPECIES, values, i).toLong();
+            if (selected == ALL_SELECTED) {
+                for (int j = 0; j < MASK_SPECIES.length(); j += INT_SPECIES.length()) {
+                    IOTA.add(i + j).intoArray(positions, count + j);
+                }
+                count += MASK_SPECIES.length();
+            } else {
+                while (selected != 0) {
+                    positions[count++] = i + Long.numberOfTrailingZeros(selected);
+                    selected &= selected - 1;
+                }
+            }
+        }
+        return ScalarArrayKernels.selectedPositions(values, i, length, positions, count);
+    }
+
+    @Override
+    public long sum(long current, int[] values, int length) {
+        int i = 0;
+        int bound = WIDENED_INT_SPECIES.loopBound(length);
+        if (bound > 0) {
+            // the sum of fewer than 2^32 ints fits a long, so the lanes can't overflow
+            LongVector sum = LongVector.zero(LONG_SPECIES);
+            for (; i < bound; i += WIDENED_INT_SPECIES.length()) {
+                IntVector v = IntVector.fromArray(WIDENED_INT_SPECIES, values, i);
+                sum = sum.add((LongVector) v.convertShape(VectorOperators.I2L, LONG_SPECIES, 0));
+            }
+            current = Math.addExact(current, sum.reduceLanes(VectorOperators.ADD));
+        }
+        return ScalarArrayKernels.sum(current, values, i, length);
+    }
+
+    @Override
+    public long sum(long current, long[] values, int length) {
+        int i = 0;
+        int bound = LONG_SPECIES.loopBound(length);
+        if (bound > 0) {
+            LongVector sum = LongVector.zero(LONG_SPECIES);
+            LongVector overflow = LongVector.zero(LONG_SPECIES);
+            for (; i < bound; i += LONG_SPECIES.length()) {
+                LongVector v = LongVector.fromArray(LONG_SPECIES, values, i);
+                LongVector r = sum.add(v);
+                // like Math.addExact, the sum overflowed if both operands have a different sign than the result
+                overflow = overflow.or(sum.lanewise(VectorOperators.XOR, r).and(v.lanewise(VectorOperators.XOR, r)));
+                sum = r;
+            }
+            long total = current;
+            boolean overflowed = overflow.reduceLanes(VectorOperators.OR) < 0;
+            for (int lane = 0; overflowed == false && lane < LONG_SPECIES.length(); lane++) {
+                long r = total + sum.lane(lane);
+                overflowed = ((total ^ r) & (sum.lane(lane) ^ r)) < 0;
+                total = r;
+            }
+            if (overflowed) {
+                // the order of the additions decides whether the sum overflows, only throw if it does in the order of the scalar kernels
+                return ScalarArrayKernels.sum(current, values, 0, length);
+            }
+            current = total;
+        }
+        return ScalarArrayKernels.sum(current, values, i, length);
+    }
+
+    @Override
+    public int min(int current, int[] values, int length) {
+        int i = 0;
+        int bound = INT_SPECIES.loopBound(length);
+        if (bound > 0) {
+            IntVector min = IntVector.broadcast(INT_SPECIES, current);
+            for (; i < bound; i += INT_SPECIES.length()) {
+                min = min.min(IntVector.fromArray(INT_SPECIES, values, i));
+            }
+            current = min.reduceLanes(VectorOperators.MIN);
+        }
+        return ScalarArrayKernels.min(current, values, i, length);
+    }
+
+    @Override
+    public int max(int current, int[] values, int length) {
+        int i = 0;
+        int bound = INT_SPECIES.loopBound(length);
+        if (bound > 0) {
+            IntVector max = IntVector.broadcast(INT_SPECIES, current);
+            for (; i < bound; i += INT_SPECIES.length()) {
+                max = max.max(IntVector.fromArray(INT_SPECIES, values, i));
+            }
+            current = max.reduceLanes(VectorOperators.MAX);
+        }
+        return ScalarArrayKernels.max(current, values, i, length);
+    }
+
+    @Override
+    public long min(long current, long[] values, int length) {
+        int i = 0;
+        int bound = LONG_SPECIES.loopBound(length);
+        if (bound > 0) {
+            LongVector min = LongVector.broadcast(LONG_SPECIES, current);
+            for (; i < bound; i += LONG_SPECIES.length()) {
+                min = min.min(LongVector.fromArray(LONG_SPECIES, values, i));
+            }
+            current = min.reduceLanes(VectorOperators.MIN);
+        }
+        return ScalarArrayKernels.min(current, values, i, length);
+    }
+
+    @Override
+    public long max(long current, long[] values, int length) {
+        int i = 0;
+        int bound = LONG_SPECIES.loopBound(length);
+        if (bound > 0) {
+            LongVector max = LongVector.broadcast(LONG_SPECIES, current);
+            for (; i < bound; i += LONG_SPECIES.length()) {
+                max = max.max(LongVector.fromArray(LONG_SPECIES, values, i));
+            }
+            current = max.reduceLanes(VectorOperators.MAX);
+        }
+        return ScalarArrayKernels.max(current, values, i, length);
+    }
+
+    @Override
+    public double min(double current, double[] values, int length) {
+        // Math.min's handling of NaN and -0.0 makes the lanewise MIN slower than the scalar loop
+        return ScalarArrayKernels.min(current, values, 0, length);
+    }
+
+    @Override
+    public double max(double current, double[] values, int length) {
+        // like for min, the scalar loop is faster
+        return ScalarArrayKernels.max(current, values, 0, length);
+    }
+
+    @Override
+    public void compare(Comparison comparison, int[] lhs, int[] rhs, int length, boolean[] result) {
+        int i = 0;
+        for (int bound = INT_SPECIES.loopBound(length); i < bound; i += INT_SPECIES.length()) {
+            IntVector a = IntVector.fromArray(INT_SPECIES, lhs, i);
+            IntVector b = IntVector.fromArray(INT_SPECIES, rhs, i);
+            // the operators must be constants for the compare to compile into vector instructions
+            VectorMask<Integer> selected = switch (comparison) {
+                case EQ -> a.compare(VectorOperators.EQ, b);
+                case NEQ -> a.compare(VectorOperators.NE, b);
+                case GT -> a.compare(VectorOperators.GT, b);
+                case GTE -> a.compare(VectorOperators.GE, b);
+                case LT -> a.compare(VectorOperators.LT, b);
+                case LTE -> a.compare(VectorOperators.LE, b);
+            };
+            selected.intoArray(result, i);
+        }
+        ScalarArrayKernels.compare(comparison, lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public void compare(Comparison comparison, long[] lhs, long[] rhs, int length, boolean[] result) {
+        int i = 0;
+        for (int bound = LONG_SPECIES.loopBound(length); i < bound; i += LONG_SPECIES.length()) {
+            LongVector a = LongVector.fromArray(LONG_SPECIES, lhs, i);
+            LongVector b = LongVector.fromArray(LONG_SPECIES, rhs, i);
+            // the operators must be constants for the compare to compile into vector instructions
+            VectorMask<Long> selected = switch (comparison) {
+                case EQ -> a.compare(VectorOperators.EQ, b);
+                case NEQ -> a.compare(VectorOperators.NE, b);
+                case GT -> a.compare(VectorOperators.GT, b);
+                case GTE -> a.compare(VectorOperators.GE, b);
+                case LT -> a.compare(VectorOperators.LT, b);
+                case LTE -> a.compare(VectorOperators.LE, b);
+            };
+            selected.intoArray(result, i);
+        }
+        ScalarArrayKernels.compare(comparison, lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public void compare(Comparison comparison, double[] lhs, double[] rhs, int length, boolean[] result) {
+        // the comparisons of the Vector API have the semantics of Java's operators, NaN is only different from any value
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(length); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(DOUBLE_SPECIES, lhs, i);
+            DoubleVector b = DoubleVector.fromArray(DOUBLE_SPECIES, rhs, i);
+            // the operators must be constants for the compare to compile into vector instructions
+            VectorMask<Double> selected = switch (comparison) {
+                case EQ -> a.compare(VectorOperators.EQ, b);
+                case NEQ -> a.compare(VectorOperators.NE, b);
+                case GT -> a.compare(VectorOperators.GT, b);
+                case GTE -> a.compare(VectorOperators.GE, b);
+                case LT -> a.compare(VectorOperators.LT, b);
+                case LTE -> a.compare(VectorOperators.LE, b);
+            };
+            selected.intoArray(result, i);
+        }
+        ScalarArrayKernels.compare(comparison, lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public boolean addExact(int[] lhs, int[] rhs, int length, int[] result) {
+        int i = 0;
+        int bound = INT_SPECIES.loopBound(length);
+        if (bound > 0) {
+            IntVector overflow = IntVector.zero(INT_SPECIES);
+            for (; i < bound; i += INT_SPECIES.length()) {
+                IntVector a = IntVector.fromArray(INT_SPECIES, lhs, i);
+                IntVector b = IntVector.fromArray(INT_SPECIES, rhs, i);
+                IntVector r = a.add(b);
+                overflow = overflow.or(a.lanewise(VectorOperators.XOR, r).and(b.lanewise(VectorOperators.XOR, r)));
+                r.intoArray(result, i);
+            }
+            if (overflow.reduceLanes(VectorOperators.OR) < 0) {
+                return false;
+            }
+        }
+        return ScalarArrayKernels.addExact(lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public boolean addExact(long[] lhs, long[] rhs, int length, long[] result) {
+        int i = 0;
+        int bound = LONG_SPECIES.loopBound(length);
+        if (bound > 0) {
+            LongVector overflow = LongVector.zero(LONG_SPECIES);
+            for (; i < bound; i += LONG_SPECIES.length()) {
+                LongVector a = LongVector.fromArray(LONG_SPECIES, lhs, i);
+                LongVector b = LongVector.fromArray(LONG_SPECIES, rhs, i);
+                LongVector r = a.add(b);
+                overflow = overflow.or(a.lanewise(VectorOperators.XOR, r).and(b.lanewise(VectorOperators.XOR, r)));
+                r.intoArray(result, i);
+            }
+            if (overflow.reduceLanes(VectorOperators.OR) < 0) {
+                return false;
+            }
+        }
+        return ScalarArrayKernels.addExact(lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public void add(double[] lhs, double[] rhs, int length, double[] result) {
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(length); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, lhs, i).add(DoubleVector.fromArray(DOUBLE_SPECIES, rhs, i)).intoArray(result, i);
+        }
+        ScalarArrayKernels.add(lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public boolean subtractExact(int[] lhs, int[] rhs, int length, int[] result) {
+        int i = 0;
+        int bound = INT_SPECIES.loopBound(length);
+        if (bound > 0) {
+            IntVector overflow = IntVector.zero(INT_SPECIES);
+            for (; i < bound; i += INT_SPECIES.length()) {
+                IntVector a = IntVector.fromArray(INT_SPECIES, lhs, i);
+                IntVector b = IntVector.fromArray(INT_SPECIES, rhs, i);
+                IntVector r = a.sub(b);
+                // like Math.subtractExact, the difference overflowed if the operands have different signs and the result doesn't
+                // have the sign of the first operand
+                overflow = overflow.or(a.lanewise(VectorOperators.XOR, b).and(a.lanewise(VectorOperators.XOR, r)));
+                r.intoArray(result, i);
+            }
+            if (overflow.reduceLanes(VectorOperators.OR) < 0) {
+                return false;
+            }
+        }
+        return ScalarArrayKernels.subtractExact(lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public boolean subtractExact(long[] lhs, long[] rhs, int length, long[] result) {
+        int i = 0;
+        int bound = LONG_SPECIES.loopBound(length);
+        if (bound > 0) {
+            LongVector overflow = LongVector.zero(LONG_SPECIES);
+            for (; i < bound; i += LONG_SPECIES.length()) {
+                LongVector a = LongVector.fromArray(LONG_SPECIES, lhs, i);
+                LongVector b = LongVector.fromArray(LONG_SPECIES, rhs, i);
+                LongVector r = a.sub(b);
+                overflow = overflow.or(a.lanewise(VectorOperators.XOR, b).and(a.lanewise(VectorOperators.XOR, r)));
+                r.intoArray(result, i);
+            }
+            if (overflow.reduceLanes(VectorOperators.OR) < 0) {
+                return false;
+            }
+        }
+        return ScalarArrayKernels.subtractExact(lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public void subtract(double[] lhs, double[] rhs, int length, double[] result) {
+        int i = 0;
+        for (int bound = DOUBLE_SPECIES.loopBound(length); i < bound; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, lhs, i).sub(DoubleVector.fromArray(DOUBLE_SPECIES, rhs, i)).intoArray(result, i);
+        }
+        ScalarArrayKernels.subtract(lhs, rhs, i, length, result);
+    }
+
+    @Override
+    public String toString() {
+        return "PanamaArrayKernels[" + VectorShape.preferredShape().vectorBitSize() + " bits]";
+    }
+}
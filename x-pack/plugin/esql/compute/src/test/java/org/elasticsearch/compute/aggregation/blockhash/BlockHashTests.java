@@ -20,11 +20,14 @@ import org.elasticsearch.compute.aggregation.GroupingAggregatorFunction;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BooleanBlock;
 import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.DoubleBlock;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.MockBlockFactory;
+import org.elasticsearch.compute.data.OrdinalBytesRefBlock;
+import org.elasticsearch.compute.data.OrdinalBytesRefVector;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.data.TestBlockFactory;
 import org.elasticsearch.compute.operator.HashAggregationOperator;
@@ -402,6 +405,66 @@ public class BlockHashTests extends ESTestCase {
         }
     }
 
+    public void testBytesRefHashWithOrdinals() {
+        IntVector ordinals = blockFactory.newIntArrayVector(new int[] { 1, 0, 2, 1, 2, 0, 1, 2 }, 8);
+        BytesRefVector dictionary;
+        try (BytesRefVector.Builder builder = blockFactory.newBytesRefVectorBuilder(4)) {
+            builder.appendBytesRef(new BytesRef("item-1"));
+            builder.appendBytesRef(new BytesRef("item-2"));
+            builder.appendBytesRef(new BytesRef("item-3"));
+            builder.appendBytesRef(new BytesRef("item-unused"));
+            dictionary = builder.build();
+        }
+
+        hash(ordsAndKeys -> {
+            if (forcePackedHash) {
+                assertThat(ordsAndKeys.description, startsWith("PackedValuesBlockHash{groups=[0:BYTES_REF], entries=3, size="));
+                assertOrds(ordsAndKeys.ords, 0, 1, 2, 0, 2, 1, 0, 2);
+                assertThat(ordsAndKeys.nonEmpty, equalTo(intRange(0, 3)));
+            } else {
+                // the values of the dictionary that no position refers to don't get a group
+                assertThat(ordsAndKeys.description, startsWith("BytesRefBlockHash{channel=0, entries=3, size="));
+                assertThat(ordsAndKeys.description, endsWith("b, seenNull=false}"));
+                assertOrds(ordsAndKeys.ords, 1, 2, 3, 1, 3, 2, 1, 3);
+                assertThat(ordsAndKeys.nonEmpty, equalTo(intRange(1, 4)));
+            }
+            assertKeys(ordsAndKeys.keys, "item-2", "item-1", "item-3");
+        }, new OrdinalBytesRefVector(ordinals, dictionary).asBlock());
+    }
+
+    public void testBytesRefHashWithOrdinalsAndNulls() {
+        BytesRefVector dictionary;
+        try (BytesRefVector.Builder builder = blockFactory.newBytesRefVectorBuilder(2)) {
+            builder.appendBytesRef(new BytesRef("cat"));
+            builder.appendBytesRef(new BytesRef("dog"));
+            dictionary = builder.build();
+        }
+        IntBlock ordinals;
+        try (IntBlock.Builder builder = blockFactory.newIntBlockBuilder(6)) {
+            builder.appendInt(0);
+            builder.appendNull();
+            builder.appendInt(1);
+            builder.appendNull();
+            builder.appendInt(0);
+            builder.appendInt(1);
+            ordinals = builder.build();
+        }
+
+        hash(ordsAndKeys -> {
+            if (forcePackedHash) {
+                assertThat(ordsAndKeys.description, startsWith("PackedValuesBlockHash{groups=[0:BYTES_REF], entries=3, size="));
+                assertOrds(ordsAndKeys.ords, 0, 1, 2, 1, 0, 2);
+                assertKeys(ordsAndKeys.keys, "cat", null, "dog");
+            } else {
+                assertThat(ordsAndKeys.description, startsWith("BytesRefBlockHash{channel=0, entries=2, size="));
+                assertThat(ordsAndKeys.description, endsWith("b, seenNull=true}"));
+                assertOrds(ordsAndKeys.ords, 1, 0, 2, 0, 1, 2);
+                assertKeys(ordsAndKeys.keys, null, "cat", "dog");
+            }
+            assertThat(ordsAndKeys.nonEmpty, equalTo(intRange(0, 3)));
+        }, new OrdinalBytesRefBlock(ordinals, dictionary));
+    }
+
     public void testBytesRefHashWithMultiValuedFields() {
         try (BytesRefBlock.Builder builder = blockFactory.newBytesRefBlockBuilder(8)) {
             builder.appendBytesRef(new BytesRef("foo"));
@@ -0,0 +1,133 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.data;
+
+import org.elasticsearch.compute.operator.ComputeTestCase;
+import org.elasticsearch.compute.vectorization.ArrayKernels.Comparison;
+import org.elasticsearch.compute.vectorization.Vectorization;
+import org.elasticsearch.core.Releasables;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class VectorKernelsTests extends ComputeTestCase {
+
+    public void testSelectedPositionsOfConstant() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        boolean value = randomBoolean();
+        try (BooleanVector vector = blockFactory.newConstantBooleanVector(value, positionCount)) {
+            int[] positions = new int[positionCount];
+            assertThat(VectorKernels.selectedPositions(vector, positions), equalTo(value ? positionCount : 0));
+        }
+    }
+
+    public void testAggregations() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        long[] values = new long[positionCount];
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < positionCount; i++) {
+            values[i] = randomIntBetween(-1000, 1000);
+            sum += values[i];
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        try (LongVector vector = blockFactory.newLongArrayVector(values, positionCount)) {
+            assertThat(VectorKernels.sum(0, vector), equalTo(sum));
+            assertThat(VectorKernels.min(Long.MAX_VALUE, vector), equalTo(min));
+            assertThat(VectorKernels.max(Long.MIN_VALUE, vector), equalTo(max));
+        }
+        try (LongVector vector = blockFactory.newConstantLongVector(values[0], positionCount)) {
+            assertThat(VectorKernels.sum(0, vector), equalTo(values[0] * positionCount));
+            assertThat(VectorKernels.min(Long.MAX_VALUE, vector), equalTo(values[0]));
+            assertThat(VectorKernels.max(Long.MIN_VALUE, vector), equalTo(values[0]));
+        }
+    }
+
+    public void testAddExact() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        int[] lhs = new int[positionCount];
+        int[] rhs = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            lhs[i] = between(-1000, 1000);
+            rhs[i] = between(-1000, 1000);
+        }
+        try (
+            IntVector lhsVector = blockFactory.newIntArrayVector(lhs, positionCount);
+            IntVector rhsVector = blockFactory.newIntArrayVector(rhs, positionCount);
+            IntVector result = VectorKernels.addExact(blockFactory, lhsVector, rhsVector)
+        ) {
+            if (Vectorization.isVectorized() == false) {
+                assertThat(result, nullValue());
+                return;
+            }
+            for (int i = 0; i < positionCount; i++) {
+                assertThat(result.getInt(i), equalTo(lhs[i] + rhs[i]));
+            }
+        }
+    }
+
+    public void testAddExactOverflow() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        long[] lhs = new long[positionCount];
+        long[] rhs = new long[positionCount];
+        lhs[between(0, positionCount - 1)] = Long.MAX_VALUE;
+        rhs[between(0, positionCount - 1)] = 1;
+        lhs[positionCount - 1] = Long.MAX_VALUE;
+        rhs[positionCount - 1] = 1;
+        try (
+            LongVector lhsVector = blockFactory.newLongArrayVector(lhs, positionCount);
+            LongVector rhsVector = blockFactory.newLongArrayVector(rhs, positionCount)
+        ) {
+            // the overflow is left to the evaluator, which warns about it
+            assertThat(VectorKernels.addExact(blockFactory, lhsVector, rhsVector), nullValue());
+        }
+    }
+
+    public void testCompare() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        double[] lhs = new double[positionCount];
+        double[] rhs = new double[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            lhs[i] = randomFrom(Double.NaN, randomDouble(), 0.0);
+            rhs[i] = randomFrom(Double.NaN, randomDouble(), 0.0);
+        }
+        try (
+            DoubleVector lhsVector = blockFactory.newDoubleArrayVector(lhs, positionCount);
+            DoubleVector rhsVector = blockFactory.newDoubleArrayVector(rhs, positionCount);
+            BooleanVector result = VectorKernels.compare(blockFactory, Comparison.LT, lhsVector, rhsVector)
+        ) {
+            if (Vectorization.isVectorized() == false) {
+                assertThat(result, nullValue());
+                return;
+            }
+            for (int i = 0; i < positionCount; i++) {
+                assertThat(result.getBoolean(i), equalTo(lhs[i] < rhs[i]));
+            }
+        }
+    }
+
+    public void testNotArrayVectors() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        LongVector lhs = blockFactory.newConstantLongVector(1, positionCount);
+        LongVector rhs = blockFactory.newConstantLongVector(2, positionCount);
+        try {
+            assertThat(VectorKernels.subtractExact(blockFactory, lhs, rhs), nullValue());
+            assertThat(VectorKernels.compare(blockFactory, Comparison.EQ, lhs, rhs), nullValue());
+        } finally {
+            Releasables.close(lhs, rhs);
+        }
+    }
+}
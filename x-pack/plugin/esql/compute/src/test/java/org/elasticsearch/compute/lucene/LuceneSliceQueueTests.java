@@ -0,0 +1,74 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.lucene;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.elasticsearch.compute.lucene.LuceneSliceQueue.DOC_SLICES_PER_TASK;
+import static org.elasticsearch.compute.lucene.LuceneSliceQueue.MIN_DOCS_PER_DOC_SLICE;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class LuceneSliceQueueTests extends ESTestCase {
+
+    public void testDocSliceCount() {
+        int taskConcurrency = between(1, 16);
+        // small shards get one slice per task
+        int smallShard = between(0, MIN_DOCS_PER_DOC_SLICE * taskConcurrency);
+        assertThat(LuceneSliceQueue.docSliceCount(smallShard, taskConcurrency), equalTo(taskConcurrency));
+        // large shards get more slices, so that drivers which finish early can take over the work of the others
+        assertThat(
+            LuceneSliceQueue.docSliceCount(MIN_DOCS_PER_DOC_SLICE * taskConcurrency * DOC_SLICES_PER_TASK, taskConcurrency),
+            equalTo(taskConcurrency * DOC_SLICES_PER_TASK)
+        );
+        assertThat(LuceneSliceQueue.docSliceCount(Integer.MAX_VALUE, taskConcurrency), equalTo(taskConcurrency * DOC_SLICES_PER_TASK));
+        assertThat(
+            LuceneSliceQueue.docSliceCount(MIN_DOCS_PER_DOC_SLICE * (taskConcurrency + 1), taskConcurrency),
+            equalTo(Math.min(taskConcurrency + 1, taskConcurrency * DOC_SLICES_PER_TASK))
+        );
+    }
+
+    public void testDocSlicesCoverAllDocs() throws IOException {
+        try (
+            Directory directory = newDirectory();
+            RandomIndexWriter writer = new RandomIndexWriter(
+                random(),
+                directory,
+                newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE)
+            )
+        ) {
+            int numDocs = between(100, 1000);
+            for (int d = 0; d < numDocs; d++) {
+                writer.addDocument(new Document());
+                if (rarely()) {
+                    writer.flush();
+                }
+            }
+            try (IndexReader reader = writer.getReader()) {
+                int numSlices = between(1, 40);
+                List<List<PartialLeafReaderContext>> slices = LuceneSliceQueue.docSlices(reader, numSlices);
+                assertThat(slices, hasSize(numSlices));
+                int covered = 0;
+                for (List<PartialLeafReaderContext> slice : slices) {
+                    for (PartialLeafReaderContext leaf : slice) {
+                        covered += leaf.maxDoc() - leaf.minDoc();
+                    }
+                }
+                assertThat(covered, equalTo(numDocs));
+            }
+        }
+    }
+}
@@ -20,7 +20,19 @@ import static org.hamcrest.Matchers.equalTo;
 
 public class LuceneSourceOperatorStatusTests extends AbstractWireSerializingTestCase<LuceneSourceOperator.Status> {
     public static LuceneSourceOperator.Status simple() {
-        return new LuceneSourceOperator.Status(2, Set.of("*:*"), new TreeSet<>(List.of("a:0", "a:1")), 1002, 0, 1, 5, 123, 99990, 8000);
+        return new LuceneSourceOperator.Status(
+            2,
+            Set.of("*:*"),
+            new TreeSet<>(List.of("a:0", "a:1")),
+            1002,
+            0,
+            1,
+            5,
+            640,
+            123,
+            99990,
+            8000
+        );
     }
 
     public static String simpleToJson() {
@@ -39,6 +51,7 @@ public class LuceneSourceOperatorStatusTests extends AbstractWireSerializingTest
               "slice_index" : 0,
               "total_slices" : 1,
               "pages_emitted" : 5,
+              "rows_emitted" : 640,
               "slice_min" : 123,
               "slice_max" : 99990,
               "current" : 8000
@@ -64,6 +77,7 @@ public class LuceneSourceOperatorStatusTests extends AbstractWireSerializingTest
             randomNonNegativeInt(),
             randomNonNegativeInt(),
             randomNonNegativeInt(),
+            randomNonNegativeLong(),
             randomNonNegativeInt(),
             randomNonNegativeInt(),
             randomNonNegativeInt()
@@ -97,10 +111,11 @@ public class LuceneSourceOperatorStatusTests extends AbstractWireSerializingTest
         int sliceIndex = instance.sliceIndex();
         int totalSlices = instance.totalSlices();
         int pagesEmitted = instance.pagesEmitted();
+        long rowsEmitted = instance.rowsEmitted();
         int sliceMin = instance.sliceMin();
         int sliceMax = instance.sliceMax();
         int current = instance.current();
-        switch (between(0, 9)) {
+        switch (between(0, 10)) {
             case 0 -> processedSlices = randomValueOtherThan(processedSlices, ESTestCase::randomNonNegativeInt);
             case 1 -> processedQueries = randomValueOtherThan(processedQueries, LuceneSourceOperatorStatusTests::randomProcessedQueries);
             case 2 -> processedShards = randomValueOtherThan(processedShards, LuceneSourceOperatorStatusTests::randomProcessedShards);
@@ -111,6 +126,7 @@ public class LuceneSourceOperatorStatusTests extends AbstractWireSerializingTest
             case 7 -> sliceMin = randomValueOtherThan(sliceMin, ESTestCase::randomNonNegativeInt);
             case 8 -> sliceMax = randomValueOtherThan(sliceMax, ESTestCase::randomNonNegativeInt);
             case 9 -> current = randomValueOtherThan(current, ESTestCase::randomNonNegativeInt);
+            case 10 -> rowsEmitted = randomValueOtherThan(rowsEmitted, ESTestCase::randomNonNegativeLong);
             default -> throw new UnsupportedOperationException();
         }
         return new LuceneSourceOperator.Status(
@@ -121,6 +137,7 @@ public class LuceneSourceOperatorStatusTests extends AbstractWireSerializingTest
             sliceIndex,
             totalSlices,
             pagesEmitted,
+            rowsEmitted,
             sliceMin,
             sliceMax,
             current
@@ -0,0 +1,211 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.BytesRefVector;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.LongVector;
+import org.elasticsearch.compute.data.OrdinalBytesRefVector;
+import org.elasticsearch.compute.data.Page;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class DictionaryEvaluatorTests extends ComputeTestCase {
+
+    /**
+     * Counts the positions it evaluates, which is how the tests tell per value from per position evaluation.
+     */
+    private abstract static class CountingEvaluator implements EvalOperator.ExpressionEvaluator {
+        final BlockFactory blockFactory;
+        final int channel;
+        int evaluated;
+
+        CountingEvaluator(BlockFactory blockFactory, int channel) {
+            this.blockFactory = blockFactory;
+            this.channel = channel;
+        }
+
+        @Override
+        public final Block eval(Page page) {
+            evaluated += page.getPositionCount();
+            return evalCounted(page.getBlock(channel));
+        }
+
+        abstract Block evalCounted(Block input);
+
+        @Override
+        public void close() {}
+    }
+
+    private static class Suffix extends CountingEvaluator {
+        Suffix(BlockFactory blockFactory, int channel) {
+            super(blockFactory, channel);
+        }
+
+        @Override
+        Block evalCounted(Block input) {
+            BytesRefVector vector = ((BytesRefBlock) input).asVector();
+            BytesRef scratch = new BytesRef();
+            try (BytesRefVector.Builder builder = blockFactory.newBytesRefVectorBuilder(vector.getPositionCount())) {
+                for (int p = 0; p < vector.getPositionCount(); p++) {
+                    builder.appendBytesRef(new BytesRef(vector.getBytesRef(p, scratch).utf8ToString() + "!"));
+                }
+                return builder.build().asBlock();
+            }
+        }
+    }
+
+    private static class Length extends CountingEvaluator {
+        Length(BlockFactory blockFactory, int channel) {
+            super(blockFactory, channel);
+        }
+
+        @Override
+        Block evalCounted(Block input) {
+            BytesRefVector vector = ((BytesRefBlock) input).asVector();
+            BytesRef scratch = new BytesRef();
+            try (IntVector.FixedBuilder builder = blockFactory.newIntVectorFixedBuilder(vector.getPositionCount())) {
+                for (int p = 0; p < vector.getPositionCount(); p++) {
+                    builder.appendInt(vector.getBytesRef(p, scratch).length);
+                }
+                return builder.build().asBlock();
+            }
+        }
+    }
+
+    private static class Increment extends CountingEvaluator {
+        Increment(BlockFactory blockFactory, int channel) {
+            super(blockFactory, channel);
+        }
+
+        @Override
+        Block evalCounted(Block input) {
+            LongVector vector = ((LongBlock) input).asVector();
+            try (LongVector.FixedBuilder builder = blockFactory.newLongVectorFixedBuilder(vector.getPositionCount())) {
+                for (int p = 0; p < vector.getPositionCount(); p++) {
+                    builder.appendLong(vector.getLong(p) + 1);
+                }
+                return builder.build().asBlock();
+            }
+        }
+    }
+
+    public void testDictionaryKeepsOrdinals() {
+        BlockFactory blockFactory = blockFactory();
+        int dictionarySize = between(1, 10);
+        int positions = between(dictionarySize * 2, 1000);
+        Page page = dictionaryPage(blockFactory, dictionarySize, positions);
+        Suffix suffix = new Suffix(blockFactory, 1);
+        try (
+            DictionaryEvaluator evaluator = new DictionaryEvaluator(blockFactory, 1, suffix);
+            BytesRefBlock result = (BytesRefBlock) evaluator.eval(page)
+        ) {
+            assertThat(suffix.evaluated, equalTo(dictionarySize));
+            assertThat(result.asVector(), instanceOf(OrdinalBytesRefVector.class));
+            BytesRefBlock input = page.getBlock(1);
+            BytesRef scratch = new BytesRef();
+            for (int p = 0; p < positions; p++) {
+                String expected = input.getBytesRef(p, scratch).utf8ToString() + "!";
+                assertThat(result.getBytesRef(p, scratch).utf8ToString(), equalTo(expected));
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    public void testDictionaryToOtherType() {
+        BlockFactory blockFactory = blockFactory();
+        int dictionarySize = between(1, 10);
+        int positions = between(dictionarySize * 2, 1000);
+        Page page = dictionaryPage(blockFactory, dictionarySize, positions);
+        Length length = new Length(blockFactory, 1);
+        try (
+            DictionaryEvaluator evaluator = new DictionaryEvaluator(blockFactory, 1, length);
+            IntBlock result = (IntBlock) evaluator.eval(page)
+        ) {
+            assertThat(length.evaluated, equalTo(dictionarySize));
+            BytesRefBlock input = page.getBlock(1);
+            BytesRef scratch = new BytesRef();
+            for (int p = 0; p < positions; p++) {
+                assertThat(result.getInt(p), equalTo(input.getBytesRef(p, scratch).length));
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    public void testConstant() {
+        BlockFactory blockFactory = blockFactory();
+        int positions = between(2, 1000);
+        long value = randomLong() - 1;
+        Page page = new Page(blockFactory.newConstantNullBlock(positions), blockFactory.newConstantLongBlockWith(value, positions));
+        Increment increment = new Increment(blockFactory, 1);
+        try (
+            DictionaryEvaluator evaluator = new DictionaryEvaluator(blockFactory, 1, increment);
+            LongBlock result = (LongBlock) evaluator.eval(page)
+        ) {
+            assertThat(increment.evaluated, equalTo(1));
+            assertTrue(result.asVector().isConstant());
+            for (int p = 0; p < positions; p++) {
+                assertThat(result.getLong(p), equalTo(value + 1));
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    public void testPlainVector() {
+        BlockFactory blockFactory = blockFactory();
+        int positions = between(2, 1000);
+        long[] values = new long[positions];
+        for (int p = 0; p < positions; p++) {
+            values[p] = p;
+        }
+        Page page = new Page(blockFactory.newLongArrayVector(values, positions).asBlock());
+        Increment increment = new Increment(blockFactory, 0);
+        try (
+            DictionaryEvaluator evaluator = new DictionaryEvaluator(blockFactory, 0, increment);
+            LongBlock result = (LongBlock) evaluator.eval(page)
+        ) {
+            assertThat(increment.evaluated, equalTo(positions));
+            for (int p = 0; p < positions; p++) {
+                assertThat(result.getLong(p), equalTo(p + 1L));
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    /**
+     * A page of a plain long column and a dense dictionary encoded keyword column.
+     */
+    private Page dictionaryPage(BlockFactory blockFactory, int dictionarySize, int positions) {
+        int[] ordinals = new int[positions];
+        long[] longs = new long[positions];
+        for (int p = 0; p < positions; p++) {
+            ordinals[p] = p < dictionarySize ? p : between(0, dictionarySize - 1);
+            longs[p] = p;
+        }
+        BytesRefVector dictionary;
+        try (BytesRefVector.Builder builder = blockFactory.newBytesRefVectorBuilder(dictionarySize)) {
+            for (int i = 0; i < dictionarySize; i++) {
+                builder.appendBytesRef(new BytesRef(randomAlphaOfLength(i + 1)));
+            }
+            dictionary = builder.build();
+        }
+        OrdinalBytesRefVector keywords = new OrdinalBytesRefVector(blockFactory.newIntArrayVector(ordinals, positions), dictionary);
+        return new Page(blockFactory.newLongArrayVector(longs, positions).asBlock(), keywords.asBlock());
+    }
+}
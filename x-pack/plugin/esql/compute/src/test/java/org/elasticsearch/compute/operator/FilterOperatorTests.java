@@ -7,13 +7,18 @@
 
 package org.elasticsearch.compute.operator;
 
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.BooleanBlock;
 import org.elasticsearch.compute.data.BooleanVector;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.LongVector;
+import org.elasticsearch.compute.data.OrdinalBytesRefVector;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.core.Tuple;
 
 import java.util.ArrayList;
@@ -22,6 +27,7 @@ import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class FilterOperatorTests extends OperatorTestCase {
     @Override
@@ -112,4 +118,104 @@ public class FilterOperatorTests extends OperatorTestCase {
         results.forEach(Page::releaseBlocks);
         assertThat(context.breaker().getUsed(), equalTo(0L));
     }
+
+    public void testSelectedPositions() {
+        BlockFactory blockFactory = driverContext().blockFactory();
+        int positionCount = between(1, 1000);
+        List<Integer> expected = new ArrayList<>();
+        try (BooleanVector.FixedBuilder builder = blockFactory.newBooleanVectorFixedBuilder(positionCount)) {
+            for (int p = 0; p < positionCount; p++) {
+                boolean selected = randomBoolean();
+                builder.appendBoolean(selected);
+                if (selected) {
+                    expected.add(p);
+                }
+            }
+            try (BooleanVector test = builder.build()) {
+                int[] positions = new int[positionCount];
+                int rowCount = VectorKernels.selectedPositions(test, positions);
+                assertThat(IntStream.of(positions).limit(rowCount).boxed().toList(), equalTo(expected));
+            }
+        }
+    }
+
+    public void testConstantFalse() {
+        DriverContext context = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(context.blockFactory(), between(1, 1000)));
+        List<Page> results = drive(
+            new FilterOperator.FilterOperatorFactory(dvrCtx -> new EvalOperator.ExpressionEvaluator() {
+                @Override
+                public Block eval(Page page) {
+                    return dvrCtx.blockFactory().newConstantBooleanBlockWith(false, page.getPositionCount());
+                }
+
+                @Override
+                public void close() {}
+            }).get(context),
+            input.iterator(),
+            context
+        );
+        assertThat(results, equalTo(List.of()));
+        assertThat(context.breaker().getUsed(), equalTo(0L));
+    }
+
+    public void testDictionaryKeepsOrdinals() {
+        DriverContext context = driverContext();
+        BlockFactory blockFactory = context.blockFactory();
+        int dictionarySize = between(2, 10);
+        int positions = between(dictionarySize * 10, 1000);
+        BytesRefVector dictionary;
+        try (BytesRefVector.Builder builder = blockFactory.newBytesRefVectorBuilder(dictionarySize)) {
+            for (int i = 0; i < dictionarySize; i++) {
+                builder.appendBytesRef(new BytesRef(Integer.toString(i)));
+            }
+            dictionary = builder.build();
+        }
+        int[] ordinals = new int[positions];
+        int expectedCount = 0;
+        for (int p = 0; p < positions; p++) {
+            ordinals[p] = p < dictionarySize ? p : between(0, dictionarySize - 1);
+            if (ordinals[p] % 2 == 0) {
+                expectedCount++;
+            }
+        }
+        Page input = new Page(new OrdinalBytesRefVector(blockFactory.newIntArrayVector(ordinals, positions), dictionary).asBlock());
+        int[] evaluated = new int[1];
+        EvalOperator.ExpressionEvaluator.Factory even = dvrCtx -> new EvalOperator.ExpressionEvaluator() {
+            @Override
+            public Block eval(Page page) {
+                BytesRefVector values = page.<BytesRefBlock>getBlock(0).asVector();
+                evaluated[0] += page.getPositionCount();
+                try (BooleanVector.FixedBuilder result = dvrCtx.blockFactory().newBooleanVectorFixedBuilder(page.getPositionCount())) {
+                    BytesRef scratch = new BytesRef();
+                    for (int p = 0; p < page.getPositionCount(); p++) {
+                        result.appendBoolean(Integer.parseInt(values.getBytesRef(p, scratch).utf8ToString()) % 2 == 0);
+                    }
+                    return result.build().asBlock();
+                }
+            }
+
+            @Override
+            public void close() {}
+        };
+        List<Page> results = drive(
+            new FilterOperator.FilterOperatorFactory(new DictionaryEvaluator.Factory(0, even)).get(context),
+            List.of(input).iterator(),
+            context
+        );
+        assertThat(evaluated[0], equalTo(dictionarySize));
+        int actualCount = 0;
+        BytesRef scratch = new BytesRef();
+        for (Page page : results) {
+            BytesRefVector values = page.<BytesRefBlock>getBlock(0).asVector();
+            assertThat(values, instanceOf(OrdinalBytesRefVector.class));
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                assertThat(Integer.parseInt(values.getBytesRef(p, scratch).utf8ToString()) % 2, equalTo(0));
+                actualCount++;
+            }
+        }
+        assertThat(actualCount, equalTo(expectedCount));
+        results.forEach(Page::releaseBlocks);
+        assertThat(context.breaker().getUsed(), equalTo(0L));
+    }
 }
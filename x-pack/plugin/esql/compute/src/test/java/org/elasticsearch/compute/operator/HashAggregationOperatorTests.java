@@ -7,6 +7,10 @@
 
 package org.elasticsearch.compute.operator;
 
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.collect.Iterators;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.compute.aggregation.AggregatorMode;
 import org.elasticsearch.compute.aggregation.MaxLongAggregatorFunction;
 import org.elasticsearch.compute.aggregation.MaxLongAggregatorFunctionSupplier;
@@ -16,9 +20,12 @@ import org.elasticsearch.compute.aggregation.SumLongAggregatorFunctionSupplier;
 import org.elasticsearch.compute.aggregation.SumLongGroupingAggregatorFunctionTests;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BlockTestUtils;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.data.TestBlockFactory;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.Tuple;
 
 import java.util.List;
@@ -90,4 +97,49 @@ public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
             max.assertSimpleGroup(input, maxs, i, group);
         }
     }
+
+    public void testEmitsPartialResultsUnderBreakerPressure() {
+        DriverContext inputContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(inputContext.blockFactory(), between(1_000, 10_000)));
+        List<Page> origInput = BlockTestUtils.deepCopyOf(input, TestBlockFactory.getNonBreakingInstance());
+
+        DriverContext pressuredContext = pressuredDriverContext();
+        List<Page> partials = drive(simpleWithMode(AggregatorMode.INITIAL).get(pressuredContext), input.iterator(), pressuredContext);
+        // the groups are emitted after every page, and nothing is left when finishing
+        assertThat(partials, hasSize(origInput.size()));
+
+        DriverContext finalContext = driverContext();
+        List<Page> results = drive(simpleWithMode(AggregatorMode.FINAL).get(finalContext), partials.iterator(), finalContext);
+        assertSimpleOutput(origInput, results);
+        Releasables.closeExpectNoException(Releasables.wrap(() -> Iterators.map(results.iterator(), p -> p::releaseBlocks)));
+    }
+
+    public void testDoesNotEmitFinalResultsUnderBreakerPressure() {
+        DriverContext inputContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(inputContext.blockFactory(), between(1_000, 10_000)));
+        List<Page> origInput = BlockTestUtils.deepCopyOf(input, TestBlockFactory.getNonBreakingInstance());
+
+        DriverContext pressuredContext = pressuredDriverContext();
+        List<Page> results = drive(simple().get(pressuredContext), input.iterator(), pressuredContext);
+        assertSimpleOutput(origInput, results);
+        Releasables.closeExpectNoException(Releasables.wrap(() -> Iterators.map(results.iterator(), p -> p::releaseBlocks)));
+    }
+
+    /**
+     * A {@link DriverContext} whose breaker is always above the ratio at which partial results are emitted.
+     */
+    private static DriverContext pressuredDriverContext() {
+        CircuitBreaker pressured = new NoopCircuitBreaker(CircuitBreaker.REQUEST) {
+            @Override
+            public long getUsed() {
+                return 90;
+            }
+
+            @Override
+            public long getLimit() {
+                return 100;
+            }
+        };
+        return new DriverContext(BigArrays.NON_RECYCLING_INSTANCE, BlockFactory.getInstance(pressured, BigArrays.NON_RECYCLING_INSTANCE));
+    }
 }
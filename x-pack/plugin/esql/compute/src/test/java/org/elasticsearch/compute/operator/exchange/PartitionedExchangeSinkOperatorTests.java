@@ -0,0 +1,213 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.exchange;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.ComputeTestCase;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.SinkOperator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class PartitionedExchangeSinkOperatorTests extends ComputeTestCase {
+
+    public void testRoutesEqualKeysToTheSamePartition() {
+        BlockFactory blockFactory = blockFactory();
+        int partitions = between(1, 5);
+        List<CollectingSink> sinks = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            sinks.add(new CollectingSink());
+        }
+        var factory = new PartitionedExchangeSinkOperator.Factory(partitions, sinks::get, List.of(0, 1));
+        assertThat(factory.describe(), equalTo("PartitionedExchangeSinkOperator[partitions=" + partitions + ", keyChannels=[0, 1]]"));
+
+        int totalRows = 0;
+        // the sinks of the other operator, the one that sends the pages of another node
+        List<CollectingSink> otherSinks = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            otherSinks.add(new CollectingSink());
+        }
+        SinkOperator other = new PartitionedExchangeSinkOperator.Factory(partitions, otherSinks::get, List.of(0, 1)).get(null);
+        try (SinkOperator operator = factory.get(null)) {
+            for (int page = 0; page < 10; page++) {
+                int positions = between(1, 100);
+                totalRows += positions;
+                operator.addInput(randomPage(blockFactory, positions));
+                other.addInput(randomPage(blockFactory, between(1, 100)));
+            }
+            assertTrue(operator.needsInput());
+            operator.finish();
+            other.finish();
+            assertTrue(operator.isFinished());
+            assertThat(((ExchangeSinkOperator.Status) operator.status()).pagesAccepted(), equalTo(10));
+        }
+
+        Map<String, Integer> partitionOfKey = new HashMap<>();
+        int collectedRows = 0;
+        for (List<CollectingSink> nodeSinks : List.of(sinks, otherSinks)) {
+            for (int p = 0; p < partitions; p++) {
+                for (Page page : nodeSinks.get(p).pages) {
+                    LongBlock longs = page.getBlock(0);
+                    BytesRefBlock strings = page.getBlock(1);
+                    for (int i = 0; i < page.getPositionCount(); i++) {
+                        String key = longs.getLong(i) + ":" + strings.getBytesRef(i, new BytesRef()).utf8ToString();
+                        Integer previous = partitionOfKey.putIfAbsent(key, p);
+                        if (previous != null) {
+                            assertThat("key [" + key + "] routed to different partitions", previous, equalTo(p));
+                        }
+                    }
+                    if (nodeSinks == sinks) {
+                        collectedRows += page.getPositionCount();
+                    }
+                    page.releaseBlocks();
+                }
+            }
+        }
+        assertThat(collectedRows, equalTo(totalRows));
+    }
+
+    public void testRoutesEachValueOfMultivaluedKeys() {
+        BlockFactory blockFactory = blockFactory();
+        int partitions = between(2, 5);
+        List<CollectingSink> sinks = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            sinks.add(new CollectingSink());
+        }
+        // the partition of each key when it isn't multivalued
+        List<CollectingSink> singleValuedSinks = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            singleValuedSinks.add(new CollectingSink());
+        }
+        int positions = between(1, 100);
+        Map<String, Integer> expectedRows = new HashMap<>();
+        Page page;
+        try (
+            LongBlock.Builder keys = blockFactory.newLongBlockBuilder(positions);
+            LongBlock.Builder singleValuedKeys = blockFactory.newLongBlockBuilder(20);
+            IntBlock.Builder rows = blockFactory.newIntBlockBuilder(positions)
+        ) {
+            for (int i = 0; i < positions; i++) {
+                int valueCount = between(1, 4);
+                if (valueCount > 1) {
+                    keys.beginPositionEntry();
+                }
+                for (int v = 0; v < valueCount; v++) {
+                    long key = between(0, 19);
+                    keys.appendLong(key);
+                    expectedRows.merge(key + ":" + i, 1, Integer::sum);
+                }
+                if (valueCount > 1) {
+                    keys.endPositionEntry();
+                }
+                rows.appendInt(i);
+            }
+            for (int k = 0; k < 20; k++) {
+                singleValuedKeys.appendLong(k);
+            }
+            page = new Page(keys.build(), rows.build());
+            try (SinkOperator operator = new PartitionedExchangeSinkOperator(singleValuedSinks.toArray(ExchangeSink[]::new), List.of(0))) {
+                operator.addInput(new Page(singleValuedKeys.build()));
+            }
+        }
+        Map<Long, Integer> partitionOfKey = new HashMap<>();
+        for (int p = 0; p < partitions; p++) {
+            for (Page collected : singleValuedSinks.get(p).pages) {
+                LongBlock keys = collected.getBlock(0);
+                for (int i = 0; i < collected.getPositionCount(); i++) {
+                    partitionOfKey.put(keys.getLong(i), p);
+                }
+                collected.releaseBlocks();
+            }
+        }
+
+        try (SinkOperator operator = new PartitionedExchangeSinkOperator.Factory(partitions, sinks::get, List.of(0)).get(null)) {
+            operator.addInput(page);
+        }
+        Map<String, Integer> actualRows = new HashMap<>();
+        for (int p = 0; p < partitions; p++) {
+            for (Page collected : sinks.get(p).pages) {
+                LongBlock keys = collected.getBlock(0);
+                IntBlock rows = collected.getBlock(1);
+                for (int i = 0; i < collected.getPositionCount(); i++) {
+                    assertThat(keys.getValueCount(i), equalTo(1));
+                    long key = keys.getLong(keys.getFirstValueIndex(i));
+                    assertThat("key [" + key + "] routed to different partitions", partitionOfKey.get(key), equalTo(p));
+                    actualRows.merge(key + ":" + rows.getInt(i), 1, Integer::sum);
+                }
+                collected.releaseBlocks();
+            }
+        }
+        assertThat(actualRows, equalTo(expectedRows));
+    }
+
+    public void testBlockedUntilAllSinksHaveRoom() {
+        CollectingSink ready = new CollectingSink();
+        CollectingSink full = new CollectingSink();
+        full.writable = new SubscribableListener<>();
+        CollectingSink[] sinks = new CollectingSink[] { ready, full };
+        try (SinkOperator operator = new PartitionedExchangeSinkOperator(sinks, List.of(0))) {
+            assertFalse(operator.needsInput());
+            assertSame(full.writable, operator.isBlocked());
+            full.writable.onResponse(null);
+            assertTrue(operator.needsInput());
+            assertSame(Operator.NOT_BLOCKED, operator.isBlocked());
+        }
+        assertTrue(ready.isFinished());
+        assertTrue(full.isFinished());
+    }
+
+    private Page randomPage(BlockFactory blockFactory, int positions) {
+        try (
+            LongBlock.Builder longs = blockFactory.newLongBlockBuilder(positions);
+            BytesRefBlock.Builder strings = blockFactory.newBytesRefBlockBuilder(positions)
+        ) {
+            for (int i = 0; i < positions; i++) {
+                longs.appendLong(between(0, 20));
+                strings.appendBytesRef(new BytesRef(randomFrom("a", "b", "c")));
+            }
+            return new Page(longs.build(), strings.build());
+        }
+    }
+
+    private static class CollectingSink implements ExchangeSink {
+        private final List<Page> pages = new ArrayList<>();
+        private SubscribableListener<Void> writable = SubscribableListener.newSucceeded(null);
+        private boolean finished;
+
+        @Override
+        public void addPage(Page page) {
+            pages.add(page);
+        }
+
+        @Override
+        public void finish() {
+            finished = true;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public SubscribableListener<Void> waitForWriting() {
+            return writable;
+        }
+    }
+}
@@ -1398,6 +1398,37 @@ public class TopNOperatorTests extends OperatorTestCase {
         }
     }
 
+    public void testOutputReleasesRowsIncrementally() {
+        CircuitBreaker breaker = new MockBigArrays.LimitedBreaker(CircuitBreaker.REQUEST, ByteSizeValue.ofGb(1));
+        int maxPageSize = between(1, 100);
+        int topCount = maxPageSize * between(2, 10);
+        try (
+            TopNOperator op = new TopNOperator(
+                driverContext().blockFactory(),
+                breaker,
+                topCount,
+                List.of(INT),
+                List.of(DEFAULT_UNSORTABLE),
+                List.of(new TopNOperator.SortOrder(0, randomBoolean(), randomBoolean())),
+                maxPageSize
+            )
+        ) {
+            op.addInput(new Page(blockFactory().newIntArrayVector(IntStream.range(0, topCount * 2).toArray(), topCount * 2).asBlock()));
+            op.finish();
+            long usedBeforeOutput = breaker.getUsed();
+            Page page = op.getOutput();
+            try {
+                assertThat(page.getPositionCount(), equalTo(maxPageSize));
+            } finally {
+                page.releaseBlocks();
+            }
+            // the rows of the first page are released, the others are kept until their page is requested
+            assertThat(breaker.getUsed(), both(greaterThan(0L)).and(lessThan(usedBeforeOutput)));
+            assertFalse(op.isFinished());
+        }
+        assertThat(breaker.getUsed(), equalTo(0L));
+    }
+
     public void testRowResizes() {
         int columns = 1000;
         int rows = 1000;
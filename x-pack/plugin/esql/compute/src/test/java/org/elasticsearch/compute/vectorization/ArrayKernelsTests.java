@@ -0,0 +1,187 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.vectorization;
+
+import org.elasticsearch.compute.vectorization.ArrayKernels.Comparison;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Checks that the {@link ArrayKernels} of {@link Vectorization#kernels()}, which are vectorized when the JVM supports it, produce the
+ * same results as the {@link Vectorization#scalarKernels()}. Lengths are random so the loops cover partial vectors.
+ */
+public class ArrayKernelsTests extends ESTestCase {
+    private final ArrayKernels kernels = Vectorization.kernels();
+    private final ArrayKernels scalar = Vectorization.scalarKernels();
+
+    public void testSelectedPositions() {
+        int length = between(0, 1000);
+        boolean[] values = new boolean[length];
+        switch (between(0, 2)) {
+            case 0 -> Arrays.fill(values, true);
+            case 1 -> {}
+            default -> {
+                for (int i = 0; i < length; i++) {
+                    values[i] = randomBoolean();
+                }
+            }
+        }
+        int[] expected = new int[length];
+        int expectedCount = scalar.selectedPositions(values, length, expected);
+        int[] positions = new int[length];
+        int count = kernels.selectedPositions(values, length, positions);
+        assertThat(Arrays.copyOf(positions, count), equalTo(Arrays.copyOf(expected, expectedCount)));
+    }
+
+    public void testSumInts() {
+        int[] values = randomInts();
+        long current = randomLong();
+        Object expected = result(() -> scalar.sum(current, values, values.length));
+        assertThat(result(() -> kernels.sum(current, values, values.length)), equalTo(expected));
+    }
+
+    public void testSumLongs() {
+        long[] values = randomLongs();
+        long current = randomLong();
+        Object result = result(() -> kernels.sum(current, values, values.length));
+        Object expected = result(() -> scalar.sum(current, values, values.length));
+        if (result instanceof Long && "overflow".equals(expected)) {
+            // the partial sums of the vectorized kernels can fit where the sequential partial sums overflow
+            return;
+        }
+        assertThat(result, equalTo(expected));
+    }
+
+    public void testSumLongsOverflow() {
+        long[] values = new long[between(2, 100)];
+        Arrays.fill(values, Long.MAX_VALUE / values.length + 1);
+        expectThrows(ArithmeticException.class, () -> kernels.sum(Long.MAX_VALUE / values.length + 1, values, values.length));
+    }
+
+    public void testMinMax() {
+        int[] ints = randomInts();
+        int currentInt = randomInt();
+        assertThat(kernels.min(currentInt, ints, ints.length), equalTo(scalar.min(currentInt, ints, ints.length)));
+        assertThat(kernels.max(currentInt, ints, ints.length), equalTo(scalar.max(currentInt, ints, ints.length)));
+        long[] longs = randomLongs();
+        long currentLong = randomLong();
+        assertThat(kernels.min(currentLong, longs, longs.length), equalTo(scalar.min(currentLong, longs, longs.length)));
+        assertThat(kernels.max(currentLong, longs, longs.length), equalTo(scalar.max(currentLong, longs, longs.length)));
+        double[] doubles = randomDoubles();
+        double currentDouble = randomDouble();
+        assertThat(kernels.min(currentDouble, doubles, doubles.length), equalTo(scalar.min(currentDouble, doubles, doubles.length)));
+        assertThat(kernels.max(currentDouble, doubles, doubles.length), equalTo(scalar.max(currentDouble, doubles, doubles.length)));
+    }
+
+    public void testCompare() {
+        Comparison comparison = randomFrom(Comparison.values());
+        int length = between(0, 1000);
+        int[] lhsInts = randomInts(length), rhsInts = randomInts(length);
+        boolean[] result = new boolean[length], expected = new boolean[length];
+        kernels.compare(comparison, lhsInts, rhsInts, length, result);
+        scalar.compare(comparison, lhsInts, rhsInts, length, expected);
+        assertThat(result, equalTo(expected));
+        long[] lhsLongs = randomLongs(length), rhsLongs = randomLongs(length);
+        kernels.compare(comparison, lhsLongs, rhsLongs, length, result);
+        scalar.compare(comparison, lhsLongs, rhsLongs, length, expected);
+        assertThat(result, equalTo(expected));
+        double[] lhsDoubles = randomDoubles(length), rhsDoubles = randomDoubles(length);
+        kernels.compare(comparison, lhsDoubles, rhsDoubles, length, result);
+        scalar.compare(comparison, lhsDoubles, rhsDoubles, length, expected);
+        assertThat(result, equalTo(expected));
+    }
+
+    public void testArithmetic() {
+        int length = between(0, 1000);
+        int[] lhsInts = randomInts(length), rhsInts = randomInts(length);
+        int[] ints = new int[length], expectedInts = new int[length];
+        boolean fits = scalar.addExact(lhsInts, rhsInts, length, expectedInts);
+        assertThat(kernels.addExact(lhsInts, rhsInts, length, ints), equalTo(fits));
+        if (fits) {
+            assertThat(ints, equalTo(expectedInts));
+        }
+        fits = scalar.subtractExact(lhsInts, rhsInts, length, expectedInts);
+        assertThat(kernels.subtractExact(lhsInts, rhsInts, length, ints), equalTo(fits));
+        if (fits) {
+            assertThat(ints, equalTo(expectedInts));
+        }
+        long[] lhsLongs = randomLongs(length), rhsLongs = randomLongs(length);
+        long[] longs = new long[length], expectedLongs = new long[length];
+        fits = scalar.addExact(lhsLongs, rhsLongs, length, expectedLongs);
+        assertThat(kernels.addExact(lhsLongs, rhsLongs, length, longs), equalTo(fits));
+        if (fits) {
+            assertThat(longs, equalTo(expectedLongs));
+        }
+        fits = scalar.subtractExact(lhsLongs, rhsLongs, length, expectedLongs);
+        assertThat(kernels.subtractExact(lhsLongs, rhsLongs, length, longs), equalTo(fits));
+        if (fits) {
+            assertThat(longs, equalTo(expectedLongs));
+        }
+        double[] lhsDoubles = randomDoubles(length), rhsDoubles = randomDoubles(length);
+        double[] doubles = new double[length], expectedDoubles = new double[length];
+        kernels.add(lhsDoubles, rhsDoubles, length, doubles);
+        scalar.add(lhsDoubles, rhsDoubles, length, expectedDoubles);
+        assertThat(doubles, equalTo(expectedDoubles));
+        kernels.subtract(lhsDoubles, rhsDoubles, length, doubles);
+        scalar.subtract(lhsDoubles, rhsDoubles, length, expectedDoubles);
+        assertThat(doubles, equalTo(expectedDoubles));
+    }
+
+    /**
+     * Small values exercise the results, extreme values exercise the overflow checks.
+     */
+    private int[] randomInts() {
+        return randomInts(between(0, 1000));
+    }
+
+    private int[] randomInts(int length) {
+        boolean extreme = randomBoolean();
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = extreme ? randomInt() : between(-10, 10);
+        }
+        return values;
+    }
+
+    private long[] randomLongs() {
+        return randomLongs(between(0, 1000));
+    }
+
+    private long[] randomLongs(int length) {
+        boolean extreme = randomBoolean();
+        long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = extreme ? randomLong() : randomLongBetween(-10, 10);
+        }
+        return values;
+    }
+
+    private double[] randomDoubles() {
+        return randomDoubles(between(0, 1000));
+    }
+
+    private double[] randomDoubles(int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = randomFrom(Double.NaN, -0.0, 0.0, randomDouble(), (double) between(-10, 10));
+        }
+        return values;
+    }
+
+    private static Object result(LongSupplier sum) {
+        try {
+            return sum.getAsLong();
+        } catch (ArithmeticException e) {
+            return "overflow";
+        }
+    }
+}
@@ -191,6 +191,9 @@ public abstract class AbstractEsqlIntegTestCase extends ESIntegTestCase {
             if (randomBoolean()) {
                 settings.put("node_level_reduction", randomBoolean());
             }
+            if (randomBoolean()) {
+                settings.put("final_reduction_partitions", between(1, 8));
+            }
         }
         return new QueryPragmas(settings.build());
     }
@@ -0,0 +1,173 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+
+package org.elasticsearch.xpack.esql.action;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.admin.cluster.node.tasks.cancel.CancelTasksRequest;
+import org.elasticsearch.action.admin.cluster.node.tasks.cancel.TransportCancelTasksAction;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.compute.operator.DriverTaskRunner;
+import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.tasks.TaskInfo;
+import org.elasticsearch.xpack.esql.plugin.QueryPragmas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.elasticsearch.xpack.esql.EsqlTestUtils.getValuesList;
+import static org.hamcrest.Matchers.either;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Runs grouping aggregations whose final reduction is split into several partitions of their groups with the
+ * {@code final_reduction_partitions} pragma.
+ */
+public class PartitionedFinalReductionIT extends AbstractPausableIntegTestCase {
+
+    private static QueryPragmas partitionedPragmas() {
+        return new QueryPragmas(
+            Settings.builder().put(randomPragmas().getSettings()).put("final_reduction_partitions", between(2, 8)).build()
+        );
+    }
+
+    private static QueryPragmas unpartitionedPragmas() {
+        return new QueryPragmas(Settings.builder().put(randomPragmas().getSettings()).put("final_reduction_partitions", 1).build());
+    }
+
+    private void createIndex(String index, String... mapping) {
+        client().admin()
+            .indices()
+            .prepareCreate(index)
+            .setSettings(
+                Settings.builder()
+                    .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, between(1, 5))
+                    .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+            )
+            .setMapping(mapping)
+            .get();
+    }
+
+    public void testHighCardinalityStatsBy() {
+        createIndex("events", "key", "type=keyword", "value", "type=long");
+        int cardinality = between(100, 1000);
+        int numDocs = between(cardinality, 3 * cardinality);
+        Map<String, long[]> expected = new TreeMap<>();
+        BulkRequestBuilder bulk = client().prepareBulk("events").setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        for (int i = 0; i < numDocs; i++) {
+            String key = "k" + (i % cardinality);
+            long value = randomLongBetween(-1000, 1000);
+            bulk.add(new IndexRequest().source(Map.of("key", key, "value", value)));
+            long[] countAndSum = expected.computeIfAbsent(key, k -> new long[2]);
+            countAndSum[0]++;
+            countAndSum[1] += value;
+        }
+        bulk.get();
+
+        List<List<Object>> expectedRows = new ArrayList<>();
+        expected.forEach((key, countAndSum) -> expectedRows.add(List.of(countAndSum[0], countAndSum[1], key)));
+        String query = "from events | stats c = count(*), s = sum(value) by key | sort key";
+        try (EsqlQueryResponse response = run(query, partitionedPragmas())) {
+            assertThat(getValuesList(response), equalTo(expectedRows));
+        }
+        try (EsqlQueryResponse response = run(query, unpartitionedPragmas())) {
+            assertThat(getValuesList(response), equalTo(expectedRows));
+        }
+    }
+
+    public void testMultivaluedKeys() {
+        createIndex("tagged", "tags", "type=keyword", "color", "type=keyword");
+        List<String> tags = IntStream.range(0, between(10, 50)).mapToObj(i -> "tag-" + i).toList();
+        List<String> colors = List.of("red", "green", "blue");
+        int numDocs = between(100, 500);
+        // a row is counted under each value of its multivalued key
+        Map<String, Map<String, Long>> expected = new TreeMap<>();
+        BulkRequestBuilder bulk = client().prepareBulk("tagged").setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        for (int i = 0; i < numDocs; i++) {
+            List<String> docTags = randomSubsetOf(between(1, 3), tags);
+            String color = randomFrom(colors);
+            bulk.add(new IndexRequest().source(Map.of("tags", docTags, "color", color)));
+            for (String tag : docTags) {
+                expected.computeIfAbsent(tag, t -> new TreeMap<>()).merge(color, 1L, Long::sum);
+            }
+        }
+        bulk.get();
+
+        List<List<Object>> expectedRows = new ArrayList<>();
+        expected.forEach((tag, counts) -> counts.forEach((color, count) -> expectedRows.add(List.of(count, tag, color))));
+        String query = "from tagged | stats c = count(*) by tags, color | sort tags, color";
+        try (EsqlQueryResponse response = run(query, partitionedPragmas())) {
+            assertThat(getValuesList(response), equalTo(expectedRows));
+        }
+        try (EsqlQueryResponse response = run(query, unpartitionedPragmas())) {
+            assertThat(getValuesList(response), equalTo(expectedRows));
+        }
+    }
+
+    public void testCancel() throws Exception {
+        scriptPermits.drainPermits();
+        scriptPermits.release(between(1, 5));
+        var pragmas = new QueryPragmas(
+            Settings.builder()
+                .put("data_partitioning", "shard")
+                .put("page_size", pageSize())
+                .put("final_reduction_partitions", between(2, 8))
+                .build()
+        );
+        ActionFuture<EsqlQueryResponse> response = EsqlQueryRequestBuilder.newSyncEsqlQueryRequestBuilder(client())
+            .query("from test | stats sum(pause_me) by foo")
+            .pragmas(pragmas)
+            .execute();
+        try {
+            assertBusy(() -> {
+                List<TaskInfo> drivers = client().admin()
+                    .cluster()
+                    .prepareListTasks()
+                    .setActions(DriverTaskRunner.ACTION_NAME)
+                    .get()
+                    .getTasks();
+                assertThat(drivers, not(emptyIterable()));
+            });
+            List<TaskInfo> tasks = client().admin().cluster().prepareListTasks().setActions(EsqlQueryAction.NAME).get().getTasks();
+            assertThat(tasks, hasSize(1));
+            CancelTasksRequest request = new CancelTasksRequest().setTargetTaskId(tasks.get(0).taskId()).setReason("test cancel");
+            client().admin().cluster().execute(TransportCancelTasksAction.TYPE, request).actionGet();
+            scriptPermits.release(numberOfDocs());
+
+            Exception e = expectThrows(Exception.class, response);
+            Throwable cancelException = ExceptionsHelper.unwrap(e, TaskCancelledException.class);
+            assertNotNull(cancelException);
+            assertThat(cancelException.getMessage(), either(equalTo("test cancel")).or(equalTo("task cancelled")));
+            // the reductions of all partitions are cancelled too
+            assertBusy(
+                () -> assertThat(
+                    client().admin()
+                        .cluster()
+                        .prepareListTasks()
+                        .setActions(EsqlQueryAction.NAME, DriverTaskRunner.ACTION_NAME)
+                        .get()
+                        .getTasks(),
+                    emptyIterable()
+                )
+            );
+        } finally {
+            scriptPermits.release(numberOfDocs());
+        }
+    }
+}
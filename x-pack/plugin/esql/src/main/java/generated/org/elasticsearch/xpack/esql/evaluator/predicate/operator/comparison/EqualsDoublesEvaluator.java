@@ -89,6 +89,10 @@ public final class EqualsDoublesEvaluator implements EvalOperator.ExpressionEval
   }
 
   public BooleanVector eval(int positionCount, DoubleVector lhsVector, DoubleVector rhsVector) {
+    BooleanVector vectorized = Equals.processDoublesVectors(driverContext.blockFactory(), lhsVector, rhsVector);
+    if (vectorized != null) {
+      return vectorized;
+    }
     try(BooleanVector.Builder result = driverContext.blockFactory().newBooleanVectorBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
         result.appendBoolean(Equals.processDoubles(lhsVector.getDouble(p), rhsVector.getDouble(p)));
@@ -89,6 +89,10 @@ public final class EqualsIntsEvaluator implements EvalOperator.ExpressionEvaluat
   }
 
   public BooleanVector eval(int positionCount, IntVector lhsVector, IntVector rhsVector) {
+    BooleanVector vectorized = Equals.processIntsVectors(driverContext.blockFactory(), lhsVector, rhsVector);
+    if (vectorized != null) {
+      return vectorized;
+    }
     try(BooleanVector.Builder result = driverContext.blockFactory().newBooleanVectorBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
         result.appendBoolean(Equals.processInts(lhsVector.getInt(p), rhsVector.getInt(p)));
@@ -89,6 +89,10 @@ public final class GreaterThanDoublesEvaluator implements EvalOperator.Expressio
   }
 
   public BooleanVector eval(int positionCount, DoubleVector lhsVector, DoubleVector rhsVector) {
+    BooleanVector vectorized = GreaterThan.processDoublesVectors(driverContext.blockFactory(), lhsVector, rhsVector);
+    if (vectorized != null) {
+      return vectorized;
+    }
     try(BooleanVector.Builder result = driverContext.blockFactory().newBooleanVectorBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
         result.appendBoolean(GreaterThan.processDoubles(lhsVector.getDouble(p), rhsVector.getDouble(p)));
@@ -89,6 +89,10 @@ public final class GreaterThanIntsEvaluator implements EvalOperator.ExpressionEv
   }
 
   public BooleanVector eval(int positionCount, IntVector lhsVector, IntVector rhsVector) {
+    BooleanVector vectorized = GreaterThan.processIntsVectors(driverContext.blockFactory(), lhsVector, rhsVector);
+    if (vectorized != null) {
+      return vectorized;
+    }
     try(BooleanVector.Builder result = driverContext.blockFactory().newBooleanVectorBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
         result.appendBoolean(GreaterThan.processInts(lhsVector.getInt(p), rhsVector.getInt(p)));
@@ -89,6 +89,10 @@ public final class GreaterThanLongsEvaluator implements EvalOperator.ExpressionE
   }
 
   public BooleanVector eval(int positionCount, LongVector lhsVector, LongVector rhsVector) {
+    BooleanVector vectorized = GreaterThan.processLongsVectors(driverContext.blockFactory(), lhsVector, rhsVector);
+    if (vectorized != null) {
+      return vectorized;
+    }
     try(BooleanVector.Builder result = driverContext.blockFactory().newBooleanVectorBuilder(positionCount)) {
       position: for (int p = 0; p < positionCount; p++) {
         result.appendBoolean(GreaterThan.processLongs(lhsVector.getLong(p), rhsVector.getLong(p)));
@@ -125,7 +125,7 @@ public class EsqlQueryResponse extends org.elasticsearch.xpack.core.esql.action.
         return columns;
     }
 
-    List<Page> pages() {
+    public List<Page> pages() {
         return pages;
     }
 
@@ -180,6 +180,19 @@ public class EsqlQueryResponse extends org.elasticsearch.xpack.core.esql.action.
 
     @Override
     public Iterator<? extends ToXContent> toXContentChunked(ToXContent.Params params) {
+        return toXContentChunked(params, false);
+    }
+
+    /**
+     * Renders this response like {@link #toXContentChunked(ToXContent.Params)} but gives back the memory of each page as soon as all
+     * of its rows have been rendered, rather than once the whole response has been sent. Only the row based representation releases
+     * pages early. The pages can't be read afterwards, so this must only be used by the last reader of the response.
+     */
+    public ChunkedToXContentObject releasingPagesWhileRendering() {
+        return params -> toXContentChunked(params, true);
+    }
+
+    private Iterator<? extends ToXContent> toXContentChunked(ToXContent.Params params, boolean releasePages) {
         boolean dropNullColumns = params.paramAsBoolean(DROP_NULL_COLUMNS_OPTION, false);
         boolean[] nullColumns = dropNullColumns ? nullColumns() : null;
         Iterator<? extends ToXContent> columnHeadings = dropNullColumns
@@ -188,7 +201,13 @@ public class EsqlQueryResponse extends org.elasticsearch.xpack.core.esql.action.
                 ResponseXContentUtils.nonNullColumns(columns, nullColumns, "columns")
             )
             : ResponseXContentUtils.allColumns(columns, "columns");
-        Iterator<? extends ToXContent> valuesIt = ResponseXContentUtils.columnValues(this.columns, this.pages, columnar, nullColumns);
+        Iterator<? extends ToXContent> valuesIt = ResponseXContentUtils.columnValues(
+            this.columns,
+            this.pages,
+            columnar,
+            nullColumns,
+            releasePages
+        );
         Iterator<ToXContent> profileRender = profile == null
             ? List.<ToXContent>of().iterator()
             : ChunkedToXContentHelper.field("profile", profile, params);
@@ -19,6 +19,8 @@ import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.rest.action.RestRefCountedChunkedToXContentListener;
 import org.elasticsearch.xcontent.MediaType;
+import org.elasticsearch.xpack.esql.formatter.ArrowFormat;
+import org.elasticsearch.xpack.esql.formatter.ArrowResponse;
 import org.elasticsearch.xpack.esql.formatter.TextFormat;
 import org.elasticsearch.xpack.esql.plugin.EsqlMediaTypeParser;
 
@@ -135,10 +137,21 @@ public final class EsqlResponseListener extends RestRefCountedChunkedToXContentL
                     ChunkedRestResponseBody.fromTextChunks(format.contentType(restRequest), format.format(restRequest, esqlResponse)),
                     releasable
                 );
+            } else if (mediaType instanceof ArrowFormat) {
+                restResponse = RestResponse.chunked(
+                    RestStatus.OK,
+                    new ArrowResponse(esqlResponse, esqlResponse.isAsync() == false),
+                    releasable
+                );
             } else {
                 restResponse = RestResponse.chunked(
                     RestStatus.OK,
-                    ChunkedRestResponseBody.fromXContent(esqlResponse, channel.request(), channel),
+                    ChunkedRestResponseBody.fromXContent(
+                        // nothing reads the response of a synchronous request once it is sent, but async ones may be fetched again
+                        esqlResponse.isAsync() ? esqlResponse : esqlResponse.releasingPagesWhileRendering(),
+                        channel.request(),
+                        channel
+                    ),
                     releasable
                 );
             }
@@ -53,19 +53,24 @@ final class ResponseXContentUtils {
         });
     }
 
-    /** Returns the column values for the given pages (described by the column infos). */
+    /**
+     * Returns the column values for the given pages (described by the column infos). If {@code releasePages} is set then the row based
+     * representation releases each page as soon as all of its rows are rendered. The columnar representation reads every page once per
+     * column so it never releases them.
+     */
     static Iterator<? extends ToXContent> columnValues(
         List<ColumnInfo> columns,
         List<Page> pages,
         boolean columnar,
-        boolean[] nullColumns
+        boolean[] nullColumns,
+        boolean releasePages
     ) {
         if (pages.isEmpty()) {
             return Collections.emptyIterator();
         } else if (columnar) {
             return columnarValues(columns, pages, nullColumns);
         } else {
-            return rowValues(columns, pages, nullColumns);
+            return rowValues(columns, pages, nullColumns, releasePages);
         }
     }
 
@@ -96,7 +101,12 @@ final class ResponseXContentUtils {
     }
 
     /** Returns a row based representation of the values in the given pages (described by the column infos). */
-    static Iterator<? extends ToXContent> rowValues(List<ColumnInfo> columns, List<Page> pages, boolean[] nullColumns) {
+    static Iterator<? extends ToXContent> rowValues(
+        List<ColumnInfo> columns,
+        List<Page> pages,
+        boolean[] nullColumns,
+        boolean releasePages
+    ) {
         final BytesRef scratch = new BytesRef();
         return Iterators.flatMap(pages.iterator(), page -> {
             final int columnCount = columns.size();
@@ -105,7 +115,7 @@ final class ResponseXContentUtils {
             for (int column = 0; column < columnCount; column++) {
                 toXContents[column] = PositionToXContent.positionToXContent(columns.get(column), page.getBlock(column), scratch);
             }
-            return Iterators.forRange(0, page.getPositionCount(), position -> (builder, params) -> {
+            Iterator<ToXContent> rows = Iterators.forRange(0, page.getPositionCount(), position -> (builder, params) -> {
                 builder.startArray();
                 for (int c = 0; c < columnCount; c++) {
                     if (nullColumns == null || nullColumns[c] == false) {
@@ -114,6 +124,14 @@ final class ResponseXContentUtils {
                 }
                 return builder.endArray();
             });
+            if (releasePages == false) {
+                return rows;
+            }
+            // chunks are rendered in order, so this one runs once the last row of the page has been written
+            return Iterators.concat(rows, Iterators.<ToXContent>single((builder, params) -> {
+                page.releaseBlocks();
+                return builder;
+            }));
         });
     }
 }
@@ -8,6 +8,13 @@ package org.elasticsearch.xpack.esql.evaluator.predicate.operator.comparison;
 
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.compute.ann.Evaluator;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BooleanVector;
+import org.elasticsearch.compute.data.DoubleVector;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.LongVector;
+import org.elasticsearch.compute.data.VectorKernels;
+import org.elasticsearch.compute.vectorization.ArrayKernels.Comparison;
 import org.elasticsearch.xpack.esql.expression.EsqlTypeResolutions;
 import org.elasticsearch.xpack.ql.expression.Expression;
 import org.elasticsearch.xpack.ql.expression.TypeResolutions;
@@ -58,21 +65,33 @@ public class LessThan extends org.elasticsearch.xpack.ql.expression.predicate.op
         return new GreaterThan(source(), left(), right(), zoneId());
     }
 
-    @Evaluator(extraName = "Ints")
+    @Evaluator(extraName = "Ints", vector = "processIntsVectors")
     static boolean processInts(int lhs, int rhs) {
         return lhs < rhs;
     }
 
-    @Evaluator(extraName = "Longs")
+    static BooleanVector processIntsVectors(BlockFactory blockFactory, IntVector lhs, IntVector rhs) {
+        return VectorKernels.compare(blockFactory, Comparison.LT, lhs, rhs);
+    }
+
+    @Evaluator(extraName = "Longs", vector = "processLongsVectors")
     static boolean processLongs(long lhs, long rhs) {
         return lhs < rhs;
     }
 
-    @Evaluator(extraName = "Doubles")
+    static BooleanVector processLongsVectors(BlockFactory blockFactory, LongVector lhs, LongVector rhs) {
+        return VectorKernels.compare(blockFactory, Comparison.LT, lhs, rhs);
+    }
+
+    @Evaluator(extraName = "Doubles", vector = "processDoublesVectors")
     static boolean processDoubles(double lhs, double rhs) {
         return lhs < rhs;
     }
 
+    static BooleanVector processDoublesVectors(BlockFactory blockFactory, DoubleVector lhs, DoubleVector rhs) {
+        return VectorKernels.compare(blockFactory, Comparison.LT, lhs, rhs);
+    }
+
     @Evaluator(extraName = "Keywords")  // TODO rename to "Bytes"
     static boolean processKeywords(BytesRef lhs, BytesRef rhs) {
         return lhs.compareTo(rhs) < 0;
@@ -0,0 +1,32 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.formatter;
+
+import org.elasticsearch.xcontent.MediaType;
+
+import java.util.Set;
+
+/**
+ * The <a href="https://arrow.apache.org/">Apache Arrow</a> IPC stream format, rendered by {@link ArrowResponse}.
+ */
+public enum ArrowFormat implements MediaType {
+    ARROW;
+
+    public static final String FORMAT = "arrow";
+    public static final String CONTENT_TYPE = "application/vnd.apache.arrow.stream";
+
+    @Override
+    public String queryParameter() {
+        return FORMAT;
+    }
+
+    @Override
+    public Set<HeaderValue> headerValues() {
+        return Set.of(new HeaderValue(CONTENT_TYPE));
+    }
+}
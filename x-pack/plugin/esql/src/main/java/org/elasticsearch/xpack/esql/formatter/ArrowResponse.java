@@ -0,0 +1,512 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.formatter;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.collect.Iterators;
+import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.util.ByteUtils;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.DoubleBlock;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.logging.LogManager;
+import org.elasticsearch.logging.Logger;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
+import org.elasticsearch.xpack.core.esql.action.ColumnInfo;
+import org.elasticsearch.xpack.esql.action.EsqlQueryResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Renders the pages of an {@link EsqlQueryResponse} as an
+ * <a href="https://arrow.apache.org/docs/format/Columnar.html#ipc-streaming-format">Arrow IPC stream</a>: a schema message, then a
+ * record batch per page and finally the end of stream marker. Values are copied straight from the blocks to the network buffers,
+ * without going through any intermediate representation.
+ * <p>
+ *     Supports the {@code integer}, {@code long}, {@code unsigned_long}, {@code double}, {@code date}, {@code keyword}, {@code text},
+ *     {@code boolean} and {@code null} types. Arrow has no equivalent of multivalued fields, so they are rejected.
+ * </p>
+ */
+public final class ArrowResponse implements ChunkedRestResponseBody {
+    private static final Logger logger = LogManager.getLogger(ArrowResponse.class);
+
+    private static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+    private static final short METADATA_VERSION_V5 = 4;
+    private static final byte MESSAGE_HEADER_SCHEMA = 1;
+    private static final byte MESSAGE_HEADER_RECORD_BATCH = 3;
+
+    private static final byte TYPE_NULL = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_UTF8 = 5;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_TIMESTAMP = 10;
+
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short TIME_UNIT_MILLISECOND = 1;
+
+    private final List<ColumnInfo> columns;
+    private final List<ArrowColumn> arrowColumns;
+    private final Iterator<CheckedConsumer<StreamOutput, IOException>> segments;
+    private RecyclerBytesStreamOutput currentOutput;
+
+    /**
+     * @param releasePages whether to release each page once it has been rendered, see
+     *                     {@link EsqlQueryResponse#releasingPagesWhileRendering()}
+     */
+    public ArrowResponse(EsqlQueryResponse response, boolean releasePages) {
+        this.columns = response.columns();
+        this.arrowColumns = new ArrayList<>(columns.size());
+        for (ColumnInfo column : columns) {
+            arrowColumns.add(arrowColumn(column));
+        }
+        List<Page> pages = response.pages();
+        for (Page page : pages) {
+            for (int c = 0; c < columns.size(); c++) {
+                checkSingleValued(columns.get(c), page.getBlock(c));
+            }
+        }
+        this.segments = Iterators.concat(
+            Iterators.<CheckedConsumer<StreamOutput, IOException>>single(this::writeSchema),
+            Iterators.<Page, CheckedConsumer<StreamOutput, IOException>>map(pages.iterator(), page -> out -> {
+                writeRecordBatch(out, page);
+                if (releasePages) {
+                    page.releaseBlocks();
+                }
+            }),
+            Iterators.<CheckedConsumer<StreamOutput, IOException>>single(out -> {
+                writeIntLE(out, CONTINUATION_MARKER);
+                writeIntLE(out, 0);
+            })
+        );
+    }
+
+    @Override
+    public boolean isDone() {
+        return segments.hasNext() == false;
+    }
+
+    @Override
+    public ReleasableBytesReference encodeChunk(int sizeHint, Recycler<BytesRef> recycler) throws IOException {
+        try {
+            assert currentOutput == null;
+            currentOutput = new RecyclerBytesStreamOutput(recycler);
+            while (segments.hasNext() && currentOutput.size() < sizeHint) {
+                segments.next().accept(currentOutput);
+            }
+            final var chunkOutput = currentOutput;
+            final var result = new ReleasableBytesReference(chunkOutput.bytes(), () -> Releasables.closeExpectNoException(chunkOutput));
+            currentOutput = null;
+            return result;
+        } catch (Exception e) {
+            logger.error("failure encoding arrow chunk", e);
+            throw e;
+        } finally {
+            if (currentOutput != null) {
+                assert false : "failure encoding arrow chunk";
+                Releasables.closeExpectNoException(currentOutput);
+                currentOutput = null;
+            }
+        }
+    }
+
+    @Override
+    public String getResponseContentTypeString() {
+        return ArrowFormat.CONTENT_TYPE;
+    }
+
+    private void writeSchema(StreamOutput out) throws IOException {
+        List<FlatBufferWriter.Table> fields = new ArrayList<>(columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            ArrowColumn column = arrowColumns.get(c);
+            fields.add(
+                new FlatBufferWriter.Table(7).addString(0, columns.get(c).name())
+                    .addBoolean(1, true)
+                    .addByte(2, column.typeId)
+                    .addTable(3, column.type)
+                    .addTables(5, List.of())
+            );
+        }
+        // little endian, the only byte order we write
+        FlatBufferWriter.Table schema = new FlatBufferWriter.Table(4).addShort(0, (short) 0).addTables(1, fields);
+        writeMessage(out, MESSAGE_HEADER_SCHEMA, schema, 0);
+    }
+
+    private void writeRecordBatch(StreamOutput out, Page page) throws IOException {
+        int rows = page.getPositionCount();
+        long[] nodes = new long[2 * columns.size()];
+        List<Long> buffers = new ArrayList<>();
+        long bodyLength = 0;
+        for (int c = 0; c < columns.size(); c++) {
+            ArrowColumn column = arrowColumns.get(c);
+            Block block = page.getBlock(c);
+            int nullCount = column.hasBuffers() ? block.nullValuesCount() : rows;
+            nodes[2 * c] = rows;
+            nodes[2 * c + 1] = nullCount;
+            if (column.hasBuffers() == false) {
+                continue;
+            }
+            // the validity buffer may be empty if there aren't any nulls
+            long[] lengths = new long[column.dataBuffers + 1];
+            lengths[0] = nullCount > 0 ? bitmapLength(rows) : 0;
+            column.dataLengths(block, lengths);
+            for (long length : lengths) {
+                buffers.add(bodyLength);
+                buffers.add(length);
+                bodyLength += align(length);
+            }
+        }
+        FlatBufferWriter.Table recordBatch = new FlatBufferWriter.Table(5).addLong(0, rows)
+            .addLongStructs(1, nodes, 2)
+            .addLongStructs(2, buffers.stream().mapToLong(Long::longValue).toArray(), 2);
+        writeMessage(out, MESSAGE_HEADER_RECORD_BATCH, recordBatch, bodyLength);
+
+        BodyOutput body = new BodyOutput(out);
+        for (int c = 0; c < columns.size(); c++) {
+            ArrowColumn column = arrowColumns.get(c);
+            if (column.hasBuffers() == false) {
+                continue;
+            }
+            Block block = page.getBlock(c);
+            if (block.nullValuesCount() > 0) {
+                writeBitmap(body, rows, p -> block.isNull(p) == false);
+                body.pad();
+            }
+            column.writeData(block, body);
+        }
+        body.flush();
+        assert body.written == bodyLength : body.written + " != " + bodyLength;
+    }
+
+    private static void writeMessage(StreamOutput out, byte headerType, FlatBufferWriter.Table header, long bodyLength)
+        throws IOException {
+        FlatBufferWriter.Table message = new FlatBufferWriter.Table(5).addShort(0, METADATA_VERSION_V5)
+            .addByte(1, headerType)
+            .addTable(2, header)
+            .addLong(3, bodyLength);
+        byte[] metadata = FlatBufferWriter.serialize(message);
+        // the metadata is padded so the body that follows it is aligned
+        int paddedLength = (int) align(metadata.length);
+        writeIntLE(out, CONTINUATION_MARKER);
+        writeIntLE(out, paddedLength);
+        out.writeBytes(metadata);
+        for (int i = metadata.length; i < paddedLength; i++) {
+            out.writeByte((byte) 0);
+        }
+    }
+
+    private static void checkSingleValued(ColumnInfo column, Block block) {
+        if (block.mayHaveMultivaluedFields()) {
+            for (int p = 0; p < block.getPositionCount(); p++) {
+                if (block.getValueCount(p) > 1) {
+                    throw new IllegalArgumentException(
+                        "format [" + ArrowFormat.FORMAT + "] doesn't support multivalued fields but [" + column.name() + "] has some"
+                    );
+                }
+            }
+        }
+    }
+
+    private static ArrowColumn arrowColumn(ColumnInfo column) {
+        return switch (column.type()) {
+            case "integer" -> new FixedWidthColumn(TYPE_INT, intType(32, true), Integer.BYTES) {
+                @Override
+                void writeValue(Block block, int valueIndex, BodyOutput out) throws IOException {
+                    out.writeInt(((IntBlock) block).getInt(valueIndex));
+                }
+            };
+            case "long" -> new FixedWidthColumn(TYPE_INT, intType(64, true), Long.BYTES) {
+                @Override
+                void writeValue(Block block, int valueIndex, BodyOutput out) throws IOException {
+                    out.writeLong(((LongBlock) block).getLong(valueIndex));
+                }
+            };
+            case "unsigned_long" -> new FixedWidthColumn(TYPE_INT, intType(64, false), Long.BYTES) {
+                @Override
+                void writeValue(Block block, int valueIndex, BodyOutput out) throws IOException {
+                    // undo the shift that lets signed comparisons sort unsigned longs
+                    out.writeLong(((LongBlock) block).getLong(valueIndex) ^ Long.MIN_VALUE);
+                }
+            };
+            case "double" -> new FixedWidthColumn(
+                TYPE_FLOATING_POINT,
+                new FlatBufferWriter.Table(1).addShort(0, PRECISION_DOUBLE),
+                Double.BYTES
+            ) {
+                @Override
+                void writeValue(Block block, int valueIndex, BodyOutput out) throws IOException {
+                    out.writeLong(Double.doubleToRawLongBits(((DoubleBlock) block).getDouble(valueIndex)));
+                }
+            };
+            case "date" -> new FixedWidthColumn(
+                TYPE_TIMESTAMP,
+                new FlatBufferWriter.Table(2).addShort(0, TIME_UNIT_MILLISECOND).addString(1, "UTC"),
+                Long.BYTES
+            ) {
+                @Override
+                void writeValue(Block block, int valueIndex, BodyOutput out) throws IOException {
+                    out.writeLong(((LongBlock) block).getLong(valueIndex));
+                }
+            };
+            case "keyword", "text" -> new Utf8Column();
+            case "boolean" -> new BooleanColumn();
+            case "null" -> new ArrowColumn(TYPE_NULL, new FlatBufferWriter.Table(0), -1) {
+                @Override
+                void dataLengths(Block block, long[] lengths) {
+                    throw new UnsupportedOperationException("null columns don't have buffers");
+                }
+
+                @Override
+                void writeData(Block block, BodyOutput out) {
+                    throw new UnsupportedOperationException("null columns don't have buffers");
+                }
+            };
+            default -> throw new IllegalArgumentException(
+                "format [" + ArrowFormat.FORMAT + "] doesn't support [" + column.name() + "] of type [" + column.type() + "]"
+            );
+        };
+    }
+
+    private static FlatBufferWriter.Table intType(int bitWidth, boolean signed) {
+        return new FlatBufferWriter.Table(2).addInt(0, bitWidth).addBoolean(1, signed);
+    }
+
+    /**
+     * How the values of an ES|QL type map onto an Arrow type and its buffers.
+     */
+    private abstract static class ArrowColumn {
+        final byte typeId;
+        final FlatBufferWriter.Table type;
+        /**
+         * The number of buffers, not counting the validity buffer, or {@code -1} if the type has no buffers at all.
+         */
+        final int dataBuffers;
+
+        ArrowColumn(byte typeId, FlatBufferWriter.Table type, int dataBuffers) {
+            this.typeId = typeId;
+            this.type = type;
+            this.dataBuffers = dataBuffers;
+        }
+
+        final boolean hasBuffers() {
+            return dataBuffers >= 0;
+        }
+
+        /**
+         * Fills in the unpadded lengths of the data buffers of a block, starting at {@code lengths[1]}.
+         */
+        abstract void dataLengths(Block block, long[] lengths);
+
+        /**
+         * Writes the data buffers of a block, each padded to a multiple of 8 bytes.
+         */
+        abstract void writeData(Block block, BodyOutput out) throws IOException;
+    }
+
+    private abstract static class FixedWidthColumn extends ArrowColumn {
+        private final int width;
+
+        FixedWidthColumn(byte typeId, FlatBufferWriter.Table type, int width) {
+            super(typeId, type, 1);
+            this.width = width;
+        }
+
+        @Override
+        void dataLengths(Block block, long[] lengths) {
+            lengths[1] = (long) block.getPositionCount() * width;
+        }
+
+        @Override
+        void writeData(Block block, BodyOutput out) throws IOException {
+            for (int p = 0; p < block.getPositionCount(); p++) {
+                if (block.isNull(p)) {
+                    out.writeZeros(width);
+                } else {
+                    writeValue(block, block.getFirstValueIndex(p), out);
+                }
+            }
+            out.pad();
+        }
+
+        abstract void writeValue(Block block, int valueIndex, BodyOutput out) throws IOException;
+    }
+
+    private static class BooleanColumn extends ArrowColumn {
+        BooleanColumn() {
+            super(TYPE_BOOL, new FlatBufferWriter.Table(0), 1);
+        }
+
+        @Override
+        void dataLengths(Block block, long[] lengths) {
+            lengths[1] = bitmapLength(block.getPositionCount());
+        }
+
+        @Override
+        void writeData(Block block, BodyOutput out) throws IOException {
+            BooleanBlock booleans = (BooleanBlock) block;
+            writeBitmap(out, block.getPositionCount(), p -> block.isNull(p) == false && booleans.getBoolean(block.getFirstValueIndex(p)));
+            out.pad();
+        }
+    }
+
+    private static class Utf8Column extends ArrowColumn {
+        private final BytesRef scratch = new BytesRef();
+
+        Utf8Column() {
+            super(TYPE_UTF8, new FlatBufferWriter.Table(0), 2);
+        }
+
+        @Override
+        void dataLengths(Block block, long[] lengths) {
+            BytesRefBlock bytes = (BytesRefBlock) block;
+            lengths[1] = (long) (block.getPositionCount() + 1) * Integer.BYTES;
+            long dataLength = 0;
+            for (int p = 0; p < block.getPositionCount(); p++) {
+                if (block.isNull(p) == false) {
+                    dataLength += bytes.getBytesRef(block.getFirstValueIndex(p), scratch).length;
+                }
+            }
+            lengths[2] = dataLength;
+        }
+
+        @Override
+        void writeData(Block block, BodyOutput out) throws IOException {
+            BytesRefBlock bytes = (BytesRefBlock) block;
+            int offset = 0;
+            out.writeInt(offset);
+            for (int p = 0; p < block.getPositionCount(); p++) {
+                if (block.isNull(p) == false) {
+                    offset += bytes.getBytesRef(block.getFirstValueIndex(p), scratch).length;
+                }
+                out.writeInt(offset);
+            }
+            out.pad();
+            for (int p = 0; p < block.getPositionCount(); p++) {
+                if (block.isNull(p) == false) {
+                    BytesRef value = bytes.getBytesRef(block.getFirstValueIndex(p), scratch);
+                    out.writeBytes(value.bytes, value.offset, value.length);
+                }
+            }
+            out.pad();
+        }
+    }
+
+    /**
+     * Writes a bitmap of {@code positions} bits, the least significant bit of each byte first.
+     */
+    private static void writeBitmap(BodyOutput out, int positions, IntPredicate bit) throws IOException {
+        for (int start = 0; start < positions; start += Byte.SIZE) {
+            int b = 0;
+            int end = Math.min(start + Byte.SIZE, positions);
+            for (int p = start; p < end; p++) {
+                if (bit.test(p)) {
+                    b |= 1 << (p - start);
+                }
+            }
+            out.writeByte((byte) b);
+        }
+    }
+
+    private static long bitmapLength(int positions) {
+        return (positions + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    /**
+     * Buffers are padded to a multiple of 8 bytes.
+     */
+    private static long align(long length) {
+        return (length + 7) & -8L;
+    }
+
+    private static void writeIntLE(StreamOutput out, int value) throws IOException {
+        byte[] bytes = new byte[Integer.BYTES];
+        ByteUtils.writeIntLE(value, bytes, 0);
+        out.writeBytes(bytes);
+    }
+
+    /**
+     * Writes the body of a message, the buffers of a record batch, in little endian byte order.
+     */
+    private static final class BodyOutput {
+        private final StreamOutput out;
+        private final byte[] buffer = new byte[8 * 1024];
+        private int used;
+        private long written;
+
+        BodyOutput(StreamOutput out) {
+            this.out = out;
+        }
+
+        void writeByte(byte value) throws IOException {
+            ensureCapacity(1);
+            buffer[used++] = value;
+        }
+
+        void writeInt(int value) throws IOException {
+            ensureCapacity(Integer.BYTES);
+            ByteUtils.writeIntLE(value, buffer, used);
+            used += Integer.BYTES;
+        }
+
+        void writeLong(long value) throws IOException {
+            ensureCapacity(Long.BYTES);
+            ByteUtils.writeLongLE(value, buffer, used);
+            used += Long.BYTES;
+        }
+
+        void writeZeros(int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                writeByte((byte) 0);
+            }
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+            if (length <= buffer.length - used) {
+                System.arraycopy(bytes, offset, buffer, used, length);
+                used += length;
+            } else {
+                flush();
+                out.writeBytes(bytes, offset, length);
+                written += length;
+            }
+        }
+
+        /**
+         * Pads the body written so far to a multiple of 8 bytes.
+         */
+        void pad() throws IOException {
+            long total = written + used;
+            writeZeros((int) (align(total) - total));
+        }
+
+        void flush() throws IOException {
+            out.writeBytes(buffer, 0, used);
+            written += used;
+            used = 0;
+        }
+
+        private void ensureCapacity(int size) throws IOException {
+            if (buffer.length - used < size) {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.formatter;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.common.util.ByteUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Just enough of a <a href="https://flatbuffers.dev/">FlatBuffers</a> serializer to write the metadata of Arrow IPC messages. Unlike
+ * the reference implementation, which builds buffers back to front, this one lays objects out front to back: a table comes before the
+ * objects it references, so every offset points forward like the format requires.
+ */
+final class FlatBufferWriter {
+    /**
+     * A table. Fields are identified by their index in the schema, fields that are never set are absent.
+     */
+    static final class Table {
+        private final Object[] fields;
+
+        Table(int fieldCount) {
+            this.fields = new Object[fieldCount];
+        }
+
+        Table addByte(int id, byte value) {
+            fields[id] = new Scalar(1, value);
+            return this;
+        }
+
+        Table addBoolean(int id, boolean value) {
+            return addByte(id, (byte) (value ? 1 : 0));
+        }
+
+        Table addShort(int id, short value) {
+            fields[id] = new Scalar(2, value);
+            return this;
+        }
+
+        Table addInt(int id, int value) {
+            fields[id] = new Scalar(4, value);
+            return this;
+        }
+
+        Table addLong(int id, long value) {
+            fields[id] = new Scalar(8, value);
+            return this;
+        }
+
+        Table addTable(int id, Table table) {
+            fields[id] = table;
+            return this;
+        }
+
+        Table addString(int id, String value) {
+            fields[id] = value;
+            return this;
+        }
+
+        Table addTables(int id, List<Table> tables) {
+            fields[id] = new TableVector(tables);
+            return this;
+        }
+
+        /**
+         * Adds a vector of structs, each made of {@code longsPerStruct} longs.
+         */
+        Table addLongStructs(int id, long[] longs, int longsPerStruct) {
+            assert longs.length % longsPerStruct == 0;
+            fields[id] = new LongStructVector(longs, longsPerStruct);
+            return this;
+        }
+    }
+
+    private record Scalar(int size, long value) {}
+
+    private record TableVector(List<Table> tables) {}
+
+    private record LongStructVector(long[] longs, int longsPerStruct) {}
+
+    private byte[] bytes = new byte[256];
+    private int length;
+
+    private FlatBufferWriter() {}
+
+    /**
+     * Serializes a buffer whose root is the given table.
+     */
+    static byte[] serialize(Table root) {
+        FlatBufferWriter writer = new FlatBufferWriter();
+        writer.grow(Integer.BYTES);
+        writer.putOffset(0, writer.writeTable(root));
+        return Arrays.copyOf(writer.bytes, writer.length);
+    }
+
+    private int writeTable(Table table) {
+        int fieldCount = table.fields.length;
+        int[] fieldOffsets = new int[fieldCount];
+        // the inline part of a table starts with the offset to its vtable, then come its fields, the largest first
+        int inlineSize = Integer.BYTES;
+        int alignment = Integer.BYTES;
+        for (int size = Long.BYTES; size > 0; size /= 2) {
+            for (int id = 0; id < fieldCount; id++) {
+                if (table.fields[id] != null && inlineSize(table.fields[id]) == size) {
+                    inlineSize = align(inlineSize, size);
+                    fieldOffsets[id] = inlineSize;
+                    inlineSize += size;
+                    alignment = Math.max(alignment, size);
+                }
+            }
+        }
+
+        pad(Short.BYTES);
+        int vtable = length;
+        grow(Short.BYTES * (2 + fieldCount));
+        putShort(vtable, (short) (Short.BYTES * (2 + fieldCount)));
+        putShort(vtable + Short.BYTES, (short) inlineSize);
+        for (int id = 0; id < fieldCount; id++) {
+            putShort(vtable + Short.BYTES * (2 + id), (short) fieldOffsets[id]);
+        }
+
+        pad(alignment);
+        int start = length;
+        grow(inlineSize);
+        // the vtable is before the table, so this offset is positive
+        ByteUtils.writeIntLE(start - vtable, bytes, start);
+        for (int id = 0; id < fieldCount; id++) {
+            if (table.fields[id] instanceof Scalar scalar) {
+                int at = start + fieldOffsets[id];
+                switch (scalar.size) {
+                    case 1 -> bytes[at] = (byte) scalar.value;
+                    case 2 -> putShort(at, (short) scalar.value);
+                    case 4 -> ByteUtils.writeIntLE((int) scalar.value, bytes, at);
+                    case 8 -> ByteUtils.writeLongLE(scalar.value, bytes, at);
+                    default -> throw new IllegalStateException("unsupported scalar size [" + scalar.size + "]");
+                }
+            }
+        }
+        for (int id = 0; id < fieldCount; id++) {
+            Object field = table.fields[id];
+            if (field != null && field instanceof Scalar == false) {
+                int at = start + fieldOffsets[id];
+                putOffset(at, writeObject(field));
+            }
+        }
+        return start;
+    }
+
+    private int writeObject(Object object) {
+        if (object instanceof Table table) {
+            return writeTable(table);
+        }
+        if (object instanceof String string) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            pad(Integer.BYTES);
+            int start = length;
+            grow(Integer.BYTES + utf8.length + 1);
+            ByteUtils.writeIntLE(utf8.length, bytes, start);
+            System.arraycopy(utf8, 0, bytes, start + Integer.BYTES, utf8.length);
+            return start;
+        }
+        if (object instanceof TableVector vector) {
+            pad(Integer.BYTES);
+            int start = length;
+            grow(Integer.BYTES * (1 + vector.tables.size()));
+            ByteUtils.writeIntLE(vector.tables.size(), bytes, start);
+            for (int i = 0; i < vector.tables.size(); i++) {
+                int at = start + Integer.BYTES * (1 + i);
+                putOffset(at, writeTable(vector.tables.get(i)));
+            }
+            return start;
+        }
+        if (object instanceof LongStructVector vector) {
+            // the length of the vector is right before its elements, which must be aligned
+            pad(Long.BYTES);
+            grow(Integer.BYTES);
+            int start = length;
+            grow(Integer.BYTES + Long.BYTES * vector.longs.length);
+            ByteUtils.writeIntLE(vector.longs.length / vector.longsPerStruct, bytes, start);
+            for (int i = 0; i < vector.longs.length; i++) {
+                ByteUtils.writeLongLE(vector.longs[i], bytes, start + Integer.BYTES + Long.BYTES * i);
+            }
+            return start;
+        }
+        throw new IllegalStateException("unsupported object [" + object + "]");
+    }
+
+    private static int inlineSize(Object field) {
+        return field instanceof Scalar scalar ? scalar.size : Integer.BYTES;
+    }
+
+    private static int align(int offset, int alignment) {
+        return (offset + alignment - 1) & -alignment;
+    }
+
+    private void pad(int alignment) {
+        grow(align(length, alignment) - length);
+    }
+
+    /**
+     * Appends {@code size} zeroed bytes.
+     */
+    private void grow(int size) {
+        bytes = ArrayUtil.grow(bytes, length + size);
+        length += size;
+    }
+
+    private void putShort(int at, short value) {
+        bytes[at] = (byte) value;
+        bytes[at + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * Writes an offset to an object, which is relative to where the offset itself is written.
+     */
+    private void putOffset(int at, int target) {
+        assert target > at : "offsets must point forward";
+        ByteUtils.writeIntLE(target - at, bytes, at);
+    }
+}
@@ -17,6 +17,7 @@ import org.elasticsearch.compute.data.LocalCircuitBreaker;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.lucene.LuceneOperator;
 import org.elasticsearch.compute.operator.ColumnExtractOperator;
+import org.elasticsearch.compute.operator.DictionaryEvaluator;
 import org.elasticsearch.compute.operator.Driver;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.EvalOperator.EvalOperatorFactory;
@@ -35,13 +36,16 @@ import org.elasticsearch.compute.operator.SinkOperator.SinkOperatorFactory;
 import org.elasticsearch.compute.operator.SourceOperator;
 import org.elasticsearch.compute.operator.SourceOperator.SourceOperatorFactory;
 import org.elasticsearch.compute.operator.StringExtractOperator;
+import org.elasticsearch.compute.operator.exchange.ExchangeSink;
 import org.elasticsearch.compute.operator.exchange.ExchangeSinkHandler;
 import org.elasticsearch.compute.operator.exchange.ExchangeSinkOperator.ExchangeSinkOperatorFactory;
 import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
 import org.elasticsearch.compute.operator.exchange.ExchangeSourceOperator.ExchangeSourceOperatorFactory;
+import org.elasticsearch.compute.operator.exchange.PartitionedExchangeSinkOperator;
 import org.elasticsearch.compute.operator.topn.TopNEncoder;
 import org.elasticsearch.compute.operator.topn.TopNOperator;
 import org.elasticsearch.compute.operator.topn.TopNOperator.TopNOperatorFactory;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.logging.LogManager;
@@ -92,7 +96,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
@@ -116,7 +123,8 @@ public class LocalExecutionPlanner {
     private final Settings settings;
     private final EsqlConfiguration configuration;
     private final ExchangeSourceHandler exchangeSourceHandler;
-    private final ExchangeSinkHandler exchangeSinkHandler;
+    private final Supplier<ExchangeSink> exchangeSinkSupplier;
+    private final PartitionedExchangeSinks partitionedExchangeSinks;
     private final EnrichLookupService enrichLookupService;
     private final PhysicalOperationProviders physicalOperationProviders;
 
@@ -129,7 +137,8 @@ public class LocalExecutionPlanner {
         Settings settings,
         EsqlConfiguration configuration,
         ExchangeSourceHandler exchangeSourceHandler,
-        ExchangeSinkHandler exchangeSinkHandler,
+        Supplier<ExchangeSink> exchangeSinkSupplier,
+        @Nullable PartitionedExchangeSinks partitionedExchangeSinks,
         EnrichLookupService enrichLookupService,
         PhysicalOperationProviders physicalOperationProviders
     ) {
@@ -140,7 +149,8 @@ public class LocalExecutionPlanner {
         this.blockFactory = blockFactory;
         this.settings = settings;
         this.exchangeSourceHandler = exchangeSourceHandler;
-        this.exchangeSinkHandler = exchangeSinkHandler;
+        this.exchangeSinkSupplier = exchangeSinkSupplier;
+        this.partitionedExchangeSinks = partitionedExchangeSinks;
         this.enrichLookupService = enrichLookupService;
         this.physicalOperationProviders = physicalOperationProviders;
         this.configuration = configuration;
@@ -306,7 +316,10 @@ public class LocalExecutionPlanner {
     }
 
     private PhysicalOperation planExchangeSink(ExchangeSinkExec exchangeSink, LocalExecutionPlannerContext context) {
-        Objects.requireNonNull(exchangeSinkHandler, "ExchangeSinkHandler wasn't provided");
+        if (partitionedExchangeSinks != null) {
+            return planPartitionedExchangeSink(exchangeSink, context);
+        }
+        Objects.requireNonNull(exchangeSinkSupplier, "ExchangeSink wasn't provided");
         var child = exchangeSink.child();
 
         PhysicalOperation source = plan(child, context);
@@ -315,7 +328,21 @@ public class LocalExecutionPlanner {
             ? Function.identity()
             : alignPageToAttributes(exchangeSink.output(), source.layout);
 
-        return source.withSink(new ExchangeSinkOperatorFactory(exchangeSinkHandler::createExchangeSink, transformer), source.layout);
+        return source.withSink(new ExchangeSinkOperatorFactory(exchangeSinkSupplier, transformer), source.layout);
+    }
+
+    private PhysicalOperation planPartitionedExchangeSink(ExchangeSinkExec exchangeSink, LocalExecutionPlannerContext context) {
+        if (exchangeSink.isIntermediateAgg() == false) {
+            throw new EsqlIllegalArgumentException("only the intermediate results of aggregations can be partitioned");
+        }
+        PhysicalOperation source = plan(exchangeSink.child(), context);
+        // the intermediate results of a grouping aggregation start with its groups
+        List<Integer> keyChannels = IntStream.range(0, partitionedExchangeSinks.keyChannels()).boxed().toList();
+        List<ExchangeSinkHandler> sinks = partitionedExchangeSinks.sinks();
+        return source.withSink(
+            new PartitionedExchangeSinkOperator.Factory(sinks.size(), p -> sinks.get(p).createExchangeSink(), keyChannels),
+            source.layout
+        );
     }
 
     private PhysicalOperation planExchangeSource(ExchangeSourceExec exchangeSource, LocalExecutionPlannerContext context) {
@@ -397,7 +424,7 @@ public class LocalExecutionPlanner {
         PhysicalOperation source = plan(eval.child(), context);
 
         for (Alias field : eval.fields()) {
-            var evaluatorSupplier = EvalMapper.toEvaluator(field.child(), source.layout);
+            var evaluatorSupplier = toPageEvaluator(field.child(), source.layout);
             Layout.Builder layout = source.layout.builder();
             layout.append(field.toAttribute());
             source = source.with(new EvalOperatorFactory(evaluatorSupplier), layout.build());
@@ -479,8 +506,23 @@ public class LocalExecutionPlanner {
         );
     }
 
-    private ExpressionEvaluator.Factory toEvaluator(Expression exp, Layout layout) {
-        return EvalMapper.toEvaluator(exp, layout);
+    /**
+     * Builds the evaluator of an {@code EVAL} or {@code WHERE} expression. If the expression reads a single channel it's evaluated
+     * once per distinct value when that channel arrives dictionary encoded or constant.
+     */
+    private static ExpressionEvaluator.Factory toPageEvaluator(Expression exp, Layout layout) {
+        ExpressionEvaluator.Factory evaluator = EvalMapper.toEvaluator(exp, layout);
+        Set<Integer> channels = new HashSet<>();
+        for (Attribute attribute : exp.references()) {
+            Layout.ChannelAndType input = layout.get(attribute.id());
+            if (input != null) {
+                channels.add(input.channel());
+            }
+        }
+        if (channels.size() == 1) {
+            return new DictionaryEvaluator.Factory(channels.iterator().next(), evaluator);
+        }
+        return evaluator;
     }
 
     private PhysicalOperation planRow(RowExec row, LocalExecutionPlannerContext context) {
@@ -541,7 +583,7 @@ public class LocalExecutionPlanner {
     private PhysicalOperation planFilter(FilterExec filter, LocalExecutionPlannerContext context) {
         PhysicalOperation source = plan(filter.child(), context);
         // TODO: should this be extracted into a separate eval block?
-        return source.with(new FilterOperatorFactory(toEvaluator(filter.condition(), source.layout)), source.layout);
+        return source.with(new FilterOperatorFactory(toPageEvaluator(filter.condition(), source.layout)), source.layout);
     }
 
     private PhysicalOperation planLimit(LimitExec limit, LocalExecutionPlannerContext context) {
@@ -637,6 +679,14 @@ public class LocalExecutionPlanner {
         }
     }
 
+    /**
+     * The sinks of an exchange that routes each row to one of several partitions, picked by the hash of the row's keys.
+     *
+     * @param sinks       the sink handler of each partition
+     * @param keyChannels the number of leading channels that hold the keys, the groups of the intermediate results of an aggregation
+     */
+    public record PartitionedExchangeSinks(List<ExchangeSinkHandler> sinks, int keyChannels) {}
+
     /**
      * The count and type of driver parallelism.
      */
@@ -22,6 +22,7 @@ import org.elasticsearch.xpack.esql.optimizer.LocalLogicalPlanOptimizer;
 import org.elasticsearch.xpack.esql.optimizer.LocalPhysicalOptimizerContext;
 import org.elasticsearch.xpack.esql.optimizer.LocalPhysicalPlanOptimizer;
 import org.elasticsearch.xpack.esql.plan.logical.TopN;
+import org.elasticsearch.xpack.esql.plan.physical.AggregateExec;
 import org.elasticsearch.xpack.esql.plan.physical.EsQueryExec;
 import org.elasticsearch.xpack.esql.plan.physical.EsSourceExec;
 import org.elasticsearch.xpack.esql.plan.physical.EstimatesRowSize;
@@ -82,6 +83,32 @@ public class PlannerUtils {
         return new Tuple<>(coordinatorPlan, dataNodePlan.get());
     }
 
+    /**
+     * Splits the final reduction of a grouping aggregation, which reads the intermediate results of the data nodes, off the given
+     * coordinator plan so that it can run once for each partition of the groups. Returns the plan of the reduction, which writes the
+     * final results into an exchange, and the rest of the coordinator plan, which reads them from that exchange. Returns {@code null}
+     * if the coordinator plan has no such reduction.
+     */
+    public static Tuple<PhysicalPlan, PhysicalPlan> breakPlanBetweenFinalReductionAndCoordinator(PhysicalPlan coordinatorPlan) {
+        var reductions = coordinatorPlan.collect(
+            p -> p instanceof AggregateExec agg
+                && agg.getMode() == AggregateExec.Mode.FINAL
+                && agg.groupings().isEmpty() == false
+                && agg.child() instanceof ExchangeSourceExec source
+                && source.isIntermediateAgg()
+        );
+        if (reductions.size() != 1) {
+            return null;
+        }
+        AggregateExec reduction = (AggregateExec) reductions.get(0);
+        PhysicalPlan reductionPlan = new ExchangeSinkExec(reduction.source(), reduction.output(), false, reduction);
+        PhysicalPlan remainingPlan = coordinatorPlan.transformUp(
+            AggregateExec.class,
+            agg -> agg == reduction ? new ExchangeSourceExec(reduction.source(), reduction.output(), false) : agg
+        );
+        return new Tuple<>(reductionPlan, remainingPlan);
+    }
+
     public static PhysicalPlan dataNodeReductionPlan(LogicalPlan plan, PhysicalPlan unused) {
         var pipelineBreakers = plan.collectFirstChildren(Mapper::isPipelineBreaker);
 
@@ -0,0 +1,341 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.plugin;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BlockStreamInput;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.exchange.ExchangeSink;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.ESCacheHelper;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+import org.elasticsearch.xpack.esql.expression.function.scalar.date.Now;
+import org.elasticsearch.xpack.esql.io.stream.PlanNameRegistry;
+import org.elasticsearch.xpack.esql.io.stream.PlanStreamOutput;
+import org.elasticsearch.xpack.esql.plan.physical.FragmentExec;
+import org.elasticsearch.xpack.esql.plan.physical.PhysicalPlan;
+import org.elasticsearch.xpack.esql.session.EsqlConfiguration;
+import org.elasticsearch.xpack.ql.plan.QueryPlan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Node level cache of the pages that the data node drivers of a batch of shards send to the exchange. A batch is only served from
+ * the cache if it runs the same plan, with the same settings, against the same point in time readers of the same shards. Entries are
+ * invalidated as soon as any of their readers is closed, which happens once a refresh opened a newer reader and all searches on the
+ * older one completed.
+ * <p>
+ *     The cache is disabled unless {@link EsqlPlugin#QUERY_RESULT_CACHE_SIZE} is set.
+ * </p>
+ */
+final class ComputeResultCache {
+    /**
+     * Entries may take up to this fraction of the cache. Batches producing more than that are not recorded at all.
+     */
+    static final int MAX_ENTRY_FRACTION = 10;
+
+    private static final PlanNameRegistry planNameRegistry = new PlanNameRegistry();
+
+    private final Cache<Key, Entry> cache;
+    private final long maxEntryBytes;
+    private final Set<Object> registeredReaders = ConcurrentCollections.newConcurrentSet();
+
+    ComputeResultCache(ByteSizeValue size) {
+        this.cache = CacheBuilder.<Key, Entry>builder()
+            .setMaximumWeight(size.getBytes())
+            .weigher((k, v) -> k.ramBytesUsed() + v.bytes.length())
+            .build();
+        this.maxEntryBytes = size.getBytes() / MAX_ENTRY_FRACTION;
+    }
+
+    boolean enabled() {
+        return maxEntryBytes > 0;
+    }
+
+    /**
+     * The key of a shard in a batch.
+     * @param readerKey       the key of the point in time reader, which changes on refresh
+     * @param mappingKey      the key of the mapping, which the local plan depends on
+     * @param requestCacheKey the {@link ShardSearchRequest#cacheKey} of the shard, covering the alias filter and document level security
+     */
+    record ShardKey(ShardId shardId, Object readerKey, Object mappingKey, BytesReference requestCacheKey) {}
+
+    record Key(BytesReference plan, List<ShardKey> shards) {
+        long ramBytesUsed() {
+            long bytes = plan.length();
+            for (ShardKey shard : shards) {
+                // the reader and mapping keys are shared with the rest of the node, so count only the references
+                bytes += shard.requestCacheKey.length() + 64;
+            }
+            return bytes;
+        }
+    }
+
+    record Entry(int pageCount, BytesReference bytes) {}
+
+    /**
+     * Serializes the parts of a data node request that decide the result of a batch. Returns {@code null} if the result of the plan
+     * can't be cached, because it depends on the time it runs at or because its profile is requested.
+     */
+    @Nullable
+    static BytesReference planKey(PhysicalPlan plan, String clusterAlias, EsqlConfiguration configuration) throws IOException {
+        if (configuration.profile() || dependsOnNow(plan)) {
+            return null;
+        }
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            new PlanStreamOutput(out, planNameRegistry).writePhysicalPlanNode(plan);
+            out.writeString(clusterAlias);
+            out.writeZoneId(configuration.zoneId());
+            out.writeString(configuration.locale().toLanguageTag());
+            configuration.pragmas().writeTo(out);
+            return out.bytes();
+        }
+    }
+
+    private static boolean dependsOnNow(QueryPlan<?> plan) {
+        return plan.anyMatch(
+            p -> ((QueryPlan<?>) p).expressions().stream().anyMatch(e -> e.anyMatch(Now.class::isInstance))
+                || (p instanceof FragmentExec fragment && dependsOnNow(fragment.fragment()))
+        );
+    }
+
+    /**
+     * Builds the key of a batch. Returns {@code null} if any of its shards can't be cached, because its reader can't be tracked or
+     * because parsing its request, such as its alias filter, used something that isn't deterministic.
+     */
+    @Nullable
+    Key key(
+        BytesReference planKey,
+        List<SearchContext> searchContexts,
+        @Nullable CheckedBiConsumer<ShardSearchRequest, StreamOutput, IOException> differentiator
+    ) throws IOException {
+        List<ShardKey> shards = new ArrayList<>(searchContexts.size());
+        for (SearchContext searchContext : searchContexts) {
+            if (searchContext.getSearchExecutionContext().isCacheable() == false) {
+                return null;
+            }
+            DirectoryReader reader = searchContext.searcher().getDirectoryReader();
+            if (reader.getReaderCacheHelper() == null) {
+                return null;
+            }
+            ESCacheHelper cacheHelper = ElasticsearchDirectoryReader.getESReaderCacheHelper(reader);
+            if (registerReader(cacheHelper.getKey())) {
+                cacheHelper.addClosedListener(this::onReaderClosed);
+            }
+            shards.add(
+                new ShardKey(
+                    searchContext.request().shardId(),
+                    cacheHelper.getKey(),
+                    searchContext.getSearchExecutionContext().mappingCacheKey(),
+                    searchContext.request().cacheKey(differentiator)
+                )
+            );
+        }
+        return new Key(planKey, shards);
+    }
+
+    /**
+     * Starts tracking the given reader, returning {@code true} if it wasn't tracked yet.
+     */
+    boolean registerReader(Object readerKey) {
+        return registeredReaders.add(readerKey);
+    }
+
+    void onReaderClosed(Object readerKey) {
+        registeredReaders.remove(readerKey);
+        List<Key> invalidated = new ArrayList<>();
+        for (Key key : cache.keys()) {
+            for (ShardKey shard : key.shards) {
+                if (shard.readerKey == readerKey) {
+                    invalidated.add(key);
+                    break;
+                }
+            }
+        }
+        invalidated.forEach(cache::invalidate);
+    }
+
+    /**
+     * Returns the cached pages of a batch, or {@code null} on a miss.
+     */
+    @Nullable
+    List<Page> get(Key key, BlockFactory blockFactory) throws IOException {
+        Entry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        List<Page> pages = new ArrayList<>(entry.pageCount);
+        boolean success = false;
+        try (BlockStreamInput in = new BlockStreamInput(entry.bytes.streamInput(), blockFactory)) {
+            for (int p = 0; p < entry.pageCount; p++) {
+                pages.add(new Page(in));
+            }
+            success = true;
+        } finally {
+            if (success == false) {
+                pages.forEach(Page::releaseBlocks);
+            }
+        }
+        return pages;
+    }
+
+    int count() {
+        return cache.count();
+    }
+
+    /**
+     * Starts recording the pages of a batch.
+     * @param searchContexts the contexts of the shards of the batch, which must still be cacheable once the batch completed
+     * @param breaker        the breaker that accounts for the recorded pages until they are cached or discarded
+     */
+    Recorder recorder(Key key, List<SearchExecutionContext> searchContexts, CircuitBreaker breaker) {
+        return new Recorder(key, searchContexts, breaker);
+    }
+
+    /**
+     * Records the pages that the drivers of a batch add to their sinks, and caches them once the batch completed successfully. Must be
+     * closed once the batch completed, successfully or not, to release the recorded pages from the breaker.
+     */
+    final class Recorder implements Releasable {
+        private final Key key;
+        private final List<SearchExecutionContext> searchContexts;
+        private final CircuitBreaker breaker;
+        private final BytesStreamOutput out = new BytesStreamOutput();
+        private long reservedBytes;
+        private int pageCount;
+        private boolean discarded;
+
+        private Recorder(Key key, List<SearchExecutionContext> searchContexts, CircuitBreaker breaker) {
+            this.key = key;
+            this.searchContexts = searchContexts;
+            this.breaker = breaker;
+        }
+
+        /**
+         * Wraps the sink of a driver of the batch.
+         */
+        ExchangeSink wrap(ExchangeSink sink) {
+            return new ExchangeSink() {
+                @Override
+                public void addPage(Page page) {
+                    record(page, sink.isFinished());
+                    sink.addPage(page);
+                }
+
+                @Override
+                public void finish() {
+                    if (sink.isFinished()) {
+                        // the consumer has enough data, so the driver may have stopped before producing all of its pages
+                        discard();
+                    }
+                    sink.finish();
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return sink.isFinished();
+                }
+
+                @Override
+                public SubscribableListener<Void> waitForWriting() {
+                    return sink.waitForWriting();
+                }
+            };
+        }
+
+        private synchronized void record(Page page, boolean dropped) {
+            if (discarded) {
+                return;
+            }
+            if (dropped) {
+                discard();
+                return;
+            }
+            try {
+                page.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pageCount++;
+            if (out.size() > maxEntryBytes) {
+                discard();
+                return;
+            }
+            try {
+                breaker.addEstimateBytesAndMaybeBreak(out.size() - reservedBytes, "esql_result_cache");
+                reservedBytes = out.size();
+            } catch (CircuitBreakingException e) {
+                // recording is best effort, so give up on caching the batch rather than failing it
+                discard();
+            }
+        }
+
+        private synchronized void discard() {
+            discarded = true;
+            out.reset();
+            releaseReservedBytes();
+        }
+
+        private void releaseReservedBytes() {
+            breaker.addWithoutBreaking(-reservedBytes);
+            reservedBytes = 0;
+        }
+
+        /**
+         * Caches the recorded pages. Must only be called once all drivers of the batch completed successfully.
+         */
+        synchronized void complete() {
+            if (discarded) {
+                return;
+            }
+            discarded = true;
+            // the cache accounts for the pages from now on
+            releaseReservedBytes();
+            if (searchContexts.stream().allMatch(SearchExecutionContext::isCacheable) == false) {
+                // planning the batch used something that isn't deterministic, such as a script or a range relative to now
+                return;
+            }
+            cache.put(key, new Entry(pageCount, out.bytes()));
+            // one of the readers may have been closed while the batch ran, after its entries were invalidated
+            for (ShardKey shard : key.shards) {
+                if (registeredReaders.contains(shard.readerKey) == false) {
+                    cache.invalidate(key);
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (discarded == false) {
+                discard();
+            }
+        }
+    }
+}
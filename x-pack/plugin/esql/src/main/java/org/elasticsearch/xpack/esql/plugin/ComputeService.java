@@ -7,6 +7,7 @@
 
 package org.elasticsearch.xpack.esql.plugin;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.action.ActionRunnable;
@@ -20,8 +21,10 @@ import org.elasticsearch.action.support.ChannelActionListener;
 import org.elasticsearch.action.support.ContextPreservingActionListener;
 import org.elasticsearch.action.support.RefCountingListener;
 import org.elasticsearch.action.support.RefCountingRunnable;
+import org.elasticsearch.action.support.SubscribableListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.compute.data.BlockFactory;
@@ -35,6 +38,7 @@ import org.elasticsearch.compute.operator.exchange.ExchangeSink;
 import org.elasticsearch.compute.operator.exchange.ExchangeSinkHandler;
 import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
 import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.Tuple;
@@ -63,6 +67,7 @@ import org.elasticsearch.transport.TransportRequestOptions;
 import org.elasticsearch.transport.TransportService;
 import org.elasticsearch.xpack.esql.action.EsqlQueryAction;
 import org.elasticsearch.xpack.esql.enrich.EnrichLookupService;
+import org.elasticsearch.xpack.esql.plan.physical.AggregateExec;
 import org.elasticsearch.xpack.esql.plan.physical.ExchangeSinkExec;
 import org.elasticsearch.xpack.esql.plan.physical.ExchangeSourceExec;
 import org.elasticsearch.xpack.esql.plan.physical.FragmentExec;
@@ -77,6 +82,7 @@ import org.elasticsearch.xpack.ql.options.EsSourceOptions;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -103,6 +109,7 @@ public class ComputeService {
     private final ExchangeService exchangeService;
     private final EnrichLookupService enrichLookupService;
     private final ClusterService clusterService;
+    private final ComputeResultCache resultCache;
 
     public ComputeService(
         SearchService searchService,
@@ -130,6 +137,7 @@ public class ComputeService {
         this.exchangeService = exchangeService;
         this.enrichLookupService = enrichLookupService;
         this.clusterService = clusterService;
+        this.resultCache = new ComputeResultCache(EsqlPlugin.QUERY_RESULT_CACHE_SIZE.get(clusterService.getSettings()));
     }
 
     public void execute(
@@ -192,6 +200,18 @@ public class ComputeService {
             .groupIndices(SearchRequest.DEFAULT_INDICES_OPTIONS, PlannerUtils.planOriginalIndices(physicalPlan));
         var localOriginalIndices = clusterToOriginalIndices.remove(RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY);
         var localConcreteIndices = clusterToConcreteIndices.remove(RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY);
+        List<RemoteCluster> remoteClusters = getRemoteClusters(clusterToConcreteIndices, clusterToOriginalIndices);
+        // the final reduction of a grouping aggregation can be split into partitions of its groups, but only on this cluster
+        ExchangeSinkExec finalReductionPlan = null;
+        if (queryPragmas.finalReductionPartitions() > 1
+            && remoteClusters.isEmpty()
+            && clusterService.state().getMinTransportVersion().onOrAfter(TransportVersions.ESQL_PARTITIONED_EXCHANGE)) {
+            var reductionAndCoordinatorPlan = PlannerUtils.breakPlanBetweenFinalReductionAndCoordinator(coordinatorAndDataNodePlan.v1());
+            if (reductionAndCoordinatorPlan != null) {
+                finalReductionPlan = (ExchangeSinkExec) reductionAndCoordinatorPlan.v1();
+                coordinatorPlan = new OutputExec(reductionAndCoordinatorPlan.v2(), collectedPages::add);
+            }
+        }
         final var responseHeadersCollector = new ResponseHeadersCollector(transportService.getThreadPool().getThreadContext());
         listener = ActionListener.runBefore(listener, responseHeadersCollector::finish);
         final AtomicBoolean cancelled = new AtomicBoolean();
@@ -200,8 +220,24 @@ public class ComputeService {
             queryPragmas.exchangeBufferSize(),
             transportService.getThreadPool().executor(ThreadPool.Names.SEARCH)
         );
+        final List<ExchangeSourceHandler> dataNodeSources;
+        if (finalReductionPlan == null) {
+            dataNodeSources = List.of(exchangeSource);
+        } else {
+            dataNodeSources = new ArrayList<>(queryPragmas.finalReductionPartitions());
+            for (int p = 0; p < queryPragmas.finalReductionPartitions(); p++) {
+                dataNodeSources.add(
+                    new ExchangeSourceHandler(
+                        queryPragmas.exchangeBufferSize(),
+                        transportService.getThreadPool().executor(ThreadPool.Names.SEARCH)
+                    )
+                );
+            }
+        }
         try (
-            Releasable ignored = exchangeSource.addEmptySink();
+            Releasable ignored = finalReductionPlan == null
+                ? exchangeSource.addEmptySink()
+                : Releasables.wrap(exchangeSource.addEmptySink(), addEmptySinks(dataNodeSources));
             RefCountingListener refs = new RefCountingListener(listener.map(unused -> new Result(collectedPages, collectedProfiles)))
         ) {
             // run compute on the coordinator
@@ -217,6 +253,24 @@ public class ComputeService {
                     return null;
                 })
             );
+            // run the final reduction of each partition on the coordinator
+            if (finalReductionPlan != null) {
+                startFinalReductions(
+                    sessionId,
+                    rootTask,
+                    configuration,
+                    finalReductionPlan,
+                    dataNodeSources,
+                    exchangeSource,
+                    () -> cancelOnFailure(rootTask, cancelled, refs.acquire()).map(driverProfiles -> {
+                        responseHeadersCollector.collect();
+                        if (configuration.profile()) {
+                            collectedProfiles.addAll(driverProfiles);
+                        }
+                        return null;
+                    })
+                );
+            }
             // starts computes on data nodes on the main cluster
             if (localConcreteIndices != null && localConcreteIndices.indices().length > 0) {
                 startComputeOnDataNodes(
@@ -227,8 +281,9 @@ public class ComputeService {
                     dataNodePlan,
                     Set.of(localConcreteIndices.indices()),
                     localOriginalIndices.indices(),
-                    exchangeSource,
-                    ActionListener.releaseAfter(refs.acquire(), exchangeSource.addEmptySink()),
+                    dataNodeSources,
+                    finalReductionPlan == null ? 0 : ((AggregateExec) finalReductionPlan.child()).groupings().size(),
+                    ActionListener.releaseAfter(refs.acquire(), addEmptySinks(dataNodeSources)),
                     () -> cancelOnFailure(rootTask, cancelled, refs.acquire()).map(response -> {
                         responseHeadersCollector.collect();
                         if (configuration.profile()) {
@@ -245,7 +300,7 @@ public class ComputeService {
                 configuration,
                 dataNodePlan,
                 exchangeSource,
-                getRemoteClusters(clusterToConcreteIndices, clusterToOriginalIndices),
+                remoteClusters,
                 () -> cancelOnFailure(rootTask, cancelled, refs.acquire()).map(response -> {
                     responseHeadersCollector.collect();
                     if (configuration.profile()) {
@@ -279,6 +334,62 @@ public class ComputeService {
         return remoteClusters;
     }
 
+    private static Releasable addEmptySinks(List<ExchangeSourceHandler> exchangeSources) {
+        return Releasables.wrap(exchangeSources.stream().map(ExchangeSourceHandler::addEmptySink).toList());
+    }
+
+    /**
+     * Runs the final reduction of a grouping aggregation once for each partition of its groups, reading the intermediate results that
+     * the data nodes routed to that partition and writing the final results into the given exchange source.
+     */
+    private void startFinalReductions(
+        String sessionId,
+        CancellableTask rootTask,
+        EsqlConfiguration configuration,
+        ExchangeSinkExec reductionPlan,
+        List<ExchangeSourceHandler> partitionSources,
+        ExchangeSourceHandler exchangeSource,
+        Supplier<ActionListener<List<DriverProfile>>> listener
+    ) {
+        final String reductionSessionId = sessionId + "[r]"; // internal session
+        final var reductionSink = exchangeService.createSinkHandler(reductionSessionId, configuration.pragmas().exchangeBufferSize());
+        rootTask.addListener(
+            () -> exchangeService.finishSinkHandler(reductionSessionId, new TaskCancelledException(rootTask.getReasonCancelled()))
+        );
+        exchangeSource.addRemoteSink(reductionSink::fetchPageAsync, 1);
+        // don't finish the exchange until the reductions of all partitions have started
+        final ExchangeSink blockingSink = reductionSink.createExchangeSink();
+        try (RefCountingRunnable refs = new RefCountingRunnable(() -> exchangeService.finishSinkHandler(reductionSessionId, null))) {
+            for (ExchangeSourceHandler partitionSource : partitionSources) {
+                ActionListener<List<DriverProfile>> partitionListener = ActionListener.releaseAfter(
+                    listener.get().delegateResponse((l, e) -> {
+                        exchangeService.finishSinkHandler(reductionSessionId, e);
+                        l.onFailure(e);
+                    }),
+                    refs.acquire()
+                );
+                runCompute(
+                    rootTask,
+                    new ComputeContext(
+                        reductionSessionId,
+                        RemoteClusterAware.LOCAL_CLUSTER_GROUP_KEY,
+                        List.of(),
+                        configuration,
+                        partitionSource,
+                        reductionSink
+                    ),
+                    reductionPlan,
+                    ActionListener.wrap(
+                        driverProfiles -> reductionSink.addCompletionListener(partitionListener.map(unused -> driverProfiles)),
+                        partitionListener::onFailure
+                    )
+                );
+            }
+        } finally {
+            blockingSink.finish();
+        }
+    }
+
     private void startComputeOnDataNodes(
         String sessionId,
         String clusterAlias,
@@ -287,7 +398,8 @@ public class ComputeService {
         PhysicalPlan dataNodePlan,
         Set<String> concreteIndices,
         String[] originalIndices,
-        ExchangeSourceHandler exchangeSource,
+        List<ExchangeSourceHandler> exchangeSources,
+        int partitionKeys,
         ActionListener<Void> parentListener,
         Supplier<ActionListener<ComputeResponse>> dataNodeListenerSupplier
     ) {
@@ -322,11 +434,20 @@ public class ComputeService {
                             transportService,
                             node.connection,
                             sessionId,
+                            exchangeSources.size(),
                             queryPragmas.exchangeBufferSize(),
                             esqlExecutor,
                             dataNodeListener.delegateFailureAndWrap((delegate, unused) -> {
-                                var remoteSink = exchangeService.newRemoteSink(parentTask, sessionId, transportService, node.connection);
-                                exchangeSource.addRemoteSink(remoteSink, queryPragmas.concurrentExchangeClients());
+                                List<String> exchangeIds = ExchangeService.exchangeIds(sessionId, exchangeSources.size());
+                                for (int p = 0; p < exchangeSources.size(); p++) {
+                                    var remoteSink = exchangeService.newRemoteSink(
+                                        parentTask,
+                                        exchangeIds.get(p),
+                                        transportService,
+                                        node.connection
+                                    );
+                                    exchangeSources.get(p).addRemoteSink(remoteSink, queryPragmas.concurrentExchangeClients());
+                                }
                                 transportService.sendChildRequest(
                                     node.connection,
                                     DATA_ACTION_NAME,
@@ -336,7 +457,9 @@ public class ComputeService {
                                         clusterAlias,
                                         node.shardIds,
                                         node.aliasFilters,
-                                        planWithReducer
+                                        planWithReducer,
+                                        exchangeSources.size(),
+                                        partitionKeys
                                     ),
                                     parentTask,
                                     TransportRequestOptions.EMPTY,
@@ -428,7 +551,8 @@ public class ComputeService {
                 clusterService.getSettings(),
                 context.configuration,
                 context.exchangeSource(),
-                context.exchangeSink(),
+                context.exchangeSinkSupplier(),
+                context.partitionedExchangeSinks(),
                 enrichLookupService,
                 new EsPhysicalOperationProviders(contexts)
             );
@@ -626,6 +750,7 @@ public class ComputeService {
         private final List<DriverProfile> driverProfiles;
         private final int maxConcurrentShards;
         private final ExchangeSink blockingSink; // block until we have completed on all shards or the coordinator has enough data
+        private BytesReference resultCachePlanKey; // null if the results of this request can't be cached
 
         DataNodeRequestExecutor(
             DataNodeRequest request,
@@ -648,6 +773,14 @@ public class ComputeService {
             parentTask.addListener(
                 () -> exchangeService.finishSinkHandler(request.sessionId(), new TaskCancelledException(parentTask.getReasonCancelled()))
             );
+            if (resultCache.enabled()) {
+                try {
+                    resultCachePlanKey = ComputeResultCache.planKey(request.plan(), request.clusterAlias(), request.configuration());
+                } catch (Exception e) {
+                    onFailure(e);
+                    return;
+                }
+            }
             runBatch(0);
         }
 
@@ -659,16 +792,82 @@ public class ComputeService {
             List<ShardId> shardIds = request.shardIds().subList(startBatchIndex, endBatchIndex);
             acquireSearchContexts(clusterAlias, shardIds, configuration, request.aliasFilters(), ActionListener.wrap(searchContexts -> {
                 assert ThreadPool.assertCurrentThreadPool(ThreadPool.Names.SEARCH, ESQL_WORKER_THREAD_POOL_NAME);
-                var computeContext = new ComputeContext(sessionId, clusterAlias, searchContexts, configuration, null, exchangeSink);
-                runCompute(
-                    parentTask,
-                    computeContext,
-                    request.plan(),
-                    ActionListener.wrap(profiles -> onBatchCompleted(endBatchIndex, profiles), this::onFailure)
+                final ComputeResultCache.Key cacheKey;
+                final List<Page> cachedPages;
+                try {
+                    cacheKey = resultCachePlanKey == null
+                        ? null
+                        : resultCache.key(
+                            resultCachePlanKey,
+                            searchContexts,
+                            searchService.getIndicesService().getRequestCacheKeyDifferentiator()
+                        );
+                    cachedPages = cacheKey == null ? null : resultCache.get(cacheKey, blockFactory);
+                } catch (Exception e) {
+                    Releasables.close(searchContexts);
+                    throw e;
+                }
+                if (cachedPages != null) {
+                    Releasables.close(searchContexts);
+                    Iterator<Page> pages = cachedPages.iterator();
+                    addCachedPages(exchangeSink.createExchangeSink(), pages, ActionListener.wrap(ignored -> {
+                        onBatchCompleted(endBatchIndex, List.of());
+                    }, e -> {
+                        pages.forEachRemaining(Page::releaseBlocks);
+                        onFailure(e);
+                    }));
+                    return;
+                }
+                var recorder = cacheKey == null
+                    ? null
+                    : resultCache.recorder(
+                        cacheKey,
+                        searchContexts.stream().map(SearchContext::getSearchExecutionContext).toList(),
+                        blockFactory.breaker()
+                    );
+                var computeContext = new ComputeContext(
+                    sessionId,
+                    clusterAlias,
+                    searchContexts,
+                    configuration,
+                    null,
+                    exchangeSink,
+                    recorder,
+                    null
                 );
+                runCompute(parentTask, computeContext, request.plan(), ActionListener.wrap(profiles -> {
+                    if (recorder != null) {
+                        recorder.complete();
+                        recorder.close();
+                    }
+                    onBatchCompleted(endBatchIndex, profiles);
+                }, e -> {
+                    Releasables.close(recorder);
+                    onFailure(e);
+                }));
             }, this::onFailure));
         }
 
+        /**
+         * Adds the cached pages of a batch to the given sink, waiting for the exchange to have room for them like the drivers do.
+         */
+        private void addCachedPages(ExchangeSink sink, Iterator<Page> pages, ActionListener<Void> listener) {
+            while (pages.hasNext()) {
+                SubscribableListener<Void> writable = sink.waitForWriting();
+                if (writable.isDone() == false) {
+                    writable.addListener(
+                        listener.delegateFailureAndWrap((l, ignored) -> addCachedPages(sink, pages, l)),
+                        esqlExecutor,
+                        null
+                    );
+                    return;
+                }
+                sink.addPage(pages.next());
+            }
+            sink.finish();
+            listener.onResponse(null);
+        }
+
         private void onBatchCompleted(int lastBatchIndex, List<DriverProfile> batchProfiles) {
             if (request.configuration().profile()) {
                 driverProfiles.addAll(batchProfiles);
@@ -693,13 +892,21 @@ public class ComputeService {
         }
     }
 
+    /**
+     * Runs the given data node request and reduces its results into the exchanges of {@code externalSessionId}. If there is more than
+     * one partition, each row is routed to the exchange of the partition picked by the values of its first {@code partitionKeys}
+     * channels.
+     */
     private void runComputeOnDataNode(
         CancellableTask task,
-        String externalId,
+        String externalSessionId,
+        int partitions,
+        int partitionKeys,
         PhysicalPlan reducePlan,
         DataNodeRequest request,
         ActionListener<ComputeResponse> listener
     ) {
+        final List<String> externalIds = ExchangeService.exchangeIds(externalSessionId, partitions);
         final List<DriverProfile> collectedProfiles = request.configuration().profile()
             ? Collections.synchronizedList(new ArrayList<>())
             : List.of();
@@ -719,8 +926,11 @@ public class ComputeService {
             );
             dataNodeRequestExecutor.start();
             // run the node-level reduction
-            var externalSink = exchangeService.getSinkHandler(externalId);
-            task.addListener(() -> exchangeService.finishSinkHandler(externalId, new TaskCancelledException(task.getReasonCancelled())));
+            var externalSinks = externalIds.stream().map(exchangeService::getSinkHandler).toList();
+            task.addListener(() -> {
+                var cancelledException = new TaskCancelledException(task.getReasonCancelled());
+                externalIds.forEach(externalId -> exchangeService.finishSinkHandler(externalId, cancelledException));
+            });
             var exchangeSource = new ExchangeSourceHandler(1, esqlExecutor);
             exchangeSource.addRemoteSink(internalSink::fetchPageAsync, 1);
             ActionListener<Void> reductionListener = cancelOnFailure(task, cancelled, refs.acquire());
@@ -732,7 +942,9 @@ public class ComputeService {
                     List.of(),
                     request.configuration(),
                     exchangeSource,
-                    externalSink
+                    partitions == 1 ? externalSinks.get(0) : null,
+                    null,
+                    partitions == 1 ? null : new LocalExecutionPlanner.PartitionedExchangeSinks(externalSinks, partitionKeys)
                 ),
                 reducePlan,
                 ActionListener.wrap(driverProfiles -> {
@@ -741,16 +953,20 @@ public class ComputeService {
                         collectedProfiles.addAll(driverProfiles);
                     }
                     // don't return until all pages are fetched
-                    externalSink.addCompletionListener(
-                        ActionListener.runBefore(reductionListener, () -> exchangeService.finishSinkHandler(externalId, null))
+                    var completionListener = ActionListener.runBefore(
+                        reductionListener,
+                        () -> externalIds.forEach(externalId -> exchangeService.finishSinkHandler(externalId, null))
                     );
+                    try (RefCountingListener sinkRefs = new RefCountingListener(completionListener)) {
+                        externalSinks.forEach(externalSink -> externalSink.addCompletionListener(sinkRefs.acquire()));
+                    }
                 }, e -> {
-                    exchangeService.finishSinkHandler(externalId, e);
+                    externalIds.forEach(externalId -> exchangeService.finishSinkHandler(externalId, e));
                     reductionListener.onFailure(e);
                 })
             );
         } catch (Exception e) {
-            exchangeService.finishSinkHandler(externalId, e);
+            externalIds.forEach(externalId -> exchangeService.finishSinkHandler(externalId, e));
             exchangeService.finishSinkHandler(request.sessionId(), e);
             listener.onFailure(e);
         }
@@ -781,6 +997,8 @@ public class ComputeService {
                 return;
             }
             final String sessionId = request.sessionId();
+            final int partitions = request.partitions();
+            final int partitionKeys = request.partitionKeys();
             request = new DataNodeRequest(
                 sessionId + "[n]", // internal session
                 request.configuration(),
@@ -789,7 +1007,7 @@ public class ComputeService {
                 request.aliasFilters(),
                 request.plan()
             );
-            runComputeOnDataNode((CancellableTask) task, sessionId, reducePlan, request, listener);
+            runComputeOnDataNode((CancellableTask) task, sessionId, partitions, partitionKeys, reducePlan, request, listener);
         }
     }
 
@@ -880,7 +1098,8 @@ public class ComputeService {
                 plan,
                 concreteIndices,
                 originalIndices,
-                exchangeSource,
+                List.of(exchangeSource),
+                0,
                 ActionListener.releaseAfter(refs.acquire(), exchangeSource.addEmptySink()),
                 () -> cancelOnFailure(parentTask, cancelled, refs.acquire()).map(r -> {
                     responseHeadersCollector.collect();
@@ -899,10 +1118,33 @@ public class ComputeService {
         List<SearchContext> searchContexts,
         EsqlConfiguration configuration,
         ExchangeSourceHandler exchangeSource,
-        ExchangeSinkHandler exchangeSink
+        ExchangeSinkHandler exchangeSink,
+        @Nullable ComputeResultCache.Recorder resultRecorder,
+        @Nullable LocalExecutionPlanner.PartitionedExchangeSinks partitionedExchangeSinks
     ) {
+        ComputeContext(
+            String sessionId,
+            String clusterAlias,
+            List<SearchContext> searchContexts,
+            EsqlConfiguration configuration,
+            ExchangeSourceHandler exchangeSource,
+            ExchangeSinkHandler exchangeSink
+        ) {
+            this(sessionId, clusterAlias, searchContexts, configuration, exchangeSource, exchangeSink, null, null);
+        }
+
         public List<SearchExecutionContext> searchExecutionContexts() {
             return searchContexts.stream().map(ctx -> ctx.getSearchExecutionContext()).toList();
         }
+
+        public Supplier<ExchangeSink> exchangeSinkSupplier() {
+            if (exchangeSink == null) {
+                return null;
+            }
+            if (resultRecorder == null) {
+                return exchangeSink::createExchangeSink;
+            }
+            return () -> resultRecorder.wrap(exchangeSink.createExchangeSink());
+        }
     }
 }
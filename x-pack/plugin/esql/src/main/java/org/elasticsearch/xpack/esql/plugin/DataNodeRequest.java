@@ -39,6 +39,8 @@ final class DataNodeRequest extends TransportRequest implements IndicesRequest {
     private final List<ShardId> shardIds;
     private final Map<Index, AliasFilter> aliasFilters;
     private final PhysicalPlan plan;
+    private final int partitions;
+    private final int partitionKeys;
 
     private String[] indices; // lazily computed
 
@@ -49,6 +51,19 @@ final class DataNodeRequest extends TransportRequest implements IndicesRequest {
         List<ShardId> shardIds,
         Map<Index, AliasFilter> aliasFilters,
         PhysicalPlan plan
+    ) {
+        this(sessionId, configuration, clusterAlias, shardIds, aliasFilters, plan, 1, 0);
+    }
+
+    DataNodeRequest(
+        String sessionId,
+        EsqlConfiguration configuration,
+        String clusterAlias,
+        List<ShardId> shardIds,
+        Map<Index, AliasFilter> aliasFilters,
+        PhysicalPlan plan,
+        int partitions,
+        int partitionKeys
     ) {
         this.sessionId = sessionId;
         this.configuration = configuration;
@@ -56,6 +71,8 @@ final class DataNodeRequest extends TransportRequest implements IndicesRequest {
         this.shardIds = shardIds;
         this.aliasFilters = aliasFilters;
         this.plan = plan;
+        this.partitions = partitions;
+        this.partitionKeys = partitionKeys;
     }
 
     DataNodeRequest(StreamInput in) throws IOException {
@@ -70,6 +87,13 @@ final class DataNodeRequest extends TransportRequest implements IndicesRequest {
         this.shardIds = in.readCollectionAsList(ShardId::new);
         this.aliasFilters = in.readMap(Index::new, AliasFilter::readFrom);
         this.plan = new PlanStreamInput(in, planNameRegistry, in.namedWriteableRegistry(), configuration).readPhysicalPlanNode();
+        if (in.getTransportVersion().onOrAfter(TransportVersions.ESQL_PARTITIONED_EXCHANGE)) {
+            this.partitions = in.readVInt();
+            this.partitionKeys = in.readVInt();
+        } else {
+            this.partitions = 1;
+            this.partitionKeys = 0;
+        }
     }
 
     @Override
@@ -83,6 +107,12 @@ final class DataNodeRequest extends TransportRequest implements IndicesRequest {
         out.writeCollection(shardIds);
         out.writeMap(aliasFilters);
         new PlanStreamOutput(out, planNameRegistry).writePhysicalPlanNode(plan);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.ESQL_PARTITIONED_EXCHANGE)) {
+            out.writeVInt(partitions);
+            out.writeVInt(partitionKeys);
+        } else if (partitions != 1) {
+            throw new IllegalArgumentException("partitioned exchanges are not supported on [" + out.getTransportVersion() + "]");
+        }
     }
 
     @Override
@@ -143,6 +173,20 @@ final class DataNodeRequest extends TransportRequest implements IndicesRequest {
         return plan;
     }
 
+    /**
+     * The number of partitions the results of this request are routed to, each of them with its own exchange.
+     */
+    int partitions() {
+        return partitions;
+    }
+
+    /**
+     * The number of leading channels of the results whose values pick the partition of a row.
+     */
+    int partitionKeys() {
+        return partitionKeys;
+    }
+
     @Override
     public String getDescription() {
         return "shards=" + shardIds + " plan=" + plan;
@@ -164,11 +208,13 @@ final class DataNodeRequest extends TransportRequest implements IndicesRequest {
             && shardIds.equals(request.shardIds)
             && aliasFilters.equals(request.aliasFilters)
             && plan.equals(request.plan)
+            && partitions == request.partitions
+            && partitionKeys == request.partitionKeys
             && getParentTask().equals(request.getParentTask());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(sessionId, configuration, clusterAlias, shardIds, aliasFilters, plan);
+        return Objects.hash(sessionId, configuration, clusterAlias, shardIds, aliasFilters, plan, partitions, partitionKeys);
     }
 }
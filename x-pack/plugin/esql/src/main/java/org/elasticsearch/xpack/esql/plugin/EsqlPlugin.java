@@ -92,6 +92,16 @@ public class EsqlPlugin extends Plugin implements ActionPlugin {
         Setting.Property.Dynamic
     );
 
+    /**
+     * The size of the node level cache of the pages that data nodes compute for a batch of shards. Either a percentage of the heap or
+     * an absolute value. Defaults to {@code 0b}, which disables the cache.
+     */
+    public static final Setting<ByteSizeValue> QUERY_RESULT_CACHE_SIZE = Setting.memorySizeSetting(
+        "esql.query.result_cache.size",
+        ByteSizeValue.ZERO,
+        Setting.Property.NodeScope
+    );
+
     @Override
     public Collection<?> createComponents(PluginServices services) {
         CircuitBreaker circuitBreaker = services.indicesService().getBigArrays().breakerService().getBreaker("request");
@@ -135,7 +145,7 @@ public class EsqlPlugin extends Plugin implements ActionPlugin {
      */
     @Override
     public List<Setting<?>> getSettings() {
-        return List.of(QUERY_RESULT_TRUNCATION_DEFAULT_SIZE, QUERY_RESULT_TRUNCATION_MAX_SIZE);
+        return List.of(QUERY_RESULT_TRUNCATION_DEFAULT_SIZE, QUERY_RESULT_TRUNCATION_MAX_SIZE, QUERY_RESULT_CACHE_SIZE);
     }
 
     @Override
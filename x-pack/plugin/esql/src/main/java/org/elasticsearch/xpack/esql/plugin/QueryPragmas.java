@@ -59,6 +59,8 @@ public final class QueryPragmas implements Writeable {
 
     public static final Setting<Boolean> NODE_LEVEL_REDUCTION = Setting.boolSetting("node_level_reduction", false);
 
+    public static final Setting<Integer> FINAL_REDUCTION_PARTITIONS = Setting.intSetting("final_reduction_partitions", 1, 1, 64);
+
     public static final QueryPragmas EMPTY = new QueryPragmas(Settings.EMPTY);
 
     private final Settings settings;
@@ -136,6 +138,15 @@ public final class QueryPragmas implements Writeable {
         return NODE_LEVEL_REDUCTION.get(settings);
     }
 
+    /**
+     * The number of partitions the groups of a grouping aggregation are split into for its final reduction on the coordinator. Each
+     * data node routes its intermediate results to the partition of their groups, and each partition is reduced by its own driver.
+     * Defaults to 1, a single reduction, since we don't estimate the number of groups up front.
+     */
+    public int finalReductionPartitions() {
+        return FINAL_REDUCTION_PARTITIONS.get(settings);
+    }
+
     public boolean isEmpty() {
         return settings.isEmpty();
     }
@@ -362,7 +362,8 @@ public class CsvTests extends ESTestCase {
             randomNodeSettings(),
             configuration,
             exchangeSource,
-            exchangeSink,
+            exchangeSink::createExchangeSink,
+            null,
             Mockito.mock(EnrichLookupService.class),
             testOperationProviders(testDataset)
         );
@@ -41,6 +41,7 @@ import org.elasticsearch.xcontent.ObjectParser;
 import org.elasticsearch.xcontent.ParseField;
 import org.elasticsearch.xcontent.ParserConstructor;
 import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentParser;
 import org.elasticsearch.xcontent.XContentType;
 import org.elasticsearch.xcontent.json.JsonXContent;
@@ -441,6 +442,34 @@ public class EsqlQueryResponseTests extends AbstractChunkedSerializingTestCase<E
         }
     }
 
+    public void testRowsXContentReleasingPagesWhileRendering() throws IOException {
+        Page first = new Page(blockFactory.newIntArrayVector(new int[] { 40, 80 }, 2).asBlock());
+        Page second = new Page(blockFactory.newIntArrayVector(new int[] { 120 }, 1).asBlock());
+        try (
+            EsqlQueryResponse response = new EsqlQueryResponse(
+                List.of(new ColumnInfo("foo", "integer")),
+                List.of(first, second),
+                null,
+                false,
+                false
+            )
+        ) {
+            Iterator<? extends ToXContent> chunks = response.releasingPagesWhileRendering().toXContentChunked(ToXContent.EMPTY_PARAMS);
+            XContentBuilder builder = JsonXContent.contentBuilder();
+            boolean firstReleasedBeforeSecond = false;
+            while (chunks.hasNext()) {
+                chunks.next().toXContent(builder, ToXContent.EMPTY_PARAMS);
+                if (first.getBlock(0).isReleased() && second.getBlock(0).isReleased() == false) {
+                    firstReleasedBeforeSecond = true;
+                }
+            }
+            assertTrue(firstReleasedBeforeSecond);
+            assertTrue(second.getBlock(0).isReleased());
+            assertThat(Strings.toString(builder), equalTo("""
+                {"columns":[{"name":"foo","type":"integer"}],"values":[[40],[80],[120]]}"""));
+        }
+    }
+
     private EsqlQueryResponse simple(boolean columnar) {
         return simple(columnar, false);
     }
@@ -0,0 +1,218 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.formatter;
+
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.memory.unsafe.UnsafeAllocationManager;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.UInt8Vector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.DoubleBlock;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.transport.BytesRefRecycler;
+import org.elasticsearch.xpack.core.esql.action.ColumnInfo;
+import org.elasticsearch.xpack.esql.TestBlockFactory;
+import org.elasticsearch.xpack.esql.action.EsqlQueryResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ArrowResponseTests extends ESTestCase {
+    private static final BlockFactory blockFactory = TestBlockFactory.getNonBreakingInstance();
+
+    private static final List<ColumnInfo> COLUMNS = List.of(
+        new ColumnInfo("i", "integer"),
+        new ColumnInfo("l", "long"),
+        new ColumnInfo("ul", "unsigned_long"),
+        new ColumnInfo("d", "double"),
+        new ColumnInfo("date", "date"),
+        new ColumnInfo("k", "keyword"),
+        new ColumnInfo("b", "boolean"),
+        new ColumnInfo("n", "null")
+    );
+
+    public void testStream() throws IOException {
+        List<Page> pages = new ArrayList<>();
+        int pageCount = between(0, 3);
+        for (int p = 0; p < pageCount; p++) {
+            pages.add(randomPage(between(1, 100)));
+        }
+        boolean releasePages = randomBoolean();
+        List<Block> firstBlocks = pages.stream().<Block>map(page -> page.getBlock(0)).toList();
+        EsqlQueryResponse response = new EsqlQueryResponse(COLUMNS, pages, null, false, releasePages == false);
+        byte[] stream = encode(new ArrowResponse(response, releasePages));
+        for (Block block : firstBlocks) {
+            assertThat(block.isReleased(), equalTo(releasePages));
+        }
+
+        try (
+            RootAllocator allocator = new RootAllocator(
+                RootAllocator.configBuilder().allocationManagerFactory(UnsafeAllocationManager.FACTORY).build()
+            );
+            ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(stream), allocator)
+        ) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            List<Field> fields = root.getSchema().getFields();
+            assertThat(fields.size(), equalTo(COLUMNS.size()));
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                assertThat(fields.get(c).getName(), equalTo(COLUMNS.get(c).name()));
+                assertTrue(fields.get(c).isNullable());
+            }
+            assertThat(fields.get(0).getType(), equalTo(new ArrowType.Int(32, true)));
+            assertThat(fields.get(1).getType(), equalTo(new ArrowType.Int(64, true)));
+            assertThat(fields.get(2).getType(), equalTo(new ArrowType.Int(64, false)));
+            assertThat(fields.get(3).getType(), equalTo(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)));
+            assertThat(fields.get(4).getType(), equalTo(new ArrowType.Timestamp(TimeUnit.MILLISECOND, "UTC")));
+            assertThat(fields.get(5).getType(), equalTo(ArrowType.Utf8.INSTANCE));
+            assertThat(fields.get(6).getType(), equalTo(ArrowType.Bool.INSTANCE));
+            assertThat(fields.get(7).getType(), equalTo(ArrowType.Null.INSTANCE));
+
+            for (Page page : pages) {
+                assertTrue(reader.loadNextBatch());
+                int rows = page.getPositionCount();
+                assertThat(root.getRowCount(), equalTo(rows));
+                for (int c = 0; c < COLUMNS.size(); c++) {
+                    FieldVector vector = root.getVector(c);
+                    assertThat(vector.getValueCount(), equalTo(rows));
+                    if (releasePages) {
+                        continue;
+                    }
+                    Block block = page.getBlock(c);
+                    assertThat(vector.getNullCount(), equalTo(block.nullValuesCount()));
+                    for (int r = 0; r < rows; r++) {
+                        assertThat(vector.isNull(r), equalTo(block.isNull(r)));
+                        if (block.isNull(r)) {
+                            continue;
+                        }
+                        int v = block.getFirstValueIndex(r);
+                        switch (c) {
+                            case 0 -> assertThat(((IntVector) vector).get(r), equalTo(((IntBlock) block).getInt(v)));
+                            case 1 -> assertThat(((BigIntVector) vector).get(r), equalTo(((LongBlock) block).getLong(v)));
+                            case 2 -> assertThat(((UInt8Vector) vector).get(r), equalTo(((LongBlock) block).getLong(v) ^ Long.MIN_VALUE));
+                            case 3 -> assertThat(((Float8Vector) vector).get(r), equalTo(((DoubleBlock) block).getDouble(v)));
+                            case 4 -> assertThat(((TimeStampMilliTZVector) vector).get(r), equalTo(((LongBlock) block).getLong(v)));
+                            case 5 -> assertThat(
+                                new BytesRef(((VarCharVector) vector).get(r)),
+                                equalTo(((BytesRefBlock) block).getBytesRef(v, new BytesRef()))
+                            );
+                            case 6 -> assertThat(((BitVector) vector).get(r) == 1, equalTo(((BooleanBlock) block).getBoolean(v)));
+                            default -> throw new AssertionError("unexpected column " + c);
+                        }
+                    }
+                }
+            }
+            assertFalse(reader.loadNextBatch());
+            assertThat(reader.bytesRead(), equalTo((long) stream.length));
+        }
+        if (releasePages == false) {
+            pages.forEach(Page::releaseBlocks);
+        }
+    }
+
+    public void testUnsupportedType() {
+        Page page = new Page(blockFactory.newBytesRefBlockBuilder(1).appendBytesRef(new BytesRef("1.2.3.4")).build());
+        try {
+            EsqlQueryResponse response = new EsqlQueryResponse(List.of(new ColumnInfo("ip", "ip")), List.of(page), null, false, false);
+            IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new ArrowResponse(response, false));
+            assertThat(e.getMessage(), equalTo("format [arrow] doesn't support [ip] of type [ip]"));
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    public void testMultivalued() {
+        Page page;
+        try (IntBlock.Builder builder = blockFactory.newIntBlockBuilder(2)) {
+            builder.appendInt(1);
+            builder.beginPositionEntry().appendInt(2).appendInt(3).endPositionEntry();
+            page = new Page(builder.build());
+        }
+        try {
+            EsqlQueryResponse response = new EsqlQueryResponse(List.of(new ColumnInfo("i", "integer")), List.of(page), null, false, false);
+            IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new ArrowResponse(response, false));
+            assertThat(e.getMessage(), containsString("doesn't support multivalued fields"));
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    private static Page randomPage(int rows) {
+        try (
+            IntBlock.Builder ints = blockFactory.newIntBlockBuilder(rows);
+            LongBlock.Builder longs = blockFactory.newLongBlockBuilder(rows);
+            LongBlock.Builder unsignedLongs = blockFactory.newLongBlockBuilder(rows);
+            DoubleBlock.Builder doubles = blockFactory.newDoubleBlockBuilder(rows);
+            LongBlock.Builder dates = blockFactory.newLongBlockBuilder(rows);
+            BytesRefBlock.Builder keywords = blockFactory.newBytesRefBlockBuilder(rows);
+            BooleanBlock.Builder booleans = blockFactory.newBooleanBlockBuilder(rows)
+        ) {
+            boolean withNulls = randomBoolean();
+            for (int r = 0; r < rows; r++) {
+                if (withNulls && randomBoolean()) {
+                    ints.appendNull();
+                    keywords.appendNull();
+                } else {
+                    ints.appendInt(randomInt());
+                    keywords.appendBytesRef(new BytesRef(randomUnicodeOfLengthBetween(0, 20)));
+                }
+                longs.appendLong(randomLong());
+                unsignedLongs.appendLong(randomLong());
+                doubles.appendDouble(randomDouble());
+                dates.appendLong(randomNonNegativeLong());
+                booleans.appendBoolean(randomBoolean());
+            }
+            return new Page(
+                ints.build(),
+                longs.build(),
+                unsignedLongs.build(),
+                doubles.build(),
+                dates.build(),
+                keywords.build(),
+                booleans.build(),
+                blockFactory.newConstantNullBlock(rows)
+            );
+        }
+    }
+
+    private static byte[] encode(ArrowResponse response) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            while (response.isDone() == false) {
+                try (var chunk = response.encodeChunk(between(1, 1024), BytesRefRecycler.NON_RECYCLING_INSTANCE)) {
+                    chunk.writeTo(out);
+                }
+            }
+            return BytesReference.toBytes(out.bytes());
+        }
+    }
+}
@@ -19,20 +19,28 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.compute.lucene.LuceneSourceOperator;
 import org.elasticsearch.compute.lucene.LuceneTopNSourceOperator;
 import org.elasticsearch.compute.operator.SourceOperator;
+import org.elasticsearch.compute.operator.exchange.ExchangeSinkHandler;
+import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
+import org.elasticsearch.compute.operator.exchange.PartitionedExchangeSinkOperator;
 import org.elasticsearch.core.IOUtils;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.cache.query.TrivialQueryCachingPolicy;
 import org.elasticsearch.index.mapper.MapperServiceTestCase;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.xpack.esql.EsqlIllegalArgumentException;
 import org.elasticsearch.xpack.esql.TestBlockFactory;
 import org.elasticsearch.xpack.esql.plan.physical.EsQueryExec;
+import org.elasticsearch.xpack.esql.plan.physical.ExchangeSinkExec;
+import org.elasticsearch.xpack.esql.plan.physical.ExchangeSourceExec;
 import org.elasticsearch.xpack.esql.plugin.EsqlPlugin;
 import org.elasticsearch.xpack.esql.plugin.QueryPragmas;
 import org.elasticsearch.xpack.esql.session.EsqlConfiguration;
+import org.elasticsearch.xpack.ql.expression.Attribute;
 import org.elasticsearch.xpack.ql.expression.FieldAttribute;
 import org.elasticsearch.xpack.ql.expression.Literal;
 import org.elasticsearch.xpack.ql.expression.Order;
@@ -105,6 +113,35 @@ public class LocalExecutionPlannerTests extends MapperServiceTestCase {
         assertThat(factory.limit(), equalTo(10));
     }
 
+    public void testPartitionedExchangeSink() throws IOException {
+        FieldAttribute group = new FieldAttribute(Source.EMPTY, "group", new EsField("group", DataTypes.INTEGER, Map.of(), true));
+        FieldAttribute count = new FieldAttribute(Source.EMPTY, "count", new EsField("count", DataTypes.LONG, Map.of(), true));
+        List<Attribute> output = List.of(group, count);
+        var exchangeSource = new ExchangeSourceHandler(between(1, 10), EsExecutors.DIRECT_EXECUTOR_SERVICE);
+        int partitions = between(2, 5);
+        List<ExchangeSinkHandler> sinks = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            sinks.add(new ExchangeSinkHandler(TestBlockFactory.getNonBreakingInstance(), between(1, 10), System::currentTimeMillis));
+        }
+        LocalExecutionPlanner.LocalExecutionPlan plan = planner(
+            exchangeSource,
+            new LocalExecutionPlanner.PartitionedExchangeSinks(sinks, 1)
+        ).plan(new ExchangeSinkExec(Source.EMPTY, output, true, new ExchangeSourceExec(Source.EMPTY, output, true)));
+        LocalExecutionPlanner.DriverSupplier supplier = plan.driverFactories.get(0).driverSupplier();
+        var factory = (PartitionedExchangeSinkOperator.Factory) supplier.physicalOperation().sinkOperatorFactory;
+        assertThat(factory.partitions(), equalTo(partitions));
+        assertThat(factory.keyChannels(), equalTo(List.of(0)));
+
+        // only the intermediate results of aggregations have their keys up front
+        Exception e = expectThrows(
+            EsqlIllegalArgumentException.class,
+            () -> planner(exchangeSource, new LocalExecutionPlanner.PartitionedExchangeSinks(sinks, 1)).plan(
+                new ExchangeSinkExec(Source.EMPTY, output, false, new ExchangeSourceExec(Source.EMPTY, output, false))
+            )
+        );
+        assertThat(e.getMessage(), equalTo("only the intermediate results of aggregations can be partitioned"));
+    }
+
     private int randomEstimatedRowSize(boolean huge) {
         int hugeBoundary = SourceOperator.MIN_TARGET_PAGE_SIZE * 10;
         return huge ? between(hugeBoundary, Integer.MAX_VALUE) : between(1, hugeBoundary);
@@ -118,6 +155,13 @@ public class LocalExecutionPlannerTests extends MapperServiceTestCase {
     }
 
     private LocalExecutionPlanner planner() throws IOException {
+        return planner(null, null);
+    }
+
+    private LocalExecutionPlanner planner(
+        ExchangeSourceHandler exchangeSource,
+        LocalExecutionPlanner.PartitionedExchangeSinks partitionedExchangeSinks
+    ) throws IOException {
         return new LocalExecutionPlanner(
             "test",
             "",
@@ -126,8 +170,9 @@ public class LocalExecutionPlannerTests extends MapperServiceTestCase {
             TestBlockFactory.getNonBreakingInstance(),
             Settings.EMPTY,
             config(),
+            exchangeSource,
             null,
-            null,
+            partitionedExchangeSinks,
             null,
             esPhysicalOperationProviders()
         );
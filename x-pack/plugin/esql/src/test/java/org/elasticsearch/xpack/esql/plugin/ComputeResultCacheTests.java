@@ -0,0 +1,238 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.plugin;
+
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.exchange.ExchangeSink;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.esql.TestBlockFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ComputeResultCacheTests extends ESTestCase {
+    private final BlockFactory blockFactory = TestBlockFactory.getNonBreakingInstance();
+
+    public void testDisabledByDefault() {
+        ComputeResultCache cache = new ComputeResultCache(EsqlPlugin.QUERY_RESULT_CACHE_SIZE.getDefault(Settings.EMPTY));
+        assertFalse(cache.enabled());
+    }
+
+    public void testRecordAndGet() throws IOException {
+        ComputeResultCache cache = new ComputeResultCache(ByteSizeValue.ofMb(1));
+        ComputeResultCache.Key key = key(cache, new Object());
+        assertThat(cache.get(key, blockFactory), nullValue());
+
+        ComputeResultCache.Recorder recorder = recorder(cache, key);
+        List<ExchangeSink> sinks = new ArrayList<>();
+        List<CollectingSink> delegates = new ArrayList<>();
+        int drivers = between(1, 3);
+        for (int d = 0; d < drivers; d++) {
+            CollectingSink delegate = new CollectingSink();
+            delegates.add(delegate);
+            sinks.add(recorder.wrap(delegate));
+        }
+        long expectedSum = 0;
+        int pages = between(1, 10);
+        for (int p = 0; p < pages; p++) {
+            long value = randomLong();
+            expectedSum += value;
+            randomFrom(sinks).addPage(new Page(blockFactory.newConstantLongBlockWith(value, 1)));
+        }
+        sinks.forEach(ExchangeSink::finish);
+        assertThat(cache.get(key, blockFactory), nullValue());
+        recorder.complete();
+
+        List<Page> cached = cache.get(key, blockFactory);
+        assertThat(cached, hasSize(pages));
+        long sum = 0;
+        for (Page page : cached) {
+            sum += page.<LongBlock>getBlock(0).getLong(0);
+            page.releaseBlocks();
+        }
+        assertThat(sum, equalTo(expectedSum));
+        delegates.forEach(CollectingSink::releasePages);
+
+        // the same plan on another reader is a different batch
+        assertThat(cache.get(key(cache, new Object()), blockFactory), nullValue());
+    }
+
+    public void testDiscardWhenConsumerHasEnoughData() throws IOException {
+        ComputeResultCache cache = new ComputeResultCache(ByteSizeValue.ofMb(1));
+        ComputeResultCache.Key key = key(cache, new Object());
+        ComputeResultCache.Recorder recorder = recorder(cache, key);
+        CollectingSink delegate = new CollectingSink();
+        ExchangeSink sink = recorder.wrap(delegate);
+        sink.addPage(new Page(blockFactory.newConstantLongBlockWith(1, 1)));
+        // the coordinator finished the exchange before the driver produced all of its pages
+        delegate.finished = true;
+        sink.finish();
+        recorder.complete();
+        assertThat(cache.get(key, blockFactory), nullValue());
+        delegate.releasePages();
+    }
+
+    public void testDiscardTooLarge() throws IOException {
+        ComputeResultCache cache = new ComputeResultCache(ByteSizeValue.ofKb(10));
+        ComputeResultCache.Key key = key(cache, new Object());
+        ComputeResultCache.Recorder recorder = recorder(cache, key);
+        CollectingSink delegate = new CollectingSink();
+        ExchangeSink sink = recorder.wrap(delegate);
+        try (LongBlock.Builder builder = blockFactory.newLongBlockBuilder(1000)) {
+            for (int i = 0; i < 1000; i++) {
+                builder.appendLong(randomLong());
+            }
+            sink.addPage(new Page(builder.build()));
+        }
+        sink.finish();
+        recorder.complete();
+        assertThat(cache.get(key, blockFactory), nullValue());
+        delegate.releasePages();
+    }
+
+    public void testInvalidateOnReaderClose() throws IOException {
+        ComputeResultCache cache = new ComputeResultCache(ByteSizeValue.ofMb(1));
+        Object closedReader = new Object();
+        Object openReader = new Object();
+        ComputeResultCache.Key closed = key(cache, closedReader, openReader);
+        ComputeResultCache.Key open = key(cache, openReader);
+        for (ComputeResultCache.Key key : List.of(closed, open)) {
+            ComputeResultCache.Recorder recorder = recorder(cache, key);
+            CollectingSink delegate = new CollectingSink();
+            ExchangeSink sink = recorder.wrap(delegate);
+            sink.addPage(new Page(blockFactory.newConstantLongBlockWith(1, 1)));
+            sink.finish();
+            recorder.complete();
+            delegate.releasePages();
+        }
+        assertThat(cache.count(), equalTo(2));
+        cache.onReaderClosed(closedReader);
+        assertThat(cache.count(), equalTo(1));
+        assertThat(cache.get(closed, blockFactory), nullValue());
+        List<Page> pages = cache.get(open, blockFactory);
+        assertThat(pages, hasSize(1));
+        pages.forEach(Page::releaseBlocks);
+    }
+
+    public void testReaderClosedWhileRecording() throws IOException {
+        ComputeResultCache cache = new ComputeResultCache(ByteSizeValue.ofMb(1));
+        Object reader = new Object();
+        ComputeResultCache.Key key = key(cache, reader);
+        ComputeResultCache.Recorder recorder = recorder(cache, key);
+        CollectingSink delegate = new CollectingSink();
+        ExchangeSink sink = recorder.wrap(delegate);
+        sink.addPage(new Page(blockFactory.newConstantLongBlockWith(1, 1)));
+        // a refresh closed the reader before the batch completed
+        cache.onReaderClosed(reader);
+        sink.finish();
+        recorder.complete();
+        recorder.close();
+        assertThat(cache.count(), equalTo(0));
+        assertThat(cache.get(key, blockFactory), nullValue());
+        delegate.releasePages();
+    }
+
+    public void testAccountRecordedPages() throws IOException {
+        ComputeResultCache cache = new ComputeResultCache(ByteSizeValue.ofMb(1));
+        var bigArrays = new MockBigArrays(PageCacheRecycler.NON_RECYCLING_INSTANCE, ByteSizeValue.ofMb(1)).withCircuitBreaking();
+        CircuitBreaker breaker = bigArrays.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        ComputeResultCache.Key key = key(cache, new Object());
+        ComputeResultCache.Recorder recorder = cache.recorder(key, List.of(), breaker);
+        CollectingSink delegate = new CollectingSink();
+        ExchangeSink sink = recorder.wrap(delegate);
+        sink.addPage(new Page(blockFactory.newConstantLongBlockWith(1, 1)));
+        assertThat(breaker.getUsed(), greaterThan(0L));
+        sink.finish();
+        boolean succeeded = randomBoolean();
+        if (succeeded) {
+            recorder.complete();
+        }
+        recorder.close();
+        // the cache accounts for the entry once the batch completed
+        assertThat(breaker.getUsed(), equalTo(0L));
+        assertThat(cache.count(), equalTo(succeeded ? 1 : 0));
+        delegate.releasePages();
+    }
+
+    public void testDiscardWhenBreakerTrips() throws IOException {
+        ComputeResultCache cache = new ComputeResultCache(ByteSizeValue.ofMb(1));
+        var bigArrays = new MockBigArrays(PageCacheRecycler.NON_RECYCLING_INSTANCE, ByteSizeValue.ofBytes(1)).withCircuitBreaking();
+        CircuitBreaker breaker = bigArrays.breakerService().getBreaker(CircuitBreaker.REQUEST);
+        ComputeResultCache.Key key = key(cache, new Object());
+        ComputeResultCache.Recorder recorder = cache.recorder(key, List.of(), breaker);
+        CollectingSink delegate = new CollectingSink();
+        ExchangeSink sink = recorder.wrap(delegate);
+        // the driver isn't failed, the batch just isn't cached
+        sink.addPage(new Page(blockFactory.newConstantLongBlockWith(1, 1)));
+        sink.finish();
+        recorder.complete();
+        recorder.close();
+        assertThat(breaker.getUsed(), equalTo(0L));
+        assertThat(cache.get(key, blockFactory), nullValue());
+        delegate.releasePages();
+    }
+
+    private static ComputeResultCache.Recorder recorder(ComputeResultCache cache, ComputeResultCache.Key key) {
+        return cache.recorder(key, List.of(), new NoopCircuitBreaker(CircuitBreaker.REQUEST));
+    }
+
+    private static ComputeResultCache.Key key(ComputeResultCache cache, Object... readers) {
+        List<ComputeResultCache.ShardKey> shards = new ArrayList<>();
+        for (int s = 0; s < readers.length; s++) {
+            cache.registerReader(readers[s]);
+            shards.add(new ComputeResultCache.ShardKey(new ShardId("test", "_na_", s), readers[s], "mapping", new BytesArray("request")));
+        }
+        return new ComputeResultCache.Key(new BytesArray("plan"), shards);
+    }
+
+    private static class CollectingSink implements ExchangeSink {
+        private final List<Page> pages = new ArrayList<>();
+        private boolean finished;
+
+        @Override
+        public void addPage(Page page) {
+            pages.add(page);
+        }
+
+        @Override
+        public void finish() {
+            finished = true;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public SubscribableListener<Void> waitForWriting() {
+            return SubscribableListener.newSucceeded(null);
+        }
+
+        void releasePages() {
+            pages.forEach(Page::releaseBlocks);
+        }
+    }
+}
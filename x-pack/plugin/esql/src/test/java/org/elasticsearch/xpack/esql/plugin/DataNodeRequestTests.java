@@ -86,7 +86,9 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
             randomAlphaOfLength(10),
             shardIds,
             aliasFilters,
-            physicalPlan
+            physicalPlan,
+            between(1, 8),
+            between(0, 3)
         );
         request.setParentTask(randomAlphaOfLength(10), randomNonNegativeLong());
         return request;
@@ -94,7 +96,7 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
 
     @Override
     protected DataNodeRequest mutateInstance(DataNodeRequest in) throws IOException {
-        return switch (between(0, 6)) {
+        return switch (between(0, 7)) {
             case 0 -> {
                 var request = new DataNodeRequest(
                     randomAlphaOfLength(20),
@@ -102,7 +104,9 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
                     in.clusterAlias(),
                     in.shardIds(),
                     in.aliasFilters(),
-                    in.plan()
+                    in.plan(),
+                    in.partitions(),
+                    in.partitionKeys()
                 );
                 request.setParentTask(in.getParentTask());
                 yield request;
@@ -114,7 +118,9 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
                     in.clusterAlias(),
                     in.shardIds(),
                     in.aliasFilters(),
-                    in.plan()
+                    in.plan(),
+                    in.partitions(),
+                    in.partitionKeys()
                 );
                 request.setParentTask(in.getParentTask());
                 yield request;
@@ -127,7 +133,9 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
                     in.clusterAlias(),
                     shardIds,
                     in.aliasFilters(),
-                    in.plan()
+                    in.plan(),
+                    in.partitions(),
+                    in.partitionKeys()
                 );
                 request.setParentTask(in.getParentTask());
                 yield request;
@@ -152,7 +160,9 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
                     in.clusterAlias(),
                     in.shardIds(),
                     in.aliasFilters(),
-                    mapAndMaybeOptimize(parse(newQuery))
+                    mapAndMaybeOptimize(parse(newQuery)),
+                    in.partitions(),
+                    in.partitionKeys()
                 );
                 request.setParentTask(in.getParentTask());
                 yield request;
@@ -170,7 +180,9 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
                     in.clusterAlias(),
                     in.shardIds(),
                     aliasFilters,
-                    in.plan()
+                    in.plan(),
+                    in.partitions(),
+                    in.partitionKeys()
                 );
                 request.setParentTask(request.getParentTask());
                 yield request;
@@ -182,7 +194,9 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
                     in.clusterAlias(),
                     in.shardIds(),
                     in.aliasFilters(),
-                    in.plan()
+                    in.plan(),
+                    in.partitions(),
+                    in.partitionKeys()
                 );
                 request.setParentTask(
                     randomValueOtherThan(request.getParentTask().getNodeId(), () -> randomAlphaOfLength(10)),
@@ -198,11 +212,34 @@ public class DataNodeRequestTests extends AbstractWireSerializingTestCase<DataNo
                     clusterAlias,
                     in.shardIds(),
                     in.aliasFilters(),
-                    in.plan()
+                    in.plan(),
+                    in.partitions(),
+                    in.partitionKeys()
                 );
                 request.setParentTask(request.getParentTask());
                 yield request;
             }
+            case 7 -> {
+                int partitions = in.partitions();
+                int partitionKeys = in.partitionKeys();
+                if (randomBoolean()) {
+                    partitions = randomValueOtherThan(partitions, () -> between(1, 8));
+                } else {
+                    partitionKeys = randomValueOtherThan(partitionKeys, () -> between(0, 3));
+                }
+                var request = new DataNodeRequest(
+                    in.sessionId(),
+                    in.configuration(),
+                    in.clusterAlias(),
+                    in.shardIds(),
+                    in.aliasFilters(),
+                    in.plan(),
+                    partitions,
+                    partitionKeys
+                );
+                request.setParentTask(in.getParentTask());
+                yield request;
+            }
             default -> throw new AssertionError("invalid value");
         };
     }